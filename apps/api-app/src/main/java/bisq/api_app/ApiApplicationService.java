@@ -36,6 +36,7 @@ import bisq.identity.IdentityService;
 import bisq.java_se.application.JavaSeApplicationService;
 import bisq.network.NetworkService;
 import bisq.network.NetworkServiceConfig;
+import bisq.network.metrics.OpenMetricsService;
 import bisq.notifications.mobile.MobileNotificationService;
 import bisq.offer.OfferService;
 import bisq.os_specific.notifications.linux.LinuxNotificationService;
@@ -75,6 +76,7 @@ public class ApiApplicationService extends JavaSeApplicationService {
     private final SecurityService securityService;
     private final Optional<WalletService> walletService;
     private final NetworkService networkService;
+    private final OpenMetricsService openMetricsService;
     private final IdentityService identityService;
     private final BondedRolesService bondedRolesService;
     private final AccountService accountService;
@@ -109,6 +111,10 @@ public class ApiApplicationService extends JavaSeApplicationService {
                 securityService.getEquihashProofOfWorkService(),
                 memoryReportService);
 
+        openMetricsService = new OpenMetricsService(OpenMetricsService.Config.from(getConfig("metrics")),
+                networkService,
+                persistenceService);
+
         identityService = new IdentityService(persistenceService,
                 securityService.getKeyBundleService(),
                 networkService);
@@ -199,6 +205,7 @@ public class ApiApplicationService extends JavaSeApplicationService {
                     setState(State.INITIALIZE_NETWORK);
                     return networkService.initialize();
                 })
+                .thenCompose(result -> openMetricsService.initialize())
                 .thenCompose(result -> walletService
                         .map(walletService -> {
                             setState(State.INITIALIZE_WALLET);
@@ -274,6 +281,7 @@ public class ApiApplicationService extends JavaSeApplicationService {
                 .thenCompose(result -> contractService.shutdown())
                 .thenCompose(result -> bondedRolesService.shutdown())
                 .thenCompose(result -> identityService.shutdown())
+                .thenCompose(result -> openMetricsService.shutdown())
                 .thenCompose(result -> networkService.shutdown())
                 .thenCompose(result -> walletService.map(Service::shutdown)
                         .orElse(CompletableFuture.completedFuture(true)))
@@ -24,6 +24,7 @@ import bisq.identity.IdentityService;
 import bisq.java_se.application.JavaSeApplicationService;
 import bisq.network.NetworkService;
 import bisq.network.NetworkServiceConfig;
+import bisq.network.metrics.OpenMetricsService;
 import bisq.security.SecurityService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +45,7 @@ public class OracleNodeApplicationService extends JavaSeApplicationService {
     private final NetworkService networkService;
     private final OracleNodeService oracleNodeService;
     private final BondedRolesService bondedRolesService;
+    private final OpenMetricsService openMetricsService;
     @Nullable
     private Pin difficultyAdjustmentServicePin;
 
@@ -61,6 +63,10 @@ public class OracleNodeApplicationService extends JavaSeApplicationService {
                 securityService.getEquihashProofOfWorkService(),
                 memoryReportService);
 
+        openMetricsService = new OpenMetricsService(OpenMetricsService.Config.from(getConfig("metrics")),
+                networkService,
+                persistenceService);
+
         identityService = new IdentityService(persistenceService,
                 securityService.getKeyBundleService(),
                 networkService
@@ -92,6 +98,7 @@ public class OracleNodeApplicationService extends JavaSeApplicationService {
         return supplyAsync(() -> memoryReportService.initialize()
                 .thenCompose(result -> securityService.initialize())
                 .thenCompose(result -> networkService.initialize())
+                .thenCompose(result -> openMetricsService.initialize())
                 .thenCompose(result -> identityService.initialize())
                 .thenCompose(result -> bondedRolesService.initialize())
                 .thenCompose(result -> oracleNodeService.initialize())
@@ -123,6 +130,7 @@ public class OracleNodeApplicationService extends JavaSeApplicationService {
         return supplyAsync(() -> oracleNodeService.shutdown()
                 .thenCompose(result -> bondedRolesService.shutdown())
                 .thenCompose(result -> identityService.shutdown())
+                .thenCompose(result -> openMetricsService.shutdown())
                 .thenCompose(result -> networkService.shutdown())
                 .thenCompose(result -> securityService.shutdown())
                 .thenCompose(result -> memoryReportService.shutdown())
@@ -23,6 +23,7 @@ import bisq.identity.IdentityService;
 import bisq.java_se.application.JavaSeApplicationService;
 import bisq.network.NetworkService;
 import bisq.network.NetworkServiceConfig;
+import bisq.network.metrics.OpenMetricsService;
 import bisq.security.SecurityService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +52,7 @@ public class SeedNodeApplicationService extends JavaSeApplicationService {
     protected final SecurityService securityService;
     private final SeedNodeService seedNodeService;
     private final BondedRolesService bondedRolesService;
+    private final OpenMetricsService openMetricsService;
     @Nullable
     private Pin difficultyAdjustmentServicePin;
 
@@ -68,6 +70,10 @@ public class SeedNodeApplicationService extends JavaSeApplicationService {
                 securityService.getEquihashProofOfWorkService(),
                 memoryReportService);
 
+        openMetricsService = new OpenMetricsService(OpenMetricsService.Config.from(getConfig("metrics")),
+                networkService,
+                persistenceService);
+
         identityService = new IdentityService(persistenceService,
                 securityService.getKeyBundleService(),
                 networkService);
@@ -86,6 +92,7 @@ public class SeedNodeApplicationService extends JavaSeApplicationService {
         return supplyAsync(() -> memoryReportService.initialize()
                 .thenCompose(result -> securityService.initialize())
                 .thenCompose(result -> networkService.initialize())
+                .thenCompose(result -> openMetricsService.initialize())
                 .thenCompose(result -> identityService.initialize())
                 .thenCompose(result -> bondedRolesService.initialize())
                 .thenCompose(result -> seedNodeService.initialize())
@@ -117,6 +124,7 @@ public class SeedNodeApplicationService extends JavaSeApplicationService {
         return supplyAsync(() -> seedNodeService.shutdown()
                 .thenCompose(result -> bondedRolesService.shutdown())
                 .thenCompose(result -> identityService.shutdown())
+                .thenCompose(result -> openMetricsService.shutdown())
                 .thenCompose(result -> networkService.shutdown())
                 .thenCompose(result -> securityService.shutdown())
                 .thenCompose(result -> memoryReportService.shutdown())
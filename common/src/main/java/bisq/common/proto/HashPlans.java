@@ -0,0 +1,92 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import bisq.common.annotation.ExcludeForHash;
+import com.google.protobuf.Descriptors;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the protobuf fields which have to be cleared for serializeForHash once per Proto class, version and
+ * protobuf message type. The ExcludeForHash annotations are read by reflection only at the first lookup for a class,
+ * later lookups are a map access.
+ */
+final class HashPlans {
+    private record ExcludedField(String name, int[] excludeOnlyInVersions) {
+        private boolean isExcludedInVersion(int version) {
+            return excludeOnlyInVersions.length == 0 ||
+                    Arrays.stream(excludeOnlyInVersions).anyMatch(excludedVersion -> excludedVersion == version);
+        }
+    }
+
+    private record PlanKey(int version, Descriptors.Descriptor descriptor) {
+    }
+
+    private static final ClassValue<List<ExcludedField>> EXCLUDED_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<ExcludedField> computeValue(Class<?> type) {
+            return Arrays.stream(Proto.getAllDeclaredFields(type))
+                    .filter(field -> field.isAnnotationPresent(ExcludeForHash.class))
+                    .map(HashPlans::toExcludedField)
+                    .toList();
+        }
+    };
+
+    private static final ClassValue<Map<PlanKey, List<Descriptors.FieldDescriptor>>> PLANS = new ClassValue<>() {
+        @Override
+        protected Map<PlanKey, List<Descriptors.FieldDescriptor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private HashPlans() {
+    }
+
+    /**
+     * @return The descriptors of the fields of the given message type to be cleared for the hash. Empty if the class
+     * has no ExcludeForHash annotated fields.
+     */
+    static List<Descriptors.FieldDescriptor> getFieldsToClear(Class<?> protoClass,
+                                                             int version,
+                                                             Descriptors.Descriptor descriptor) {
+        List<ExcludedField> excludedFields = EXCLUDED_FIELDS.get(protoClass);
+        if (excludedFields.isEmpty()) {
+            return List.of();
+        }
+        return PLANS.get(protoClass).computeIfAbsent(new PlanKey(version, descriptor),
+                planKey -> createPlan(excludedFields, planKey));
+    }
+
+    private static List<Descriptors.FieldDescriptor> createPlan(List<ExcludedField> excludedFields, PlanKey planKey) {
+        return excludedFields.stream()
+                .filter(excludedField -> excludedField.isExcludedInVersion(planKey.version()))
+                .map(excludedField -> planKey.descriptor().findFieldByName(excludedField.name()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static ExcludedField toExcludedField(Field field) {
+        return new ExcludedField(field.getName(), field.getAnnotation(ExcludeForHash.class).excludeOnlyInVersions());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+/**
+ * Opt-in for immutable Proto implementations which get serialized repeatedly, e.g. storage data which gets hashed,
+ * signature checked, sized for the inventory and sent to many peers.
+ * The built proto, the serialized bytes, the bytes used for hashing and the serialized size are created at first use
+ * and cached in the ProtoMemo held by the implementation. Except the size they are held softly (see ProtoMemo).
+ * <p>
+ * Implementations must be deeply immutable, as later changes would not be reflected in the cached data. The ProtoMemo
+ * does not take part in equals and hashCode, so it can be added as a transient field without further changes.
+ * The cached byte arrays are shared and must not be modified by the caller.
+ */
+public interface MemoizedProto extends Proto {
+    ProtoMemo getProtoMemo();
+
+    @Override
+    default byte[] serialize() {
+        return getProtoMemo().getSerialized(false, () -> toProto(false).toByteArray());
+    }
+
+    @Override
+    default byte[] serializeForHash() {
+        return getProtoMemo().getSerialized(true, () -> toProto(true).toByteArray());
+    }
+
+    @Override
+    default int getSerializedSize() {
+        return getProtoMemo().getSerializedSize(() -> toProto(false).getSerializedSize());
+    }
+}
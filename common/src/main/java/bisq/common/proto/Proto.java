@@ -17,7 +17,6 @@
 
 package bisq.common.proto;
 
-import bisq.common.annotation.ExcludeForHash;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Message;
 import org.slf4j.Logger;
@@ -27,11 +26,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Interface for any object which gets serialized using protobuf.
@@ -100,37 +96,30 @@ public interface Proto {
     /* --------------------------------------------------------------------- */
 
     private Message resolveProto(boolean serializeForHash) {
-        return resolveBuilder(getBuilder(serializeForHash), serializeForHash).build();
+        if (this instanceof MemoizedProto memoizedProto) {
+            return memoizedProto.getProtoMemo().getProto(serializeForHash, () -> buildProto(serializeForHash));
+        }
+        return buildProto(serializeForHash);
     }
 
-    private Set<String> getExcludedFields() {
-        return Arrays.stream(getAllDeclaredFields(getClass()))
-                .peek(field -> field.setAccessible(true))
-                .filter(field -> field.isAnnotationPresent(ExcludeForHash.class))
-                .filter(field -> {
-                    int[] excludeOnlyInVersions = field.getAnnotation(ExcludeForHash.class).excludeOnlyInVersions();
-                    return excludeOnlyInVersions.length == 0 ||
-                            Arrays.stream(excludeOnlyInVersions).boxed().anyMatch(version -> version == getVersion());
-                })
-                .map(Field::getName)
-                .collect(Collectors.toSet());
+    private Message buildProto(boolean serializeForHash) {
+        return resolveBuilder(getBuilder(serializeForHash), serializeForHash).build();
     }
 
     /**
      * Requires that the name of the java fields is the same as the name of the proto definition.
+     * The fields to clear are resolved once per class, version and message type by HashPlans.
      *
      * @param builder The builder we transform by clearing the ExcludeForHash annotated fields.
      * @return Builder with the fields annotated with ExcludeForHash cleared.
      */
     private <B extends Message.Builder> B clearAnnotatedFields(B builder) {
-        Set<String> excludedFields = getExcludedFields();
-        /*if (!excludedFields.isEmpty()) {
-            getLogger().debug("Clear fields in builder annotated with @ExcludeForHash: {}", excludedFields);
-        }*/
-        for (Descriptors.FieldDescriptor fieldDesc : builder.getAllFields().keySet()) {
-            if (excludedFields.contains(fieldDesc.getName())) {
-                builder.clearField(fieldDesc);
-            }
+        List<Descriptors.FieldDescriptor> fieldsToClear = HashPlans.getFieldsToClear(getClass(),
+                getVersion(),
+                builder.getDescriptorForType());
+        for (Descriptors.FieldDescriptor fieldDescriptor : fieldsToClear) {
+            // Clearing a field which is not set is a no-op
+            builder.clearField(fieldDescriptor);
         }
         return builder;
     }
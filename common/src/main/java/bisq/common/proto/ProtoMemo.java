@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import com.google.protobuf.Message;
+
+import java.lang.ref.SoftReference;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache for the serialization results of a MemoizedProto.
+ * The values are deterministic, so if multiple threads race at first use the value is computed more than once but
+ * all threads see an equal result.
+ * <p>
+ * Memoized objects are usually held in the network data stores for their whole lifetime, thus the built protos and
+ * the serialized bytes are only softly referenced. The garbage collector clears them before the heap runs out, and
+ * they get rebuilt at the next use. Only the serialized size is kept, as it is small and requested most often.
+ */
+public final class ProtoMemo {
+    private static final int UNKNOWN_SIZE = -1;
+
+    private volatile SoftReference<Message> proto;
+    private volatile SoftReference<Message> protoForHash;
+    private volatile SoftReference<byte[]> serialized;
+    private volatile SoftReference<byte[]> serializedForHash;
+    private volatile int serializedSize = UNKNOWN_SIZE;
+
+    public Message getProto(boolean serializeForHash, Supplier<Message> supplier) {
+        if (serializeForHash) {
+            Message result = get(protoForHash);
+            if (result == null) {
+                result = supplier.get();
+                protoForHash = new SoftReference<>(result);
+            }
+            return result;
+        } else {
+            Message result = get(proto);
+            if (result == null) {
+                result = supplier.get();
+                proto = new SoftReference<>(result);
+            }
+            return result;
+        }
+    }
+
+    public byte[] getSerialized(boolean serializeForHash, Supplier<byte[]> supplier) {
+        if (serializeForHash) {
+            byte[] result = get(serializedForHash);
+            if (result == null) {
+                result = supplier.get();
+                serializedForHash = new SoftReference<>(result);
+            }
+            return result;
+        } else {
+            byte[] result = get(serialized);
+            if (result == null) {
+                result = supplier.get();
+                serialized = new SoftReference<>(result);
+            }
+            return result;
+        }
+    }
+
+    public int getSerializedSize(IntSupplier supplier) {
+        int result = serializedSize;
+        if (result == UNKNOWN_SIZE) {
+            result = supplier.getAsInt();
+            serializedSize = result;
+        }
+        return result;
+    }
+
+    private static <T> T get(SoftReference<T> reference) {
+        return reference != null ? reference.get() : null;
+    }
+
+    // The memo is derived state and must not affect equality of its owner
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ProtoMemo;
+    }
+
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ProtoMemo";
+    }
+}
@@ -26,6 +26,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
@@ -33,6 +34,7 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class ExecutorFactory {
@@ -46,6 +48,33 @@ public class ExecutorFactory {
         return ForkJoinPool.commonPool();
     }
 
+    /**
+     * A ForkJoinPool with daemon threads for CPU bound work which should not compete with the tasks in the common pool.
+     */
+    public static ForkJoinPool newForkJoinPool(String name, int parallelism) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(DEFAULT_PRIORITY);
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, threadFactory, null, false);
+    }
+
+    /* --------------------------------------------------------------------- */
+    // Virtual Thread Executors
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Starts a new virtual thread for each task. Suited for tasks which block on IO or sleep.
+     * Tasks must not block while holding a monitor (synchronized) as that pins the carrier thread.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
     /* --------------------------------------------------------------------- */
     // Single Thread Executors
     /* --------------------------------------------------------------------- */
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.threading;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the submitted tasks one after another in submission order on a shared delegate executor.
+ * Many SerialExecutors can share a small thread pool while each of them behaves like a single threaded executor.
+ * The number of queued tasks is bounded by the capacity. If the capacity is exceeded we throw a
+ * RejectedExecutionException, the same as a ThreadPoolExecutor with a bounded queue and the AbortPolicyWithLogging.
+ * To stay fair to other SerialExecutors sharing the delegate, we release the delegate thread after MAX_BATCH_SIZE tasks.
+ */
+@Slf4j
+public class SerialExecutor implements Executor {
+    private static final int MAX_BATCH_SIZE = 16;
+
+    private final Executor delegate;
+    @Getter
+    private final String name;
+    @Getter
+    private final int capacity;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private volatile boolean isShutdown;
+
+    public SerialExecutor(Executor delegate, String name, int capacity) {
+        this.delegate = delegate;
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (isShutdown) {
+            throw new RejectedExecutionException("Task rejected from " + name + " as it is shut down");
+        }
+        if (queueSize.incrementAndGet() > capacity) {
+            queueSize.decrementAndGet();
+            log.warn("Task rejected from {} with capacity {}. We throw a RejectedExecutionException", name, capacity);
+            throw new RejectedExecutionException("Task rejected from " + name + " as capacity " + capacity + " is reached");
+        }
+        tasks.add(task);
+        try {
+            schedule();
+        } catch (RejectedExecutionException e) {
+            if (tasks.remove(task)) {
+                queueSize.decrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    public void shutdown() {
+        isShutdown = true;
+        tasks.clear();
+        queueSize.set(0);
+    }
+
+    private void schedule() {
+        if (isScheduled.compareAndSet(false, true)) {
+            try {
+                delegate.execute(this::runTasks);
+            } catch (RejectedExecutionException e) {
+                isScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void runTasks() {
+        try {
+            int numExecuted = 0;
+            Runnable task;
+            while (!isShutdown && numExecuted < MAX_BATCH_SIZE && (task = tasks.poll()) != null) {
+                queueSize.decrementAndGet();
+                numExecuted++;
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    log.error("Task at {} failed", name, throwable);
+                }
+            }
+        } finally {
+            isScheduled.set(false);
+            if (!isShutdown && !tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    log.warn("Could not reschedule remaining tasks at {}. They will be executed with the next task.", name);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import bisq.common.threading.ExecutorFactory;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hashed timing wheel for a large number of timeouts which usually get cancelled before they expire, like request
+ * timeouts. Scheduling and cancelling are O(1) and only allocate the returned Timeout. All timeouts are served by a
+ * single daemon thread which is started with the first scheduled timeout. The precision is limited by the tick
+ * duration.
+ * <p>
+ * Expired tasks are executed on the wheel thread, so they must not block and should hand over expensive work to
+ * another executor.
+ */
+@Slf4j
+public class TimingWheel {
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Only accessed from the wheel thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous, next;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return True if the timeout was pending and will not expire anymore.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            timingWheel.numPendingTimeouts.decrementAndGet();
+            timingWheel.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            timingWheel.numPendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                log.error("Timeout task at {} failed", timingWheel.name, throwable);
+            }
+        }
+    }
+
+    // Doubly linked list of timeouts, only accessed from the wheel thread
+    private static final class Bucket {
+        private Timeout head, tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    // Max. number of new timeouts moved into the wheel per tick, so that a burst of new timeouts does not delay
+    // the expiry of the current bucket.
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong numPendingTimeouts = new AtomicLong();
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    // Schedulers racing with the first one must not read startTime before it is set
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    private volatile boolean isStopped;
+    private volatile long startTime;
+    private volatile Thread thread;
+    private long tick;
+
+    /**
+     * @param tickDuration  Duration of a tick. Timeouts expire at the first tick after their deadline.
+     * @param ticksPerWheel Number of buckets, gets rounded up to a power of 2. Should be chosen so that most
+     *                      timeouts are shorter than a full rotation.
+     */
+    public TimingWheel(String name, long tickDuration, TimeUnit timeUnit, int ticksPerWheel) {
+        checkArgument(tickDuration > 0, "tickDuration must be > 0");
+        checkArgument(ticksPerWheel > 0 && ticksPerWheel <= 1 << 20, "ticksPerWheel must be in range 1 - 2^20");
+        this.name = name;
+        this.tickDuration = timeUnit.toNanos(tickDuration);
+        int numBuckets = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        numBuckets = Math.max(1, numBuckets);
+        wheel = new Bucket[numBuckets];
+        for (int i = 0; i < numBuckets; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = numBuckets - 1;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        if (isStopped) {
+            throw new IllegalStateException(name + " is stopped");
+        }
+        start();
+        long deadline = System.nanoTime() + timeUnit.toNanos(Math.max(0, delay)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        numPendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public long getNumPendingTimeouts() {
+        return numPendingTimeouts.get();
+    }
+
+    /**
+     * Stops the wheel thread. Pending timeouts do not expire anymore.
+     */
+    public void stop() {
+        isStopped = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private void start() {
+        if (isStarted.compareAndSet(false, true)) {
+            startTime = System.nanoTime();
+            startTimeInitialized.countDown();
+            thread = ExecutorFactory.getThreadFactory(name).newThread(this::run);
+            thread.start();
+        } else {
+            Uninterruptibles.awaitUninterruptibly(startTimeInitialized);
+        }
+    }
+
+    private void run() {
+        while (!isStopped) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                break;
+            }
+            removeCancelledTimeouts();
+            transferNewTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    // Returns the elapsed time since start at the end of the current tick, or -1 if interrupted
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = deadline - currentTime;
+            if (sleepTime <= 0) {
+                return currentTime;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (isStopped) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferNewTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long expiryTick = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+            // Timeouts which are already due are put into the current bucket
+            long targetTick = Math.max(expiryTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            // If it is not yet in a bucket it gets skipped at transferNewTimeouts
+            Bucket bucket = timeout.bucket;
+            if (bucket != null) {
+                bucket.remove(timeout);
+            }
+        }
+    }
+}
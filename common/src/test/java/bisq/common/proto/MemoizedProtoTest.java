@@ -0,0 +1,57 @@
+package bisq.common.proto;
+
+import bisq.common.proto.mocks.ChildMock;
+import bisq.common.proto.mocks.MemoizedParentMockWithExcludedValue;
+import bisq.common.proto.mocks.ParentMockWithExcludedValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MemoizedProtoTest {
+
+    @Test
+    public void testMemoizedResultsMatchNonMemoized() {
+        ParentMockWithExcludedValue parent = new ParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+        MemoizedParentMockWithExcludedValue memoizedParent = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+
+        assertArrayEquals(parent.serialize(), memoizedParent.serialize());
+        assertArrayEquals(parent.serializeForHash(), memoizedParent.serializeForHash());
+        assertEquals(parent.getSerializedSize(), memoizedParent.getSerializedSize());
+        assertEquals(parent.toProto(true), memoizedParent.toProto(true));
+    }
+
+    @Test
+    public void testResultsAreCached() {
+        MemoizedParentMockWithExcludedValue memoizedParent = new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+
+        assertSame(memoizedParent.toProto(false), memoizedParent.toProto(false));
+        assertSame(memoizedParent.toProto(true), memoizedParent.toProto(true));
+        assertSame(memoizedParent.completeProto(), memoizedParent.toProto(false));
+        assertSame(memoizedParent.serialize(), memoizedParent.serialize());
+        assertSame(memoizedParent.serializeForHash(), memoizedParent.serializeForHash());
+
+        // The memo does not affect equality
+        memoizedParent.serialize();
+        assertEquals(memoizedParent, new MemoizedParentMockWithExcludedValue("parentValue", new ChildMock("childValue")));
+    }
+
+    @Test
+    public void testSerializedSizeIsComputedOnce() {
+        ProtoMemo protoMemo = new ProtoMemo();
+        AtomicInteger numCalls = new AtomicInteger();
+
+        assertEquals(42, protoMemo.getSerializedSize(() -> {
+            numCalls.incrementAndGet();
+            return 42;
+        }));
+        assertEquals(42, protoMemo.getSerializedSize(() -> {
+            numCalls.incrementAndGet();
+            return 0;
+        }));
+        assertEquals(1, numCalls.get());
+    }
+}
@@ -0,0 +1,36 @@
+package bisq.common.proto.mocks;
+
+import bisq.common.annotation.ExcludeForHash;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@EqualsAndHashCode
+@Getter
+public final class MemoizedParentMockWithExcludedValue implements Parent, MemoizedProto {
+    @ExcludeForHash
+    private final String parentValue;
+    private final Child child;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
+
+    public MemoizedParentMockWithExcludedValue(String parentValue, Child child) {
+        this.parentValue = parentValue;
+        this.child = child;
+    }
+
+    @Override
+    public bisq.common.test.protobuf.Parent toProto(boolean serializeForHash) {
+        return unsafeToProto(serializeForHash);
+    }
+
+    @Override
+    public bisq.common.test.protobuf.Parent.Builder getBuilder(boolean serializeForHash) {
+        return bisq.common.test.protobuf.Parent.newBuilder()
+                .setParentValue(parentValue)
+                .setChild(child.toProto(serializeForHash));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.threading;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerialExecutorTest {
+    @Test
+    public void tasksRunInSubmissionOrderWithoutOverlap() throws InterruptedException {
+        ExecutorService delegate = ExecutorFactory.newFixedThreadPool("SerialExecutorTest", 4);
+        SerialExecutor serialExecutor = new SerialExecutor(delegate, "SerialExecutorTest", 1000);
+        int numTasks = 500;
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        AtomicInteger numConcurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            int value = i;
+            serialExecutor.execute(() -> {
+                maxConcurrent.accumulateAndGet(numConcurrent.incrementAndGet(), Math::max);
+                executed.add(value);
+                numConcurrent.decrementAndGet();
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, numTasks).boxed().collect(Collectors.toList()), executed);
+        assertEquals(1, maxConcurrent.get());
+        ExecutorFactory.shutdownAndAwaitTermination(delegate);
+    }
+
+    @Test
+    public void rejectsWhenCapacityIsReached() throws InterruptedException {
+        ExecutorService delegate = ExecutorFactory.newFixedThreadPool("SerialExecutorTest", 1);
+        SerialExecutor serialExecutor = new SerialExecutor(delegate, "SerialExecutorTest", 2);
+        CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlockingTask = new CountDownLatch(1);
+        serialExecutor.execute(() -> {
+            blockingTaskStarted.countDown();
+            try {
+                releaseBlockingTask.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        assertTrue(blockingTaskStarted.await(10, TimeUnit.SECONDS));
+
+        serialExecutor.execute(() -> {
+        });
+        serialExecutor.execute(() -> {
+        });
+        assertEquals(2, serialExecutor.getQueueSize());
+        assertThrows(RejectedExecutionException.class, () -> serialExecutor.execute(() -> {
+        }));
+
+        releaseBlockingTask.countDown();
+        serialExecutor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> serialExecutor.execute(() -> {
+        }));
+        ExecutorFactory.shutdownAndAwaitTermination(delegate);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+    @Test
+    public void expiresAfterDelay() throws InterruptedException {
+        TimingWheel timingWheel = new TimingWheel("TimingWheelTest", 10, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch latch = new CountDownLatch(1);
+        long ts = System.nanoTime();
+        // Longer as a full rotation of the wheel (80 ms)
+        TimingWheel.Timeout timeout = timingWheel.schedule(latch::countDown, 200, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ts) >= 200);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, timingWheel.getNumPendingTimeouts());
+        timingWheel.stop();
+    }
+
+    @Test
+    public void cancelledTimeoutsDoNotExpire() throws InterruptedException {
+        TimingWheel timingWheel = new TimingWheel("TimingWheelTest", 10, TimeUnit.MILLISECONDS, 64);
+        int numTimeouts = 10_000;
+        AtomicInteger numExpired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numTimeouts / 2);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < numTimeouts; i++) {
+            timeouts.add(timingWheel.schedule(() -> {
+                numExpired.incrementAndGet();
+                latch.countDown();
+            }, 500 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        for (int i = 0; i < numTimeouts; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+            assertTrue(timeouts.get(i).isCancelled());
+        }
+        assertEquals(numTimeouts / 2, timingWheel.getNumPendingTimeouts());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(numTimeouts / 2, numExpired.get());
+        assertEquals(0, timingWheel.getNumPendingTimeouts());
+        timingWheel.stop();
+    }
+
+    @Test
+    public void concurrentFirstSchedulesExpire() throws InterruptedException {
+        TimingWheel timingWheel = new TimingWheel("TimingWheelTest", 10, TimeUnit.MILLISECONDS, 8);
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch expiredLatch = new CountDownLatch(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                    timingWheel.schedule(expiredLatch::countDown, 50, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignore) {
+                }
+            });
+        }
+        startLatch.countDown();
+        // A scheduler which did not see the start time would compute a deadline far in the future
+        assertTrue(expiredLatch.await(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+        timingWheel.stop();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.node;
+
+import bisq.common.application.ApplicationVersion;
+import bisq.common.network.Address;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.network.NetworkExecutors;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the THREAD_POOL, SELECTOR and VIRTUAL_THREAD connection IO modes with N loopback connections.
+ * Each outbound connection sends a few Ping messages to its inbound peer. After all messages got received we log the
+ * number of live platform threads, the used heap and the context switches of the process (only available on Linux).
+ */
+@Slf4j
+public class ConnectionIoModeBenchmark {
+    private static final int NUM_MESSAGES_PER_CONNECTION = 5;
+
+    @Test
+    void compareConnectionIoModes() throws Exception {
+        for (int numConnections : List.of(50, 200, 1000)) {
+            Result threadPoolResult = run(ConnectionIoMode.THREAD_POOL, numConnections);
+            Result selectorResult = run(ConnectionIoMode.SELECTOR, numConnections);
+            Result virtualThreadResult = run(ConnectionIoMode.VIRTUAL_THREAD, numConnections);
+            log.info("numConnections={}\nTHREAD_POOL:    {}\nSELECTOR:       {}\nVIRTUAL_THREAD: {}",
+                    numConnections, threadPoolResult, selectorResult, virtualThreadResult);
+            assertThat(selectorResult.numThreads).isLessThan(threadPoolResult.numThreads);
+            assertThat(virtualThreadResult.numThreads).isLessThan(threadPoolResult.numThreads);
+        }
+    }
+
+    private Result run(ConnectionIoMode connectionIoMode, int numConnections) throws Exception {
+        NetworkExecutors.initialize(8, connectionIoMode, 2, 16);
+        Connection.setExecutorMaxPoolSize(10);
+        List<Connection> connections = new ArrayList<>();
+        CountDownLatch receivedLatch = new CountDownLatch(numConnections * NUM_MESSAGES_PER_CONNECTION);
+        Connection.Handler handler = new Connection.Handler() {
+            @Override
+            public boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                               AuthorizationToken authorizationToken,
+                                               Connection connection) {
+                return true;
+            }
+
+            @Override
+            public void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+                receivedLatch.countDown();
+            }
+
+            @Override
+            public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
+            }
+        };
+
+        AuthorizationService authorizationService = createAuthorizationService();
+        Node.Config config = new Node.Config(TransportType.CLEAR, Set.of(TransportType.CLEAR), Set.of(), null, 0, 0, 0, numConnections);
+        long contextSwitchesBefore = readContextSwitches();
+        long ts = System.currentTimeMillis();
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
+            serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int port = serverSocketChannel.socket().getLocalPort();
+            Address serverAddress = LocalHostAddressTypeFacade.toLocalHostAddress(port);
+            for (int i = 0; i < numConnections; i++) {
+                SocketChannel clientChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+                SocketChannel serverSideChannel = serverSocketChannel.accept();
+                Address clientAddress = LocalHostAddressTypeFacade.toLocalHostAddress(clientChannel.socket().getLocalPort());
+                connections.add(new OutboundConnection(authorizationService,
+                        UUID.randomUUID().toString(),
+                        clientChannel.socket(),
+                        serverAddress,
+                        createCapability(serverAddress),
+                        new NetworkLoadSnapshot(),
+                        new ConnectionMetrics(),
+                        new ConnectionThrottle(new NetworkLoadSnapshot(), new NetworkLoadSnapshot(), config),
+                        false,
+                        handler,
+                        (connection, exception) -> log.error("Error at {}", connection, exception)));
+                connections.add(new InboundConnection(authorizationService,
+                        UUID.randomUUID().toString(),
+                        serverSideChannel.socket(),
+                        createCapability(clientAddress),
+                        new NetworkLoadSnapshot(),
+                        new ConnectionMetrics(),
+                        new ConnectionThrottle(new NetworkLoadSnapshot(), new NetworkLoadSnapshot(), config),
+                        false,
+                        handler,
+                        (connection, exception) -> log.error("Error at {}", connection, exception)));
+            }
+
+            for (int i = 0; i < NUM_MESSAGES_PER_CONNECTION; i++) {
+                int nonce = i;
+                connections.stream()
+                        .filter(Connection::isOutboundConnection)
+                        .forEach(connection -> connection.sendAsync(new Ping(nonce)));
+            }
+            assertThat(receivedLatch.await(2, TimeUnit.MINUTES)).isTrue();
+
+            Runtime runtime = Runtime.getRuntime();
+            Result result = new Result(ManagementFactory.getThreadMXBean().getThreadCount(),
+                    (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024,
+                    readContextSwitches() - contextSwitchesBefore,
+                    System.currentTimeMillis() - ts);
+
+            connections.forEach(connection -> connection.shutdown(CloseReason.SHUTDOWN));
+            return result;
+        } finally {
+            NetworkExecutors.shutdown();
+        }
+    }
+
+    private static AuthorizationService createAuthorizationService() {
+        //noinspection deprecation
+        return new AuthorizationService(new AuthorizationService.Config(List.of(AuthorizationTokenType.HASH_CASH)),
+                new HashCashProofOfWorkService(),
+                new EquihashProofOfWorkService(),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH));
+    }
+
+    private static Capability createCapability(Address address) {
+        return new Capability(Capability.VERSION, address, new ArrayList<>(List.of(TransportType.CLEAR)), new ArrayList<>(), ApplicationVersion.getVersion().getVersionAsString());
+    }
+
+    // Sum of voluntary and nonvoluntary context switches of all live threads of the process, -1 if not supported
+    private static long readContextSwitches() {
+        Path taskDir = Path.of("/proc/self/task");
+        if (!Files.isDirectory(taskDir)) {
+            return -1;
+        }
+        try (Stream<Path> tasks = Files.list(taskDir)) {
+            return tasks.mapToLong(task -> {
+                try {
+                    return Files.readAllLines(task.resolve("status")).stream()
+                            .filter(line -> line.startsWith("voluntary_ctxt_switches") || line.startsWith("nonvoluntary_ctxt_switches"))
+                            .mapToLong(line -> Long.parseLong(line.split(":")[1].trim()))
+                            .sum();
+                } catch (IOException e) {
+                    // Thread terminated in the meantime
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private record Result(int numThreads, long usedHeapInMb, long contextSwitches, long durationInMs) {
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.node.envelope;
+
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2Token;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeDeserializer;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.ProofOfWork;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the allocated bytes per received megabyte of the former receive path (1 KB heap read buffer per channel,
+ * copying parse of the message bytes) with the pooled direct read buffers and the aliasing parse.
+ * The socket reads are simulated by copying chunks of a serialized stream into the read buffer. We use large bytes
+ * fields similar to the payloads of an InventoryResponse.
+ */
+@Slf4j
+public class ReceiveAllocationBenchmark {
+    private static final int NUM_MESSAGES = 200;
+    private static final int PAYLOAD_SIZE = 100 * 1024;
+
+    @Test
+    void compareAllocationsPerReceivedMegabyte() throws Exception {
+        byte[] stream = createStream();
+        double mb = stream.length / 1024d / 1024d;
+
+        // Warmup
+        receiveWithHeapBuffer(stream);
+        receiveWithPooledBuffer(stream);
+
+        long heapBufferAllocations = measureAllocatedBytes(this::receiveWithHeapBuffer, stream);
+        long pooledBufferAllocations = measureAllocatedBytes(this::receiveWithPooledBuffer, stream);
+        log.info("Allocated KB per received MB: heap buffer: {}; pooled buffer with aliasing: {}",
+                heapBufferAllocations / 1024 / mb, pooledBufferAllocations / 1024 / mb);
+        assertThat(pooledBufferAllocations).isLessThan(heapBufferAllocations);
+    }
+
+    private int receiveWithHeapBuffer(byte[] stream) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(NetworkEnvelopeSocketChannel.BYTE_BUFFER_SIZE);
+        NetworkEnvelopeDeserializer deserializer = new NetworkEnvelopeDeserializer(byteBuffer);
+        int numParsed = 0;
+        for (int offset = 0; offset < stream.length; offset += byteBuffer.capacity()) {
+            byteBuffer.clear();
+            byteBuffer.put(stream, offset, Math.min(byteBuffer.capacity(), stream.length - offset));
+            byteBuffer.flip();
+            deserializer.readFromByteBuffer();
+            for (byte[] message : deserializer.getAllMessages()) {
+                try {
+                    NetworkEnvelope.fromProto(bisq.network.protobuf.NetworkEnvelope.parseFrom(message));
+                    numParsed++;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return numParsed;
+    }
+
+    private int receiveWithPooledBuffer(byte[] stream) {
+        NetworkEnvelopeDeserializer deserializer = new NetworkEnvelopeDeserializer(ByteBuffer.allocate(0));
+        int readSize = 64 * 1024;
+        int numParsed = 0;
+        for (int offset = 0; offset < stream.length; offset += readSize) {
+            ByteBuffer byteBuffer = ByteBufferPool.SHARED.acquire(readSize);
+            byteBuffer.limit(readSize);
+            byteBuffer.put(stream, offset, Math.min(readSize, stream.length - offset));
+            byteBuffer.flip();
+            deserializer.readFromByteBuffer(byteBuffer);
+            ByteBufferPool.SHARED.release(byteBuffer);
+            for (byte[] message : deserializer.getAllMessages()) {
+                try {
+                    NetworkEnvelope.fromProto(NetworkEnvelopeDeserializer.parse(message));
+                    numParsed++;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return numParsed;
+    }
+
+    private static long measureAllocatedBytes(Function<byte[], Integer> receiver, byte[] stream) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        int numParsed = receiver.apply(stream);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        assertThat(numParsed).isEqualTo(NUM_MESSAGES);
+        return allocated;
+    }
+
+    private static byte[] createStream() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (int i = 0; i < NUM_MESSAGES; i++) {
+            // The token is never verified here, so dummy arrays are sufficient
+            ProofOfWork proofOfWork = new ProofOfWork(new byte[PAYLOAD_SIZE], 0, null, 0, new byte[72], 0);
+            new NetworkEnvelope(new HashCashV2Token(proofOfWork, i), new Ping(i)).writeDelimitedTo(outputStream);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.node.envelope;
+
+import bisq.common.network.DefaultPeerSocket;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2Token;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.ProofOfWork;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares writing each envelope with its own flush against writing batches of envelopes with a single flush
+ * over a loopback socket.
+ */
+@Slf4j
+public class WriteCoalescingBenchmark {
+    private static final int NUM_MESSAGES = 100_000;
+    private static final int WARMUP_MESSAGES = 10_000;
+
+    @Test
+    void compareFlushPerMessageWithCoalescedFlush() throws Exception {
+        for (int batchSize : List.of(1, 10, 50)) {
+            run(batchSize, WARMUP_MESSAGES);
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            long duration = run(batchSize, NUM_MESSAGES, connectionMetrics);
+            log.info("batchSize={}: {} messages in {} ms; messagesPerFlush={}; bytesPerFlush={}",
+                    batchSize, NUM_MESSAGES, duration,
+                    connectionMetrics.getAverageMessagesPerFlush(), connectionMetrics.getAverageBytesPerFlush());
+            assertThat(connectionMetrics.getAverageMessagesPerFlush()).isEqualTo(batchSize);
+        }
+    }
+
+    private long run(int batchSize, int numMessages) throws Exception {
+        return run(batchSize, numMessages, new ConnectionMetrics());
+    }
+
+    private long run(int batchSize, int numMessages, ConnectionMetrics connectionMetrics) throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+             Socket server = serverSocket.accept()) {
+            NetworkEnvelopeSocket sender = new NetworkEnvelopeSocket(new DefaultPeerSocket(client));
+            NetworkEnvelopeSocket receiver = new NetworkEnvelopeSocket(new DefaultPeerSocket(server));
+            CompletableFuture<Integer> received = CompletableFuture.supplyAsync(() -> {
+                try {
+                    int count = 0;
+                    while (count < numMessages && receiver.receiveNextEnvelope() != null) {
+                        count++;
+                    }
+                    return count;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            long ts = System.nanoTime();
+            List<NetworkEnvelope> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < numMessages; i++) {
+                batch.add(createNetworkEnvelope(i));
+                if (batch.size() == batchSize) {
+                    int numBytes = batchSize == 1 ? sender.send(batch.get(0)) : sender.send(batch);
+                    connectionMetrics.onFlush(batch.size(), numBytes);
+                    batch.clear();
+                }
+            }
+            assertThat(received.get(1, TimeUnit.MINUTES)).isEqualTo(numMessages);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ts);
+        }
+    }
+
+    private static NetworkEnvelope createNetworkEnvelope(int nonce) {
+        // The token is never verified here, so dummy arrays are sufficient
+        ProofOfWork proofOfWork = new ProofOfWork(new byte[20], 0, null, 0, new byte[72], 0);
+        return new NetworkEnvelope(new HashCashV2Token(proofOfWork, nonce), new Ping(nonce));
+    }
+}
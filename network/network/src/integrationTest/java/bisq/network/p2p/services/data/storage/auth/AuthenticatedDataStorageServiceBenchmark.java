@@ -0,0 +1,117 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
+import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyGeneration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static bisq.network.p2p.services.data.storage.auth.BenchmarkData.createAddRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures adds per second into a single AuthenticatedDataStorageService with an increasing number of threads.
+ * As baseline, we serialize all adds with an outer lock, which corresponds to the former behaviour where the
+ * signature verification was done inside the map lock, so only the concurrent run should scale with the threads.
+ */
+@Slf4j
+public class AuthenticatedDataStorageServiceBenchmark {
+    private static final int NUM_REQUESTS = 4000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void addsPerSecondWithIncreasingNumberOfThreads() throws Exception {
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>(NUM_REQUESTS);
+        for (int i = 0; i < NUM_REQUESTS; i++) {
+            requests.add(createAddRequest("data" + i, 1, keyPair));
+        }
+
+        // Warmup
+        run(requests, 2, false, "warmup");
+
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int numThreads = 1; numThreads <= maxThreads; numThreads *= 2) {
+            double serialized = run(requests, numThreads, true, "serialized" + numThreads);
+            double concurrent = run(requests, numThreads, false, "concurrent" + numThreads);
+            log.info("numThreads={}: adds/sec with outer lock (former behaviour): {}; without outer lock: {}",
+                    numThreads, Math.round(serialized), Math.round(concurrent));
+        }
+    }
+
+    private double run(List<AddAuthenticatedDataRequest> requests,
+                       int numThreads,
+                       boolean useOuterLock,
+                       String dirName) throws Exception {
+        AuthenticatedDataStorageService service = new AuthenticatedDataStorageService(new PersistenceService(tempDir.resolve(dirName)),
+                new PruneExpiredEntriesService(),
+                "AuthenticatedDataStore",
+                BenchmarkData.class.getSimpleName(),
+                DataStorePersistenceMode.SNAPSHOT);
+        Function<AddAuthenticatedDataRequest, DataStorageResult> add = service::add;
+        if (useOuterLock) {
+            Object outerLock = new Object();
+            add = request -> {
+                synchronized (outerLock) {
+                    return service.add(request);
+                }
+            };
+        }
+        Function<AddAuthenticatedDataRequest, DataStorageResult> addFunction = add;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            int batchSize = requests.size() / numThreads;
+            for (int t = 0; t < numThreads; t++) {
+                List<AddAuthenticatedDataRequest> batch = requests.subList(t * batchSize, (t + 1) * batchSize);
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    return batch.stream().map(addFunction).allMatch(DataStorageResult::isSuccess);
+                }));
+            }
+            long ts = System.nanoTime();
+            startLatch.countDown();
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(5, TimeUnit.MINUTES)).isTrue();
+            }
+            long duration = System.nanoTime() - ts;
+            return batchSize * numThreads / (duration / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
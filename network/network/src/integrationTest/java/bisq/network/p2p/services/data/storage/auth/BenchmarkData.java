@@ -0,0 +1,71 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.security.DigestUtil;
+import bisq.security.SignatureUtil;
+import lombok.Getter;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+
+/**
+ * Minimal payload for the storage benchmarks, as the test data of AuthenticatedDataStorageServiceTest are not
+ * visible from the integration tests.
+ */
+@Getter
+final class BenchmarkData implements DistributedData {
+    private final String text;
+    private final MetaData metaData = new MetaData(BenchmarkData.class.getSimpleName());
+
+    BenchmarkData(String text) {
+        this.text = text;
+    }
+
+    static AddAuthenticatedDataRequest createAddRequest(String text, int sequenceNumber, KeyPair keyPair)
+            throws GeneralSecurityException {
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new BenchmarkData(text));
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                sequenceNumber,
+                pubKeyHash,
+                System.currentTimeMillis());
+        byte[] signature = SignatureUtil.sign(data.serializeForHash(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    @Override
+    public void verify() {
+    }
+
+    @Override
+    public bisq.common.protobuf.StringLongPair.Builder getBuilder(boolean serializeForHash) {
+        return bisq.common.protobuf.StringLongPair.newBuilder().setKey(text);
+    }
+
+    @Override
+    public boolean isDataInvalid(byte[] pubKeyHash) {
+        return false;
+    }
+
+    @Override
+    public double getCostFactor() {
+        return 0.1;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
+import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyGeneration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static bisq.network.p2p.services.data.storage.auth.BenchmarkData.createAddRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the latency of persisting the authenticated data store after adding one entry when the whole map is
+ * written to a single snapshot file with writing only the dirty shard. The gap is expected to widen with the map size,
+ * as the single file rewrites all entries on each persist.
+ */
+@Slf4j
+public class DataStorePersistenceModeBenchmark {
+    private static final int[] MAP_SIZES = {1000, 10000, 50000};
+    private static final int NUM_WARMUP_ITERATIONS = 5;
+    private static final int NUM_ITERATIONS = 20;
+
+    private final Random random = new Random(1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void persistLatencyWithIncreasingMapSize() throws Exception {
+        AddAuthenticatedDataRequest request = createAddRequest("data", 1, KeyGeneration.generateDefaultEcKeyPair());
+        for (int mapSize : MAP_SIZES) {
+            double snapshot = run(request, mapSize, DataStorePersistenceMode.SNAPSHOT);
+            double sharded = run(request, mapSize, DataStorePersistenceMode.SHARDED);
+            log.info("mapSize={}: avg. persist latency with single snapshot file: {} ms; with shards: {} ms",
+                    mapSize, String.format("%.2f", snapshot), String.format("%.2f", sharded));
+        }
+    }
+
+    private double run(AddAuthenticatedDataRequest request,
+                       int mapSize,
+                       DataStorePersistenceMode persistenceMode) {
+        Path appDataDirPath = tempDir.resolve(persistenceMode.name() + mapSize);
+        AuthenticatedDataStorageService service = new AuthenticatedDataStorageService(new PersistenceService(appDataDirPath),
+                new PruneExpiredEntriesService(),
+                "AuthenticatedDataStore",
+                BenchmarkData.class.getSimpleName(),
+                persistenceMode) {
+            @Override
+            protected long getMaxWriteRateInMs() {
+                return 0;
+            }
+        };
+        Map<ByteArray, AuthenticatedDataRequest> map = service.getPersistableStore().getMap();
+        for (int i = 0; i < mapSize; i++) {
+            map.put(randomKey(), request);
+        }
+        assertThat(service.persist().join()).isTrue();
+
+        for (int i = 0; i < NUM_WARMUP_ITERATIONS; i++) {
+            map.put(randomKey(), request);
+            assertThat(service.persist().join()).isTrue();
+        }
+
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+            map.put(randomKey(), request);
+            assertThat(service.persist().join()).isTrue();
+        }
+        double avgLatency = (System.nanoTime() - ts) / 1e6 / NUM_ITERATIONS;
+        service.shutdown();
+        return avgLatency;
+    }
+
+    private ByteArray randomKey() {
+        byte[] bytes = new byte[20];
+        random.nextBytes(bytes);
+        return new ByteArray(bytes);
+    }
+}
@@ -20,8 +20,14 @@ package bisq.network;
 import bisq.common.threading.DiscardOldestPolicy;
 import bisq.common.threading.ExecutorFactory;
 import bisq.common.threading.MaxSizeAwareQueue;
+import bisq.network.p2p.node.ConnectionIoMode;
+import bisq.network.p2p.node.authorization.OutboundMintingStage;
+import bisq.network.p2p.node.event_loop.EventLoopGroup;
+import bisq.network.p2p.node.verification.InboundVerificationStage;
 import lombok.Getter;
 
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -30,11 +36,61 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class NetworkExecutors {
     @Getter
     private static ThreadPoolExecutor notifyExecutor;
+    @Getter
+    private static ConnectionIoMode connectionIoMode = ConnectionIoMode.THREAD_POOL;
+    private static EventLoopGroup eventLoopGroup;
+    private static ExecutorService virtualThreadExecutor;
+    private static InboundVerificationStage inboundVerificationStage;
+    private static OutboundMintingStage outboundMintingStage;
     private static volatile boolean isInitialized;
 
     public static void initialize(int notifyExecutorMaxPoolSize) {
+        initialize(notifyExecutorMaxPoolSize, ConnectionIoMode.THREAD_POOL, 1, 1);
+    }
+
+    public static void initialize(int notifyExecutorMaxPoolSize,
+                                  ConnectionIoMode connectionIoMode,
+                                  int numEventLoops,
+                                  int eventLoopWorkerMaxPoolSize) {
+        initialize(notifyExecutorMaxPoolSize, connectionIoMode, numEventLoops, eventLoopWorkerMaxPoolSize, 0);
+    }
+
+    public static void initialize(int notifyExecutorMaxPoolSize,
+                                  ConnectionIoMode connectionIoMode,
+                                  int numEventLoops,
+                                  int eventLoopWorkerMaxPoolSize,
+                                  int inboundVerificationMaxPoolSize) {
+        initialize(notifyExecutorMaxPoolSize, connectionIoMode, numEventLoops, eventLoopWorkerMaxPoolSize,
+                inboundVerificationMaxPoolSize, 0);
+    }
+
+    /**
+     * @param inboundVerificationMaxPoolSize If > 0 the authorization of received messages is verified in a shared
+     *                                       pool of that size instead of on the reading thread of the connection.
+     * @param outboundMintingMaxPoolSize     If > 0 the authorization tokens of sent messages are minted in a shared
+     *                                       pool of that size as soon as the message gets queued, instead of on the
+     *                                       sending thread right before writing.
+     */
+    public static void initialize(int notifyExecutorMaxPoolSize,
+                                  ConnectionIoMode connectionIoMode,
+                                  int numEventLoops,
+                                  int eventLoopWorkerMaxPoolSize,
+                                  int inboundVerificationMaxPoolSize,
+                                  int outboundMintingMaxPoolSize) {
         checkArgument(!isInitialized, "initialize must not be called twice");
         notifyExecutor = createNotifyExecutor(notifyExecutorMaxPoolSize);
+        NetworkExecutors.connectionIoMode = connectionIoMode;
+        if (connectionIoMode == ConnectionIoMode.SELECTOR) {
+            eventLoopGroup = new EventLoopGroup(numEventLoops, eventLoopWorkerMaxPoolSize);
+        } else if (connectionIoMode == ConnectionIoMode.VIRTUAL_THREAD) {
+            virtualThreadExecutor = ExecutorFactory.newVirtualThreadPerTaskExecutor("Connection.virtual");
+        }
+        if (inboundVerificationMaxPoolSize > 0) {
+            inboundVerificationStage = new InboundVerificationStage(inboundVerificationMaxPoolSize);
+        }
+        if (outboundMintingMaxPoolSize > 0) {
+            outboundMintingStage = new OutboundMintingStage(outboundMintingMaxPoolSize);
+        }
 
         isInitialized = true;
     }
@@ -42,12 +98,57 @@ public class NetworkExecutors {
     public static void shutdown() {
         if (isInitialized) {
             ExecutorFactory.shutdownAndAwaitTermination(notifyExecutor);
+            if (eventLoopGroup != null) {
+                eventLoopGroup.shutdown();
+                eventLoopGroup = null;
+            }
+            if (virtualThreadExecutor != null) {
+                ExecutorFactory.shutdownAndAwaitTermination(virtualThreadExecutor);
+                virtualThreadExecutor = null;
+            }
+            if (inboundVerificationStage != null) {
+                inboundVerificationStage.shutdown();
+                inboundVerificationStage = null;
+            }
+            if (outboundMintingStage != null) {
+                outboundMintingStage.shutdown();
+                outboundMintingStage = null;
+            }
 
             notifyExecutor = null;
+            connectionIoMode = ConnectionIoMode.THREAD_POOL;
             isInitialized = false;
         }
     }
 
+    /**
+     * @return The shared EventLoopGroup if we run in the SELECTOR connection IO mode.
+     */
+    public static Optional<EventLoopGroup> findEventLoopGroup() {
+        return Optional.ofNullable(eventLoopGroup);
+    }
+
+    /**
+     * @return The shared virtual thread executor if we run in the VIRTUAL_THREAD connection IO mode.
+     */
+    public static Optional<ExecutorService> findVirtualThreadExecutor() {
+        return Optional.ofNullable(virtualThreadExecutor);
+    }
+
+    /**
+     * @return The shared InboundVerificationStage if verification of received messages is done off the reading thread.
+     */
+    public static Optional<InboundVerificationStage> findInboundVerificationStage() {
+        return Optional.ofNullable(inboundVerificationStage);
+    }
+
+    /**
+     * @return The shared OutboundMintingStage if the authorization tokens of sent messages are minted ahead.
+     */
+    public static Optional<OutboundMintingStage> findOutboundMintingStage() {
+        return Optional.ofNullable(outboundMintingStage);
+    }
+
     private static ThreadPoolExecutor createNotifyExecutor(int maxPoolSize) {
         int queueCapacity = 100000;
         MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
@@ -151,7 +151,7 @@ public class NetworkService extends RateLimitedPersistenceClient<NetworkServiceS
 
         boolean isDataServiceSupported = supportedServices.contains(ServiceNode.SupportedService.DATA);
         dataService = isDataServiceSupported ?
-                Optional.of(new DataService(persistenceService)) :
+                Optional.of(new DataService(persistenceService, config.getDataStorePersistenceMode())) :
                 Optional.empty();
 
         messageDeliveryStatusService = supportedServices.contains(ServiceNode.SupportedService.ACK) &&
@@ -202,8 +202,14 @@ public class NetworkService extends RateLimitedPersistenceClient<NetworkServiceS
 
     public CompletableFuture<Boolean> initialize() {
         log.info("initialize");
-        NetworkExecutors.initialize(config.getNotifyExecutorMaxPoolSize());
+        NetworkExecutors.initialize(config.getNotifyExecutorMaxPoolSize(),
+                config.getConnectionIoMode(),
+                config.getNumEventLoops(),
+                config.getEventLoopWorkerMaxPoolSize(),
+                config.getInboundVerificationMaxPoolSize(),
+                config.getOutboundMintingMaxPoolSize());
         Connection.setExecutorMaxPoolSize(config.getConnectionExecutorMaxPoolSize());
+        Connection.setWriteCoalescing(config.isWriteCoalescing());
 
         NetworkId defaultNetworkId = networkIdService.getOrCreateDefaultNetworkId();
 
@@ -22,11 +22,13 @@ import bisq.common.network.Address;
 import bisq.common.network.TransportConfig;
 import bisq.common.network.TransportType;
 import bisq.network.p2p.ServiceNode;
+import bisq.network.p2p.node.ConnectionIoMode;
 import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.transport.ClearNetTransportService;
 import bisq.network.p2p.node.transport.I2PTransportService;
 import bisq.network.p2p.services.data.inventory.InventoryService;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
 import bisq.network.p2p.services.peer_group.PeerGroupManager;
 import bisq.network.tor.TorTransportConfig;
 import com.typesafe.config.Config;
@@ -72,6 +74,13 @@ public final class NetworkServiceConfig {
                 networkConfig.getInt("version"),
                 networkConfig.getInt("notifyExecutorMaxPoolSize"),
                 networkConfig.getInt("connectionExecutorMaxPoolSize"),
+                networkConfig.getEnum(ConnectionIoMode.class, "connectionIoMode"),
+                networkConfig.getInt("numEventLoops"),
+                networkConfig.getInt("eventLoopWorkerMaxPoolSize"),
+                networkConfig.getBoolean("writeCoalescing"),
+                networkConfig.getInt("inboundVerificationMaxPoolSize"),
+                networkConfig.getInt("outboundMintingMaxPoolSize"),
+                networkConfig.getEnum(DataStorePersistenceMode.class, "dataStorePersistenceMode"),
                 supportedTransportTypes,
                 features,
                 configByTransportType,
@@ -162,6 +171,13 @@ public final class NetworkServiceConfig {
     private final int version;
     private final int notifyExecutorMaxPoolSize;
     private final int connectionExecutorMaxPoolSize;
+    private final ConnectionIoMode connectionIoMode;
+    private final int numEventLoops;
+    private final int eventLoopWorkerMaxPoolSize;
+    private final boolean writeCoalescing;
+    private final int inboundVerificationMaxPoolSize;
+    private final int outboundMintingMaxPoolSize;
+    private final DataStorePersistenceMode dataStorePersistenceMode;
     private final Set<TransportType> supportedTransportTypes;
     private final Set<Feature> features;
     private final InventoryService.Config inventoryServiceConfig;
@@ -178,6 +194,13 @@ public final class NetworkServiceConfig {
                                 int version,
                                 int notifyExecutorMaxPoolSize,
                                 int connectionExecutorMaxPoolSize,
+                                ConnectionIoMode connectionIoMode,
+                                int numEventLoops,
+                                int eventLoopWorkerMaxPoolSize,
+                                boolean writeCoalescing,
+                                int inboundVerificationMaxPoolSize,
+                                int outboundMintingMaxPoolSize,
+                                DataStorePersistenceMode dataStorePersistenceMode,
                                 Set<TransportType> supportedTransportTypes,
                                 Set<Feature> features,
                                 Map<TransportType, TransportConfig> configByTransportType,
@@ -193,6 +216,13 @@ public final class NetworkServiceConfig {
         this.version = version;
         this.notifyExecutorMaxPoolSize = notifyExecutorMaxPoolSize;
         this.connectionExecutorMaxPoolSize = connectionExecutorMaxPoolSize;
+        this.connectionIoMode = connectionIoMode;
+        this.numEventLoops = numEventLoops;
+        this.eventLoopWorkerMaxPoolSize = eventLoopWorkerMaxPoolSize;
+        this.writeCoalescing = writeCoalescing;
+        this.inboundVerificationMaxPoolSize = inboundVerificationMaxPoolSize;
+        this.outboundMintingMaxPoolSize = outboundMintingMaxPoolSize;
+        this.dataStorePersistenceMode = dataStorePersistenceMode;
         this.supportedTransportTypes = supportedTransportTypes;
         this.features = features;
         this.inventoryServiceConfig = inventoryServiceConfig;
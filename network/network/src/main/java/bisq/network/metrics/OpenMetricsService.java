@@ -0,0 +1,374 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.metrics;
+
+import bisq.common.application.Service;
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.NetworkExecutors;
+import bisq.network.NetworkService;
+import bisq.network.p2p.ServiceNode;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.node.OutboundConnection;
+import bisq.network.p2p.node.authorization.AuthorizationTokenService;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.authorization.token.hash_cash.HashCashTokenService;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2TokenService;
+import bisq.network.p2p.node.event_loop.EventLoopGroup;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.node.network_load.NetworkLoadService;
+import bisq.network.p2p.node.verification.InboundVerificationStage;
+import bisq.network.p2p.services.data.inventory.InventoryService;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.StoreType;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
+import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+
+/**
+ * Optional HTTP endpoint serving node, connection, storage, PoW, executor and persistence metrics in the OpenMetrics
+ * text format at /metrics. The values are read from the existing counters at scrape time, so there is no overhead
+ * if nobody scrapes. Binds to localhost by default.
+ */
+@Slf4j
+public class OpenMetricsService implements Service {
+    private static final String PATH = "/metrics";
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    @Getter
+    public static final class Config {
+        public static Config from(com.typesafe.config.Config config) {
+            return new Config(config.getBoolean("enabled"),
+                    config.getString("host"),
+                    config.getInt("port"),
+                    config.getBoolean("perPeerLabels"));
+        }
+
+        private final boolean enabled;
+        private final String host;
+        private final int port;
+        private final boolean perPeerLabels;
+
+        public Config(boolean enabled, String host, int port, boolean perPeerLabels) {
+            this.enabled = enabled;
+            this.host = host;
+            this.port = port;
+            this.perPeerLabels = perPeerLabels;
+        }
+    }
+
+    // Without perPeerLabels we aggregate the connection metrics per transport and direction. A series per peer address
+    // would grow with every peer we ever connected to and would publish the addresses of our peers.
+    private record ConnectionEntry(String transport, Connection connection, boolean perPeerLabels) {
+        ConnectionMetrics metrics() {
+            return connection.getConnectionMetrics();
+        }
+
+        List<String> labels() {
+            String direction = connection instanceof OutboundConnection ? "outbound" : "inbound";
+            return perPeerLabels ?
+                    List.of("transport", transport, "direction", direction, "peer", connection.getPeerAddress().getFullAddress()) :
+                    List.of("transport", transport, "direction", direction);
+        }
+    }
+
+    private final Config config;
+    private final NetworkService networkService;
+    private final PersistenceService persistenceService;
+    private Optional<HttpServer> httpServer = Optional.empty();
+    private Optional<ExecutorService> executor = Optional.empty();
+
+    public OpenMetricsService(Config config, NetworkService networkService, PersistenceService persistenceService) {
+        this.config = config;
+        this.networkService = networkService;
+        this.persistenceService = persistenceService;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        if (!config.isEnabled()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        try {
+            if (!InetAddress.getByName(config.getHost()).isLoopbackAddress()) {
+                log.warn("The metrics endpoint is bound to the non-loopback host {}. It does not require authentication.",
+                        config.getHost());
+            }
+            HttpServer server = HttpServer.create(new InetSocketAddress(config.getHost(), config.getPort()), 0);
+            ExecutorService executorService = ExecutorFactory.newSingleThreadExecutor("OpenMetricsService");
+            server.setExecutor(executorService);
+            server.createContext(PATH, this::handle);
+            server.start();
+            httpServer = Optional.of(server);
+            executor = Optional.of(executorService);
+            log.info("Metrics endpoint started at http://{}:{}{}", config.getHost(), config.getPort(), PATH);
+            return CompletableFuture.completedFuture(true);
+        } catch (IOException e) {
+            log.error("Could not start metrics endpoint at {}:{}", config.getHost(), config.getPort(), e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> shutdown() {
+        httpServer.ifPresent(server -> server.stop(0));
+        httpServer = Optional.empty();
+        executor.ifPresent(ExecutorFactory::shutdownAndAwaitTermination);
+        executor = Optional.empty();
+        return CompletableFuture.completedFuture(true);
+    }
+
+    public String getMetrics() {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writeNetworkMetrics(writer);
+        writeConnectionMetrics(writer);
+        writeStorageMetrics(writer);
+        writeProofOfWorkMetrics(writer);
+        writeExecutorMetrics(writer);
+        writePersistenceMetrics(writer);
+        return writer.finish();
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] response;
+            try {
+                response = getMetrics().getBytes(StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                log.error("Collecting metrics failed", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", OpenMetricsWriter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        }
+    }
+
+    private void writeNetworkMetrics(OpenMetricsWriter writer) {
+        List<ServiceNode> serviceNodes = getServiceNodes();
+        writer.gauge("bisq_network_load", "Network load used for the proof of work difficulty");
+        serviceNodes.forEach(serviceNode -> findNetworkLoad(serviceNode).ifPresent(networkLoad ->
+                writer.sample(networkLoad.getLoad(), "transport", serviceNode.getTransportType().name())));
+        writer.gauge("bisq_network_difficulty_adjustment_factor", "Difficulty adjustment factor of the network load");
+        serviceNodes.forEach(serviceNode -> findNetworkLoad(serviceNode).ifPresent(networkLoad ->
+                writer.sample(networkLoad.getDifficultyAdjustmentFactor(), "transport", serviceNode.getTransportType().name())));
+
+        writer.gauge("bisq_time_to_first_inventory_seconds", "Time from the start of the bootstrap until the first inventory was received");
+        serviceNodes.forEach(serviceNode -> serviceNode.getInventoryService()
+                .flatMap(InventoryService::getTimeToFirstInventory)
+                .ifPresent(timeToFirstInventory ->
+                        writer.sample(timeToFirstInventory / 1000d, "transport", serviceNode.getTransportType().name())));
+
+        writeNetworkLoadService(writer, serviceNodes, "bisq_network_sent_bytes_last_5_minutes",
+                "Sent bytes of all connections in the last 5 minutes", NetworkLoadService::getSentBytesOfLast5Minutes);
+        writeNetworkLoadService(writer, serviceNodes, "bisq_network_received_bytes_last_5_minutes",
+                "Received bytes of all connections in the last 5 minutes", NetworkLoadService::getReceivedBytesOfLast5Minutes);
+        writeNetworkLoadService(writer, serviceNodes, "bisq_network_sent_messages_last_5_minutes",
+                "Sent messages of all connections in the last 5 minutes", NetworkLoadService::getNumMessagesSentOfLast5Minutes);
+        writeNetworkLoadService(writer, serviceNodes, "bisq_network_received_messages_last_5_minutes",
+                "Received messages of all connections in the last 5 minutes", NetworkLoadService::getNumMessagesReceivedOfLast5Minutes);
+    }
+
+    private void writeNetworkLoadService(OpenMetricsWriter writer,
+                                         List<ServiceNode> serviceNodes,
+                                         String name,
+                                         String help,
+                                         ToDoubleFunction<NetworkLoadService> valueFunction) {
+        writer.gauge(name, help);
+        serviceNodes.forEach(serviceNode -> serviceNode.getNetworkLoadService().ifPresent(networkLoadService ->
+                writer.sample(valueFunction.applyAsDouble(networkLoadService), "transport", serviceNode.getTransportType().name())));
+    }
+
+    private void writeConnectionMetrics(OpenMetricsWriter writer) {
+        List<ConnectionEntry> connections = getServiceNodes().stream()
+                .flatMap(serviceNode -> serviceNode.getNodesById().getAllNodes().stream()
+                        .flatMap(Node::getAllConnections)
+                        .map(connection -> new ConnectionEntry(serviceNode.getTransportType().name(), connection, config.isPerPeerLabels())))
+                .toList();
+
+        writer.gauge("bisq_connections", "Number of connections");
+        getServiceNodes().forEach(serviceNode -> {
+            String transport = serviceNode.getTransportType().name();
+            long numOutbound = connections.stream()
+                    .filter(entry -> entry.transport().equals(transport) && entry.connection() instanceof OutboundConnection)
+                    .count();
+            long numInbound = connections.stream().filter(entry -> entry.transport().equals(transport)).count() - numOutbound;
+            writer.sample(numOutbound, "transport", transport, "direction", "outbound");
+            writer.sample(numInbound, "transport", transport, "direction", "inbound");
+        });
+
+        // The sums over the open connections decrease if a connection gets closed, so we use gauges and not counters.
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_sent_bytes",
+                "Sent bytes (uncompressed) of the open connections", ConnectionMetrics::getSentBytes);
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_received_bytes",
+                "Received bytes (uncompressed) of the open connections", ConnectionMetrics::getReceivedBytes);
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_sent_messages",
+                "Sent messages of the open connections", ConnectionMetrics::getNumMessagesSent);
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_received_messages",
+                "Received messages of the open connections", ConnectionMetrics::getNumMessagesReceived);
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_compression_saved_bytes",
+                "Bytes saved by compression of sent and received messages of the open connections",
+                metrics -> metrics.getCompressionSavedSentBytes().get() + metrics.getCompressionSavedReceivedBytes().get());
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_throttled_sent_messages",
+                "Sent messages deferred by the connection throttle of the open connections", ConnectionMetrics::getNumThrottledSentMessages);
+        writeConnections(writer, connections, Aggregation.SUM, "bisq_connection_throttled_received_messages",
+                "Received messages deferred by the connection throttle of the open connections", ConnectionMetrics::getNumThrottledReceivedMessages);
+        writeConnections(writer, connections, Aggregation.AVERAGE, "bisq_connection_rtt_average_seconds",
+                "Average round trip time of the open connections", metrics -> metrics.getAverageRtt() / 1000);
+        writeConnections(writer, connections, Aggregation.AVERAGE, "bisq_connection_age_seconds",
+                "Average age of the open connections", metrics -> metrics.getAge() / 1000d);
+    }
+
+    private enum Aggregation {
+        SUM,
+        AVERAGE
+    }
+
+    private void writeConnections(OpenMetricsWriter writer,
+                                  List<ConnectionEntry> connections,
+                                  Aggregation aggregation,
+                                  String name,
+                                  String help,
+                                  ToDoubleFunction<ConnectionMetrics> valueFunction) {
+        writer.gauge(name, help);
+        Map<List<String>, List<ConnectionEntry>> connectionsByLabels = connections.stream()
+                .collect(Collectors.groupingBy(ConnectionEntry::labels, LinkedHashMap::new, Collectors.toList()));
+        connectionsByLabels.forEach((labels, entries) -> {
+            DoubleStream values = entries.stream().mapToDouble(entry -> valueFunction.applyAsDouble(entry.metrics()));
+            double value = aggregation == Aggregation.SUM ? values.sum() : values.average().orElse(0);
+            writer.sample(value, labels.toArray(String[]::new));
+        });
+    }
+
+    private void writeStorageMetrics(OpenMetricsWriter writer) {
+        writer.gauge("bisq_storage_entries", "Number of entries per network data store");
+        networkService.getDataService().map(dataService -> dataService.getStorageService()).ifPresent(storageService ->
+                Stream.of(StoreType.AUTHENTICATED_DATA_STORE, StoreType.MAILBOX_DATA_STORE, StoreType.APPEND_ONLY_DATA_STORE)
+                        .forEach(storeType -> writeStores(writer, storageService, storeType)));
+        writeSignatureCacheMetrics(writer);
+    }
+
+    private void writeSignatureCacheMetrics(OpenMetricsWriter writer) {
+        VerifiedSignatureCache cache = VerifiedSignatureCache.SHARED;
+        writer.counter("bisq_signature_cache_hits", "Number of signature verifications skipped by the verified signature cache");
+        writer.sample(cache.getNumHits());
+        writer.counter("bisq_signature_cache_misses", "Number of signature verifications not found in the verified signature cache");
+        writer.sample(cache.getNumMisses());
+        writer.gauge("bisq_signature_cache_size", "Number of entries in the verified signature cache");
+        writer.sample(cache.getSize());
+    }
+
+    private void writeStores(OpenMetricsWriter writer, StorageService storageService, StoreType storeType) {
+        storageService.getStoresByStoreType(storeType).forEach(store ->
+                writer.sample(store.getPersistableStore().getMap().size(),
+                        "store_type", storeType.name(),
+                        "store", store.getStoreKey()));
+    }
+
+    @SuppressWarnings("deprecation")
+    private void writeProofOfWorkMetrics(OpenMetricsWriter writer) {
+        Map<AuthorizationTokenType, AuthorizationTokenService<?>> services = Map.copyOf(
+                networkService.getServiceNodesByTransport().getAuthorizationService().getSupportedServices());
+        writer.counter("bisq_pow_tokens_created", "Number of created proof of work tokens");
+        services.forEach((tokenType, service) -> {
+            if (service instanceof HashCashTokenService hashCashTokenService) {
+                writer.sample(hashCashTokenService.getMetrics().getNumPowTokensCreated(), "token_type", tokenType.name());
+            } else if (service instanceof HashCashV2TokenService hashCashV2TokenService) {
+                writer.sample(hashCashV2TokenService.getMetrics().getNumPowTokensCreated(), "token_type", tokenType.name());
+            }
+        });
+        writer.counter("bisq_pow_duration_seconds", "Accumulated time spent for creating proof of work tokens");
+        services.forEach((tokenType, service) -> {
+            if (service instanceof HashCashTokenService hashCashTokenService) {
+                writer.sample(hashCashTokenService.getMetrics().getAccumulatedPoWDuration() / 1000d, "token_type", tokenType.name());
+            } else if (service instanceof HashCashV2TokenService hashCashV2TokenService) {
+                writer.sample(hashCashV2TokenService.getMetrics().getAccumulatedPoWDuration() / 1000d, "token_type", tokenType.name());
+            }
+        });
+    }
+
+    private void writeExecutorMetrics(OpenMetricsWriter writer) {
+        writer.gauge("bisq_executor_queue_size", "Number of tasks waiting in the queue of the executor");
+        Optional.ofNullable(NetworkExecutors.getNotifyExecutor())
+                .ifPresent(notifyExecutor -> writer.sample(notifyExecutor.getQueue().size(), "executor", "Network.notify"));
+        NetworkExecutors.findEventLoopGroup()
+                .map(EventLoopGroup::getWorkerExecutor)
+                .map(ThreadPoolExecutor::getQueue)
+                .ifPresent(queue -> writer.sample(queue.size(), "executor", "EventLoop.worker"));
+        NetworkExecutors.findInboundVerificationStage()
+                .map(InboundVerificationStage::getQueueDepth)
+                .ifPresent(queueDepth -> writer.sample(queueDepth, "executor", "InboundVerification"));
+        writer.sample(Persistence.getNumPendingWrites(), "executor", "Persistence");
+    }
+
+    private void writePersistenceMetrics(OpenMetricsWriter writer) {
+        List<Persistence<?>> persistenceInstances = List.copyOf(persistenceService.getPersistenceInstances());
+        writer.counter("bisq_persistence_writes", "Number of writes of the persisted store");
+        persistenceInstances.forEach(persistence ->
+                writer.sample(persistence.getNumWrites().get(), "store", persistence.getFileName()));
+        writer.counter("bisq_persistence_write_seconds", "Accumulated time spent for writing the persisted store");
+        persistenceInstances.forEach(persistence ->
+                writer.sample(persistence.getAccumulatedWriteTime().get() / NANOS_PER_SECOND, "store", persistence.getFileName()));
+        writer.gauge("bisq_persistence_max_write_seconds", "Max. time spent for a single write of the persisted store");
+        persistenceInstances.forEach(persistence ->
+                writer.sample(persistence.getMaxWriteTime().get() / NANOS_PER_SECOND, "store", persistence.getFileName()));
+    }
+
+    private List<ServiceNode> getServiceNodes() {
+        return List.copyOf(networkService.getServiceNodesByTransport().getAllServiceNodes());
+    }
+
+    private static Optional<NetworkLoad> findNetworkLoad(ServiceNode serviceNode) {
+        return Optional.ofNullable(serviceNode.getDefaultNode())
+                .map(node -> node.getNetworkLoadSnapshot().getCurrentNetworkLoad());
+    }
+}
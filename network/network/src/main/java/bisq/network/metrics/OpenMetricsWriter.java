@@ -0,0 +1,110 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.metrics;
+
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Writes metrics in the OpenMetrics text format (https://openmetrics.io).
+ * All samples of a metric family have to be written directly after its declaration.
+ * Counter samples get the mandatory "_total" suffix appended.
+ */
+public class OpenMetricsWriter {
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private enum Type {
+        COUNTER,
+        GAUGE
+    }
+
+    private final StringBuilder sb = new StringBuilder();
+    private String familyName;
+    private Type familyType;
+
+    public OpenMetricsWriter counter(String name, String help) {
+        return family(name, Type.COUNTER, help);
+    }
+
+    public OpenMetricsWriter gauge(String name, String help) {
+        return family(name, Type.GAUGE, help);
+    }
+
+    /**
+     * @param labels Pairs of label name and label value
+     */
+    public OpenMetricsWriter sample(double value, String... labels) {
+        checkState(familyName != null, "A metric family has to be declared before writing samples");
+        checkArgument(labels.length % 2 == 0, "Labels must be pairs of name and value");
+        sb.append(familyName);
+        if (familyType == Type.COUNTER) {
+            sb.append("_total");
+        }
+        if (labels.length > 0) {
+            sb.append('{');
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(labels[i]).append("=\"");
+                appendEscaped(labels[i + 1]);
+                sb.append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+        return this;
+    }
+
+    public String finish() {
+        sb.append("# EOF\n");
+        familyName = null;
+        return sb.toString();
+    }
+
+    private OpenMetricsWriter family(String name, Type type, String help) {
+        checkArgument(name.matches("[a-zA-Z_:][a-zA-Z0-9_:]*"), "Invalid metric name: " + name);
+        familyName = name;
+        familyType = type;
+        sb.append("# TYPE ").append(name).append(' ').append(type.name().toLowerCase(Locale.ROOT)).append('\n');
+        sb.append("# HELP ").append(name).append(' ');
+        appendEscaped(help);
+        sb.append('\n');
+        return this;
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
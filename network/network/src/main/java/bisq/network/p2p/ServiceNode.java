@@ -33,6 +33,7 @@ import bisq.network.p2p.node.NodesById;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.NetworkLoadService;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.network_load.NetworkTrafficMetrics;
 import bisq.network.p2p.node.transport.TransportService;
 import bisq.network.p2p.services.confidential.ConfidentialMessageService;
 import bisq.network.p2p.services.confidential.SendConfidentialMessageResult;
@@ -122,6 +123,7 @@ public class ServiceNode implements Node.Listener {
     private final TransportType transportType;
     private final MemoryReportService memoryReportService;
     private final NetworkLoadSnapshot networkLoadSnapshot;
+    private final NetworkTrafficMetrics networkTrafficMetrics;
 
     @Getter
     private final NodesById nodesById;
@@ -177,9 +179,10 @@ public class ServiceNode implements Node.Listener {
         this.memoryReportService = memoryReportService;
 
         this.networkLoadSnapshot = new NetworkLoadSnapshot();
+        networkTrafficMetrics = new NetworkTrafficMetrics();
 
         transportService = TransportService.create(transportType, nodeConfig.getTransportConfig());
-        nodesById = new NodesById(banList, nodeConfig, keyBundleService, transportService, networkLoadSnapshot, authorizationService);
+        nodesById = new NodesById(banList, nodeConfig, keyBundleService, transportService, networkLoadSnapshot, networkTrafficMetrics, authorizationService);
         peerGroupService = new PeerGroupService(persistenceService, transportType, peerGroupManagerConfig.getPeerGroupConfig(), seedNodeAddresses, banList);
 
         nodesById.addNodeListener(this);
@@ -265,6 +268,7 @@ public class ServiceNode implements Node.Listener {
                 Optional.of(new NetworkLoadService(this,
                         dataService.orElseThrow().getStorageService(),
                         networkLoadSnapshot,
+                        networkTrafficMetrics,
                         peerGroupManagerConfig.getPeerGroupConfig().getMaxNumConnectedPeers())) :
                 Optional.empty();
 
@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.common;
 
+import bisq.common.timer.TimingWheel;
 import bisq.common.util.ExceptionUtil;
 import bisq.common.util.MathUtils;
 import bisq.common.util.StringUtils;
@@ -24,15 +25,23 @@ import bisq.network.p2p.message.Request;
 import bisq.network.p2p.message.Response;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Getter
 @Slf4j
 public class RequestFuture<T extends Request, R extends Response> extends CompletableFuture<R> {
+    // Shared by the request timeouts of all connections. Request timeouts are in the range of minutes and most of them
+    // get cancelled by the response, so a 1 sec. precision is good enough.
+    private static final TimingWheel TIMEOUTS = new TimingWheel("RequestFuture.timeouts", 1, TimeUnit.SECONDS, 512);
+
     private final Node node;
     private final Connection connection;
     private final T request;
@@ -40,6 +49,10 @@ public class RequestFuture<T extends Request, R extends Response> extends Comple
     // cleanup code is executed before any client can react to completion.
     private final CompletableFuture<R> priorityFuture = new CompletableFuture<>();
     private long requestTs;
+    // Might be null if the timeout expires before the constructor has returned
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private volatile TimingWheel.Timeout timeout;
 
     public RequestFuture(Node node,
                          Connection connection,
@@ -48,17 +61,30 @@ public class RequestFuture<T extends Request, R extends Response> extends Comple
         this.node = node;
         this.connection = connection;
         this.request = request;
-        orTimeout(timeout, TimeUnit.MILLISECONDS);
+        this.timeout = TIMEOUTS.schedule(() -> completeExceptionally(new TimeoutException()), timeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean complete(R value) {
+        cancelTimeout();
+        return super.complete(value);
     }
 
     @Override
     public boolean completeExceptionally(Throwable throwable) {
+        cancelTimeout();
         if (!priorityFuture.isDone()) {
             priorityFuture.completeExceptionally(throwable);
         }
         return super.completeExceptionally(throwable);
     }
 
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        cancelTimeout();
+        return super.cancel(mayInterruptIfRunning);
+    }
+
     CompletableFuture<R> sendRequest() {
         log.info("Send {} to {}", StringUtils.truncate(request), connection.getPeerAddress());
         requestTs = System.currentTimeMillis();
@@ -109,4 +135,11 @@ public class RequestFuture<T extends Request, R extends Response> extends Comple
             complete(response);
         }
     }
-}
\ No newline at end of file
+
+    private void cancelTimeout() {
+        TimingWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
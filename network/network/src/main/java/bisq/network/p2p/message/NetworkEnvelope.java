@@ -20,12 +20,19 @@ package bisq.network.p2p.message;
 import bisq.common.proto.NetworkProto;
 import bisq.network.p2p.node.ConnectionException;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.envelope.EnvelopeCompression;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+
 import static bisq.network.p2p.node.ConnectionException.Reason.INVALID_NETWORK_VERSION;
 
 /**
@@ -44,15 +51,70 @@ public final class NetworkEnvelope implements NetworkProto {
     private final int version;
     private final AuthorizationToken authorizationToken;
     private final EnvelopePayloadMessage envelopePayloadMessage;
+    // Set if the envelopePayloadMessage was serialized already, e.g. for sending it to multiple peers
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage;
+    // Set if the envelopePayloadMessage is sent or was received compressed. It is used on the wire instead of the
+    // networkMessage field.
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient ByteString compressedNetworkMessage;
+    // Serialized size of the uncompressed envelopePayloadMessage if compressedNetworkMessage is set
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient int networkMessageSize;
+    // As we are immutable we build the proto only once
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile bisq.network.protobuf.NetworkEnvelope proto;
 
     public NetworkEnvelope(AuthorizationToken authorizationToken, EnvelopePayloadMessage envelopePayloadMessage) {
         this(networkVersion, authorizationToken, envelopePayloadMessage);
     }
 
+    public NetworkEnvelope(AuthorizationToken authorizationToken,
+                           SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage) {
+        this(authorizationToken, serializedEnvelopePayloadMessage, false);
+    }
+
+    /**
+     * @param useCompression If true and the message benefits from compression, we send the compressed message.
+     *                       Must only be used if the peer supports Feature.ENVELOPE_COMPRESSION.
+     */
+    public NetworkEnvelope(AuthorizationToken authorizationToken,
+                           SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                           boolean useCompression) {
+        this(networkVersion,
+                authorizationToken,
+                serializedEnvelopePayloadMessage.getEnvelopePayloadMessage(),
+                serializedEnvelopePayloadMessage,
+                useCompression ? serializedEnvelopePayloadMessage.getCompressed().orElse(null) : null,
+                serializedEnvelopePayloadMessage.getSerialized().size());
+    }
+
     public NetworkEnvelope(int version, AuthorizationToken authorizationToken, EnvelopePayloadMessage envelopePayloadMessage) {
+        this(version, authorizationToken, envelopePayloadMessage, null, null, 0);
+    }
+
+    private NetworkEnvelope(int version,
+                            AuthorizationToken authorizationToken,
+                            EnvelopePayloadMessage envelopePayloadMessage,
+                            @Nullable SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                            @Nullable ByteString compressedNetworkMessage,
+                            int networkMessageSize) {
         this.version = version;
         this.authorizationToken = authorizationToken;
         this.envelopePayloadMessage = envelopePayloadMessage;
+        this.serializedEnvelopePayloadMessage = serializedEnvelopePayloadMessage;
+        this.compressedNetworkMessage = compressedNetworkMessage;
+        this.networkMessageSize = networkMessageSize;
 
         verify();
     }
@@ -68,21 +130,106 @@ public final class NetworkEnvelope implements NetworkProto {
 
     @Override
     public bisq.network.protobuf.NetworkEnvelope completeProto() {
-        return toProto(false);
+        bisq.network.protobuf.NetworkEnvelope proto = this.proto;
+        if (proto == null) {
+            proto = toProto(false);
+            this.proto = proto;
+        }
+        return proto;
     }
 
     @Override
     public bisq.network.protobuf.NetworkEnvelope.Builder getBuilder(boolean serializeForHash) {
-        return bisq.network.protobuf.NetworkEnvelope.newBuilder()
+        bisq.network.protobuf.NetworkEnvelope.Builder builder = bisq.network.protobuf.NetworkEnvelope.newBuilder()
                 .setVersion(version)
-                .setAuthorizationToken(authorizationToken.toProto(serializeForHash))
-                .setNetworkMessage(envelopePayloadMessage.toProto(serializeForHash));
+                .setAuthorizationToken(authorizationToken.toProto(serializeForHash));
+        if (compressedNetworkMessage != null && !serializeForHash) {
+            return builder.setCompressedNetworkMessage(compressedNetworkMessage);
+        }
+        return builder.setNetworkMessage(serializedEnvelopePayloadMessage != null && !serializeForHash ?
+                serializedEnvelopePayloadMessage.getProto() :
+                envelopePayloadMessage.toProto(serializeForHash));
+    }
+
+    /**
+     * @return The size on the wire, which is the compressed size if compression is used.
+     */
+    @Override
+    public int getSerializedSize() {
+        if (serializedEnvelopePayloadMessage == null) {
+            return completeProto().getSerializedSize();
+        }
+        int size = getHeaderSize();
+        size += compressedNetworkMessage != null ?
+                CodedOutputStream.computeBytesSize(4, compressedNetworkMessage) :
+                CodedOutputStream.computeBytesSize(3, serializedEnvelopePayloadMessage.getSerialized());
+        return size;
+    }
+
+    /**
+     * @return The size the envelope would have without compression. Used for size accounting, so that it does not
+     * depend on whether the peer supports compression.
+     */
+    public int getUncompressedSerializedSize() {
+        if (compressedNetworkMessage == null) {
+            return getSerializedSize();
+        }
+        return getHeaderSize() +
+                CodedOutputStream.computeTagSize(3) +
+                CodedOutputStream.computeUInt32SizeNoTag(networkMessageSize) +
+                networkMessageSize;
+    }
+
+    public boolean isCompressed() {
+        return compressedNetworkMessage != null;
+    }
+
+    /**
+     * Writes the same bytes as completeProto().writeTo(). If the envelopePayloadMessage was serialized already we
+     * write those bytes as the networkMessage field instead of serializing the message again. An embedded message
+     * is encoded as length delimited bytes, so the result is identical.
+     */
+    public void writeTo(CodedOutputStream codedOutputStream) throws IOException {
+        if (serializedEnvelopePayloadMessage == null) {
+            completeProto().writeTo(codedOutputStream);
+            return;
+        }
+        // Same field order and default value handling as in the generated code
+        if (version != 0) {
+            codedOutputStream.writeSInt32(1, version);
+        }
+        codedOutputStream.writeMessage(2, authorizationToken.toProto(false));
+        if (compressedNetworkMessage != null) {
+            codedOutputStream.writeBytes(4, compressedNetworkMessage);
+        } else {
+            codedOutputStream.writeBytes(3, serializedEnvelopePayloadMessage.getSerialized());
+        }
     }
 
     public static NetworkEnvelope fromProto(bisq.network.protobuf.NetworkEnvelope proto) {
-        return new NetworkEnvelope(proto.getVersion(),
-                AuthorizationToken.fromProto(proto.getAuthorizationToken()),
-                EnvelopePayloadMessage.fromProto(proto.getNetworkMessage()));
+        AuthorizationToken authorizationToken = AuthorizationToken.fromProto(proto.getAuthorizationToken());
+        ByteString compressedNetworkMessage = proto.getCompressedNetworkMessage();
+        if (compressedNetworkMessage.isEmpty()) {
+            return new NetworkEnvelope(proto.getVersion(),
+                    authorizationToken,
+                    EnvelopePayloadMessage.fromProto(proto.getNetworkMessage()));
+        }
+        try {
+            ByteString networkMessage = EnvelopeCompression.decompress(compressedNetworkMessage);
+            return new NetworkEnvelope(proto.getVersion(),
+                    authorizationToken,
+                    EnvelopePayloadMessage.fromProto(bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(networkMessage)),
+                    null,
+                    compressedNetworkMessage,
+                    networkMessage.size());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not decompress networkMessage", e);
+        }
+    }
+
+    private int getHeaderSize() {
+        int size = version != 0 ? CodedOutputStream.computeSInt32Size(1, version) : 0;
+        return size + CodedOutputStream.computeMessageSize(2, authorizationToken.toProto(false));
     }
 
     public void verifyVersion() throws ConnectionException {
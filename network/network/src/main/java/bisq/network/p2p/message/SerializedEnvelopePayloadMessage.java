@@ -0,0 +1,82 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.message;
+
+import bisq.network.p2p.node.envelope.EnvelopeCompression;
+import bisq.security.DigestUtil;
+import com.google.common.base.Suppliers;
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Wraps an EnvelopePayloadMessage and serializes it at most once. If the same instance is used for sending the
+ * message to multiple peers (e.g. at broadcast) the serialized bytes and the data used for the proof of work payload
+ * are reused and only the authorization token is created per connection.
+ * Serialization happens lazily at first use and is thread safe.
+ */
+public final class SerializedEnvelopePayloadMessage {
+    @Getter
+    private final EnvelopePayloadMessage envelopePayloadMessage;
+    private final Supplier<bisq.network.protobuf.EnvelopePayloadMessage> proto;
+    private final Supplier<ByteString> serialized;
+    private final Supplier<byte[]> serializedForHash;
+    private final Supplier<byte[]> hashOfSerializedForHash;
+    private final Supplier<Optional<ByteString>> compressed;
+
+    public SerializedEnvelopePayloadMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+        this.envelopePayloadMessage = envelopePayloadMessage;
+        proto = Suppliers.memoize(() -> envelopePayloadMessage.toProto(false));
+        serialized = Suppliers.memoize(() -> proto.get().toByteString());
+        serializedForHash = Suppliers.memoize(envelopePayloadMessage::serializeForHash);
+        hashOfSerializedForHash = Suppliers.memoize(() -> DigestUtil.hash(serializedForHash.get()));
+        compressed = Suppliers.memoize(() -> EnvelopeCompression.compress(serialized.get()));
+    }
+
+    public bisq.network.protobuf.EnvelopePayloadMessage getProto() {
+        return proto.get();
+    }
+
+    public ByteString getSerialized() {
+        return serialized.get();
+    }
+
+    /**
+     * The returned array is shared, callers must not modify it.
+     */
+    public byte[] getSerializedForHash() {
+        return serializedForHash.get();
+    }
+
+    /**
+     * The returned array is shared, callers must not modify it.
+     */
+    public byte[] getHashOfSerializedForHash() {
+        return hashOfSerializedForHash.get();
+    }
+
+    /**
+     * @return The compressed serialized message, or empty if the message does not benefit from compression.
+     * Compression happens at first use, so it is done only once if the message is sent to multiple peers.
+     */
+    public Optional<ByteString> getCompressed() {
+        return compressed.get();
+    }
+}
@@ -25,17 +25,24 @@ import bisq.common.threading.AbortPolicyWithLogging;
 import bisq.common.threading.ExecutorFactory;
 import bisq.common.threading.MaxSizeAwareDeque;
 import bisq.common.threading.MaxSizeAwareQueue;
+import bisq.common.threading.SerialExecutor;
 import bisq.common.util.ExceptionUtil;
 import bisq.common.util.StringUtils;
 import bisq.network.NetworkExecutors;
 import bisq.network.p2p.message.CloseConnectionMessage;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.OutboundMintingStage;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocket;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeDeserializer;
+import bisq.network.p2p.node.event_loop.EventLoopChannel;
+import bisq.network.p2p.node.event_loop.EventLoopGroup;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.verification.VerificationSequencer;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -45,16 +52,26 @@ import javax.annotation.Nullable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 
 
@@ -64,6 +81,17 @@ import java.util.function.BiConsumer;
  * Send messages to the peer.
  * Notifies messageListeners on new received messages.
  * Notifies errorHandler on exceptions from the inputHandlerService executor.
+ * <p>
+ * After the handshake the IO is either done with blocking streams on per-connection thread pools (THREAD_POOL mode),
+ * or, if the SELECTOR mode is enabled and the socket is backed by a SocketChannel, by the shared EventLoopGroup.
+ * In the latter case received messages are processed on the shared worker executor, serialized per connection by
+ * SerialExecutors, so the number of threads does not grow with the number of connections.
+ * In VIRTUAL_THREAD mode the blocking read loop and the sends run on virtual threads.
+ * If the InboundVerificationStage is enabled, the authorization of received messages is verified in parallel on a
+ * shared pool and the messages get dispatched in the received order afterwards, so that an expensive verification
+ * does not block reading.
+ * If the OutboundMintingStage is enabled, the authorization token of a sent message is minted on a shared pool as soon
+ * as the message gets queued, so that minting overlaps with writing the messages queued before.
  */
 @Slf4j
 public abstract class Connection {
@@ -77,6 +105,13 @@ public abstract class Connection {
 
     @Setter
     private static int executorMaxPoolSize = 5;
+    // Used if writeCoalescing is enabled. Max. number of messages we write with one flush.
+    private static final int MAX_MESSAGES_PER_FLUSH = 50;
+    @Setter
+    private static boolean writeCoalescing;
+    // If that number of received messages is pending for processing we pause reading from the socket
+    private static final int MAX_PENDING_RECEIVED_MESSAGES = 100;
+    private static final int SEND_QUEUE_CAPACITY = 100;
 
     protected interface Handler {
         boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
@@ -109,18 +144,44 @@ public abstract class Connection {
 
     private NetworkEnvelopeSocket networkEnvelopeSocket;
     private final ConnectionThrottle connectionThrottle;
+    // True if both peers support Feature.ENVELOPE_COMPRESSION
+    @Getter
+    private final boolean isCompressionEnabled;
     private final Handler handler;
+    private final BiConsumer<Connection, Exception> errorHandler;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private Future<?> inputHandlerFuture;
     // We use counter value 0 in the handshake, thus we start here with 1 as it's not the first message
     @Getter(AccessLevel.PACKAGE)
     private final AtomicInteger sentMessageCounter = new AtomicInteger(1);
-    private final Object writeLock = new Object();
+    // We use a ReentrantLock instead of synchronized to not pin the carrier thread in VIRTUAL_THREAD mode
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Messages waiting to be written by the next flush if writeCoalescing is enabled. Bounded like the send queue.
+    private final BlockingQueue<PendingSend> pendingSends = new LinkedBlockingQueue<>(SEND_QUEUE_CAPACITY);
     private volatile boolean shutdownStarted;
     private volatile boolean listeningStopped;
-    private final ThreadPoolExecutor readExecutor;
-    private final ThreadPoolExecutor sendExecutor;
+    // Used in THREAD_POOL mode
+    @Nullable
+    private ThreadPoolExecutor readExecutor;
+    @Nullable
+    private ThreadPoolExecutor sendExecutor;
+    // Used in SELECTOR mode
+    @Nullable
+    private EventLoopChannel eventLoopChannel;
+    // Used in SELECTOR mode or if the InboundVerificationStage is enabled
+    @Nullable
+    private SerialExecutor receiveSerialExecutor;
+    // Used if the InboundVerificationStage is enabled
+    @Nullable
+    private VerificationSequencer verificationSequencer;
+    // Bounds the received messages pending for verification in THREAD_POOL and VIRTUAL_THREAD mode
+    private final Semaphore pendingVerificationPermits = new Semaphore(MAX_PENDING_RECEIVED_MESSAGES);
+    // Includes messages deferred by the throttle
+    private final AtomicInteger numPendingReceivedMessages = new AtomicInteger();
+    // Used in SELECTOR and VIRTUAL_THREAD mode
+    @Nullable
+    private SerialExecutor sendSerialExecutor;
 
     protected Connection(AuthorizationService authorizationService,
                          String connectionId,
@@ -129,20 +190,22 @@ public abstract class Connection {
                          NetworkLoadSnapshot peersNetworkLoadSnapshot,
                          ConnectionMetrics connectionMetrics,
                          ConnectionThrottle connectionThrottle,
+                         boolean isCompressionEnabled,
                          Handler handler,
                          BiConsumer<Connection, Exception> errorHandler) {
         this.authorizationService = authorizationService;
+        this.isCompressionEnabled = isCompressionEnabled;
         this.id = connectionId;
+        // Usually already done at the handshake. It gets released at handleConnectionClosed.
+        authorizationService.onConnect(connectionId);
         this.peersCapability = peersCapability;
         this.peersNetworkLoadSnapshot = peersNetworkLoadSnapshot;
         this.connectionThrottle = connectionThrottle;
         this.handler = handler;
+        this.errorHandler = errorHandler;
         this.connectionMetrics = connectionMetrics;
         requestResponseManager = new RequestResponseManager(connectionMetrics);
 
-        readExecutor = createReadExecutor();
-        sendExecutor = createSendExecutor();
-
         try {
             PeerSocket peerSocket = new DefaultPeerSocket(socket);
             this.networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
@@ -152,74 +215,16 @@ public abstract class Connection {
             shutdown(CloseReason.EXCEPTION.exception(exception));
             return;
         }
-        try {
-            inputHandlerFuture = readExecutor.submit(() -> {
-                try {
-                    long readTs = 0;
-                    while (isInputStreamActive()) {
-                        if (readTs != 0) {
-                            log.debug("Processing message took {} ms. Wait for new message from {}. ", System.currentTimeMillis() - readTs, getPeerAddress());
-                        } else {
-                            log.debug("Wait for new message from {}", getPeerAddress());
-                        }
-                        var proto = networkEnvelopeSocket.receiveNextEnvelope();
-                        readTs = System.currentTimeMillis();
-                        if (proto == null) {
-                            log.info("Proto from networkEnvelopeSocket.receiveNextEnvelope() is null. " +
-                                    "This is expected if the input stream has reached EOF. We shut down the connection.");
-                            shutdown(CloseReason.EXCEPTION.exception(new EOFException("Input stream reached EOF")));
-                            return;
-                        }
 
-                        // receiveNextEnvelope might need some time wo we check again if connection is still active
-                        if (!isInputStreamActive()) {
-                            return;
-                        }
-
-                        connectionThrottle.throttleReceiveMessage();
-                        // ThrottleReceiveMessage can cause a delay by Thread.sleep
-                        if (!isInputStreamActive()) {
-                            return;
-                        }
-                        long ts = System.currentTimeMillis();
-                        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
-                        long deserializeTime = System.currentTimeMillis() - ts;
-                        networkEnvelope.verifyVersion();
-                        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
-
-                        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
-                        log.debug("Received message: {} at: {}",
-                                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
-                        requestResponseManager.onReceived(envelopePayloadMessage);
-
-                        if (isInputStreamActive()) {
-                            boolean isMessageAuthorized = handler.isMessageAuthorized(envelopePayloadMessage,
-                                    networkEnvelope.getAuthorizationToken(),
-                                    this);
-                            if (isMessageAuthorized) {
-                                handler.handleNetworkMessage(envelopePayloadMessage, this);
-                                listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onNetworkMessage(envelopePayloadMessage)));
-                            }
-                        }
-                    }
-                } catch (Exception exception) {
-                    //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
-                    if (!shutdownStarted) {
-                        log.debug("Exception at input handler on {}", this, exception);
-                        shutdown(CloseReason.EXCEPTION.exception(exception));
-
-                        // EOFException expected if connection got closed (Socket closed message)
-                        if (!(exception instanceof EOFException)) {
-                            errorHandler.accept(this, exception);
-                        }
-                    }
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            log.error("Read executor rejected task. We shut down the connection.", e);
-            errorHandler.accept(this, e);
-            inputHandlerFuture = CompletableFuture.failedFuture(e);
-            shutdown(CloseReason.EXCEPTION.exception(e));
+        SocketChannel socketChannel = socket.getChannel();
+        Optional<EventLoopGroup> eventLoopGroup = NetworkExecutors.findEventLoopGroup();
+        Optional<ExecutorService> virtualThreadExecutor = NetworkExecutors.findVirtualThreadExecutor();
+        if (eventLoopGroup.isPresent() && socketChannel != null) {
+            startSelectorIo(socket, socketChannel, eventLoopGroup.get());
+        } else if (virtualThreadExecutor.isPresent()) {
+            startVirtualThreadIo(virtualThreadExecutor.get());
+        } else {
+            startThreadPoolIo();
         }
     }
 
@@ -271,27 +276,78 @@ public abstract class Connection {
     /* --------------------------------------------------------------------- */
 
     CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage) {
+        return sendAsync(new SerializedEnvelopePayloadMessage(envelopePayloadMessage));
+    }
+
+    /**
+     * If the same serializedEnvelopePayloadMessage is sent to multiple connections, the message gets serialized only
+     * once and only the AuthorizationToken is created per connection.
+     */
+    CompletableFuture<Connection> sendAsync(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage) {
+        Executor executor = getSendExecutor();
+        if (executor == null) {
+            // Can happen if the connection failed at creation
+            return CompletableFuture.failedFuture(new ConnectionClosedException(this));
+        }
+
+        long delay = connectionThrottle.reserveSendMessageSlot();
+        if (delay == 0) {
+            return sendAsync(serializedEnvelopePayloadMessage, executor);
+        }
+        if (delay == ConnectionThrottle.REJECTED) {
+            // Same as if the send queue is full, the caller has to handle the backpressure
+            return CompletableFuture.failedFuture(new ConnectionException("Too many throttled messages pending for sending"));
+        }
+
+        // We do not block a send thread while throttling but hand over the send task after the delay
+        connectionMetrics.onSendThrottled(delay);
+        CompletableFuture<Connection> future = new CompletableFuture<>();
+        ConnectionThrottle.schedule(() -> sendAsync(serializedEnvelopePayloadMessage, executor)
+                .whenComplete((connection, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                    } else {
+                        future.complete(connection);
+                    }
+                }), delay);
+        return future;
+    }
+
+    private CompletableFuture<Connection> sendAsync(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                                    Executor executor) {
+        @Nullable CompletableFuture<AuthorizationToken> mintedAuthorizationToken = mintAuthorizationTokenAsync(serializedEnvelopePayloadMessage);
+        if (writeCoalescing) {
+            return sendCoalescedAsync(serializedEnvelopePayloadMessage, mintedAuthorizationToken, executor);
+        }
+        EnvelopePayloadMessage envelopePayloadMessage = serializedEnvelopePayloadMessage.getEnvelopePayloadMessage();
         try {
             return CompletableFuture.supplyAsync(() -> {
                 if (isStopped()) {
                     throw new ConnectionClosedException(this);
                 }
-
-                connectionThrottle.throttleSendMessage();
-                if (isStopped()) {
-                    throw new ConnectionClosedException(this);
-                }
                 try {
                     long spentTime;
                     NetworkEnvelope networkEnvelope;
+                    if (isCompressionEnabled) {
+                        // The compressed message is memoized, so we compress before taking the lock
+                        serializedEnvelopePayloadMessage.getCompressed();
+                    }
+                    // A minted token is awaited outside the lock, so that we do not block the writes of other messages
+                    AuthorizationToken authorizationToken = mintedAuthorizationToken != null ? mintedAuthorizationToken.join() : null;
                     // We want to keep the creation of the AuthorizationToken and the sending synchronized to avoid
                     // out of order issues with sentMessageCounter.
-                    synchronized (writeLock) {
-                        AuthorizationToken authorizationToken = createAuthorizationToken(envelopePayloadMessage);
-                        networkEnvelope = createNetworkEnvelope(envelopePayloadMessage, authorizationToken);
+                    writeLock.lock();
+                    try {
+                        if (authorizationToken == null) {
+                            authorizationToken = createAuthorizationToken(serializedEnvelopePayloadMessage);
+                        }
+                        networkEnvelope = createNetworkEnvelope(serializedEnvelopePayloadMessage, authorizationToken);
                         long ts = System.currentTimeMillis();
-                        networkEnvelopeSocket.send(networkEnvelope);
+                        int numBytes = send(networkEnvelope);
                         spentTime = System.currentTimeMillis() - ts;
+                        connectionMetrics.onFlush(1, numBytes);
+                    } finally {
+                        writeLock.unlock();
                     }
                     connectionMetrics.onSent(networkEnvelope, spentTime);
                     requestResponseManager.onSent(envelopePayloadMessage);
@@ -299,25 +355,103 @@ public abstract class Connection {
                         log.info("Sent {} from {}", StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
                     }
                 } catch (Exception exception) {
-                    if (exception instanceof ConnectionException connectionException) {
-                        throw connectionException;
-                    }
-                    throw new ConnectionException(exception);
+                    throw toConnectionException(exception);
                 }
                 return this;
-            }, sendExecutor);
+            }, executor);
         } catch (RejectedExecutionException e) {
             log.error("Send executor rejected task", e);
             return CompletableFuture.failedFuture(new ConnectionException("Send executor rejected task"));
         }
     }
 
-    private NetworkEnvelope createNetworkEnvelope(EnvelopePayloadMessage envelopePayloadMessage,
+    private CompletableFuture<Connection> sendCoalescedAsync(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                                             @Nullable CompletableFuture<AuthorizationToken> mintedAuthorizationToken,
+                                                             Executor executor) {
+        PendingSend pendingSend = new PendingSend(serializedEnvelopePayloadMessage, mintedAuthorizationToken, new CompletableFuture<>());
+        if (!pendingSends.offer(pendingSend)) {
+            log.warn("Send queue of {} is full. We reject the message.", this);
+            return CompletableFuture.failedFuture(new ConnectionException("Send queue is full"));
+        }
+        try {
+            // Each message triggers a flush task. If a previous flush task has already written the message, the
+            // task does nothing.
+            executor.execute(this::flushPendingSends);
+        } catch (RejectedExecutionException e) {
+            log.error("Send executor rejected task", e);
+            if (pendingSends.remove(pendingSend)) {
+                return CompletableFuture.failedFuture(new ConnectionException("Send executor rejected task"));
+            }
+        }
+        return pendingSend.future();
+    }
+
+    private void flushPendingSends() {
+        writeLock.lock();
+        try {
+            while (!pendingSends.isEmpty()) {
+                List<PendingSend> batch = new ArrayList<>();
+                List<NetworkEnvelope> networkEnvelopes = new ArrayList<>();
+                PendingSend pendingSend;
+                // We create the AuthorizationTokens in the order the messages get written to keep the
+                // sentMessageCounter in order. Tokens minted at the OutboundMintingStage got their counter when the
+                // message was queued.
+                while (batch.size() < MAX_MESSAGES_PER_FLUSH && (pendingSend = pendingSends.poll()) != null) {
+                    if (isStopped()) {
+                        pendingSend.future().completeExceptionally(new ConnectionClosedException(this));
+                        continue;
+                    }
+                    try {
+                        AuthorizationToken authorizationToken = pendingSend.mintedAuthorizationToken() != null ?
+                                pendingSend.mintedAuthorizationToken().join() :
+                                createAuthorizationToken(pendingSend.serializedEnvelopePayloadMessage());
+                        networkEnvelopes.add(createNetworkEnvelope(pendingSend.serializedEnvelopePayloadMessage(), authorizationToken));
+                        batch.add(pendingSend);
+                    } catch (Exception exception) {
+                        pendingSend.future().completeExceptionally(toConnectionException(exception));
+                    }
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    long ts = System.currentTimeMillis();
+                    int numBytes = send(networkEnvelopes);
+                    long spentTime = System.currentTimeMillis() - ts;
+                    connectionMetrics.onFlush(batch.size(), numBytes);
+                    for (int i = 0; i < batch.size(); i++) {
+                        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelopes.get(i).getEnvelopePayloadMessage();
+                        connectionMetrics.onSent(networkEnvelopes.get(i), spentTime / batch.size());
+                        requestResponseManager.onSent(envelopePayloadMessage);
+                        if (envelopePayloadMessage instanceof CloseConnectionMessage) {
+                            log.info("Sent {} from {}", StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
+                        }
+                        batch.get(i).future().complete(this);
+                    }
+                } catch (Exception exception) {
+                    ConnectionException connectionException = toConnectionException(exception);
+                    batch.forEach(e -> e.future().completeExceptionally(connectionException));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static ConnectionException toConnectionException(Exception exception) {
+        if (exception instanceof ConnectionException connectionException) {
+            return connectionException;
+        }
+        return new ConnectionException(exception);
+    }
+
+    private NetworkEnvelope createNetworkEnvelope(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
                                                   AuthorizationToken authorizationToken) {
         try {
             // The verify method inside NetworkEnvelope constructor could throw an exception.
             // This would be only the case if our data we want to send is invalid.
-            return new NetworkEnvelope(authorizationToken, envelopePayloadMessage);
+            return new NetworkEnvelope(authorizationToken, serializedEnvelopePayloadMessage, isCompressionEnabled);
         } catch (Exception exception) {
             if (isRunning()) {
                 log.warn("Cannot create NetworkEnvelope. {}", ExceptionUtil.getRootCauseMessage(exception));
@@ -328,8 +462,26 @@ public abstract class Connection {
         }
     }
 
-    private AuthorizationToken createAuthorizationToken(EnvelopePayloadMessage envelopePayloadMessage) {
-        return authorizationService.createToken(envelopePayloadMessage,
+    /**
+     * @return The future of the token minted at the OutboundMintingStage, or null if the stage is not enabled or
+     * rejected the task. In that case the token gets created right before writing.
+     */
+    @Nullable
+    private CompletableFuture<AuthorizationToken> mintAuthorizationTokenAsync(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage) {
+        Optional<OutboundMintingStage> outboundMintingStage = NetworkExecutors.findOutboundMintingStage();
+        if (outboundMintingStage.isEmpty()) {
+            return null;
+        }
+        try {
+            return outboundMintingStage.get().mint(() -> createAuthorizationToken(serializedEnvelopePayloadMessage));
+        } catch (RejectedExecutionException e) {
+            log.warn("OutboundMintingStage rejected task. We mint the token before writing.");
+            return null;
+        }
+    }
+
+    private AuthorizationToken createAuthorizationToken(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage) {
+        return authorizationService.createToken(serializedEnvelopePayloadMessage,
                 peersNetworkLoadSnapshot.getCurrentNetworkLoad(),
                 getPeerAddress().getFullAddress(),
                 sentMessageCounter.getAndIncrement(),
@@ -351,9 +503,22 @@ public abstract class Connection {
         shutdownStarted = true;
         requestResponseManager.dispose();
         connectionMetrics.clear();
+        PendingSend pendingSend;
+        while ((pendingSend = pendingSends.poll()) != null) {
+            pendingSend.future().completeExceptionally(new ConnectionClosedException(this));
+        }
         if (inputHandlerFuture != null) {
             inputHandlerFuture.cancel(true);
         }
+        if (eventLoopChannel != null) {
+            eventLoopChannel.close();
+        }
+        if (receiveSerialExecutor != null) {
+            receiveSerialExecutor.shutdown();
+        }
+        if (sendSerialExecutor != null) {
+            sendSerialExecutor.shutdown();
+        }
         try {
             if (networkEnvelopeSocket != null) {
                 networkEnvelopeSocket.close();
@@ -364,8 +529,12 @@ public abstract class Connection {
         listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConnectionClosed(closeReason)));
         listeners.clear();
 
-        ExecutorFactory.shutdownAndAwaitTermination(readExecutor);
-        ExecutorFactory.shutdownAndAwaitTermination(sendExecutor);
+        if (readExecutor != null) {
+            ExecutorFactory.shutdownAndAwaitTermination(readExecutor);
+        }
+        if (sendExecutor != null) {
+            ExecutorFactory.shutdownAndAwaitTermination(sendExecutor);
+        }
     }
 
     boolean isStopped() {
@@ -384,6 +553,281 @@ public abstract class Connection {
         return !listeningStopped && isRunning();
     }
 
+    private void startThreadPoolIo() {
+        readExecutor = createReadExecutor();
+        sendExecutor = createSendExecutor();
+        setupInboundVerification(readExecutor);
+        startInputHandler(readExecutor);
+    }
+
+    private void startVirtualThreadIo(ExecutorService virtualThreadExecutor) {
+        // The SerialExecutor keeps the sends in order and bounds the pending sends with the same capacity as the
+        // queue of the sendExecutor in THREAD_POOL mode. The read loop blocks on the socket, thus the peer cannot send
+        // more as we process, the same as in THREAD_POOL mode.
+        sendSerialExecutor = new SerialExecutor(virtualThreadExecutor, "Connection.send-" + getThreadNameDetails(), SEND_QUEUE_CAPACITY);
+        setupInboundVerification(virtualThreadExecutor);
+        startInputHandler(virtualThreadExecutor);
+    }
+
+    /**
+     * @param executor The executor used for dispatching the verified messages in received order. In SELECTOR mode we
+     *                 reuse the receiveSerialExecutor.
+     */
+    private void setupInboundVerification(Executor executor) {
+        NetworkExecutors.findInboundVerificationStage().ifPresent(inboundVerificationStage -> {
+            if (receiveSerialExecutor == null) {
+                receiveSerialExecutor = new SerialExecutor(executor, "Connection.receive-" + getThreadNameDetails(), 10 * MAX_PENDING_RECEIVED_MESSAGES);
+            }
+            // Shutting down the connection can block (e.g. awaiting termination of the readExecutor), so we must not
+            // do it on the shared verification pool.
+            verificationSequencer = new VerificationSequencer(inboundVerificationStage,
+                    receiveSerialExecutor,
+                    exception -> NetworkExecutors.getNotifyExecutor().submit(() -> handleInputException(exception)));
+        });
+    }
+
+    private void startInputHandler(ExecutorService executor) {
+        submitInputHandler(executor, null);
+    }
+
+    /**
+     * @param pendingProto A received message which got deferred by the throttle and has to be processed before
+     *                     reading the next message.
+     */
+    private void submitInputHandler(ExecutorService executor,
+                                    @Nullable bisq.network.protobuf.NetworkEnvelope pendingProto) {
+        if (pendingProto != null && !isInputStreamActive()) {
+            return;
+        }
+        try {
+            inputHandlerFuture = executor.submit(() -> {
+                try {
+                    if (pendingProto != null && isInputStreamActive()) {
+                        processReceivedProto(pendingProto);
+                    }
+                    long readTs = 0;
+                    while (isInputStreamActive()) {
+                        if (readTs != 0) {
+                            log.debug("Processing message took {} ms. Wait for new message from {}. ", System.currentTimeMillis() - readTs, getPeerAddress());
+                        } else {
+                            log.debug("Wait for new message from {}", getPeerAddress());
+                        }
+                        var proto = networkEnvelopeSocket.receiveNextEnvelope();
+                        readTs = System.currentTimeMillis();
+                        if (proto == null) {
+                            log.info("Proto from networkEnvelopeSocket.receiveNextEnvelope() is null. " +
+                                    "This is expected if the input stream has reached EOF. We shut down the connection.");
+                            shutdown(CloseReason.EXCEPTION.exception(new EOFException("Input stream reached EOF")));
+                            return;
+                        }
+
+                        // receiveNextEnvelope might need some time wo we check again if connection is still active
+                        if (!isInputStreamActive()) {
+                            return;
+                        }
+
+                        long delay = connectionThrottle.reserveReceiveMessageSlot();
+                        if (delay > 0) {
+                            // Instead of blocking the read thread we exit the read loop and continue after the
+                            // delay. As we do not read from the socket in the meantime, the peer gets slowed down.
+                            connectionMetrics.onReceiveThrottled(delay);
+                            ConnectionThrottle.schedule(() -> submitInputHandler(executor, proto), delay);
+                            return;
+                        }
+
+                        processReceivedProto(proto);
+                    }
+                } catch (Exception exception) {
+                    handleInputException(exception);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("Read executor rejected task. We shut down the connection.", e);
+            errorHandler.accept(this, e);
+            inputHandlerFuture = CompletableFuture.failedFuture(e);
+            shutdown(CloseReason.EXCEPTION.exception(e));
+        }
+    }
+
+    private void startSelectorIo(Socket socket, SocketChannel socketChannel, EventLoopGroup eventLoopGroup) {
+        String threadNameDetails = getThreadNameDetails();
+        ThreadPoolExecutor workerExecutor = eventLoopGroup.getWorkerExecutor();
+        // We allow more as MAX_PENDING_RECEIVED_MESSAGES as one read can deliver multiple messages before we pause reading
+        receiveSerialExecutor = new SerialExecutor(workerExecutor, "Connection.receive-" + threadNameDetails, 10 * MAX_PENDING_RECEIVED_MESSAGES);
+        sendSerialExecutor = new SerialExecutor(workerExecutor, "Connection.send-" + threadNameDetails, SEND_QUEUE_CAPACITY);
+        setupInboundVerification(workerExecutor);
+        try {
+            // In non-blocking mode the socket timeout has no effect, so the EventLoopChannel applies it as idle timeout
+            long idleTimeout = socket.getSoTimeout();
+            eventLoopChannel = new EventLoopChannel(eventLoopGroup.next(), socketChannel, idleTimeout, new EventLoopChannel.Handler() {
+                @Override
+                public void onMessages(List<byte[]> messages) {
+                    handleReceivedMessages(messages);
+                }
+
+                @Override
+                public void onException(Exception exception) {
+                    handleInputException(exception);
+                }
+            });
+            eventLoopChannel.start();
+        } catch (Exception e) {
+            log.error("Could not start event loop channel. We shut down the connection.", e);
+            errorHandler.accept(this, e);
+            shutdown(CloseReason.EXCEPTION.exception(e));
+        }
+    }
+
+    // Called on the event loop thread, so we must not block
+    private void handleReceivedMessages(List<byte[]> messages) {
+        for (byte[] message : messages) {
+            numPendingReceivedMessages.incrementAndGet();
+            Runnable onProcessed = () -> {
+                if (numPendingReceivedMessages.decrementAndGet() <= MAX_PENDING_RECEIVED_MESSAGES / 2) {
+                    eventLoopChannel.resumeReading();
+                }
+            };
+            Runnable task = () -> {
+                boolean isHandedOver = false;
+                try {
+                    if (isInputStreamActive()) {
+                        bisq.network.protobuf.NetworkEnvelope proto = NetworkEnvelopeDeserializer.parse(message);
+                        isHandedOver = true;
+                        handleReceivedProto(proto, onProcessed);
+                    }
+                } catch (Exception exception) {
+                    handleInputException(exception);
+                } finally {
+                    if (!isHandedOver) {
+                        onProcessed.run();
+                    }
+                }
+            };
+            long delay = connectionThrottle.reserveReceiveMessageSlot();
+            if (delay > 0) {
+                // The release times of the throttle are in order, so deferred messages keep their order
+                connectionMetrics.onReceiveThrottled(delay);
+                ConnectionThrottle.schedule(() -> executeReceiveTask(task), delay);
+            } else {
+                executeReceiveTask(task);
+            }
+        }
+        if (numPendingReceivedMessages.get() >= MAX_PENDING_RECEIVED_MESSAGES) {
+            log.info("Pause reading from {} as {} received messages are pending", this, numPendingReceivedMessages.get());
+            eventLoopChannel.pauseReading();
+        }
+    }
+
+    private void executeReceiveTask(Runnable task) {
+        try {
+            receiveSerialExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            handleInputException(e);
+        }
+    }
+
+    // Called from the read loop in THREAD_POOL and VIRTUAL_THREAD mode
+    private void processReceivedProto(bisq.network.protobuf.NetworkEnvelope proto) throws InterruptedException {
+        if (verificationSequencer == null) {
+            handleReceivedProto(proto, () -> {
+            });
+            return;
+        }
+        // Without the verification stage the processing of a message blocks reading. With the stage we only block
+        // reading if too many received messages are pending, so the peer still cannot send more as we can process.
+        pendingVerificationPermits.acquire();
+        handleReceivedProto(proto, pendingVerificationPermits::release);
+    }
+
+    /**
+     * Must be called in the order the messages got received.
+     *
+     * @param onProcessed Called once the message got processed, also in case of an exception. If the message got
+     *                    verified at the InboundVerificationStage, it is called after dispatching the message.
+     */
+    private void handleReceivedProto(bisq.network.protobuf.NetworkEnvelope proto, Runnable onProcessed) {
+        boolean isHandedOver = false;
+        try {
+            long ts = System.currentTimeMillis();
+            NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
+            long deserializeTime = System.currentTimeMillis() - ts;
+            networkEnvelope.verifyVersion();
+            connectionMetrics.onReceived(networkEnvelope, deserializeTime);
+
+            EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
+            log.debug("Received message: {} at: {}",
+                    StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
+            requestResponseManager.onReceived(envelopePayloadMessage);
+
+            if (isInputStreamActive()) {
+                AuthorizationToken authorizationToken = networkEnvelope.getAuthorizationToken();
+                if (verificationSequencer != null) {
+                    verificationSequencer.submit(authorizationToken.getAuthorizationTokenType(),
+                            () -> handler.isMessageAuthorized(envelopePayloadMessage, authorizationToken, this),
+                            (isAuthorized, exception) -> {
+                                try {
+                                    if (exception != null) {
+                                        handleInputException(exception);
+                                    } else if (isAuthorized && isInputStreamActive()) {
+                                        dispatchNetworkMessage(envelopePayloadMessage);
+                                    }
+                                } catch (Exception e) {
+                                    handleInputException(e);
+                                } finally {
+                                    onProcessed.run();
+                                }
+                            });
+                    isHandedOver = true;
+                } else if (handler.isMessageAuthorized(envelopePayloadMessage, authorizationToken, this)) {
+                    dispatchNetworkMessage(envelopePayloadMessage);
+                }
+            }
+        } finally {
+            if (!isHandedOver) {
+                onProcessed.run();
+            }
+        }
+    }
+
+    private void dispatchNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+        handler.handleNetworkMessage(envelopePayloadMessage, this);
+        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onNetworkMessage(envelopePayloadMessage)));
+    }
+
+    private void handleInputException(Exception exception) {
+        //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
+        if (!shutdownStarted) {
+            log.debug("Exception at input handler on {}", this, exception);
+            shutdown(CloseReason.EXCEPTION.exception(exception));
+
+            // EOFException expected if connection got closed (Socket closed message)
+            if (!(exception instanceof EOFException)) {
+                errorHandler.accept(this, exception);
+            }
+        }
+    }
+
+    private int send(NetworkEnvelope networkEnvelope) throws IOException {
+        if (eventLoopChannel != null) {
+            return eventLoopChannel.send(networkEnvelope);
+        } else {
+            return networkEnvelopeSocket.send(networkEnvelope);
+        }
+    }
+
+    private int send(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        if (eventLoopChannel != null) {
+            return eventLoopChannel.send(networkEnvelopes);
+        } else {
+            return networkEnvelopeSocket.send(networkEnvelopes);
+        }
+    }
+
+    @Nullable
+    private Executor getSendExecutor() {
+        return sendSerialExecutor != null ? sendSerialExecutor : sendExecutor;
+    }
+
     private ThreadPoolExecutor createReadExecutor() {
         int queueCapacity = 100;
         MaxSizeAwareDeque deque = new MaxSizeAwareDeque(queueCapacity);
@@ -401,7 +845,7 @@ public abstract class Connection {
     }
 
     private ThreadPoolExecutor createSendExecutor() {
-        int queueCapacity = 100;
+        int queueCapacity = SEND_QUEUE_CAPACITY;
         MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
         String name = "Connection.send-" + getThreadNameDetails();
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
@@ -422,4 +866,9 @@ public abstract class Connection {
                 peerAddress.isI2pAddress() ? TransportType.I2P.name() : TransportType.CLEAR.name();
         return transport + "-" + StringUtils.truncate(peerAddress, 8);
     }
+
+    private record PendingSend(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                               @Nullable CompletableFuture<AuthorizationToken> mintedAuthorizationToken,
+                               CompletableFuture<Connection> future) {
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.node;
+
+/**
+ * Defines how the IO of a Connection after the handshake is executed.
+ */
+public enum ConnectionIoMode {
+    /**
+     * Each connection uses its own read and send thread pools with blocking socket IO.
+     */
+    THREAD_POOL,
+    /**
+     * All connections are multiplexed by a small fixed set of selector threads of the shared EventLoopGroup.
+     * Requires sockets backed by a SocketChannel. For other sockets (e.g. outbound Tor connections via the
+     * SOCKS proxy) we fall back to THREAD_POOL.
+     */
+    SELECTOR,
+    /**
+     * The blocking read loop and the send tasks run on virtual threads. Blocking reads and throttle pauses do not
+     * occupy platform threads.
+     */
+    VIRTUAL_THREAD
+}
@@ -17,43 +17,69 @@
 
 package bisq.network.p2p.node;
 
+import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.MathUtils;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Checks if time between last send/receive is larger than the throttle time adjusted with the network load.
- * If so we pause the remaining time to ensure only 1 message is sent in that time slot.
- * This should avoid that a node gets flooded (at receive using the peers network load to adjust the throttle time) or
- * flooding their peers (at send using my network load to adjust the throttle time).
- * As larger value in the config for sendMessageTimestamp and receiveMessageTimestamp means it is more likely that
- * message send/receive get paused.
- * Messages are not dropped by we only pause the executing thread. We use lower and upper bounds for the pause, so
- * even with extreme values from the config the throttling should not have severe impacts on the
- * connection (e.g. lead to timeouts).
+ * Limits the rate of sent and received messages per connection with a token bucket for each direction.
+ * The buckets get refilled per throttle time, which is adjusted with the network load (at receive using my network
+ * load, at send using the peers network load). The bucket allows a small burst of messages after an idle period.
+ * This should avoid that a node gets flooded or is flooding its peers.
+ * <p>
+ * The throttle does not block. If no token is available the caller gets the delay until the message can be processed
+ * and defers the processing on the shared scheduler of the ConnectionThrottle. We use lower and upper bounds for the
+ * throttle time, so even with extreme values from the config the throttling should not have severe impacts on the
+ * connection (e.g. lead to timeouts). Deferred messages are released one after the other. At send, at most
+ * MAX_DEFERRED_SENDS messages can be deferred, further messages get rejected the same way as if the send queue is full.
+ * At receive, the delay gets limited by not reading from the socket while messages are deferred (at most
+ * MAX_PENDING_RECEIVED_MESSAGES), which slows down the peer.
  */
 @Slf4j
 public class ConnectionThrottle {
     private static final long MIN_THROTTLE_TIME = 20;
     private static final long MAX_THROTTLE_TIME = 1000;
+    // The former sleeping throttle measured the pause from the timestamp taken before the previous pause, which let
+    // each thread pass 2 messages per throttle time. Up to 5 send threads (Connection.executorMaxPoolSize) paused
+    // in parallel, but there is only one read thread. We refill at the same rate to keep the throughput under load.
+    private static final int SEND_TOKENS_PER_THROTTLE_TIME = 10;
+    private static final int RECEIVE_TOKENS_PER_THROTTLE_TIME = 2;
+    // Same as the queue capacity of the send executor
+    static final int MAX_DEFERRED_SENDS = 100;
+    static final long REJECTED = -1;
     private static final long MAX_LOG_FREQUENCY = TimeUnit.SECONDS.toMillis(30);
 
     // We apply the log throttle globally, so we use static fields
     private static final AtomicLong lastLoggedTs = new AtomicLong();
     private static final List<String> LAST_LOGS = new CopyOnWriteArrayList<>();
 
+    // Shared by all connections. Scheduled tasks must only hand over the work to the connection's executors.
+    private static final ScheduledExecutorService SCHEDULER = ExecutorFactory.newSingleThreadScheduledExecutor("ConnectionThrottle.scheduler");
+
+    /**
+     * Runs the task after the delay on the shared scheduler thread. The task must not block.
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return SCHEDULER.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
     private final NetworkLoadSnapshot peersNetworkLoadSnapshot;
     private final NetworkLoadSnapshot myNetworkLoadSnapshot;
     private final long sendMessageThrottleTime;
     private final long receiveMessageThrottleTime;
-    private final AtomicLong sendMessageTimestamp = new AtomicLong();
-    private final AtomicLong receiveMessageTimestamp = new AtomicLong();
+    private final TokenBucket sendTokenBucket = new TokenBucket(SEND_TOKENS_PER_THROTTLE_TIME, MAX_DEFERRED_SENDS);
+    // The number of deferred received messages is bounded by pausing the read from the socket
+    private final TokenBucket receiveTokenBucket = new TokenBucket(RECEIVE_TOKENS_PER_THROTTLE_TIME, Integer.MAX_VALUE);
 
     public ConnectionThrottle(NetworkLoadSnapshot peersNetworkLoadSnapshot,
                               NetworkLoadSnapshot myNetworkLoadSnapshot,
@@ -64,55 +90,106 @@ public class ConnectionThrottle {
         receiveMessageThrottleTime = config.getReceiveMessageThrottleTime(); // default 200
     }
 
-    void throttleSendMessage() {
-        throttle(sendMessageTimestamp, peersNetworkLoadSnapshot, sendMessageThrottleTime, "send");
+    /**
+     * Takes a token for sending a message.
+     *
+     * @return The delay in ms until the message can be sent. 0 if it can be sent immediately. REJECTED if
+     * MAX_DEFERRED_SENDS messages are deferred already.
+     */
+    long reserveSendMessageSlot() {
+        return reserve(sendTokenBucket, peersNetworkLoadSnapshot, sendMessageThrottleTime, SEND_TOKENS_PER_THROTTLE_TIME, "send");
     }
 
-    void throttleReceiveMessage() {
-        throttle(receiveMessageTimestamp, myNetworkLoadSnapshot, receiveMessageThrottleTime, "receive");
+    /**
+     * Takes a token for processing a received message.
+     *
+     * @return The delay in ms until the message can be processed. 0 if it can be processed immediately.
+     */
+    long reserveReceiveMessageSlot() {
+        return reserve(receiveTokenBucket, myNetworkLoadSnapshot, receiveMessageThrottleTime, RECEIVE_TOKENS_PER_THROTTLE_TIME, "receive");
     }
 
-    private void throttle(AtomicLong timestamp,
-                          NetworkLoadSnapshot networkLoadSnapshot,
-                          long throttleTime,
-                          String direction) {
+    private long reserve(TokenBucket tokenBucket,
+                         NetworkLoadSnapshot networkLoadSnapshot,
+                         long throttleTime,
+                         int tokensPerThrottleTime,
+                         String direction) {
         long now = System.currentTimeMillis();
-        long passed = now - timestamp.get();
         double load = networkLoadSnapshot.getCurrentNetworkLoad().getLoad();
         throttleTime = MIN_THROTTLE_TIME + Math.round(throttleTime * load);
         throttleTime = MathUtils.bounded(MIN_THROTTLE_TIME, MAX_THROTTLE_TIME, throttleTime);
-        if (passed < throttleTime) {
-            try {
-                long pause = throttleTime - passed;
-                pause = MathUtils.bounded(1, MAX_THROTTLE_TIME, pause);
-                String logMessage = String.format("Pause %s message for %d ms. Network=%f", direction, pause, load);
-                long passedSinceLastLog = now - lastLoggedTs.get();
-                if (passedSinceLastLog < MAX_LOG_FREQUENCY) {
-                    LAST_LOGS.add(logMessage);
-                    if (lastLoggedTs.get() == 0) {
-                        lastLoggedTs.set(now);
-                    }
-                } else {
-                    if (LAST_LOGS.isEmpty()) {
-                        log.info(logMessage);
-                    } else {
-                        LAST_LOGS.add(logMessage);
-                        List<String> temp = new ArrayList<>(LAST_LOGS);
-                        int size = temp.size();
-                        List<String> subList = temp.subList(0, Math.min(5, size));
-                        log.info("{} accumulated log messages in the past {} sec. Log message (max 5 displayed): {}",
-                                size, passedSinceLastLog / 1000, subList);
-                        LAST_LOGS.clear();
-                    }
-                    lastLoggedTs.set(now);
-                }
-                Thread.sleep(pause);
-            } catch (InterruptedException e) {
-                log.warn("Thread got interrupted at throttle method", e);
-                Thread.currentThread().interrupt(); // Restore interrupted state
-                throw new ConnectionException(e);
+        long delay = tokenBucket.reserve(now, Math.max(1, throttleTime / tokensPerThrottleTime));
+        if (delay == REJECTED) {
+            log(String.format("Reject %s message as too many messages are deferred. Network=%f", direction, load), now);
+        } else if (delay > 0) {
+            log(String.format("Delay %s message for %d ms. Network=%f", direction, delay, load), now);
+        }
+        return delay;
+    }
+
+    private static void log(String logMessage, long now) {
+        long passedSinceLastLog = now - lastLoggedTs.get();
+        if (passedSinceLastLog < MAX_LOG_FREQUENCY) {
+            LAST_LOGS.add(logMessage);
+            if (lastLoggedTs.get() == 0) {
+                lastLoggedTs.set(now);
+            }
+        } else {
+            if (LAST_LOGS.isEmpty()) {
+                log.info(logMessage);
+            } else {
+                LAST_LOGS.add(logMessage);
+                List<String> temp = new ArrayList<>(LAST_LOGS);
+                int size = temp.size();
+                List<String> subList = temp.subList(0, Math.min(5, size));
+                log.info("{} accumulated log messages in the past {} sec. Log message (max 5 displayed): {}",
+                        size, passedSinceLastLog / 1000, subList);
+                LAST_LOGS.clear();
+            }
+            lastLoggedTs.set(now);
+        }
+    }
+
+    @VisibleForTesting
+    static final class TokenBucket {
+        private final int capacity;
+        private final int maxDebt;
+        private double tokens;
+        private long lastRefillTs;
+        private long lastReleaseTs;
+
+        TokenBucket(int capacity, int maxDebt) {
+            this.capacity = capacity;
+            this.maxDebt = maxDebt;
+            tokens = capacity;
+        }
+
+        /**
+         * If no token is available we borrow it from the future refill, so that subsequent callers get queued
+         * behind. If the debt would exceed maxDebt the caller gets rejected without taking a token, thus the
+         * callers already queued are not delayed further.
+         * Deferred callers are released at least one refill interval after the previous one, thus they keep
+         * their order and do not get released in a burst even if the refill interval changes with the network load.
+         *
+         * @param refillInterval Time in ms for refilling one token.
+         * @return The delay in ms until the caller is allowed to proceed or REJECTED.
+         */
+        synchronized long reserve(long now, long refillInterval) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefillTs) / refillInterval);
+            lastRefillTs = now;
+            if (tokens - 1 < -maxDebt) {
+                return REJECTED;
+            }
+            tokens -= 1;
+            long releaseTs;
+            if (tokens >= 0) {
+                releaseTs = Math.max(now, lastReleaseTs);
+            } else {
+                long delay = (long) Math.ceil(-tokens * refillInterval);
+                releaseTs = Math.max(now + delay, lastReleaseTs + refillInterval);
             }
+            lastReleaseTs = releaseTs;
+            return releaseTs - now;
         }
-        timestamp.set(now);
     }
 }
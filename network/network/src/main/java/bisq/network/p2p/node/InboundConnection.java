@@ -34,6 +34,7 @@ public class InboundConnection extends Connection {
                       NetworkLoadSnapshot peersNetworkLoadSnapshot,
                       ConnectionMetrics connectionMetrics,
                       ConnectionThrottle connectionThrottle,
+                      boolean isCompressionEnabled,
                       Handler handler,
                       BiConsumer<Connection, Exception> errorHandler) {
         super(authorizationService,
@@ -43,6 +44,7 @@ public class InboundConnection extends Connection {
                 peersNetworkLoadSnapshot,
                 connectionMetrics,
                 connectionThrottle,
+                isCompressionEnabled,
                 handler,
                 errorHandler);
     }
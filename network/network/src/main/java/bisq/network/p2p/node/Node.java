@@ -32,10 +32,12 @@ import bisq.network.NetworkExecutors;
 import bisq.network.identity.NetworkId;
 import bisq.network.p2p.message.CloseConnectionMessage;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.handshake.ConnectionHandshake;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.network_load.NetworkTrafficMetrics;
 import bisq.network.p2p.node.transport.ServerSocketResult;
 import bisq.network.p2p.node.transport.TransportService;
 import bisq.network.p2p.services.peer_group.BanList;
@@ -175,6 +177,7 @@ public class Node implements Connection.Handler {
     public final Observable<State> observableState = new Observable<>(State.NEW);
     @Getter
     public final NetworkLoadSnapshot networkLoadSnapshot;
+    private final NetworkTrafficMetrics networkTrafficMetrics;
     @Getter
     private final String nodeId;
     private final Config config;
@@ -187,6 +190,7 @@ public class Node implements Connection.Handler {
                 KeyBundleService keyBundleService,
                 TransportService transportService,
                 NetworkLoadSnapshot networkLoadSnapshot,
+                NetworkTrafficMetrics networkTrafficMetrics,
                 AuthorizationService authorizationService) {
         this.networkId = networkId;
         keyBundle = keyBundleService.getKeyBundle(networkId.getKeyId());
@@ -200,6 +204,7 @@ public class Node implements Connection.Handler {
         this.transportService = transportService;
         this.authorizationService = authorizationService;
         this.networkLoadSnapshot = networkLoadSnapshot;
+        this.networkTrafficMetrics = networkTrafficMetrics;
         nodeId = networkId.getId();
     }
 
@@ -286,7 +291,8 @@ public class Node implements Connection.Handler {
                             banList,
                             myCapability,
                             authorizationService,
-                            keyBundle);
+                            keyBundle,
+                            networkTrafficMetrics);
                     connectionHandshakes.put(connectionHandshake.getId(), connectionHandshake);
                     log.debug("Inbound handshake request at: {}", myCapability.getAddress());
                     ConnectionHandshake.Result result = connectionHandshake.onSocket(networkLoadSnapshot.getCurrentNetworkLoad()); // Blocking call
@@ -335,10 +341,17 @@ public class Node implements Connection.Handler {
                 peersNetworkLoadSnapshot,
                 result.getConnectionMetrics(),
                 connectionThrottle,
+                isCompressionEnabled(result.getPeersCapability()),
                 this,
                 this::handleException);
     }
 
+    // Compression is used only if both peers support it, old peers would not understand a compressed message
+    private boolean isCompressionEnabled(Capability peersCapability) {
+        return features.contains(Feature.ENVELOPE_COMPRESSION) &&
+                peersCapability.getFeatures().contains(Feature.ENVELOPE_COMPRESSION);
+    }
+
 
     /* --------------------------------------------------------------------- */
     // Send
@@ -355,8 +368,16 @@ public class Node implements Connection.Handler {
 
     public CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage,
                                                    Connection connection) {
+        return sendAsync(new SerializedEnvelopePayloadMessage(envelopePayloadMessage), connection);
+    }
+
+    /**
+     * Used for sending the same message to multiple connections. The message gets serialized only once.
+     */
+    public CompletableFuture<Connection> sendAsync(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                                   Connection connection) {
         try {
-            return connection.sendAsync(envelopePayloadMessage)
+            return connection.sendAsync(serializedEnvelopePayloadMessage)
                     .handle((con, exception) -> {
                         if (exception != null) {
                             if (connection.isRunning() && !(exception.getCause() instanceof SocketException)) {
@@ -378,6 +399,9 @@ public class Node implements Connection.Handler {
     // Connection
     /* --------------------------------------------------------------------- */
 
+    /**
+     * If a new outbound connection gets created, cancelling the returned future aborts the connection attempt.
+     */
     public CompletableFuture<Connection> getOrCreateConnectionAsync(Address address) {
         if (outboundConnectionsByAddress.containsKey(address)) {
             return CompletableFuture.completedFuture(outboundConnectionsByAddress.get(address));
@@ -434,25 +458,43 @@ public class Node implements Connection.Handler {
                 });
     }
 
+    /**
+     * Cancelling the returned future or its timeout aborts the connection attempt (see OutboundConnectionAttempt).
+     */
     private CompletableFuture<Connection> createOutboundConnectionAsync(Address address, Capability myCapability) {
         try {
-            return CompletableFuture.supplyAsync(() -> {
+            OutboundConnectionAttempt attempt = new OutboundConnectionAttempt();
+            CompletableFuture<Connection> future = CompletableFuture.supplyAsync(() -> {
                         log.info("Create outbound connection to {}", address);
-                        return createOutboundConnection(address, myCapability);
+                        return createOutboundConnection(address, myCapability, attempt);
                     }, getExecutor())
                     .orTimeout(120, SECONDS);
+            future.whenComplete((connection, throwable) -> {
+                if (throwable != null) {
+                    attempt.abort();
+                }
+            });
+            return future;
         } catch (RejectedExecutionException e) {
             log.error("Node executor rejected task at createOutboundConnectionAsync when trying to connect to {}", address, e);
             return CompletableFuture.failedFuture(new ConnectionException("Node executor rejected task at createOutboundConnectionAsync"));
         }
     }
 
-    private Connection createOutboundConnection(Address address, Capability myCapability) {
+    private Connection createOutboundConnection(Address address,
+                                                Capability myCapability,
+                                                OutboundConnectionAttempt attempt) {
         if (banList.isBanned(address)) {
             throw new ConnectionException(ADDRESS_BANNED, "PeerAddress is banned. address=" + address);
         }
+        if (attempt.isAborted()) {
+            throw new ConnectionException("Connection attempt to " + address + " got aborted");
+        }
 
         Socket socket = createSocket(address); // Blocking call
+        if (!attempt.onSocketCreated(socket)) {
+            throw new ConnectionException("Connection attempt to " + address + " got aborted");
+        }
 
         // As time passed we check again if connection is still not available
         Optional<OutboundConnection> outboundConnection = findOutboundConnectionAndCloseSocketIfPresent(address, socket);
@@ -474,6 +516,9 @@ public class Node implements Connection.Handler {
                 log.info("We create an outbound connection to {} from a user node. node={}", address, getNodeInfo());
             }
 
+            if (!attempt.tryComplete()) {
+                throw new ConnectionException("Connection attempt to " + address + " got aborted");
+            }
             return createNewOutboundConnection(address, socket, result);
         } catch (Throwable throwable) {
             if (socket != null) {
@@ -511,6 +556,7 @@ public class Node implements Connection.Handler {
                     peersNetworkLoadSnapshot,
                     result.getConnectionMetrics(),
                     connectionThrottle,
+                    isCompressionEnabled(result.getPeersCapability()),
                     this,
                     this::handleException);
             outboundConnectionsByAddress.put(address, connection);
@@ -542,7 +588,8 @@ public class Node implements Connection.Handler {
                     banList,
                     myCapability,
                     authorizationService,
-                    keyBundle);
+                    keyBundle,
+                    networkTrafficMetrics);
 
             connectionHandshakes.put(connectionHandshake.getId(), connectionHandshake);
             log.debug("Outbound handshake started: Initiated by {} to {}", myCapability.getAddress(), address);
@@ -637,7 +684,11 @@ public class Node implements Connection.Handler {
                 myAddress);
         if (!isAuthorized) {
             log.warn("Message authorization failed. Peer={}; Message={}", connection.getPeerAddress(), StringUtils.truncate(envelopePayloadMessage.toString()));
-            connection.shutdown(CloseReason.AUTHORIZATION_FAILED);
+            // We might get called on the shared pool of the InboundVerificationStage. As shutting down the connection
+            // can block, we do it on the notify executor. We stop listening right away, so that no further messages
+            // get dispatched in the meantime.
+            connection.stopListening();
+            NetworkExecutors.getNotifyExecutor().submit(() -> connection.shutdown(CloseReason.AUTHORIZATION_FAILED));
 
             //TODO See https://github.com/bisq-network/bisq2/issues/3693
             // banList.add(connection.getPeerAddress(), BanList.Reason.AUTHORIZATION_FAILED);
@@ -668,6 +719,7 @@ public class Node implements Connection.Handler {
     public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
         Address peerAddress = connection.getPeerAddress();
         log.debug("Got called onConnectionClosed. connection={}, peerAddress={}", connection, peerAddress);
+        authorizationService.onDisconnect(connection.getId());
         boolean wasRemoved = false;
         if (connection instanceof InboundConnection) {
             wasRemoved = inboundConnectionsByAddress.remove(peerAddress) != null;
@@ -25,6 +25,7 @@ import bisq.network.identity.NetworkId;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.network_load.NetworkTrafficMetrics;
 import bisq.network.p2p.node.transport.TransportService;
 import bisq.network.p2p.services.peer_group.BanList;
 import bisq.security.keys.KeyBundleService;
@@ -60,6 +61,7 @@ public class NodesById implements Node.Listener {
     private final KeyBundleService keyBundleService;
     private final TransportService transportService;
     private final NetworkLoadSnapshot networkLoadSnapshot;
+    private final NetworkTrafficMetrics networkTrafficMetrics;
     private final AuthorizationService authorizationService;
     private final Map<NetworkId, Node> map = new ConcurrentHashMap<>();
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
@@ -70,12 +72,14 @@ public class NodesById implements Node.Listener {
                      KeyBundleService keyBundleService,
                      TransportService transportService,
                      NetworkLoadSnapshot networkLoadSnapshot,
+                     NetworkTrafficMetrics networkTrafficMetrics,
                      AuthorizationService authorizationService) {
         this.banList = banList;
         this.nodeConfig = nodeConfig;
         this.keyBundleService = keyBundleService;
         this.transportService = transportService;
         this.networkLoadSnapshot = networkLoadSnapshot;
+        this.networkTrafficMetrics = networkTrafficMetrics;
         this.authorizationService = authorizationService;
     }
 
@@ -84,7 +88,7 @@ public class NodesById implements Node.Listener {
     /* --------------------------------------------------------------------- */
 
     public Node createAndConfigNode(NetworkId networkId, boolean isDefaultNode) {
-        Node node = new Node(networkId, isDefaultNode, nodeConfig, banList, keyBundleService, transportService, networkLoadSnapshot, authorizationService);
+        Node node = new Node(networkId, isDefaultNode, nodeConfig, banList, keyBundleService, transportService, networkLoadSnapshot, networkTrafficMetrics, authorizationService);
         map.put(networkId, node);
         node.addListener(this);
         listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onNodeAdded(node)));
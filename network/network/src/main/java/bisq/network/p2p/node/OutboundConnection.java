@@ -41,6 +41,7 @@ public class OutboundConnection extends Connection {
                        NetworkLoadSnapshot peersNetworkLoadSnapshot,
                        ConnectionMetrics connectionMetrics,
                        ConnectionThrottle connectionThrottle,
+                       boolean isCompressionEnabled,
                        Handler handler,
                        BiConsumer<Connection, Exception> errorHandler) {
         super(authorizationService,
@@ -50,6 +51,7 @@ public class OutboundConnection extends Connection {
                 peersNetworkLoadSnapshot,
                 connectionMetrics,
                 connectionThrottle,
+                isCompressionEnabled,
                 handler,
                 errorHandler);
 
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Allows aborting a pending outbound connection attempt, e.g. if the caller cancelled the future or it timed out.
+ * The connect of the transport (e.g. creating the Tor stream) cannot be interrupted, but the socket gets closed as
+ * soon as it is available or while the handshake is in progress, so that an aborted attempt does not complete the
+ * handshake and does not get added as connection.
+ */
+@Slf4j
+class OutboundConnectionAttempt {
+    private Socket socket;
+    private boolean isAborted;
+    private boolean isCompleted;
+
+    /**
+     * Closes the socket if already created. Has no effect if the attempt got completed already.
+     */
+    synchronized void abort() {
+        if (isCompleted || isAborted) {
+            return;
+        }
+        isAborted = true;
+        closeSocket();
+    }
+
+    /**
+     * @return False if the attempt got aborted. The socket got closed in that case.
+     */
+    synchronized boolean onSocketCreated(Socket socket) {
+        this.socket = socket;
+        if (isAborted) {
+            closeSocket();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Must be called before the connection gets added, so that a later abort does not close its socket.
+     *
+     * @return False if the attempt got aborted.
+     */
+    synchronized boolean tryComplete() {
+        if (isAborted) {
+            return false;
+        }
+        isCompleted = true;
+        return true;
+    }
+
+    synchronized boolean isAborted() {
+        return isAborted;
+    }
+
+    private void closeSocket() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Closing socket of aborted connection attempt failed", e);
+            }
+        }
+    }
+}
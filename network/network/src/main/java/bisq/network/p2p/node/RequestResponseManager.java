@@ -7,23 +7,35 @@ import bisq.network.p2p.message.Response;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * Keeps track of request-response pairs. Used by the PeerGroupManager to check if there are any pending requests
  * on a connection and avoid that such connections gets closed.
+ * <p>
+ * A connection has only a few pending requests, so instead of a map with boxed timestamps we keep them in parallel
+ * arrays and look them up by a linear scan over the primitive hash codes of the requestIds. This does not allocate
+ * per request. The request timeouts are handled by the RequestFuture, here we only prune entries for which we never
+ * got a response.
  */
 @Slf4j
 public class RequestResponseManager {
     private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+    private static final int INITIAL_CAPACITY = 4;
 
-    private final Map<String, Long> pendingRequests = new ConcurrentHashMap<>();
     private final ConnectionMetrics connectionMetrics;
-    private volatile long pruneDate;
+    private final Object lock = new Object();
+    // Guarded by lock
+    private int[] requestIdHashes = new int[INITIAL_CAPACITY];
+    private String[] requestIds = new String[INITIAL_CAPACITY];
+    private long[] sentTimestamps = new long[INITIAL_CAPACITY];
+    private int size;
+    private long pruneDate;
+
+    private volatile int numPendingRequests;
 
     public RequestResponseManager(ConnectionMetrics connectionMetrics) {
         this.connectionMetrics = connectionMetrics;
@@ -33,63 +45,115 @@ public class RequestResponseManager {
     void onReceived(EnvelopePayloadMessage envelopePayloadMessage) {
         if (envelopePayloadMessage instanceof Response response) {
             String requestId = response.getRequestId();
-            synchronized (pendingRequests) {
-                if (pendingRequests.containsKey(requestId)) {
-                    long ts = pendingRequests.get(requestId);
-                    pendingRequests.remove(requestId);
-                    connectionMetrics.addRtt(System.currentTimeMillis() - ts);
+            long now = System.currentTimeMillis();
+            synchronized (lock) {
+                int index = indexOf(requestId);
+                if (index >= 0) {
+                    connectionMetrics.addRtt(now - sentTimestamps[index]);
+                    removeAt(index);
                 } else {
                     log.warn("We received a Response message but did not had a matching request. envelopePayloadMessage={}",
                             StringUtils.truncate(response.toString(), 500));
                 }
-                log.debug("onReceived {} requestId={}", response.getClass().getSimpleName(), requestId);
+                maybeRemoveExpired(now);
             }
-            maybeRemoveExpired();
+            log.debug("onReceived {} requestId={}", response.getClass().getSimpleName(), requestId);
         }
     }
 
     void onSent(EnvelopePayloadMessage envelopePayloadMessage) {
         if (envelopePayloadMessage instanceof Request request) {
             String requestId = request.getRequestId();
-            synchronized (pendingRequests) {
-                if (pendingRequests.containsKey(requestId)) {
+            long now = System.currentTimeMillis();
+            synchronized (lock) {
+                int index = indexOf(requestId);
+                if (index >= 0) {
                     log.warn("We sent a Request message but we had already an entry in our map for that requestId. envelopePayloadMessage={}",
                             StringUtils.truncate(request.toString(), 500));
+                    sentTimestamps[index] = now;
+                } else {
+                    add(requestId, now);
                 }
-                pendingRequests.put(requestId, System.currentTimeMillis());
-                log.debug("onSent {} requestId={}", request.getClass().getSimpleName(), requestId);
+                maybeRemoveExpired(now);
             }
-            maybeRemoveExpired();
+            log.debug("onSent {} requestId={}", request.getClass().getSimpleName(), requestId);
         }
     }
 
     void dispose() {
-        pendingRequests.clear();
+        synchronized (lock) {
+            Arrays.fill(requestIds, 0, size, null);
+            size = 0;
+            numPendingRequests = 0;
+        }
     }
 
     public int numPendingRequests() {
-        return pendingRequests.size();
+        return numPendingRequests;
     }
 
     public boolean hasPendingRequests() {
-        return !pendingRequests.isEmpty();
+        return numPendingRequests > 0;
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private, must be called while holding the lock
+    /* --------------------------------------------------------------------- */
+
+    private int indexOf(String requestId) {
+        int hash = requestId.hashCode();
+        for (int i = 0; i < size; i++) {
+            if (requestIdHashes[i] == hash && requestIds[i].equals(requestId)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    private void maybeRemoveExpired() {
-        long cutoffDate = System.currentTimeMillis() - MAX_AGE;
+    private void add(String requestId, long timestamp) {
+        if (size == requestIds.length) {
+            int capacity = size * 2;
+            requestIdHashes = Arrays.copyOf(requestIdHashes, capacity);
+            requestIds = Arrays.copyOf(requestIds, capacity);
+            sentTimestamps = Arrays.copyOf(sentTimestamps, capacity);
+        }
+        requestIdHashes[size] = requestId.hashCode();
+        requestIds[size] = requestId;
+        sentTimestamps[size] = timestamp;
+        size++;
+        numPendingRequests = size;
+    }
+
+    // The order of the entries is not relevant, so we move the last entry into the gap
+    private void removeAt(int index) {
+        int last = size - 1;
+        requestIdHashes[index] = requestIdHashes[last];
+        requestIds[index] = requestIds[last];
+        sentTimestamps[index] = sentTimestamps[last];
+        requestIds[last] = null;
+        size = last;
+        numPendingRequests = size;
+    }
+
+    private void maybeRemoveExpired(long now) {
+        long cutoffDate = now - MAX_AGE;
         if (pruneDate > cutoffDate) {
             return;
         }
-        pruneDate = System.currentTimeMillis();
-        Set<String> toRemove = pendingRequests.entrySet().stream()
-                .filter(e -> e.getValue() < cutoffDate)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
-        if (!toRemove.isEmpty()) {
-            log.info("We have outdated pendingRequests. toRemove={}; pendingRequests={}", toRemove, pendingRequests);
-            synchronized (pendingRequests) {
-                toRemove.forEach(pendingRequests::remove);
+        pruneDate = now;
+        List<String> removed = null;
+        for (int i = size - 1; i >= 0; i--) {
+            if (sentTimestamps[i] < cutoffDate) {
+                if (removed == null) {
+                    removed = new ArrayList<>();
+                }
+                removed.add(requestIds[i]);
+                removeAt(i);
             }
         }
+        if (removed != null) {
+            log.info("We removed outdated pendingRequests. removed={}; numPendingRequests={}", removed, size);
+        }
     }
 }
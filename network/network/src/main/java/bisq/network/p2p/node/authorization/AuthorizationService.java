@@ -18,6 +18,7 @@
 package bisq.network.p2p.node.authorization;
 
 import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.token.equi_hash.EquiHashTokenService;
 import bisq.network.p2p.node.authorization.token.hash_cash.HashCashTokenService;
@@ -91,6 +92,18 @@ public class AuthorizationService {
                 messageCounter);
     }
 
+    public AuthorizationToken createToken(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                          NetworkLoad networkLoad,
+                                          String peerAddress,
+                                          int messageCounter,
+                                          Collection<Feature> peersFeatures) {
+        AuthorizationTokenType preferredAuthorizationTokenType = selectAuthorizationTokenType(peersFeatures);
+        return supportedServices.get(preferredAuthorizationTokenType).createToken(serializedEnvelopePayloadMessage,
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
     public boolean isAuthorized(EnvelopePayloadMessage message,
                                 AuthorizationToken authorizationToken,
                                 NetworkLoad currentNetworkLoad,
@@ -123,6 +136,21 @@ public class AuthorizationService {
                 myAddress);
     }
 
+    /**
+     * Creates the state for detecting reused authorization tokens of that connection. Messages of connections which
+     * are not registered are not authorized.
+     */
+    public void onConnect(String connectionId) {
+        supportedServices.values().forEach(service -> service.onConnect(connectionId));
+    }
+
+    /**
+     * Releases the state kept for detecting reused authorization tokens of that connection.
+     */
+    public void onDisconnect(String connectionId) {
+        supportedServices.values().forEach(service -> service.onDisconnect(connectionId));
+    }
+
     // Get first match with peers feature based on order of myPreferredFilterTypes
     private AuthorizationTokenType selectAuthorizationTokenType(Collection<Feature> peersFeatures) {
         return selectAuthorizationTokenType(myPreferredAuthorizationTokenTypes, peersFeatures);
@@ -1,23 +1,67 @@
 package bisq.network.p2p.node.authorization;
 
 import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public abstract class AuthorizationTokenService<T extends AuthorizationToken> {
+    // Keep track of message counter per connection to avoid reuse of pow
+    private final Map<String, ReplayWindow> replayWindowByConnectionId = new ConcurrentHashMap<>();
 
     abstract public T createToken(EnvelopePayloadMessage message,
                                   NetworkLoad networkLoad,
                                   String peerAddress,
                                   int messageCounter);
 
+    /**
+     * Implementations can reuse the payload derived from the already serialized message if the same message is sent
+     * to multiple peers.
+     */
+    public T createToken(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                         NetworkLoad networkLoad,
+                         String peerAddress,
+                         int messageCounter) {
+        return createToken(serializedEnvelopePayloadMessage.getEnvelopePayloadMessage(),
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
     public abstract boolean isAuthorized(EnvelopePayloadMessage message,
                                          AuthorizationToken authorizationToken,
                                          NetworkLoad currentNetworkLoad,
                                          Optional<NetworkLoad> previousNetworkLoad,
                                          String connectionId,
                                          String myAddress);
+
+    public void onConnect(String connectionId) {
+        replayWindowByConnectionId.putIfAbsent(connectionId, new ReplayWindow());
+    }
+
+    public void onDisconnect(String connectionId) {
+        replayWindowByConnectionId.remove(connectionId);
+    }
+
+    /**
+     * Messages of the same connection might get verified concurrently, the ReplayWindow makes the check and insert
+     * atomic. Verifications can still be in flight after the connection got closed, so we must not create a new
+     * ReplayWindow here, as it would accept all counters again and would never get removed.
+     *
+     * @return False if the connection is unknown or closed, if a message with that counter was already received on
+     * that connection or if the counter is too old to be tracked.
+     */
+    protected boolean tryAddMessageCounter(String connectionId, int messageCounter) {
+        ReplayWindow replayWindow = replayWindowByConnectionId.get(connectionId);
+        if (replayWindow == null) {
+            log.info("Message counter {} received for unknown or closed connection {}", messageCounter, connectionId);
+            return false;
+        }
+        return replayWindow.tryAdd(messageCounter);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import bisq.common.threading.AbortPolicyWithLogging;
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.threading.MaxSizeAwareQueue;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Shared bounded pool for minting the authorization tokens (proof of work) of messages queued for sending.
+ * A connection hands over the minting at the time a message gets queued, so the token gets minted while the messages
+ * queued before are still minted or written, and the messages of a busy connection get minted in parallel.
+ * <p>
+ * The token is bound to the payload of its message as before, so only the time of minting moves ahead. A token
+ * cannot be minted before its message is known, as otherwise it could be attached to any other message.
+ * As the message counter gets assigned at minting time, the counters can arrive slightly out of order at the peer.
+ * The peer only rejects counters it has already received.
+ */
+@Slf4j
+public class OutboundMintingStage {
+    private final ThreadPoolExecutor executor;
+
+    public OutboundMintingStage(int maxPoolSize) {
+        checkArgument(maxPoolSize > 0, "maxPoolSize must be > 0");
+        executor = createExecutor(maxPoolSize);
+        log.info("Created OutboundMintingStage with a pool with max. {} threads", maxPoolSize);
+    }
+
+    /**
+     * @return A future completed on the minting thread with the token, or exceptionally if the minting has thrown an
+     * exception.
+     * @throws java.util.concurrent.RejectedExecutionException if the queue capacity is reached.
+     */
+    public CompletableFuture<AuthorizationToken> mint(Supplier<AuthorizationToken> minting) {
+        return CompletableFuture.supplyAsync(minting, executor);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        ExecutorFactory.shutdownAndAwaitTermination(executor);
+    }
+
+    private static ThreadPoolExecutor createExecutor(int maxPoolSize) {
+        // The send queue of each connection is bounded, so the queue is bounded by the number of connections.
+        int queueCapacity = 10000;
+        MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
+        String name = "OutboundMinting";
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                1,
+                maxPoolSize,
+                30,
+                TimeUnit.SECONDS,
+                queue,
+                ExecutorFactory.getThreadFactoryWithCounter(name),
+                new AbortPolicyWithLogging(name, queueCapacity, maxPoolSize));
+        queue.applyExecutor(executor, Math.max(1, maxPoolSize - 2));
+        return executor;
+    }
+}
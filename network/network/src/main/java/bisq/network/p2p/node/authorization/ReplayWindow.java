@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window over the received message counters of a connection for detecting reused authorization tokens,
+ * similar to the IPsec anti-replay window (RFC 4303). The counters of the last WINDOW_SIZE messages below the highest
+ * received counter are tracked in a bitmap, older counters are rejected. Memory is constant for the lifetime of the
+ * connection and the check does not allocate.
+ * The sender assigns the message counters in sending order, but the receiver might verify the messages of a connection
+ * concurrently. The window is large enough for that reordering.
+ */
+public class ReplayWindow {
+    public static final int WINDOW_SIZE = 1024;
+
+    // Bit for counter c is at index c mod WINDOW_SIZE
+    private final long[] bitmap = new long[WINDOW_SIZE / Long.SIZE];
+    private boolean isEmpty = true;
+    private int highestCounter;
+
+    /**
+     * @return False if the counter was already received or is too old to be tracked.
+     */
+    public synchronized boolean tryAdd(int messageCounter) {
+        if (isEmpty) {
+            isEmpty = false;
+            highestCounter = messageCounter;
+            setBit(messageCounter);
+            return true;
+        }
+
+        long distance = (long) messageCounter - highestCounter;
+        if (distance > 0) {
+            // Slide the window forward and clear the bits of the counters we skipped
+            if (distance >= WINDOW_SIZE) {
+                Arrays.fill(bitmap, 0);
+            } else {
+                for (int counter = highestCounter + 1; counter != messageCounter; counter++) {
+                    clearBit(counter);
+                }
+            }
+            highestCounter = messageCounter;
+            setBit(messageCounter);
+            return true;
+        }
+
+        if (-distance >= WINDOW_SIZE || isBitSet(messageCounter)) {
+            return false;
+        }
+        setBit(messageCounter);
+        return true;
+    }
+
+    private boolean isBitSet(int counter) {
+        int index = counter & (WINDOW_SIZE - 1);
+        return (bitmap[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void setBit(int counter) {
+        int index = counter & (WINDOW_SIZE - 1);
+        bitmap[index >>> 6] |= 1L << index;
+    }
+
+    private void clearBit(int counter) {
+        int index = counter & (WINDOW_SIZE - 1);
+        bitmap[index >>> 6] &= ~(1L << index);
+    }
+}
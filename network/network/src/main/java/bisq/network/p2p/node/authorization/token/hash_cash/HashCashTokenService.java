@@ -6,6 +6,7 @@ import bisq.common.util.ByteArrayUtils;
 import bisq.common.util.MathUtils;
 import bisq.common.util.StringUtils;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.authorization.AuthorizationTokenService;
 import bisq.network.p2p.node.network_load.NetworkLoad;
@@ -18,7 +19,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 @Slf4j
@@ -32,8 +32,6 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
     public final static int DIFFICULTY_TOLERANCE = 50_000;
 
     private final HashCashProofOfWorkService proofOfWorkService;
-    // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
     @Getter
     private final Metrics metrics = new Metrics();
 
@@ -46,26 +44,19 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
                                      NetworkLoad networkLoad,
                                      String peerAddress,
                                      int messageCounter) {
-        long ts = System.currentTimeMillis();
-        double difficulty = calculateDifficulty(message, networkLoad);
-        byte[] challenge = getChallenge(peerAddress, messageCounter);
-        byte[] payload = getPayload(message);
-        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
-        long duration = System.currentTimeMillis() - ts;
-        metrics.update(duration, networkLoad.getLoad());
+        return createToken(message, getPayload(message), networkLoad, peerAddress, messageCounter);
+    }
 
-        HashCashToken token = new HashCashToken(proofOfWork, messageCounter);
-        log.debug("Create HashCashToken for {} took {} ms" +
-                        "\ncostFactor={}" +
-                        "\ngetPayload(message)={}" +
-                        "\nnetworkLoad={}" +
-                        "\nhashCashToken={}",
-                message.getClass().getSimpleName(), duration,
-                message.getCostFactor(),
-                Hex.encode(payload),
+    @Override
+    public HashCashToken createToken(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                     NetworkLoad networkLoad,
+                                     String peerAddress,
+                                     int messageCounter) {
+        return createToken(serializedEnvelopePayloadMessage.getEnvelopePayloadMessage(),
+                serializedEnvelopePayloadMessage.getSerializedForHash(),
                 networkLoad,
-                token);
-        return token;
+                peerAddress,
+                messageCounter);
     }
 
     @Override
@@ -81,18 +72,11 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         int messageCounter = hashCashToken.getMessageCounter();
 
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        if (!tryAddMessageCounter(connectionId, messageCounter)) {
+            log.warn("Invalid messageCounter. We received the proofOfWork for that message already or the " +
+                    "messageCounter is outside of the replay window.");
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         byte[] payload = getPayload(message);
@@ -216,6 +200,32 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         return true;
     }
 
+    private HashCashToken createToken(EnvelopePayloadMessage message,
+                                      byte[] payload,
+                                      NetworkLoad networkLoad,
+                                      String peerAddress,
+                                      int messageCounter) {
+        long ts = System.currentTimeMillis();
+        double difficulty = calculateDifficulty(message, networkLoad);
+        byte[] challenge = getChallenge(peerAddress, messageCounter);
+        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
+        long duration = System.currentTimeMillis() - ts;
+        metrics.update(duration, networkLoad.getLoad());
+
+        HashCashToken token = new HashCashToken(proofOfWork, messageCounter);
+        log.debug("Create HashCashToken for {} took {} ms" +
+                        "\ncostFactor={}" +
+                        "\ngetPayload(message)={}" +
+                        "\nnetworkLoad={}" +
+                        "\nhashCashToken={}",
+                message.getClass().getSimpleName(), duration,
+                message.getCostFactor(),
+                Hex.encode(payload),
+                networkLoad,
+                token);
+        return token;
+    }
+
     private byte[] getPayload(EnvelopePayloadMessage message) {
         return message.serializeForHash();
     }
@@ -6,6 +6,7 @@ import bisq.common.util.ByteArrayUtils;
 import bisq.common.util.MathUtils;
 import bisq.common.util.StringUtils;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.authorization.AuthorizationTokenService;
 import bisq.network.p2p.node.network_load.NetworkLoad;
@@ -18,7 +19,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 @Slf4j
@@ -31,8 +31,6 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
     public final static int DIFFICULTY_TOLERANCE = 50_000;
 
     private final HashCashProofOfWorkService proofOfWorkService;
-    // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
     @Getter
     private final Metrics metrics = new Metrics();
 
@@ -45,26 +43,19 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
                                        NetworkLoad networkLoad,
                                        String peerAddress,
                                        int messageCounter) {
-        long ts = System.currentTimeMillis();
-        double difficulty = calculateDifficulty(message, networkLoad);
-        byte[] challenge = getChallenge(peerAddress, messageCounter);
-        byte[] payload = getPayload(message);
-        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
-        long duration = System.currentTimeMillis() - ts;
-        metrics.update(duration, networkLoad.getLoad());
+        return createToken(message, getPayload(message), networkLoad, peerAddress, messageCounter);
+    }
 
-        HashCashV2Token token = new HashCashV2Token(proofOfWork, messageCounter);
-        log.debug("Create HashCashV2Token for {} took {} ms" +
-                        "\ncostFactor={}" +
-                        "\ngetPayload(message)={}" +
-                        "\nnetworkLoad={}" +
-                        "\nhashCashV2Token={}",
-                message.getClass().getSimpleName(), duration,
-                message.getCostFactor(),
-                Hex.encode(payload),
+    @Override
+    public HashCashV2Token createToken(SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage,
+                                       NetworkLoad networkLoad,
+                                       String peerAddress,
+                                       int messageCounter) {
+        return createToken(serializedEnvelopePayloadMessage.getEnvelopePayloadMessage(),
+                serializedEnvelopePayloadMessage.getHashOfSerializedForHash(),
                 networkLoad,
-                token);
-        return token;
+                peerAddress,
+                messageCounter);
     }
 
     @Override
@@ -79,18 +70,11 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
         int messageCounter = hashCashV2Token.getMessageCounter();
 
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        if (!tryAddMessageCounter(connectionId, messageCounter)) {
+            log.warn("Invalid messageCounter. We received the proofOfWork for that message already or the " +
+                    "messageCounter is outside of the replay window.");
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         byte[] payload = getPayload(message);
@@ -214,6 +198,32 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
         return true;
     }
 
+    private HashCashV2Token createToken(EnvelopePayloadMessage message,
+                                        byte[] payload,
+                                        NetworkLoad networkLoad,
+                                        String peerAddress,
+                                        int messageCounter) {
+        long ts = System.currentTimeMillis();
+        double difficulty = calculateDifficulty(message, networkLoad);
+        byte[] challenge = getChallenge(peerAddress, messageCounter);
+        ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
+        long duration = System.currentTimeMillis() - ts;
+        metrics.update(duration, networkLoad.getLoad());
+
+        HashCashV2Token token = new HashCashV2Token(proofOfWork, messageCounter);
+        log.debug("Create HashCashV2Token for {} took {} ms" +
+                        "\ncostFactor={}" +
+                        "\ngetPayload(message)={}" +
+                        "\nnetworkLoad={}" +
+                        "\nhashCashV2Token={}",
+                message.getClass().getSimpleName(), duration,
+                message.getCostFactor(),
+                Hex.encode(payload),
+                networkLoad,
+                token);
+        return token;
+    }
+
     private byte[] getPayload(EnvelopePayloadMessage message) {
         // In contrast to HashCashTokenService we use the hash of the message to reduce size of the pow object.
         return DigestUtil.hash(message.serializeForHash());
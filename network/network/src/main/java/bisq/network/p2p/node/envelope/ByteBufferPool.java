@@ -0,0 +1,112 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct ByteBuffers shared by all channels. Buffers are grouped by power of two size classes.
+ * Reading from or writing to a socket with a heap buffer causes the JDK to copy the data through a temporary direct
+ * buffer, and allocating direct buffers is expensive, so we reuse them.
+ * <p>
+ * Requests larger than maxPooledCapacity get a heap buffer, which is not pooled. The total capacity of idle buffers
+ * is limited by maxRetainedBytes, further released buffers are left to the garbage collector.
+ * A buffer must not be used anymore after it got released.
+ */
+@Slf4j
+public class ByteBufferPool {
+    private static final int MIN_CAPACITY = 4 * 1024;
+
+    public static final ByteBufferPool SHARED = new ByteBufferPool(1024 * 1024, 32 * 1024 * 1024);
+
+    private final int maxPooledCapacity;
+    private final long maxRetainedBytes;
+    private final Queue<ByteBuffer>[] buffersBySizeClass;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong numAllocated = new AtomicLong();
+    private final AtomicLong numReused = new AtomicLong();
+
+    @VisibleForTesting
+    @SuppressWarnings("unchecked")
+    ByteBufferPool(int maxPooledCapacity, long maxRetainedBytes) {
+        this.maxPooledCapacity = maxPooledCapacity;
+        this.maxRetainedBytes = maxRetainedBytes;
+        int numSizeClasses = sizeClass(maxPooledCapacity) + 1;
+        buffersBySizeClass = new Queue[numSizeClasses];
+        for (int i = 0; i < numSizeClasses; i++) {
+            buffersBySizeClass[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * @return A cleared buffer with at least the requested capacity.
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > maxPooledCapacity) {
+            numAllocated.incrementAndGet();
+            return ByteBuffer.allocate(minCapacity);
+        }
+        int sizeClass = sizeClass(minCapacity);
+        ByteBuffer byteBuffer = buffersBySizeClass[sizeClass].poll();
+        if (byteBuffer != null) {
+            retainedBytes.addAndGet(-byteBuffer.capacity());
+            numReused.incrementAndGet();
+            return byteBuffer.clear();
+        }
+        numAllocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(MIN_CAPACITY << sizeClass);
+    }
+
+    public void release(ByteBuffer byteBuffer) {
+        int capacity = byteBuffer.capacity();
+        if (!byteBuffer.isDirect() || capacity > maxPooledCapacity || Integer.bitCount(capacity) != 1 || capacity < MIN_CAPACITY) {
+            return;
+        }
+        if (retainedBytes.addAndGet(capacity) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-capacity);
+            return;
+        }
+        buffersBySizeClass[sizeClass(capacity)].add(byteBuffer);
+    }
+
+    public long getNumAllocated() {
+        return numAllocated.get();
+    }
+
+    public long getNumReused() {
+        return numReused.get();
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity <= MIN_CAPACITY) {
+            return 0;
+        }
+        // Index of the smallest power of two >= capacity, relative to MIN_CAPACITY
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - Integer.numberOfTrailingZeros(MIN_CAPACITY);
+    }
+}
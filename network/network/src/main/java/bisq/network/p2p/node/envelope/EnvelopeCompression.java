@@ -0,0 +1,91 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope;
+
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeDeserializer;
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of the serialized EnvelopePayloadMessage inside a NetworkEnvelope. Only used if both peers
+ * support Feature.ENVELOPE_COMPRESSION and the message is large enough to benefit from it (e.g. InventoryResponse).
+ */
+public class EnvelopeCompression {
+    // Below that size the saved bytes do not justify the CPU costs
+    public static final int MIN_SIZE_TO_COMPRESS = 8 * 1024;
+    // Protects against small messages which decompress to a huge size
+    public static final int MAX_DECOMPRESSED_SIZE = NetworkEnvelopeDeserializer.MAX_MESSAGE_LENGTH;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * @return The compressed data or empty if the data is smaller than MIN_SIZE_TO_COMPRESS or does not get smaller
+     * by compression.
+     */
+    public static Optional<ByteString> compress(ByteString data) {
+        if (data.size() < MIN_SIZE_TO_COMPRESS) {
+            return Optional.empty();
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data.toByteArray());
+            deflater.finish();
+            ByteString.Output output = ByteString.newOutput(data.size() / 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int numBytes = deflater.deflate(buffer);
+                output.write(buffer, 0, numBytes);
+                if (output.size() >= data.size()) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(output.toByteString());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static ByteString decompress(ByteString compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.toByteArray());
+            // The output grows as needed, we do not trust the compressed size for pre-allocating a large buffer
+            ByteString.Output output = ByteString.newOutput(Math.min(4 * compressed.size(), 1024 * 1024));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int numBytes = inflater.inflate(buffer);
+                if (numBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed data is incomplete");
+                }
+                output.write(buffer, 0, numBytes);
+                if (output.size() > MAX_DECOMPRESSED_SIZE) {
+                    throw new IOException("Decompressed data exceeds MAX_DECOMPRESSED_SIZE of " + MAX_DECOMPRESSED_SIZE + " bytes");
+                }
+            }
+            return output.toByteString();
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -19,15 +19,23 @@ package bisq.network.p2p.node.envelope;
 
 import bisq.common.network.PeerSocket;
 import bisq.network.p2p.message.NetworkEnvelope;
+import com.google.protobuf.CodedOutputStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
 
 @Slf4j
 public class NetworkEnvelopeSocket implements Closeable {
+    // Same as the max. buffer size protobuf uses at writeDelimitedTo
+    private static final int MAX_STREAM_BUFFER_SIZE = 4096;
+    // Coalesced envelopes up to that size are copied into one buffer to write them with a single write
+    private static final int MAX_COMBINED_BUFFER_SIZE = 64 * 1024;
+
     private final PeerSocket socket;
     private final InputStream inputStream;
     private final OutputStream outputStream;
@@ -38,15 +46,66 @@ public class NetworkEnvelopeSocket implements Closeable {
         this.outputStream = socket.getOutputStream();
     }
 
-    public void send(NetworkEnvelope networkEnvelope) throws IOException {
-        networkEnvelope.writeDelimitedTo(outputStream);
+    /**
+     * Streams the envelope to the socket the same way as protobuf's writeDelimitedTo, thus large envelopes
+     * (e.g. inventory responses) do not get copied into a buffer of their size.
+     *
+     * @return The number of written bytes
+     */
+    public int send(NetworkEnvelope networkEnvelope) throws IOException {
+        int messageLength = networkEnvelope.getSerializedSize();
+        int size = CodedOutputStream.computeUInt32SizeNoTag(messageLength) + messageLength;
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream, Math.min(size, MAX_STREAM_BUFFER_SIZE));
+        codedOutputStream.writeUInt32NoTag(messageLength);
+        networkEnvelope.writeTo(codedOutputStream);
+        codedOutputStream.flush();
         outputStream.flush();
+        return size;
+    }
+
+    /**
+     * Writes all envelopes followed by a single flush. If the envelopes are small, they get copied into one buffer
+     * and written with a single write, otherwise they get streamed.
+     *
+     * @return The number of written bytes
+     */
+    public int send(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        if (networkEnvelopes.size() == 1) {
+            return send(networkEnvelopes.get(0));
+        }
+
+        int[] messageLengths = networkEnvelopes.stream().mapToInt(NetworkEnvelope::getSerializedSize).toArray();
+        int size = Arrays.stream(messageLengths)
+                .map(messageLength -> CodedOutputStream.computeUInt32SizeNoTag(messageLength) + messageLength)
+                .sum();
+        if (size <= MAX_COMBINED_BUFFER_SIZE) {
+            byte[] buffer = new byte[size];
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(buffer);
+            writeDelimited(networkEnvelopes, messageLengths, codedOutputStream);
+            codedOutputStream.checkNoSpaceLeft();
+            outputStream.write(buffer);
+        } else {
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream, MAX_STREAM_BUFFER_SIZE);
+            writeDelimited(networkEnvelopes, messageLengths, codedOutputStream);
+            codedOutputStream.flush();
+        }
+        outputStream.flush();
+        return size;
     }
 
     public bisq.network.protobuf.NetworkEnvelope receiveNextEnvelope() throws IOException {
         return bisq.network.protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream);
     }
 
+    private static void writeDelimited(List<NetworkEnvelope> networkEnvelopes,
+                                       int[] messageLengths,
+                                       CodedOutputStream codedOutputStream) throws IOException {
+        for (int i = 0; i < messageLengths.length; i++) {
+            codedOutputStream.writeUInt32NoTag(messageLengths[i]);
+            networkEnvelopes.get(i).writeTo(codedOutputStream);
+        }
+    }
+
     @Override
     public void close() throws IOException {
         socket.close();
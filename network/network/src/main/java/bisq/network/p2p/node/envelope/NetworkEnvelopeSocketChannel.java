@@ -19,11 +19,12 @@ package bisq.network.p2p.node.envelope;
 
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeDeserializer;
-import bisq.network.p2p.node.envelope.parser.nio.ProtoBufMessageLengthWriter;
+import com.google.protobuf.CodedOutputStream;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
@@ -38,7 +39,8 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
 
     @Getter
     private final SocketChannel socketChannel;
-    private final ByteBuffer byteBuffer;
+    // Max. bytes we read at once. The read buffer is borrowed from the ByteBufferPool for each read.
+    private final int byteBufferSize;
     private final NetworkEnvelopeDeserializer networkEnvelopeDeserializer;
 
 
@@ -48,36 +50,60 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
 
     public NetworkEnvelopeSocketChannel(SocketChannel socketChannel, int byteBufferSize) {
         this.socketChannel = socketChannel;
-        this.byteBuffer = ByteBuffer.allocate(byteBufferSize);
-        this.networkEnvelopeDeserializer = new NetworkEnvelopeDeserializer(byteBuffer);
+        this.byteBufferSize = byteBufferSize;
+        this.networkEnvelopeDeserializer = new NetworkEnvelopeDeserializer(ByteBuffer.allocate(0));
     }
 
     public void send(NetworkEnvelope networkEnvelope) throws IOException {
-        bisq.network.protobuf.NetworkEnvelope proto = networkEnvelope.completeProto();
-        byte[] protoInBytes = proto.toByteArray();
-        int messageLength = protoInBytes.length;
-
-        ByteBuffer byteBuffer1 = ByteBuffer.allocate(messageLength + 10);
-        ProtoBufMessageLengthWriter.writeToBuffer(messageLength, byteBuffer1);
-
-        byteBuffer1.put(protoInBytes);
-        byteBuffer1.flip();
+        ByteBuffer byteBuffer = toLengthDelimitedByteBuffer(networkEnvelope);
+        try {
+            while (byteBuffer.hasRemaining()) {
+                socketChannel.write(byteBuffer);
+            }
+        } finally {
+            ByteBufferPool.SHARED.release(byteBuffer);
+        }
+    }
 
-        socketChannel.write(byteBuffer1);
+    /**
+     * Serializes the envelope directly into a buffer from the ByteBufferPool. The caller has to release the buffer
+     * to the ByteBufferPool.SHARED after it got written.
+     *
+     * @return A ByteBuffer ready for reading containing the varint length prefix followed by the serialized proto.
+     */
+    public static ByteBuffer toLengthDelimitedByteBuffer(NetworkEnvelope networkEnvelope) {
+        int messageLength = networkEnvelope.getSerializedSize();
+        ByteBuffer byteBuffer = ByteBufferPool.SHARED.acquire(CodedOutputStream.computeUInt32SizeNoTag(messageLength) + messageLength);
+        try {
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(byteBuffer);
+            codedOutputStream.writeUInt32NoTag(messageLength);
+            networkEnvelope.writeTo(codedOutputStream);
+            codedOutputStream.flush();
+        } catch (IOException e) {
+            ByteBufferPool.SHARED.release(byteBuffer);
+            // Cannot happen as the buffer is large enough
+            throw new RuntimeException(e);
+        }
+        // The flush of the CodedOutputStream has set the position after the written bytes
+        byteBuffer.flip();
+        return byteBuffer;
     }
 
     public List<NetworkEnvelope> receiveNetworkEnvelopes() throws IOException {
-        byteBuffer.clear();
-
-        int numberOfReadBytes = socketChannel.read(byteBuffer);
-        if (numberOfReadBytes == END_OF_STREAM) {
-            socketChannel.close();
-            return Collections.emptyList();
+        ByteBuffer byteBuffer = acquireReadBuffer();
+        try {
+            int numberOfReadBytes = socketChannel.read(byteBuffer);
+            if (numberOfReadBytes == END_OF_STREAM) {
+                socketChannel.close();
+                return Collections.emptyList();
+            }
+
+            byteBuffer.flip();
+            networkEnvelopeDeserializer.readFromByteBuffer(byteBuffer);
+        } finally {
+            ByteBufferPool.SHARED.release(byteBuffer);
         }
 
-        byteBuffer.flip();
-        networkEnvelopeDeserializer.readFromByteBuffer();
-
         List<NetworkEnvelope>
                 allNetworkEnvelopes = networkEnvelopeDeserializer.getAllNetworkEnvelopes();
         allNetworkEnvelopes.forEach(NetworkEnvelope::verifyVersion);
@@ -85,6 +111,41 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
         return allNetworkEnvelopes;
     }
 
+    /**
+     * Reads the available bytes from a non-blocking socketChannel and adds the serialized NetworkEnvelope protos of
+     * all messages completed with that read to the messages list.
+     *
+     * @return The number of bytes read.
+     * @throws EOFException if the end of stream has been reached.
+     */
+    public int receiveMessages(List<byte[]> messages) throws IOException {
+        ByteBuffer byteBuffer = acquireReadBuffer();
+        try {
+            int numberOfReadBytes = socketChannel.read(byteBuffer);
+            if (numberOfReadBytes == END_OF_STREAM) {
+                throw new EOFException("Input stream reached EOF");
+            }
+            if (numberOfReadBytes > 0) {
+                byteBuffer.flip();
+                networkEnvelopeDeserializer.readFromByteBuffer(byteBuffer);
+                messages.addAll(networkEnvelopeDeserializer.getAllMessages());
+            }
+            return numberOfReadBytes;
+        } finally {
+            ByteBufferPool.SHARED.release(byteBuffer);
+        }
+    }
+
+    public boolean isOpen() {
+        return socketChannel.isOpen();
+    }
+
+    private ByteBuffer acquireReadBuffer() {
+        ByteBuffer byteBuffer = ByteBufferPool.SHARED.acquire(byteBufferSize);
+        byteBuffer.limit(byteBufferSize);
+        return byteBuffer;
+    }
+
     @Override
     public void close() throws IOException {
         socketChannel.close();
@@ -18,31 +18,64 @@
 package bisq.network.p2p.node.envelope.parser.nio;
 
 import bisq.network.p2p.node.envelope.parser.ProtoBufMessageLengthParser;
+import bisq.network.p2p.node.envelope.parser.ProtoBufStreamIOException;
 import bisq.network.protobuf.NetworkEnvelope;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
 
 @Slf4j
 public class NetworkEnvelopeDeserializer {
+    // Protects against peers announcing huge messages to make us allocate large arrays.
+    // InventoryResponse is the largest message type and is capped at maxSizeInKb (2 MB in production).
+    public static final int MAX_MESSAGE_LENGTH = 20 * 1024 * 1024;
 
-    private final ByteBuffer byteBuffer;
+    private ByteBuffer byteBuffer;
+    private final NioProtoBufInputStream protoBufInputStream;
     private final ProtoBufMessageLengthParser messageLengthParser;
     private boolean parsingMessage = false;
     private long currentMessageLength = 0;
     private int parsedMessageLength = 0;
     private byte[] currentProtobufMessage;
 
-    private final Queue<bisq.network.p2p.message.NetworkEnvelope> parsedNetworkEnvelopes = new LinkedList<>();
+    private final Queue<byte[]> parsedMessages = new LinkedList<>();
 
     public NetworkEnvelopeDeserializer(ByteBuffer byteBuffer) {
         this.byteBuffer = byteBuffer;
-        var protoBufInputStream = new NioProtoBufInputStream(byteBuffer);
+        protoBufInputStream = new NioProtoBufInputStream(byteBuffer);
         this.messageLengthParser = new ProtoBufMessageLengthParser(protoBufInputStream);
     }
 
+    /**
+     * Parses the NetworkEnvelope with aliasing enabled, so that bytes fields are not copied but refer to the message
+     * array. This is safe as each received message has its own array which is never modified after it got completed.
+     */
+    public static NetworkEnvelope parse(byte[] message) throws InvalidProtocolBufferException {
+        CodedInputStream codedInputStream = CodedInputStream.newInstance(message);
+        codedInputStream.enableAliasing(true);
+        try {
+            return NetworkEnvelope.parseFrom(codedInputStream);
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    /**
+     * Reads from the given buffer, which can be a different one at each call (e.g. borrowed from the ByteBufferPool).
+     * The buffer gets fully consumed, so it can be reused after the call.
+     */
+    public void readFromByteBuffer(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+        protoBufInputStream.setByteBuffer(byteBuffer);
+        readFromByteBuffer();
+    }
+
     public void readFromByteBuffer() {
         while (byteBuffer.hasRemaining()) {
             if (!parsingMessage) {
@@ -66,6 +99,10 @@ public class NetworkEnvelopeDeserializer {
     private void parseMessageLength() {
         long messageLength = messageLengthParser.parseMessageLength();
         if (isMessageLengthParsed(messageLength)) {
+            if (messageLength > MAX_MESSAGE_LENGTH) {
+                throw new ProtoBufStreamIOException(new IOException("Message length " + messageLength +
+                        " exceeds MAX_MESSAGE_LENGTH " + MAX_MESSAGE_LENGTH));
+            }
             currentMessageLength = messageLength;
             parsedMessageLength = 0;
             parsingMessage = true;
@@ -92,18 +129,8 @@ public class NetworkEnvelopeDeserializer {
     }
 
     private void tryToParseProtoBufMessage() {
-        try {
-            NetworkEnvelope message = NetworkEnvelope.parseFrom(currentProtobufMessage);
-            bisq.network.p2p.message.NetworkEnvelope
-                    networkEnvelope = bisq.network.p2p.message.NetworkEnvelope.fromProto(message);
-            networkEnvelope.verifyVersion();
-            parsedNetworkEnvelopes.add(networkEnvelope);
-
-        } catch (InvalidProtocolBufferException e) {
-            log.error("Couldn't parse protocol buffer message.", e);
-        } finally {
-            resetState();
-        }
+        parsedMessages.add(currentProtobufMessage);
+        resetState();
     }
 
     private void parseNewIncomingMessage() {
@@ -137,16 +164,37 @@ public class NetworkEnvelopeDeserializer {
     }
 
     public List<bisq.network.p2p.message.NetworkEnvelope> getAllNetworkEnvelopes() {
-        if (parsedNetworkEnvelopes.isEmpty()) {
+        if (parsedMessages.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<bisq.network.p2p.message.NetworkEnvelope> networkEnvelopes = new ArrayList<>(parsedNetworkEnvelopes.size());
-        networkEnvelopes.addAll(parsedNetworkEnvelopes);
+        List<bisq.network.p2p.message.NetworkEnvelope> networkEnvelopes = new ArrayList<>(parsedMessages.size());
+        for (byte[] message : getAllMessages()) {
+            try {
+                NetworkEnvelope proto = parse(message);
+                bisq.network.p2p.message.NetworkEnvelope
+                        networkEnvelope = bisq.network.p2p.message.NetworkEnvelope.fromProto(proto);
+                networkEnvelope.verifyVersion();
+                networkEnvelopes.add(networkEnvelope);
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Couldn't parse protocol buffer message.", e);
+            }
+        }
+        return networkEnvelopes;
+    }
 
-        parsedNetworkEnvelopes.clear();
+    /**
+     * @return The serialized NetworkEnvelope protos of all completely received messages. Parsing is left to the
+     * caller, so it can be done outside the selector thread.
+     */
+    public List<byte[]> getAllMessages() {
+        if (parsedMessages.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return networkEnvelopes;
+        List<byte[]> messages = new ArrayList<>(parsedMessages);
+        parsedMessages.clear();
+        return messages;
     }
 
     private boolean isMessageLengthParsed(long messageLength) {
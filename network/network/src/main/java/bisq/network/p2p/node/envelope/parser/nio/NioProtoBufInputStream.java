@@ -18,11 +18,13 @@
 package bisq.network.p2p.node.envelope.parser.nio;
 
 import bisq.network.p2p.node.envelope.parser.ProtoBufInputStream;
+import lombok.Setter;
 
 import java.nio.ByteBuffer;
 
 public class NioProtoBufInputStream implements ProtoBufInputStream {
-    private final ByteBuffer byteBuffer;
+    @Setter
+    private ByteBuffer byteBuffer;
 
     public NioProtoBufInputStream(ByteBuffer byteBuffer) {
         this.byteBuffer = byteBuffer;
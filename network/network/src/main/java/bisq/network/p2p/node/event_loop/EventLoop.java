@@ -0,0 +1,178 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.event_loop;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single selector thread multiplexing the IO of many channels.
+ * The handlers are called on the selector thread and must not block. Expensive work like deserialization,
+ * authorization or message handling has to be delegated to a worker executor.
+ * Interest changes and registrations from other threads are passed via tasks to the selector thread.
+ */
+@Slf4j
+public class EventLoop {
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+    public interface Handler {
+        void onReadable();
+
+        void onWritable();
+
+        /**
+         * Called about once per second, used for detecting idle connections.
+         */
+        void onTick(long now);
+
+        void onException(Exception exception);
+    }
+
+    @Getter
+    private final String name;
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    @Getter
+    private final AtomicInteger numChannels = new AtomicInteger();
+    private volatile boolean isStopped;
+
+    EventLoop(String name) throws IOException {
+        this.name = name;
+        selector = Selector.open();
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+        } else {
+            pendingTasks.add(task);
+            selector.wakeup();
+        }
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    void shutdown() {
+        isStopped = true;
+        selector.wakeup();
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    private void run() {
+        long lastTick = System.currentTimeMillis();
+        try {
+            while (!isStopped) {
+                selector.select(TICK_INTERVAL);
+                runPendingTasks();
+                processSelectedKeys();
+
+                long now = System.currentTimeMillis();
+                if (now - lastTick >= TICK_INTERVAL) {
+                    lastTick = now;
+                    tick(now);
+                }
+            }
+        } catch (ClosedSelectorException ignore) {
+        } catch (Throwable throwable) {
+            log.error("Unexpected exception at {}. The event loop got terminated.", name, throwable);
+        } finally {
+            closeSelector();
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Task at {} failed", name, e);
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey selectionKey = iterator.next();
+            iterator.remove();
+            Handler handler = (Handler) selectionKey.attachment();
+            try {
+                if (selectionKey.isValid() && selectionKey.isReadable()) {
+                    handler.onReadable();
+                }
+                if (selectionKey.isValid() && selectionKey.isWritable()) {
+                    handler.onWritable();
+                }
+            } catch (CancelledKeyException ignore) {
+                // Channel got closed in the meantime
+            } catch (Exception e) {
+                handler.onException(e);
+            }
+        }
+    }
+
+    private void tick(long now) {
+        for (SelectionKey selectionKey : selector.keys()) {
+            if (selectionKey.isValid()) {
+                Handler handler = (Handler) selectionKey.attachment();
+                try {
+                    handler.onTick(now);
+                } catch (Exception e) {
+                    handler.onException(e);
+                }
+            }
+        }
+    }
+
+    private void closeSelector() {
+        if (selector.isOpen()) {
+            for (SelectionKey selectionKey : selector.keys()) {
+                Handler handler = (Handler) selectionKey.attachment();
+                try {
+                    handler.onException(new IOException("Event loop " + name + " got stopped"));
+                } catch (Exception ignore) {
+                }
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
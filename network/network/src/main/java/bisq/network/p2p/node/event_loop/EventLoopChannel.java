@@ -0,0 +1,279 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.event_loop;
+
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.envelope.ByteBufferPool;
+import bisq.network.p2p.node.envelope.NetworkEnvelopeSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking counterpart of NetworkEnvelopeSocket for a connection after the handshake has been completed.
+ * Reads are done on the event loop thread and the received messages are passed as serialized protos to the handler.
+ * Sends write directly to the socket if possible, otherwise the remaining bytes are queued and written once the
+ * socket becomes writable again.
+ * Reading can be paused by the owner for applying backpressure if it cannot process the received messages fast enough.
+ */
+@Slf4j
+public class EventLoopChannel implements EventLoop.Handler {
+    // Larger as NetworkEnvelopeSocketChannel.BYTE_BUFFER_SIZE to reduce the number of reads for large messages
+    public static final int READ_BUFFER_SIZE = 64 * 1024;
+    // Max. bytes we buffer for a peer not reading fast enough. Larger as the max. inventory response size (2 MB).
+    private static final long MAX_PENDING_WRITE_BYTES = 8 * 1024 * 1024;
+    // Limit reads per readiness event to stay fair to other channels on the same event loop
+    private static final int MAX_READS_PER_EVENT = 16;
+
+    public interface Handler {
+        void onMessages(List<byte[]> messages);
+
+        void onException(Exception exception);
+    }
+
+    private final EventLoop eventLoop;
+    private final SocketChannel socketChannel;
+    private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
+    private final Handler handler;
+    private final long idleTimeout;
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+    private long pendingWriteBytes;
+    private volatile SelectionKey selectionKey;
+    private volatile long lastReadTs;
+    private volatile boolean isReadingPaused;
+
+    /**
+     * @param idleTimeout If no data got received for that time, we report a SocketTimeoutException, as it would be
+     *                    the case with the socket timeout in blocking mode. 0 disables the idle check.
+     */
+    public EventLoopChannel(EventLoop eventLoop,
+                            SocketChannel socketChannel,
+                            long idleTimeout,
+                            Handler handler) {
+        this.eventLoop = eventLoop;
+        this.socketChannel = socketChannel;
+        this.idleTimeout = idleTimeout;
+        this.handler = handler;
+        networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel, READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Switches the socketChannel to non-blocking mode and registers it at the event loop.
+     * Must not be called while any blocking IO operation is in progress on that socketChannel.
+     */
+    public void start() throws IOException {
+        socketChannel.configureBlocking(false);
+        lastReadTs = System.currentTimeMillis();
+        eventLoop.getNumChannels().incrementAndGet();
+        eventLoop.execute(() -> {
+            try {
+                if (isClosed.get()) {
+                    return;
+                }
+                selectionKey = socketChannel.register(eventLoop.getSelector(), SelectionKey.OP_READ, this);
+                synchronized (pendingWrites) {
+                    if (!pendingWrites.isEmpty()) {
+                        selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+            } catch (Exception e) {
+                onException(e);
+            }
+        });
+    }
+
+    /**
+     * Does not block. If the socket buffer is full the remaining bytes get queued.
+     *
+     * @return The number of bytes of the serialized envelope
+     */
+    public int send(NetworkEnvelope networkEnvelope) throws IOException {
+        return send(List.of(networkEnvelope));
+    }
+
+    /**
+     * Writes all envelopes with a single gathering write. Does not block. If the socket buffer is full the remaining
+     * bytes get queued.
+     *
+     * @return The number of bytes of the serialized envelopes
+     */
+    public int send(List<NetworkEnvelope> networkEnvelopes) throws IOException {
+        if (isClosed.get()) {
+            throw new IOException("Channel is closed");
+        }
+        ByteBuffer[] byteBuffers = networkEnvelopes.stream()
+                .map(NetworkEnvelopeSocketChannel::toLengthDelimitedByteBuffer)
+                .toArray(ByteBuffer[]::new);
+        int size = Arrays.stream(byteBuffers).mapToInt(ByteBuffer::remaining).sum();
+        synchronized (pendingWrites) {
+            if (pendingWrites.isEmpty()) {
+                try {
+                    socketChannel.write(byteBuffers);
+                } catch (IOException e) {
+                    Arrays.stream(byteBuffers).forEach(ByteBufferPool.SHARED::release);
+                    throw e;
+                }
+            }
+            for (ByteBuffer byteBuffer : byteBuffers) {
+                if (byteBuffer.hasRemaining()) {
+                    pendingWriteBytes += byteBuffer.remaining();
+                    pendingWrites.add(byteBuffer);
+                } else {
+                    ByteBufferPool.SHARED.release(byteBuffer);
+                }
+            }
+            if (pendingWrites.isEmpty()) {
+                return size;
+            }
+            if (pendingWriteBytes > MAX_PENDING_WRITE_BYTES) {
+                throw new IOException("Pending write bytes exceed MAX_PENDING_WRITE_BYTES. pendingWriteBytes=" + pendingWriteBytes);
+            }
+        }
+        eventLoop.execute(() -> setInterest(SelectionKey.OP_WRITE, true));
+        return size;
+    }
+
+    public void pauseReading() {
+        if (!isReadingPaused) {
+            isReadingPaused = true;
+            eventLoop.execute(() -> setInterest(SelectionKey.OP_READ, false));
+        }
+    }
+
+    public void resumeReading() {
+        if (isReadingPaused) {
+            isReadingPaused = false;
+            lastReadTs = System.currentTimeMillis();
+            eventLoop.execute(() -> setInterest(SelectionKey.OP_READ, true));
+        }
+    }
+
+    public void close() {
+        if (isClosed.compareAndSet(false, true)) {
+            eventLoop.getNumChannels().decrementAndGet();
+            eventLoop.execute(() -> {
+                if (selectionKey != null) {
+                    selectionKey.cancel();
+                }
+            });
+            try {
+                networkEnvelopeSocketChannel.close();
+            } catch (IOException ignore) {
+            }
+            synchronized (pendingWrites) {
+                pendingWrites.forEach(ByteBufferPool.SHARED::release);
+                pendingWrites.clear();
+                pendingWriteBytes = 0;
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return isClosed.get() || !networkEnvelopeSocketChannel.isOpen();
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // EventLoop.Handler, called on the event loop thread
+    /* --------------------------------------------------------------------- */
+
+    @Override
+    public void onReadable() {
+        try {
+            List<byte[]> messages = new ArrayList<>();
+            for (int i = 0; i < MAX_READS_PER_EVENT && !isReadingPaused && !isClosed.get(); i++) {
+                int numberOfReadBytes = networkEnvelopeSocketChannel.receiveMessages(messages);
+                if (numberOfReadBytes == 0) {
+                    break;
+                }
+                lastReadTs = System.currentTimeMillis();
+            }
+            if (!messages.isEmpty()) {
+                handler.onMessages(messages);
+            }
+        } catch (Exception e) {
+            onException(e);
+        }
+    }
+
+    @Override
+    public void onWritable() {
+        try {
+            synchronized (pendingWrites) {
+                ByteBuffer byteBuffer;
+                while ((byteBuffer = pendingWrites.peek()) != null) {
+                    int written = socketChannel.write(byteBuffer);
+                    pendingWriteBytes -= written;
+                    if (byteBuffer.hasRemaining()) {
+                        // Socket buffer full, we wait for the next writable event
+                        return;
+                    }
+                    ByteBufferPool.SHARED.release(pendingWrites.poll());
+                }
+            }
+            setInterest(SelectionKey.OP_WRITE, false);
+        } catch (Exception e) {
+            onException(e);
+        }
+    }
+
+    @Override
+    public void onTick(long now) {
+        if (isReadingPaused) {
+            // If we paused reading we do not expect to receive data
+            lastReadTs = now;
+            return;
+        }
+        if (idleTimeout > 0 && now - lastReadTs > idleTimeout) {
+            onException(new SocketTimeoutException("No data received for " + (now - lastReadTs) + " ms"));
+        }
+    }
+
+    @Override
+    public void onException(Exception exception) {
+        if (!isClosed.get()) {
+            close();
+            handler.onException(exception);
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private void setInterest(int op, boolean enable) {
+        SelectionKey key = selectionKey;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int interestOps = key.interestOps();
+        key.interestOps(enable ? interestOps | op : interestOps & ~op);
+    }
+}
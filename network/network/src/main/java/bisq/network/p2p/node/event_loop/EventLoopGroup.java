@@ -0,0 +1,96 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.event_loop;
+
+import bisq.common.threading.AbortPolicyWithLogging;
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.threading.MaxSizeAwareQueue;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed set of event loops shared by all connections of all nodes, plus a shared worker executor for processing
+ * received messages and sending. The number of threads does not depend on the number of connections.
+ */
+@Slf4j
+public class EventLoopGroup {
+    private final List<EventLoop> eventLoops;
+    @Getter
+    private final ThreadPoolExecutor workerExecutor;
+
+    public EventLoopGroup(int numEventLoops, int workerMaxPoolSize) {
+        checkArgument(numEventLoops > 0, "numEventLoops must be > 0");
+        eventLoops = new ArrayList<>(numEventLoops);
+        try {
+            for (int i = 0; i < numEventLoops; i++) {
+                eventLoops.add(new EventLoop("EventLoop-" + i));
+            }
+        } catch (IOException e) {
+            eventLoops.forEach(EventLoop::shutdown);
+            throw new RuntimeException("Could not open selector for event loop", e);
+        }
+        workerExecutor = createWorkerExecutor(workerMaxPoolSize);
+        log.info("Created EventLoopGroup with {} event loops and a worker pool with max. {} threads",
+                numEventLoops, workerMaxPoolSize);
+    }
+
+    /**
+     * @return The event loop with the fewest registered channels.
+     */
+    public EventLoop next() {
+        return eventLoops.stream()
+                .min(Comparator.comparingInt(eventLoop -> eventLoop.getNumChannels().get()))
+                .orElseThrow();
+    }
+
+    public int getNumChannels() {
+        return eventLoops.stream().mapToInt(eventLoop -> eventLoop.getNumChannels().get()).sum();
+    }
+
+    public void shutdown() {
+        eventLoops.forEach(EventLoop::shutdown);
+        ExecutorFactory.shutdownAndAwaitTermination(workerExecutor);
+    }
+
+    private static ThreadPoolExecutor createWorkerExecutor(int maxPoolSize) {
+        // Each connection uses SerialExecutors on top of the worker executor, which submit at most one task at a time.
+        // So the queue size is bounded by the number of connections.
+        int queueCapacity = 10000;
+        MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
+        String name = "EventLoop.worker";
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                1,
+                maxPoolSize,
+                30,
+                TimeUnit.SECONDS,
+                queue,
+                ExecutorFactory.getThreadFactoryWithCounter(name),
+                new AbortPolicyWithLogging(name, queueCapacity, maxPoolSize));
+        queue.applyExecutor(executor, Math.max(1, maxPoolSize - 2));
+        return executor;
+    }
+}
@@ -32,6 +32,7 @@ import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocket;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.node.network_load.NetworkTrafficMetrics;
 import bisq.network.p2p.services.peer_group.BanList;
 import bisq.security.keys.KeyBundle;
 import com.google.protobuf.ByteString;
@@ -68,6 +69,7 @@ public final class ConnectionHandshake {
     private final Capability capability;
     private final AuthorizationService authorizationService;
     private final KeyBundle myKeyBundle;
+    private final NetworkTrafficMetrics networkTrafficMetrics;
     private final NetworkEnvelopeSocket networkEnvelopeSocket;
 
     @Getter
@@ -203,11 +205,13 @@ public final class ConnectionHandshake {
                                BanList banList,
                                Capability capability,
                                AuthorizationService authorizationService,
-                               KeyBundle myKeyBundle) throws IOException {
+                               KeyBundle myKeyBundle,
+                               NetworkTrafficMetrics networkTrafficMetrics) throws IOException {
         this.banList = banList;
         this.capability = capability;
         this.authorizationService = authorizationService;
         this.myKeyBundle = myKeyBundle;
+        this.networkTrafficMetrics = networkTrafficMetrics;
 
         PeerSocket peerSocket = new DefaultPeerSocket(socket);
         this.networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
@@ -215,8 +219,11 @@ public final class ConnectionHandshake {
 
     // Client side protocol
     public Result start(NetworkLoad myNetworkLoad, Address peerAddress) {
+        // The connection created from the result continues with the ReplayWindow of the handshake
+        String connectionId = StringUtils.createUid();
+        authorizationService.onConnect(connectionId);
         try {
-            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics(networkTrafficMetrics);
 
             Address myAddress = capability.getAddress();
             long signatureDate = System.currentTimeMillis();
@@ -260,7 +267,6 @@ public final class ConnectionHandshake {
                 throw new ConnectionException(ADDRESS_BANNED, "PeerAddress is banned. address=" + address);
             }
 
-            String connectionId = StringUtils.createUid();
             boolean isAuthorized = authorizationService.isAuthorized(response,
                     responseNetworkEnvelope.getAuthorizationToken(),
                     myNetworkLoad,
@@ -279,6 +285,7 @@ public final class ConnectionHandshake {
             log.debug("Servers capability {}, load={}", response.getCapability(), response.getNetworkLoad());
             return new Result(response.getCapability(), response.getNetworkLoad(), connectionMetrics, connectionId);
         } catch (Exception e) {
+            authorizationService.onDisconnect(connectionId);
             try {
                 networkEnvelopeSocket.close();
             } catch (IOException ignore) {
@@ -294,9 +301,11 @@ public final class ConnectionHandshake {
 
     // Server side protocol
     public Result onSocket(NetworkLoad myNetworkLoad) {
+        String connectionId = StringUtils.createUid();
+        authorizationService.onConnect(connectionId);
         try {
             // We get called from the Server's socketHandler callback on the NetworkRead thread
-            ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+            ConnectionMetrics connectionMetrics = new ConnectionMetrics(networkTrafficMetrics);
             bisq.network.protobuf.NetworkEnvelope requestProto = networkEnvelopeSocket.receiveNextEnvelope(); // Blocking
             if (requestProto == null) {
                 throw new ConnectionException(PROTOBUF_IS_NULL,
@@ -322,7 +331,6 @@ public final class ConnectionHandshake {
 
             Address myAddress = capability.getAddress();
             // As the request did not know our load at the initial request, they used the NetworkLoad.INITIAL_LOAD for the AuthorizationToken.
-            String connectionId = StringUtils.createUid();
             boolean isAuthorized = authorizationService.isAuthorized(request,
                     requestNetworkEnvelope.getAuthorizationToken(),
                     NetworkLoad.INITIAL_NETWORK_LOAD,
@@ -361,6 +369,7 @@ public final class ConnectionHandshake {
             connectionMetrics.addRtt(System.currentTimeMillis() - ts);
             return new Result(requestersCapability, request.getNetworkLoad(), connectionMetrics, connectionId);
         } catch (Exception e) {
+            authorizationService.onDisconnect(connectionId);
             try {
                 networkEnvelopeSocket.close();
             } catch (IOException ignore) {
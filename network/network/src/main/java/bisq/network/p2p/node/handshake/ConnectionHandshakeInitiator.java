@@ -101,11 +101,19 @@ public class ConnectionHandshakeInitiator {
             throw new ConnectionException(ADDRESS_BANNED, "PeerAddress is banned. address=" + address);
         }
 
-        boolean isAuthorized = authorizationService.isAuthorized(response,
-                responseNetworkEnvelope.getAuthorizationToken(),
-                myNetworkLoad,
-                StringUtils.createUid(),
-                myCapability.getAddress().getFullAddress());
+        // The handshake is verified before the connection exists, so we use a throwaway connection ID
+        String connectionId = StringUtils.createUid();
+        authorizationService.onConnect(connectionId);
+        boolean isAuthorized;
+        try {
+            isAuthorized = authorizationService.isAuthorized(response,
+                    responseNetworkEnvelope.getAuthorizationToken(),
+                    myNetworkLoad,
+                    connectionId,
+                    myCapability.getAddress().getFullAddress());
+        } finally {
+            authorizationService.onDisconnect(connectionId);
+        }
 
         if (!isAuthorized) {
             throw new ConnectionException(AUTHORIZATION_FAILED, "ConnectionHandshake.Response authorization failed. AuthorizationToken=" + responseNetworkEnvelope.getAuthorizationToken());
@@ -99,13 +99,21 @@ public class ConnectionHandshakeResponder {
         String myAddress = myCapability.getAddress().getFullAddress();
         // As the request did not know our load at the initial request, they used the NetworkLoad.INITIAL_LOAD for the
         // AuthorizationToken.
-        boolean isAuthorized = authorizationService.isAuthorized(
-                request,
-                requestNetworkEnvelope.getAuthorizationToken(),
-                NetworkLoad.INITIAL_NETWORK_LOAD,
-                StringUtils.createUid(),
-                myAddress
-        );
+        // The handshake is verified before the connection exists, so we use a throwaway connection ID
+        String connectionId = StringUtils.createUid();
+        authorizationService.onConnect(connectionId);
+        boolean isAuthorized;
+        try {
+            isAuthorized = authorizationService.isAuthorized(
+                    request,
+                    requestNetworkEnvelope.getAuthorizationToken(),
+                    NetworkLoad.INITIAL_NETWORK_LOAD,
+                    connectionId,
+                    myAddress
+            );
+        } finally {
+            authorizationService.onDisconnect(connectionId);
+        }
 
         if (!isAuthorized) {
             throw new ConnectionException(AUTHORIZATION_FAILED, "ConnectionHandshake.Request authorization failed. AuthorizationToken=" + requestNetworkEnvelope.getAuthorizationToken());
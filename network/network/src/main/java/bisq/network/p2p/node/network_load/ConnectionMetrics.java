@@ -21,15 +21,15 @@ import bisq.common.util.ClassUtils;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.*;
+import javax.annotation.Nullable;
+import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
@@ -37,26 +37,55 @@ import java.util.concurrent.atomic.AtomicLong;
 @ToString
 public class ConnectionMetrics {
     private final long created;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final NetworkTrafficMetrics networkTrafficMetrics;
     private final AtomicLong lastUpdate = new AtomicLong();
     // onSent is called from the connection's send thread pool (which grows to several threads), onReceived
     // from its read thread and clear from whichever thread triggers the shutdown, while readers
-    // (NetworkLoadService, the desktop UI, the api services and toString) traverse the maps concurrently.
-    // ConcurrentSkipListMap makes computeIfAbsent atomic and gives weakly consistent iterators, and it keeps
-    // the ascending key order sumOfLastMinute relies on.
-    private final ConcurrentNavigableMap<Integer, AtomicLong> numMessagesSentPerMinute = new ConcurrentSkipListMap<>();
-    private final ConcurrentNavigableMap<Integer, AtomicLong> sentBytesPerMinute = new ConcurrentSkipListMap<>();
-    private final ConcurrentNavigableMap<Integer, AtomicLong> spentSendMessageTimePerMinute = new ConcurrentSkipListMap<>();
-    private final ConcurrentNavigableMap<Integer, AtomicLong> deserializeTimePerMinute = new ConcurrentSkipListMap<>();
-    private final ConcurrentNavigableMap<Integer, AtomicLong> numMessagesReceivedPerMinute = new ConcurrentSkipListMap<>();
-    private final ConcurrentNavigableMap<Integer, AtomicLong> receivedBytesPerMinute = new ConcurrentSkipListMap<>();
+    // (NetworkLoadService, the desktop UI, the api services and toString) read concurrently.
+    // The PerMinuteRingBuffers are lock-free and use constant memory independent of the connection's age.
+    private final PerMinuteRingBuffer numMessagesSentPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer sentBytesPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer spentSendMessageTimePerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer deserializeTimePerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer numMessagesReceivedPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer receivedBytesPerMinute = new PerMinuteRingBuffer();
     private final Map<String, AtomicLong> numSentMessagesByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numReceivedMessagesByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numSentDistributedDataByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numReceivedDistributedDataByClassName = new ConcurrentHashMap<>();
 
-    private final List<Long> rrtList = new CopyOnWriteArrayList<>();
+    private final RttHistogram rttHistogram = new RttHistogram();
+
+    // Messages deferred by the ConnectionThrottle and the sum of their delays in ms
+    private final AtomicLong numThrottledSentMessages = new AtomicLong();
+    private final AtomicLong sendThrottleDelay = new AtomicLong();
+    private final AtomicLong numThrottledReceivedMessages = new AtomicLong();
+    private final AtomicLong receiveThrottleDelay = new AtomicLong();
+
+    // Each flush to the socket with the number of messages and bytes written by it
+    private final AtomicLong numFlushes = new AtomicLong();
+    private final AtomicLong numFlushedMessages = new AtomicLong();
+    private final AtomicLong flushedBytes = new AtomicLong();
+
+    // Sent and received bytes are accounted uncompressed. Those track the compressed messages and the bytes saved
+    // on the wire by compression.
+    private final AtomicLong numCompressedSentMessages = new AtomicLong();
+    private final AtomicLong compressionSavedSentBytes = new AtomicLong();
+    private final AtomicLong numCompressedReceivedMessages = new AtomicLong();
+    private final AtomicLong compressionSavedReceivedBytes = new AtomicLong();
 
     public ConnectionMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param networkTrafficMetrics If set, all sent and received messages are also accounted there.
+     */
+    public ConnectionMetrics(@Nullable NetworkTrafficMetrics networkTrafficMetrics) {
+        this.networkTrafficMetrics = networkTrafficMetrics;
         created = System.currentTimeMillis();
     }
 
@@ -73,25 +102,32 @@ public class ConnectionMetrics {
         lastUpdate.set(now);
 
         int ageInMinutes = getAgeInMinutes(now);
-        sentBytesPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(networkEnvelope.getSerializedSize());
+        int uncompressedSize = networkEnvelope.getUncompressedSerializedSize();
+        sentBytesPerMinute.add(ageInMinutes, uncompressedSize);
+        if (networkEnvelope.isCompressed()) {
+            numCompressedSentMessages.incrementAndGet();
+            compressionSavedSentBytes.addAndGet(uncompressedSize - networkEnvelope.getSerializedSize());
+        }
 
-        numMessagesSentPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .incrementAndGet();
+        numMessagesSentPerMinute.add(ageInMinutes, 1);
 
-        spentSendMessageTimePerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(spentTime);
+        spentSendMessageTimePerMinute.add(ageInMinutes, spentTime);
 
         EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
         String name = ClassUtils.getClassName(envelopePayloadMessage.getClass());
         numSentMessagesByClassName.computeIfAbsent(name, key -> new AtomicLong())
                 .incrementAndGet();
 
+        String distributedDataName = null;
         if (envelopePayloadMessage instanceof AddAuthenticatedDataRequest addAuthenticatedDataRequest) {
-            String distributedDataName = addAuthenticatedDataRequest.getDistributedData().getClassName();
+            distributedDataName = addAuthenticatedDataRequest.getDistributedData().getClassName();
             numSentDistributedDataByClassName.computeIfAbsent(distributedDataName, key -> new AtomicLong())
                     .incrementAndGet();
         }
+
+        if (networkTrafficMetrics != null) {
+            networkTrafficMetrics.onSent(name, distributedDataName, uncompressedSize, spentTime);
+        }
     }
 
     public void onReceived(NetworkEnvelope networkEnvelope, long deserializeTime) {
@@ -99,57 +135,106 @@ public class ConnectionMetrics {
         lastUpdate.set(now);
 
         int ageInMinutes = getAgeInMinutes(now);
-        receivedBytesPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(networkEnvelope.getSerializedSize());
+        int uncompressedSize = networkEnvelope.getUncompressedSerializedSize();
+        receivedBytesPerMinute.add(ageInMinutes, uncompressedSize);
+        if (networkEnvelope.isCompressed()) {
+            numCompressedReceivedMessages.incrementAndGet();
+            compressionSavedReceivedBytes.addAndGet(uncompressedSize - networkEnvelope.getSerializedSize());
+        }
 
-        numMessagesReceivedPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .incrementAndGet();
+        numMessagesReceivedPerMinute.add(ageInMinutes, 1);
 
-        deserializeTimePerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(deserializeTime);
+        deserializeTimePerMinute.add(ageInMinutes, deserializeTime);
 
         EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
         String name = ClassUtils.getClassName(envelopePayloadMessage.getClass());
         numReceivedMessagesByClassName.computeIfAbsent(name, key -> new AtomicLong())
                 .incrementAndGet();
 
+        String distributedDataName = null;
         if (envelopePayloadMessage instanceof AddAuthenticatedDataRequest addAuthenticatedDataRequest) {
-            String distributedDataName = addAuthenticatedDataRequest.getDistributedData().getClassName();
+            distributedDataName = addAuthenticatedDataRequest.getDistributedData().getClassName();
             numReceivedDistributedDataByClassName.computeIfAbsent(distributedDataName, key -> new AtomicLong())
                     .incrementAndGet();
         }
+
+        if (networkTrafficMetrics != null) {
+            networkTrafficMetrics.onReceived(name, distributedDataName, uncompressedSize, deserializeTime);
+        }
+    }
+
+    public void onSendThrottled(long delay) {
+        numThrottledSentMessages.incrementAndGet();
+        sendThrottleDelay.addAndGet(delay);
+    }
+
+    public void onReceiveThrottled(long delay) {
+        numThrottledReceivedMessages.incrementAndGet();
+        receiveThrottleDelay.addAndGet(delay);
+    }
+
+    public long getNumThrottledSentMessages() {
+        return numThrottledSentMessages.get();
+    }
+
+    public long getSendThrottleDelay() {
+        return sendThrottleDelay.get();
+    }
+
+    public long getNumThrottledReceivedMessages() {
+        return numThrottledReceivedMessages.get();
+    }
+
+    public long getReceiveThrottleDelay() {
+        return receiveThrottleDelay.get();
+    }
+
+    public void onFlush(int numMessages, long numBytes) {
+        numFlushes.incrementAndGet();
+        numFlushedMessages.addAndGet(numMessages);
+        flushedBytes.addAndGet(numBytes);
+    }
+
+    public double getAverageMessagesPerFlush() {
+        long flushes = numFlushes.get();
+        return flushes == 0 ? 0 : (double) numFlushedMessages.get() / flushes;
+    }
+
+    public double getAverageBytesPerFlush() {
+        long flushes = numFlushes.get();
+        return flushes == 0 ? 0 : (double) flushedBytes.get() / flushes;
     }
 
     public void addRtt(long value) {
-        this.rrtList.add(value);
+        rttHistogram.add(value);
     }
 
     public double getAverageRtt() {
-        return rrtList.stream().mapToLong(e -> e).average().orElse(0d);
+        return rttHistogram.getAverage();
     }
 
     public long getSentBytes() {
-        return sumOf(sentBytesPerMinute);
+        return sentBytesPerMinute.getTotal();
     }
 
     public long getNumMessagesSent() {
-        return sumOf(numMessagesSentPerMinute);
+        return numMessagesSentPerMinute.getTotal();
     }
 
     public long getSpentSendMessageTimePerMinute() {
-        return sumOf(spentSendMessageTimePerMinute);
+        return spentSendMessageTimePerMinute.getTotal();
     }
 
     public long getReceivedBytes() {
-        return sumOf(receivedBytesPerMinute);
+        return receivedBytesPerMinute.getTotal();
     }
 
     public long getNumMessagesReceived() {
-        return sumOf(numMessagesReceivedPerMinute);
+        return numMessagesReceivedPerMinute.getTotal();
     }
 
     public long getDeserializeTimePerMinute() {
-        return sumOf(deserializeTimePerMinute);
+        return deserializeTimePerMinute.getTotal();
     }
 
 
@@ -203,27 +288,27 @@ public class ConnectionMetrics {
     }
 
     public long getNumMessagesSentOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesSentPerMinute, lastMinutes);
+        return numMessagesSentPerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public long getSentBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(sentBytesPerMinute, lastMinutes);
+        return sentBytesPerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public long getSpentSendMessageTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(spentSendMessageTimePerMinute, lastMinutes);
+        return spentSendMessageTimePerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public long getNumMessagesReceivedOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesReceivedPerMinute, lastMinutes);
+        return numMessagesReceivedPerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public long getReceivedBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(receivedBytesPerMinute, lastMinutes);
+        return receivedBytesPerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public long getDeserializeTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(deserializeTimePerMinute, lastMinutes);
+        return deserializeTimePerMinute.sumOfLastMinutes(getCurrentAgeInMinutes(), lastMinutes);
     }
 
     public void clear() {
@@ -237,19 +322,22 @@ public class ConnectionMetrics {
         numReceivedMessagesByClassName.clear();
         numSentDistributedDataByClassName.clear();
         numReceivedDistributedDataByClassName.clear();
-        rrtList.clear();
-    }
-
-    private long sumOf(ConcurrentNavigableMap<Integer, AtomicLong> map) {
-        return map.values().stream().mapToLong(AtomicLong::get).sum();
-    }
-
-    private long sumOfLastMinute(ConcurrentNavigableMap<Integer, AtomicLong> map, int lastMinutes) {
-        // The buckets are keyed by the age in minutes, so the descending map returns the most recent ones first.
-        return map.descendingMap().values().stream()
-                .limit(lastMinutes)
-                .mapToLong(AtomicLong::get)
-                .sum();
+        rttHistogram.clear();
+        numThrottledSentMessages.set(0);
+        sendThrottleDelay.set(0);
+        numThrottledReceivedMessages.set(0);
+        receiveThrottleDelay.set(0);
+        numFlushes.set(0);
+        numFlushedMessages.set(0);
+        flushedBytes.set(0);
+        numCompressedSentMessages.set(0);
+        compressionSavedSentBytes.set(0);
+        numCompressedReceivedMessages.set(0);
+        compressionSavedReceivedBytes.set(0);
+    }
+
+    private int getCurrentAgeInMinutes() {
+        return getAgeInMinutes(System.currentTimeMillis());
     }
 
     private int getAgeInMinutes(long now) {
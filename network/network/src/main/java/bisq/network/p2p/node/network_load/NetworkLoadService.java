@@ -23,18 +23,12 @@ import bisq.common.util.MathUtils;
 import bisq.network.p2p.ServiceNode;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
-import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.storage.StorageService;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.text.DecimalFormat;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -44,33 +38,38 @@ import java.util.stream.Stream;
 @Slf4j
 public class NetworkLoadService {
     private static final long INITIAL_DELAY = TimeUnit.SECONDS.toSeconds(90);
-    private static final long INTERVAL = TimeUnit.MINUTES.toSeconds(1);
+    // Reading the aggregated metrics is cheap, so we can update the network load more often than we log the statistics
+    private static final long INTERVAL = TimeUnit.SECONDS.toSeconds(10);
+    private static final long LOG_STATISTICS_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final int NUM_MINUTES = 5;
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.####");
 
     private final ServiceNode serviceNode;
     private final NetworkLoadSnapshot networkLoadSnapshot;
+    private final NetworkTrafficMetrics networkTrafficMetrics;
     private final int maxNumConnectedPeers;
     private final StorageService storageService;
-    private final Map<String, ConnectionMetrics> connectionMetricsByConnectionId = new HashMap<>();
     @Setter
     private double difficultyAdjustmentFactor = NetworkLoad.DEFAULT_DIFFICULTY_ADJUSTMENT;
     private final Scheduler scheduler;
     private final Object lock = new Object();
+    private long lastLogStatisticsTs;
+    // Takes about 50 ms, so we only update it when we log the statistics
+    private long networkDatabaseSize;
 
     @Getter
     private long sentBytesOfLast5Minutes, spentSendMessageTimeOfLast5Minutes, numMessagesSentOfLast5Minutes,
             receivedBytesOfLast5Minutes, deserializeTimeOfLast5Minutes, numMessagesReceivedOfLast5Minutes;
-    @Getter
-    private TreeMap<String, AtomicLong> numSentMessagesByClassName, numReceivedMessagesByClassName,
-            numSentDistributedDataByClassName, numReceivedDistributedDataByClassName;
 
     public NetworkLoadService(ServiceNode serviceNode,
                               StorageService storageService,
                               NetworkLoadSnapshot networkLoadSnapshot,
+                              NetworkTrafficMetrics networkTrafficMetrics,
                               int maxNumConnectedPeers) {
         this.serviceNode = serviceNode;
         this.storageService = storageService;
         this.networkLoadSnapshot = networkLoadSnapshot;
+        this.networkTrafficMetrics = networkTrafficMetrics;
         this.maxNumConnectedPeers = maxNumConnectedPeers;
 
         scheduler = Scheduler.run(this::updateNetworkLoad)
@@ -81,143 +80,53 @@ public class NetworkLoadService {
 
     public void shutdown() {
         scheduler.stop();
-        synchronized (lock) {
-            connectionMetricsByConnectionId.clear();
-        }
     }
 
     public NetworkLoad updateNetworkLoad() {
-        Map<String, ConnectionMetrics> currentConnections = getConnectionMetricsByConnectionId();
-        Set<ConnectionMetrics> allConnectionMetrics;
+        double load;
         synchronized (lock) {
-            // We remove all metrics older than 1 hour. In case the connection is still alive we get it added
-            // again in the putAll call.
-            long maxAge = TimeUnit.HOURS.toMillis(1);
-            Set<String> outDated = connectionMetricsByConnectionId.entrySet().stream()
-                    .filter(e -> e.getValue().getAge() > maxAge)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toSet());
-            outDated.forEach(connectionMetricsByConnectionId::remove);
-
-            this.connectionMetricsByConnectionId.putAll(currentConnections);
-            allConnectionMetrics = new HashSet<>(connectionMetricsByConnectionId.values());
+            load = calculateLoad();
         }
-
-        double load = calculateLoad(allConnectionMetrics);
         NetworkLoad networkLoad = new NetworkLoad(load, difficultyAdjustmentFactor);
         networkLoadSnapshot.updateNetworkLoad(networkLoad);
         return networkLoad;
     }
 
-    private double calculateLoad(Set<ConnectionMetrics> allConnectionMetrics) {
-        // For metrics of last 5 minutes we use metrics from the accumulated connections (closed of past 5 minutes).
-        sentBytesOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getSentBytesOfLast5Minutes)
-                .sum();
-        spentSendMessageTimeOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getSpentSendMessageTimeOfLast5Minutes)
-                .sum();
-        numMessagesSentOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getNumMessagesSentOfLast5Minutes)
-                .sum();
-        receivedBytesOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getReceivedBytesOfLast5Minutes)
-                .sum();
-        deserializeTimeOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getDeserializeTimeOfLast5Minutes)
-                .sum();
-        numMessagesReceivedOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getNumMessagesReceivedOfLast5Minutes)
-                .sum();
-
-        numSentMessagesByClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumSentMessagesByClassName)
-                .forEach(map -> map.forEach((name, value) ->
-                        numSentMessagesByClassName.computeIfAbsent(name, key -> new AtomicLong())
-                                .addAndGet(value.get())));
-        StringBuilder numSentMessagesByClassNameBuilder = new StringBuilder();
-        numSentMessagesByClassName.forEach((key, value) -> {
-            numSentMessagesByClassNameBuilder.append("\n    - ");
-            numSentMessagesByClassNameBuilder.append(key);
-            numSentMessagesByClassNameBuilder.append(": ");
-            numSentMessagesByClassNameBuilder.append(value.get());
-        });
+    public TreeMap<String, AtomicLong> getNumSentMessagesByClassName() {
+        return new TreeMap<>(networkTrafficMetrics.getNumSentMessagesByClassName());
+    }
 
-        numReceivedMessagesByClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumReceivedMessagesByClassName)
-                .forEach(map -> map.forEach((name, value) ->
-                        numReceivedMessagesByClassName.computeIfAbsent(name, key -> new AtomicLong())
-                                .addAndGet(value.get())));
-        StringBuilder numReceivedMessagesByClassNameBuilder = new StringBuilder();
-        numReceivedMessagesByClassName.forEach((key, value) -> {
-            numReceivedMessagesByClassNameBuilder.append("\n    - ");
-            numReceivedMessagesByClassNameBuilder.append(key);
-            numReceivedMessagesByClassNameBuilder.append(": ");
-            numReceivedMessagesByClassNameBuilder.append(value.get());
-        });
+    public TreeMap<String, AtomicLong> getNumReceivedMessagesByClassName() {
+        return new TreeMap<>(networkTrafficMetrics.getNumReceivedMessagesByClassName());
+    }
 
-        numSentDistributedDataByClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumSentDistributedDataByClassName)
-                .forEach(map -> map.forEach((name, value) ->
-                        numSentDistributedDataByClassName.computeIfAbsent(name, key -> new AtomicLong())
-                                .addAndGet(value.get())));
-        StringBuilder numSentDistributedDataByClassNameBuilder = new StringBuilder();
-        numSentDistributedDataByClassName.forEach((key, value) -> {
-            numSentDistributedDataByClassNameBuilder.append("\n    - ");
-            numSentDistributedDataByClassNameBuilder.append(key);
-            numSentDistributedDataByClassNameBuilder.append(": ");
-            numSentDistributedDataByClassNameBuilder.append(value.get());
-        });
+    public TreeMap<String, AtomicLong> getNumSentDistributedDataByClassName() {
+        return new TreeMap<>(networkTrafficMetrics.getNumSentDistributedDataByClassName());
+    }
 
-        numReceivedDistributedDataByClassName = new TreeMap<>();
-        allConnectionMetrics.stream()
-                .map(ConnectionMetrics::getNumReceivedDistributedDataByClassName)
-                .forEach(map -> map.forEach((name, value) ->
-                        numReceivedDistributedDataByClassName.computeIfAbsent(name, key -> new AtomicLong())
-                                .addAndGet(value.get())));
-        StringBuilder numReceivedDistributedDataByClassNameBuilder = new StringBuilder();
-        numReceivedDistributedDataByClassName.forEach((key, value) -> {
-            numReceivedDistributedDataByClassNameBuilder.append("\n    - ");
-            numReceivedDistributedDataByClassNameBuilder.append(key);
-            numReceivedDistributedDataByClassNameBuilder.append(": ");
-            numReceivedDistributedDataByClassNameBuilder.append(value.get());
-        });
+    public TreeMap<String, AtomicLong> getNumReceivedDistributedDataByClassName() {
+        return new TreeMap<>(networkTrafficMetrics.getNumReceivedDistributedDataByClassName());
+    }
 
-        String transportType = serviceNode.getTransportType().name();
+    private double calculateLoad() {
+        // The NetworkTrafficMetrics contain the traffic of all connections including the ones closed in the last minutes.
+        sentBytesOfLast5Minutes = networkTrafficMetrics.getSentBytesOfLastMinutes(NUM_MINUTES);
+        spentSendMessageTimeOfLast5Minutes = networkTrafficMetrics.getSpentSendMessageTimeOfLastMinutes(NUM_MINUTES);
+        numMessagesSentOfLast5Minutes = networkTrafficMetrics.getNumMessagesSentOfLastMinutes(NUM_MINUTES);
+        receivedBytesOfLast5Minutes = networkTrafficMetrics.getReceivedBytesOfLastMinutes(NUM_MINUTES);
+        deserializeTimeOfLast5Minutes = networkTrafficMetrics.getDeserializeTimeOfLastMinutes(NUM_MINUTES);
+        numMessagesReceivedOfLast5Minutes = networkTrafficMetrics.getNumMessagesReceivedOfLastMinutes(NUM_MINUTES);
+
+        long numConnections = serviceNode.getNodesById().getAllNodes().stream()
+                .mapToLong(Node::getNumConnections)
+                .sum();
 
-        List<Connection> currentConnections = getAllCurrentConnections().toList();
-        String nodes = currentConnections.stream()
-                .map(Connection::getPeerAddress)
-                .map(address -> "- " + address)
-                .collect(Collectors.joining("\n    "));
-        long numConnections = currentConnections.size();
-        long networkDatabaseSize = storageService.getNetworkDatabaseSize(); // takes about 50 ms
-
-        StringBuilder sb = new StringBuilder("\n\n/* --------------------------------------------------------------------- */\n");
-        sb.append(transportType).append(" network statistics")
-                .append(("\n/* --------------------------------------------------------------------- */"))
-                .append("\nSize of network DB: ").append(ByteUnit.BYTE.toMB(networkDatabaseSize)).append(" MB")
-                .append("\nNumber of Connections: ").append(numConnections)
-                .append("\nPeer addresses:\n    ").append(nodes)
-
-                .append("\nSent messages:")
-                .append("\nData sent in last 5 min.: ").append(ByteUnit.BYTE.toMB(sentBytesOfLast5Minutes)).append(" MB")
-                .append("\nTime for message sending in last 5 min.: ").append(spentSendMessageTimeOfLast5Minutes / 1000d).append(" sec.")
-                .append("\nNumber of messages sent in last 5 min.: ").append(numMessagesSentOfLast5Minutes)
-                .append("\nNumber of messages sent by class name:").append(numSentMessagesByClassNameBuilder)
-                .append("\nNumber of distributed data sent by class name:").append(numSentDistributedDataByClassNameBuilder)
-
-                .append("\nReceived messages:")
-                .append("\nData received in last 5 min.: ").append(ByteUnit.BYTE.toMB(receivedBytesOfLast5Minutes)).append(" MB")
-                .append("\nTime for message deserializing in last 5 min.: ").append(deserializeTimeOfLast5Minutes / 1000d).append(" sec.")
-                .append("\nNumber of messages received in last 5 min.: ").append(numMessagesReceivedOfLast5Minutes)
-                .append("\nNumber of messages received by class name:").append(numReceivedMessagesByClassNameBuilder)
-                .append("\nNumber of distributed data received by class name:").append(numReceivedDistributedDataByClassNameBuilder)
-
-                .append("\n/* --------------------------------------------------------------------- */");
+        long now = System.currentTimeMillis();
+        boolean logStatistics = now - lastLogStatisticsTs >= LOG_STATISTICS_INTERVAL;
+        if (logStatistics) {
+            lastLogStatisticsTs = now;
+            networkDatabaseSize = storageService.getNetworkDatabaseSize();
+        }
 
         // We apply a factor to each max value based on the maxNumConnectedPeers to reflect higher expected load
         // This is mainly important for seed nodes which are configured with higher maxNumConnectedPeers.
@@ -267,36 +176,69 @@ public class NetworkLoadService {
                 deserializeTimeImpact +
                 numMessagesReceivedImpact +
                 networkDatabaseSizeImpact;
-        sb.append("\n\n----------------------------------------------------------------------------------------------------")
-                .append("\nCalculated network load:")
-                .append(("\n----------------------------------------------------------------------------------------------------"))
-                .append("\nnumConnectionsImpact=").append(DECIMAL_FORMAT.format(numConnectionsImpact))
-                .append("\nsentBytesImpact=").append(DECIMAL_FORMAT.format(sentBytesImpact))
-                .append("\nspentSendTimeImpact=").append(DECIMAL_FORMAT.format(spentSendTimeImpact))
-                .append("\nnumMessagesSentImpact=").append(DECIMAL_FORMAT.format(numMessagesSentImpact))
-                .append("\nreceivedBytesImpact=").append(DECIMAL_FORMAT.format(receivedBytesImpact))
-                .append("\ndeserializeTimeImpact=").append(DECIMAL_FORMAT.format(deserializeTimeImpact))
-                .append("\nnumMessagesReceivedImpact=").append(DECIMAL_FORMAT.format(numMessagesReceivedImpact))
-                .append("\nnetworkDatabaseSizeImpact=").append(DECIMAL_FORMAT.format(networkDatabaseSizeImpact))
-                .append("\nNetwork load=").append(DECIMAL_FORMAT.format(load))
-                .append("\n----------------------------------------------------------------------------------------------------\n");
-        log.info(sb.toString());
+        if (logStatistics) {
+            StringBuilder sb = new StringBuilder(getStatistics(numConnections));
+            sb.append("\n\n----------------------------------------------------------------------------------------------------")
+                    .append("\nCalculated network load:")
+                    .append(("\n----------------------------------------------------------------------------------------------------"))
+                    .append("\nnumConnectionsImpact=").append(DECIMAL_FORMAT.format(numConnectionsImpact))
+                    .append("\nsentBytesImpact=").append(DECIMAL_FORMAT.format(sentBytesImpact))
+                    .append("\nspentSendTimeImpact=").append(DECIMAL_FORMAT.format(spentSendTimeImpact))
+                    .append("\nnumMessagesSentImpact=").append(DECIMAL_FORMAT.format(numMessagesSentImpact))
+                    .append("\nreceivedBytesImpact=").append(DECIMAL_FORMAT.format(receivedBytesImpact))
+                    .append("\ndeserializeTimeImpact=").append(DECIMAL_FORMAT.format(deserializeTimeImpact))
+                    .append("\nnumMessagesReceivedImpact=").append(DECIMAL_FORMAT.format(numMessagesReceivedImpact))
+                    .append("\nnetworkDatabaseSizeImpact=").append(DECIMAL_FORMAT.format(networkDatabaseSizeImpact))
+                    .append("\nNetwork load=").append(DECIMAL_FORMAT.format(load))
+                    .append("\n----------------------------------------------------------------------------------------------------\n");
+            log.info(sb.toString());
+        }
 
         return MathUtils.bounded(0, 1, load);
     }
 
-    private Set<? extends DataRequest> getAllDataRequests() {
-        return storageService.getAllDataRequestMapEntries()
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
+    private String getStatistics(long numConnections) {
+        String nodes = getAllCurrentConnections()
+                .map(Connection::getPeerAddress)
+                .map(address -> "- " + address)
+                .collect(Collectors.joining("\n    "));
+        return "\n\n/* --------------------------------------------------------------------- */\n" +
+                serviceNode.getTransportType().name() + " network statistics" +
+                "\n/* --------------------------------------------------------------------- */" +
+                "\nSize of network DB: " + ByteUnit.BYTE.toMB(networkDatabaseSize) + " MB" +
+                "\nNumber of Connections: " + numConnections +
+                "\nPeer addresses:\n    " + nodes +
+
+                "\nSent messages:" +
+                "\nData sent in last 5 min.: " + ByteUnit.BYTE.toMB(sentBytesOfLast5Minutes) + " MB" +
+                "\nTime for message sending in last 5 min.: " + spentSendMessageTimeOfLast5Minutes / 1000d + " sec." +
+                "\nNumber of messages sent in last 5 min.: " + numMessagesSentOfLast5Minutes +
+                "\nNumber of messages sent by class name:" + toString(getNumSentMessagesByClassName()) +
+                "\nNumber of distributed data sent by class name:" + toString(getNumSentDistributedDataByClassName()) +
+
+                "\nReceived messages:" +
+                "\nData received in last 5 min.: " + ByteUnit.BYTE.toMB(receivedBytesOfLast5Minutes) + " MB" +
+                "\nTime for message deserializing in last 5 min.: " + deserializeTimeOfLast5Minutes / 1000d + " sec." +
+                "\nNumber of messages received in last 5 min.: " + numMessagesReceivedOfLast5Minutes +
+                "\nNumber of messages received by class name:" + toString(getNumReceivedMessagesByClassName()) +
+                "\nNumber of distributed data received by class name:" + toString(getNumReceivedDistributedDataByClassName()) +
+
+                "\n/* --------------------------------------------------------------------- */";
     }
 
-    private Map<String, ConnectionMetrics> getConnectionMetricsByConnectionId() {
-        return getAllCurrentConnections().collect(Collectors.toMap(Connection::getId, Connection::getConnectionMetrics));
+    private static String toString(TreeMap<String, AtomicLong> numMessagesByClassName) {
+        StringBuilder sb = new StringBuilder();
+        numMessagesByClassName.forEach((key, value) -> {
+            sb.append("\n    - ");
+            sb.append(key);
+            sb.append(": ");
+            sb.append(value.get());
+        });
+        return sb.toString();
     }
 
     private Stream<Connection> getAllCurrentConnections() {
         return serviceNode.getNodesById().getAllNodes().stream()
                 .flatMap(Node::getAllConnections);
     }
-}
\ No newline at end of file
+}
@@ -23,15 +23,22 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Getter
 @ToString
 @EqualsAndHashCode
 public final class NetworkLoadSnapshot {
+    // Our network load gets updated every 10 seconds but peers learn it only every few minutes by the
+    // NetworkLoadExchangeService. We keep the previous network load for at least that interval, so that tokens created
+    // with a slightly outdated network load still get accepted.
+    private static final long MIN_PREVIOUS_NETWORK_LOAD_AGE = TimeUnit.MINUTES.toMillis(1);
+
     private NetworkLoad currentNetworkLoad;
     private Optional<NetworkLoad> previousNetworkLoad = Optional.empty();
     private long lastUpdated = 0;
+    private long previousNetworkLoadUpdated = 0;
 
     public NetworkLoadSnapshot() {
         currentNetworkLoad = new NetworkLoad();
@@ -44,7 +51,10 @@ public final class NetworkLoadSnapshot {
     public void updateNetworkLoad(NetworkLoad networkLoad) {
         synchronized (this) {
             lastUpdated = System.currentTimeMillis();
-            previousNetworkLoad = Optional.of(currentNetworkLoad);
+            if (lastUpdated - previousNetworkLoadUpdated >= MIN_PREVIOUS_NETWORK_LOAD_AGE) {
+                previousNetworkLoad = Optional.of(currentNetworkLoad);
+                previousNetworkLoadUpdated = lastUpdated;
+            }
             currentNetworkLoad = networkLoad;
         }
     }
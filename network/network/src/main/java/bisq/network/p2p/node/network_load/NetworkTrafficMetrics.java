@@ -0,0 +1,98 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the traffic of all connections of a ServiceNode. Each ConnectionMetrics forwards its events here, so
+ * reading the sums of the last minutes does not depend on the number of connections. Traffic of closed connections
+ * stays part of the windowed sums until it falls out of the window.
+ */
+public class NetworkTrafficMetrics {
+    private final long created = System.currentTimeMillis();
+    private final PerMinuteRingBuffer numMessagesSentPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer sentBytesPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer spentSendMessageTimePerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer numMessagesReceivedPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer receivedBytesPerMinute = new PerMinuteRingBuffer();
+    private final PerMinuteRingBuffer deserializeTimePerMinute = new PerMinuteRingBuffer();
+    @Getter
+    private final Map<String, AtomicLong> numSentMessagesByClassName = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<String, AtomicLong> numReceivedMessagesByClassName = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<String, AtomicLong> numSentDistributedDataByClassName = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<String, AtomicLong> numReceivedDistributedDataByClassName = new ConcurrentHashMap<>();
+
+    void onSent(String className, @Nullable String distributedDataClassName, long numBytes, long spentTime) {
+        int minute = getCurrentMinute();
+        numMessagesSentPerMinute.add(minute, 1);
+        sentBytesPerMinute.add(minute, numBytes);
+        spentSendMessageTimePerMinute.add(minute, spentTime);
+        numSentMessagesByClassName.computeIfAbsent(className, key -> new AtomicLong()).incrementAndGet();
+        if (distributedDataClassName != null) {
+            numSentDistributedDataByClassName.computeIfAbsent(distributedDataClassName, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    void onReceived(String className, @Nullable String distributedDataClassName, long numBytes, long deserializeTime) {
+        int minute = getCurrentMinute();
+        numMessagesReceivedPerMinute.add(minute, 1);
+        receivedBytesPerMinute.add(minute, numBytes);
+        deserializeTimePerMinute.add(minute, deserializeTime);
+        numReceivedMessagesByClassName.computeIfAbsent(className, key -> new AtomicLong()).incrementAndGet();
+        if (distributedDataClassName != null) {
+            numReceivedDistributedDataByClassName.computeIfAbsent(distributedDataClassName, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public long getNumMessagesSentOfLastMinutes(int lastMinutes) {
+        return numMessagesSentPerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    public long getSentBytesOfLastMinutes(int lastMinutes) {
+        return sentBytesPerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    public long getSpentSendMessageTimeOfLastMinutes(int lastMinutes) {
+        return spentSendMessageTimePerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    public long getNumMessagesReceivedOfLastMinutes(int lastMinutes) {
+        return numMessagesReceivedPerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    public long getReceivedBytesOfLastMinutes(int lastMinutes) {
+        return receivedBytesPerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    public long getDeserializeTimeOfLastMinutes(int lastMinutes) {
+        return deserializeTimePerMinute.sumOfLastMinutes(getCurrentMinute(), lastMinutes);
+    }
+
+    private int getCurrentMinute() {
+        return (int) ((System.currentTimeMillis() - created) / 60000);
+    }
+}
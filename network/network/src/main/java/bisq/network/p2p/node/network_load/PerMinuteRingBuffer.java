@@ -0,0 +1,103 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Lock-free sums per minute for the last NUM_MINUTES minutes plus a running total since creation.
+ * The minute is passed by the caller (age of the connection in minutes), so the memory stays constant independent of
+ * how long a connection lives.
+ * Each slot packs the minute it belongs to and its sum into one long, so a slot gets reused for a new minute and
+ * updated with a single CAS without losing concurrent updates.
+ */
+public class PerMinuteRingBuffer {
+    public static final int NUM_MINUTES = 60;
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    // 24 bits for the minute tag. A slot untouched for about 30 years could be misread as current, which we ignore.
+    private static final long MINUTE_TAG_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+    private final AtomicLongArray slots = new AtomicLongArray(NUM_MINUTES);
+    private final AtomicLong total = new AtomicLong();
+
+    public void add(int minute, long value) {
+        checkArgument(minute >= 0, "minute must not be negative");
+        total.addAndGet(value);
+        int index = minute % NUM_MINUTES;
+        long minuteTag = minute & MINUTE_TAG_MASK;
+        while (true) {
+            long slot = slots.get(index);
+            long slotMinuteTag = getMinuteTag(slot);
+            if (slotMinuteTag > minuteTag) {
+                // A late update for a minute which has already been replaced by a newer one. We only keep it in the total.
+                return;
+            }
+            long sum = slotMinuteTag == minuteTag ? getValue(slot) + value : value;
+            long updated = (minuteTag << VALUE_BITS) | (Math.min(sum, VALUE_MASK));
+            if (slots.compareAndSet(index, slot, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param minute      The current minute
+     * @param lastMinutes The number of minutes including the current one. Values above NUM_MINUTES are capped.
+     * @return The sum of the values added within the last minutes
+     */
+    public long sumOfLastMinutes(int minute, int lastMinutes) {
+        int numMinutes = Math.min(Math.min(lastMinutes, NUM_MINUTES), minute + 1);
+        long sum = 0;
+        for (int i = 0; i < numMinutes; i++) {
+            int slotMinute = minute - i;
+            long slot = slots.get(slotMinute % NUM_MINUTES);
+            if (getMinuteTag(slot) == (slotMinute & MINUTE_TAG_MASK)) {
+                sum += getValue(slot);
+            }
+        }
+        return sum;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < NUM_MINUTES; i++) {
+            slots.set(i, 0);
+        }
+        total.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "PerMinuteRingBuffer{total=" + total.get() + "}";
+    }
+
+    private static long getMinuteTag(long slot) {
+        return slot >>> VALUE_BITS;
+    }
+
+    private static long getValue(long slot) {
+        return slot & VALUE_MASK;
+    }
+}
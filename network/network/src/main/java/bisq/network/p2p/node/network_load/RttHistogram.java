@@ -0,0 +1,87 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of round-trip times in ms with fixed buckets. Keeps the exact count and sum for the average.
+ * The last bucket collects all values above the largest bound.
+ */
+public class RttHistogram {
+    private static final long[] UPPER_BOUNDS = {50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000, Long.MAX_VALUE};
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    public void add(long rtt) {
+        long value = Math.max(0, rtt);
+        int index = 0;
+        while (value > UPPER_BOUNDS[index]) {
+            index++;
+        }
+        counts.incrementAndGet(index);
+        sum.addAndGet(value);
+        count.incrementAndGet();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getAverage() {
+        long numValues = count.get();
+        return numValues == 0 ? 0 : (double) sum.get() / numValues;
+    }
+
+    /**
+     * @param percentile Value between 0 and 1
+     * @return The upper bound of the bucket containing the percentile, or 0 if no value has been added.
+     * For the last bucket the largest finite bound is returned.
+     */
+    public long getPercentile(double percentile) {
+        long numValues = count.get();
+        if (numValues == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * numValues);
+        long accumulated = 0;
+        for (int i = 0; i < UPPER_BOUNDS.length - 1; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= rank) {
+                return UPPER_BOUNDS[i];
+            }
+        }
+        return UPPER_BOUNDS[UPPER_BOUNDS.length - 2];
+    }
+
+    public void clear() {
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "RttHistogram{count=" + count.get() + ", average=" + getAverage() + "}";
+    }
+}
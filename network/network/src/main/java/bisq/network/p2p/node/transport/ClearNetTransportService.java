@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -138,7 +140,9 @@ public class ClearNetTransportService implements TransportService {
         log.info("Create serverSocket at port {}", port);
 
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
+            // Channel backed sockets can be switched to non-blocking mode for the SELECTOR connection IO mode
+            ServerSocket serverSocket = ServerSocketChannel.open().socket();
+            serverSocket.bind(new InetSocketAddress(port));
             ClearnetAddress address = getClearNetAddressTypeFacade().toMyLocalAddress(port);
             log.debug("ServerSocket created at port {}", port);
             initializedServerSocketTimestampByNetworkId.put(networkId, System.currentTimeMillis());
@@ -154,7 +158,7 @@ public class ClearNetTransportService implements TransportService {
         if (address instanceof ClearnetAddress clearnetAddress) {
             clearnetAddress = getClearNetAddressTypeFacade().toPeersLocalAddress(clearnetAddress);
             log.debug("Create new Socket to {}", clearnetAddress);
-            Socket socket = new Socket();
+            Socket socket = SocketChannel.open().socket();
             socket.setSoTimeout(socketTimeout);
             socket.connect(new InetSocketAddress(clearnetAddress.getHost(), clearnetAddress.getPort()), connectTimeoutMs);
             return socket;
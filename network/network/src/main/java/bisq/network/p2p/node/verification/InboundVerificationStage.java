@@ -0,0 +1,135 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.verification;
+
+import bisq.common.threading.CallerRunsPolicyWithLogging;
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.threading.MaxSizeAwareQueue;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Shared bounded pool for verifying the authorization tokens (proof of work) of received messages in parallel across
+ * connections. The reader of a connection only deserializes the message and hands over the verification, so an
+ * expensive verification does not block reading. Each connection uses a VerificationSequencer for dispatching the
+ * results in the order the messages got received.
+ * <p>
+ * If the pool is saturated (all threads busy and the queue full), the verification runs on the calling thread, which
+ * is the reader of the connection. This slows down reading from the connections which deliver messages faster than we
+ * can verify, instead of closing them. As the reader cannot continue before the verification is done, the peer gets
+ * slowed down the same way as without the verification stage.
+ */
+@Slf4j
+public class InboundVerificationStage {
+    private final ThreadPoolExecutor executor;
+    @Getter
+    private final Map<AuthorizationTokenType, VerificationMetrics> verificationMetricsByAuthorizationTokenType;
+
+    public InboundVerificationStage(int maxPoolSize) {
+        // Each connection has at most MAX_PENDING_RECEIVED_MESSAGES pending, so the queue is bounded by the number
+        // of connections.
+        this(maxPoolSize, 10000);
+    }
+
+    @VisibleForTesting
+    InboundVerificationStage(int maxPoolSize, int queueCapacity) {
+        checkArgument(maxPoolSize > 0, "maxPoolSize must be > 0");
+        executor = createExecutor(maxPoolSize, queueCapacity);
+        Map<AuthorizationTokenType, VerificationMetrics> map = new EnumMap<>(AuthorizationTokenType.class);
+        Arrays.stream(AuthorizationTokenType.values()).forEach(type -> map.put(type, new VerificationMetrics()));
+        verificationMetricsByAuthorizationTokenType = Collections.unmodifiableMap(map);
+        log.info("Created InboundVerificationStage with a pool with max. {} threads", maxPoolSize);
+    }
+
+    /**
+     * @return A future completed on the verification thread with the verification result, or exceptionally if the
+     * verification has thrown an exception. If the pool is saturated, the future is already completed when returned,
+     * as the verification ran on the calling thread.
+     * @throws java.util.concurrent.RejectedExecutionException if the stage got shut down.
+     */
+    public CompletableFuture<Boolean> verify(AuthorizationTokenType authorizationTokenType, BooleanSupplier verification) {
+        VerificationMetrics verificationMetrics = verificationMetricsByAuthorizationTokenType.get(authorizationTokenType);
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        long queuedTs = System.nanoTime();
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("InboundVerificationStage got shut down");
+        }
+        verificationMetrics.onQueued();
+        try {
+            executor.execute(() -> {
+                long startTs = System.nanoTime();
+                verificationMetrics.onStarted(startTs - queuedTs);
+                boolean isAuthorized = false;
+                Throwable verificationException = null;
+                try {
+                    isAuthorized = verification.getAsBoolean();
+                } catch (Throwable throwable) {
+                    verificationException = throwable;
+                }
+                // We update the metrics before completing, so that they are up to date when the result is handled
+                verificationMetrics.onCompleted(System.nanoTime() - startTs, isAuthorized);
+                if (verificationException == null) {
+                    future.complete(isAuthorized);
+                } else {
+                    future.completeExceptionally(verificationException);
+                }
+            });
+        } catch (RuntimeException e) {
+            verificationMetrics.onStarted(0);
+            throw e;
+        }
+        return future;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        ExecutorFactory.shutdownAndAwaitTermination(executor);
+    }
+
+    private static ThreadPoolExecutor createExecutor(int maxPoolSize, int queueCapacity) {
+        MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
+        String name = "InboundVerification";
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                1,
+                maxPoolSize,
+                30,
+                TimeUnit.SECONDS,
+                queue,
+                ExecutorFactory.getThreadFactoryWithCounter(name),
+                new CallerRunsPolicyWithLogging(name, queueCapacity, maxPoolSize));
+        queue.applyExecutor(executor, Math.max(1, maxPoolSize - 2));
+        return executor;
+    }
+}
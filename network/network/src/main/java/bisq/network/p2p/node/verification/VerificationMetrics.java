@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.verification;
+
+import lombok.ToString;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the inbound verification stage for one AuthorizationTokenType.
+ * Times are measured in nanoseconds and reported in milliseconds.
+ */
+@ToString
+public class VerificationMetrics {
+    // Verifications submitted but not yet started
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong numVerifications = new AtomicLong();
+    private final AtomicLong numFailedVerifications = new AtomicLong();
+    private final AtomicLong queueTime = new AtomicLong();
+    private final AtomicLong verificationTime = new AtomicLong();
+    private final AtomicLong maxVerificationTime = new AtomicLong();
+
+    void onQueued() {
+        queueDepth.incrementAndGet();
+    }
+
+    void onStarted(long queueTimeNanos) {
+        queueDepth.decrementAndGet();
+        queueTime.addAndGet(queueTimeNanos);
+    }
+
+    void onCompleted(long verificationTimeNanos, boolean isAuthorized) {
+        numVerifications.incrementAndGet();
+        if (!isAuthorized) {
+            numFailedVerifications.incrementAndGet();
+        }
+        verificationTime.addAndGet(verificationTimeNanos);
+        maxVerificationTime.accumulateAndGet(verificationTimeNanos, Math::max);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getNumVerifications() {
+        return numVerifications.get();
+    }
+
+    public long getNumFailedVerifications() {
+        return numFailedVerifications.get();
+    }
+
+    public double getAverageQueueTime() {
+        return average(queueTime.get());
+    }
+
+    public double getAverageVerificationTime() {
+        return average(verificationTime.get());
+    }
+
+    public double getMaxVerificationTime() {
+        return maxVerificationTime.get() / 1_000_000d;
+    }
+
+    private double average(long sumInNanos) {
+        long num = numVerifications.get();
+        return num == 0 ? 0 : sumInNanos / 1_000_000d / num;
+    }
+}
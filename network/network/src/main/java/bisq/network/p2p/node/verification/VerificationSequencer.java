@@ -0,0 +1,115 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.verification;
+
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Re-sequences the verification results of the messages of one connection. Verifications are completed in any order
+ * by the InboundVerificationStage, but the results are passed to the dispatchExecutor in the order the messages
+ * got submitted. The dispatchExecutor has to execute the tasks in submission order (e.g. a SerialExecutor).
+ */
+@Slf4j
+public class VerificationSequencer {
+    public interface ResultHandler {
+        /**
+         * Called on the dispatchExecutor.
+         *
+         * @param isAuthorized The verification result. False if verification has thrown an exception.
+         * @param exception    The exception thrown at verification, otherwise null.
+         */
+        void onResult(boolean isAuthorized, Exception exception);
+    }
+
+    private static final Runnable NOTHING_TO_DISPATCH = () -> {
+    };
+
+    private final InboundVerificationStage inboundVerificationStage;
+    private final Executor dispatchExecutor;
+    private final Consumer<Exception> errorHandler;
+    private final Map<Long, Runnable> completedBySequenceNumber = new HashMap<>();
+    private long nextSequenceNumber;
+    private long nextDispatchSequenceNumber;
+
+    /**
+     * @param errorHandler Called if the dispatchExecutor rejects a result. Might be called on a thread of the shared
+     *                     verification pool, so it must not block.
+     */
+    public VerificationSequencer(InboundVerificationStage inboundVerificationStage,
+                                 Executor dispatchExecutor,
+                                 Consumer<Exception> errorHandler) {
+        this.inboundVerificationStage = inboundVerificationStage;
+        this.dispatchExecutor = dispatchExecutor;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Must be called in the order the messages got received. If the verification stage is saturated, the verification
+     * runs on the calling thread.
+     *
+     * @throws RejectedExecutionException if the verification stage got shut down. The resultHandler is not called in
+     *                                    that case.
+     */
+    public void submit(AuthorizationTokenType authorizationTokenType,
+                       BooleanSupplier verification,
+                       ResultHandler resultHandler) {
+        long sequenceNumber;
+        synchronized (this) {
+            sequenceNumber = nextSequenceNumber++;
+        }
+        try {
+            inboundVerificationStage.verify(authorizationTokenType, verification)
+                    .whenComplete((isAuthorized, throwable) -> {
+                        Exception exception = throwable == null ? null :
+                                throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+                        onCompleted(sequenceNumber, () -> resultHandler.onResult(exception == null && isAuthorized, exception));
+                    });
+        } catch (RejectedExecutionException e) {
+            // We must not leave a gap in the sequence, otherwise all following results would be held back
+            onCompleted(sequenceNumber, null);
+            throw e;
+        }
+    }
+
+    /**
+     * @param task The dispatch task or null if there is nothing to dispatch for that sequence number.
+     */
+    private synchronized void onCompleted(long sequenceNumber, Runnable task) {
+        completedBySequenceNumber.put(sequenceNumber, task != null ? task : NOTHING_TO_DISPATCH);
+        Runnable next;
+        while ((next = completedBySequenceNumber.remove(nextDispatchSequenceNumber)) != null) {
+            nextDispatchSequenceNumber++;
+            if (next == NOTHING_TO_DISPATCH) {
+                continue;
+            }
+            try {
+                dispatchExecutor.execute(next);
+            } catch (RejectedExecutionException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data;
 
 import bisq.network.p2p.services.data.broadcast.Broadcaster;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
 import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.StorageService;
 import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
@@ -38,6 +39,8 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -60,6 +63,30 @@ public class DataService implements StorageService.Listener {
         default void onAuthorizedDataRefreshed(AuthenticatedData authenticatedData) {
         }
 
+        /**
+         * Called with all authorized data added from one store by a batch (e.g. at inventory sync). Listeners which
+         * can process the data more efficiently in bulk should override it.
+         */
+        default void onAuthorizedDataBatchAdded(List<AuthorizedData> authorizedDataList) {
+            authorizedDataList.forEach(authorizedData -> {
+                try {
+                    onAuthorizedDataAdded(authorizedData);
+                } catch (Exception e) {
+                    log.error("Calling onAuthorizedDataAdded at listener {} failed", this, e);
+                }
+            });
+        }
+
+        default void onAuthorizedDataBatchRemoved(List<AuthorizedData> authorizedDataList) {
+            authorizedDataList.forEach(authorizedData -> {
+                try {
+                    onAuthorizedDataRemoved(authorizedData);
+                } catch (Exception e) {
+                    log.error("Calling onAuthorizedDataRemoved at listener {} failed", this, e);
+                }
+            });
+        }
+
         default void onAuthenticatedDataAdded(AuthenticatedData authenticatedData) {
         }
 
@@ -69,6 +96,30 @@ public class DataService implements StorageService.Listener {
         default void onAuthenticatedDataRefreshed(AuthenticatedData authenticatedData) {
         }
 
+        /**
+         * Called with all authenticated data added from one store by a batch (e.g. at inventory sync). Listeners which
+         * can process the data more efficiently in bulk should override it.
+         */
+        default void onAuthenticatedDataBatchAdded(List<AuthenticatedData> authenticatedDataList) {
+            authenticatedDataList.forEach(authenticatedData -> {
+                try {
+                    onAuthenticatedDataAdded(authenticatedData);
+                } catch (Exception e) {
+                    log.error("Calling onAuthenticatedDataAdded at listener {} failed", this, e);
+                }
+            });
+        }
+
+        default void onAuthenticatedDataBatchRemoved(List<AuthenticatedData> authenticatedDataList) {
+            authenticatedDataList.forEach(authenticatedData -> {
+                try {
+                    onAuthenticatedDataRemoved(authenticatedData);
+                } catch (Exception e) {
+                    log.error("Calling onAuthenticatedDataRemoved at listener {} failed", this, e);
+                }
+            });
+        }
+
         default void onAppendOnlyDataAdded(AppendOnlyData appendOnlyData) {
         }
 
@@ -84,8 +135,8 @@ public class DataService implements StorageService.Listener {
     private final Set<DataService.Listener> listeners = new CopyOnWriteArraySet<>();
     private final Set<Broadcaster> broadcasters = new CopyOnWriteArraySet<>();
 
-    public DataService(PersistenceService persistenceService) {
-        this.storageService = new StorageService(persistenceService);
+    public DataService(PersistenceService persistenceService, DataStorePersistenceMode persistenceMode) {
+        this.storageService = new StorageService(persistenceService, persistenceMode);
         storageService.addListener(this);
     }
 
@@ -188,6 +239,72 @@ public class DataService implements StorageService.Listener {
         }
     }
 
+    @Override
+    public void onBatchAdded(List<? extends StorageData> storageDataList) {
+        List<AuthorizedData> authorizedDataList = new ArrayList<>();
+        List<AuthenticatedData> authenticatedDataList = new ArrayList<>();
+        storageDataList.forEach(storageData -> {
+            if (storageData instanceof AuthorizedData authorizedData) {
+                authorizedDataList.add(authorizedData);
+            } else if (storageData instanceof AuthenticatedData authenticatedData) {
+                authenticatedDataList.add(authenticatedData);
+            } else {
+                onAdded(storageData);
+            }
+        });
+        if (!authorizedDataList.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onAuthorizedDataBatchAdded(authorizedDataList);
+                } catch (Exception e) {
+                    log.error("Calling onAuthorizedDataBatchAdded at listener {} failed", listener, e);
+                }
+            });
+        }
+        if (!authenticatedDataList.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onAuthenticatedDataBatchAdded(authenticatedDataList);
+                } catch (Exception e) {
+                    log.error("Calling onAuthenticatedDataBatchAdded at listener {} failed", listener, e);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onBatchRemoved(List<? extends StorageData> storageDataList) {
+        List<AuthorizedData> authorizedDataList = new ArrayList<>();
+        List<AuthenticatedData> authenticatedDataList = new ArrayList<>();
+        storageDataList.forEach(storageData -> {
+            if (storageData instanceof AuthorizedData authorizedData) {
+                authorizedDataList.add(authorizedData);
+            } else if (storageData instanceof AuthenticatedData authenticatedData) {
+                authenticatedDataList.add(authenticatedData);
+            } else {
+                onRemoved(storageData);
+            }
+        });
+        if (!authorizedDataList.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onAuthorizedDataBatchRemoved(authorizedDataList);
+                } catch (Exception e) {
+                    log.error("Calling onAuthorizedDataBatchRemoved at listener {} failed", listener, e);
+                }
+            });
+        }
+        if (!authenticatedDataList.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onAuthenticatedDataBatchRemoved(authenticatedDataList);
+                } catch (Exception e) {
+                    log.error("Calling onAuthenticatedDataBatchRemoved at listener {} failed", listener, e);
+                }
+            });
+        }
+    }
+
 
     /* --------------------------------------------------------------------- */
     // Get data
@@ -383,6 +500,14 @@ public class DataService implements StorageService.Listener {
                 }));
     }
 
+    /**
+     * Batch version of processAddDataRequest and processRemoveDataRequest without re-broadcast, used for the data
+     * of inventory responses.
+     */
+    public void processDataRequests(List<? extends DataRequest> dataRequests) {
+        storageService.onDataRequests(dataRequests);
+    }
+
     public void processRemoveDataRequest(RemoveDataRequest removeDataRequest, boolean allowReBroadcast) {
         storageService.onRemoveDataRequest(removeDataRequest)
                 .whenComplete((optionalData, throwable) -> optionalData.ifPresent(storageData -> {
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.broadcast;
 
 import bisq.common.util.CollectionUtil;
 import bisq.common.util.CompletableFutureUtils;
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import lombok.extern.slf4j.Slf4j;
@@ -58,10 +59,13 @@ public class Broadcaster {
             return CompletableFuture.completedFuture(new BroadcastResult(0, 0, 0));
         } else {
             long ts = System.currentTimeMillis();
+            // The message gets serialized once and the bytes are reused for all connections.
+            // Only the AuthorizationToken is created per connection.
+            SerializedEnvelopePayloadMessage serializedBroadcastMessage = new SerializedEnvelopePayloadMessage(broadcastMessage);
             List<CompletableFuture<Boolean>> sendFutures = connections.stream()
                     .map(connection -> {
                         log.debug("Broadcast {} to {}", broadcastMessage.getClass().getSimpleName(), connection.getPeerAddress());
-                        return node.sendAsync(broadcastMessage, connection)
+                        return node.sendAsync(serializedBroadcastMessage, connection)
                                 .handle((result, throwable) -> {
                                     if (throwable == null) {
                                         return true;
@@ -28,9 +28,7 @@ import bisq.network.p2p.node.CloseReason;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.Node;
-import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.DataService;
-import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
 import bisq.network.p2p.services.peer_group.PeerGroupManager;
@@ -42,6 +40,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -107,6 +106,9 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
 
     private Optional<Scheduler> periodicRequestScheduler = Optional.empty();
     private volatile boolean shutdownInProgress;
+    // The service gets created when the node starts bootstrapping
+    private final long creationTs = System.currentTimeMillis();
+    private final AtomicLong timeToFirstInventory = new AtomicLong(-1);
     @Getter
     private final Config config;
 
@@ -225,6 +227,15 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
         return model.getNumPendingRequestsObservable();
     }
 
+    /**
+     * @return Time from the start of the bootstrap until we received the first inventory response in ms, or empty
+     * if we have not received any yet.
+     */
+    public Optional<Long> getTimeToFirstInventory() {
+        long value = timeToFirstInventory.get();
+        return value >= 0 ? Optional.of(value) : Optional.empty();
+    }
+
 
     /* --------------------------------------------------------------------- */
     // Request inventory
@@ -268,14 +279,15 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
                     }
                 })
                 .thenApply(response -> {
+                    long passed = System.currentTimeMillis() - creationTs;
+                    if (timeToFirstInventory.compareAndSet(-1, passed)) {
+                        log.info("Received first inventory from {} {} ms after start", connection.getPeerAddress(), passed);
+                    }
                     Inventory inventory = response.getInventory();
-                    inventory.getEntries().forEach(dataRequest -> {
-                        if (dataRequest instanceof AddDataRequest) {
-                            dataService.processAddDataRequest((AddDataRequest) dataRequest, false);
-                        } else if (dataRequest instanceof RemoveDataRequest) {
-                            dataService.processRemoveDataRequest((RemoveDataRequest) dataRequest, false);
-                        }
-                    });
+                    long ts = System.currentTimeMillis();
+                    dataService.processDataRequests(inventory.getEntries());
+                    log.info("Processed {} inventory entries from {} in {} ms",
+                            inventory.getEntries().size(), connection.getPeerAddress(), System.currentTimeMillis() - ts);
                     return inventory;
                 });
     }
@@ -19,6 +19,9 @@ package bisq.network.p2p.services.data.storage;
 
 import bisq.common.data.ByteArray;
 import bisq.common.observable.collection.ObservableSet;
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.util.CompletableFutureUtils;
+import bisq.common.util.StringUtils;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
 import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
@@ -30,18 +33,82 @@ import bisq.persistence.DbSubDirectory;
 import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceService;
 import bisq.persistence.RateLimitedPersistenceClient;
+import bisq.persistence.WriteAheadLog;
 import bisq.persistence.backup.MaxBackupSize;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Base class of the network data stores. See DataStorePersistenceMode for the supported ways of persisting the store.
+ * <p>
+ * In WRITE_AHEAD_LOG mode persist appends the entries which got changed since the last call to the log. Once the
+ * log has more records than the store has entries, it gets compacted into a snapshot of the store. At startup the log
+ * is replayed on top of the snapshot. Log records are never dropped, independent of the write rate.
+ * <p>
+ * In SHARDED mode the entries are assigned to shard files by the first byte of their key (a hash), and persist only
+ * rewrites the shards containing changed entries. The shards are read in parallel at startup and a corrupted shard
+ * file only affects the entries of that shard.
+ * <p>
+ * If the persisted data do not match the configured mode (e.g. a single store file in SHARDED mode), they are
+ * migrated after reading. Each migration writes the target files with the next log generation before it deletes the
+ * source files. If both exist at startup because a migration got interrupted, the shards are used only if all of them
+ * are present with generations newer than the single store file's, otherwise the single store file is used and the
+ * migration is repeated.
+ */
 @Slf4j
 public abstract class DataStorageService<T extends DataRequest> extends RateLimitedPersistenceClient<DataStore<T>> {
     public static final String STORE_POST_FIX = "Store";
+    public static final String SHARD_POST_FIX = "Shard";
+    // Changing the number of shards requires a migration of the persisted shards
+    public static final int NUM_SHARDS = 16;
+    // Appending to the logs, compacting them and migrating between the persistence modes is done on a single thread
+    // shared by all stores.
+    private static final ExecutorService WRITE_EXECUTOR = ExecutorFactory.newSingleThreadExecutor("DataStorageService.write");
+    private static final int MIN_NUM_LOG_RECORDS_FOR_COMPACTION = 1000;
+
+    /**
+     * @return True if there is a store file, a write-ahead log or a shard file for the given store key.
+     */
+    public static boolean hasPersistedData(Path dirPath, String storeKey) {
+        String storageFileName = storeKey + STORE_POST_FIX;
+        Path storePath = getStorePath(dirPath, storageFileName);
+        return Files.exists(storePath) || WriteAheadLog.exists(storePath) || hasShardFiles(dirPath, storageFileName);
+    }
+
+    static int getShardIndex(ByteArray key) {
+        byte[] bytes = key.getBytes();
+        return bytes.length == 0 ? 0 : (bytes[0] & 0xff) % NUM_SHARDS;
+    }
+
+    private static boolean hasShardFiles(Path dirPath, String storageFileName) {
+        return IntStream.range(0, NUM_SHARDS)
+                .anyMatch(shardIndex -> Files.exists(getStorePath(dirPath, getShardFileName(storageFileName, shardIndex))));
+    }
+
+    private static Path getStorePath(Path dirPath, String fileName) {
+        return dirPath.resolve(StringUtils.camelCaseToSnakeCase(fileName) + Persistence.EXTENSION);
+    }
+
+    private static String getShardFileName(String storageFileName, int shardIndex) {
+        return storageFileName + SHARD_POST_FIX + shardIndex;
+    }
 
     @Getter
     protected final Persistence<DataStore<T>> persistence;
@@ -54,8 +121,24 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     @Getter
     protected final ObservableSet<DataRequest> prunedAndExpiredDataRequests = new ObservableSet<>();
     protected Optional<Integer> maxMapSize = Optional.empty();
+    @Getter
+    protected final DataStorePersistenceMode persistenceMode;
+    private final WriteAheadLog<bisq.network.protobuf.DataStore.MapEntry> writeAheadLog;
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean();
+    private volatile CompletableFuture<Boolean> scheduledFlush = CompletableFuture.completedFuture(true);
+    // Only created in SHARDED mode or if there are shard files to migrate
+    private final List<Persistence<DataStore<T>>> shardPersistences;
+    private final Set<Integer> dirtyShardIndices = ConcurrentHashMap.newKeySet();
+    // Taking a snapshot and submitting its write must not interleave with another write of the same file, otherwise an
+    // older snapshot could overwrite a newer one.
+    private final Object writeLock = new Object();
+    // Completes when all shard writes submitted so far are done. Guarded by writeLock.
+    private CompletableFuture<Boolean> pendingShardWrites = CompletableFuture.completedFuture(true);
 
-    public DataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
+    public DataStorageService(PersistenceService persistenceService,
+                              String storeName,
+                              String storeKey,
+                              DataStorePersistenceMode persistenceMode) {
         super();
 
         this.storeKey = storeKey;
@@ -67,13 +150,141 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
                 storageFileName,
                 persistableStore,
                 MaxBackupSize.from(dbSubDirectory));
+        this.persistenceMode = persistenceMode;
+        writeAheadLog = new WriteAheadLog<>(persistence.getStorePath(), bisq.network.protobuf.DataStore.MapEntry.parser());
+        boolean hasShardFiles = hasShardFiles(persistence.getStorePath().getParent(), storageFileName);
+        shardPersistences = persistenceMode == DataStorePersistenceMode.SHARDED || hasShardFiles ?
+                IntStream.range(0, NUM_SHARDS)
+                        .mapToObj(shardIndex -> persistenceService.createPersistence(subDirPath,
+                                getShardFileName(storageFileName, shardIndex),
+                                persistableStore,
+                                MaxBackupSize.from(dbSubDirectory)))
+                        .collect(Collectors.toList()) :
+                List.of();
+        if (persistenceMode != DataStorePersistenceMode.SNAPSHOT) {
+            persistableStore.enableChangeTracking();
+        }
     }
 
     public void shutdown() {
+        try {
+            if (persistenceMode == DataStorePersistenceMode.WRITE_AHEAD_LOG) {
+                CompletableFuture.supplyAsync(this::flushWriteAheadLog, WRITE_EXECUTOR).get(10, TimeUnit.SECONDS);
+            } else if (persistenceMode == DataStorePersistenceMode.SHARDED) {
+                write().get(10, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            log.error("Writing pending changes of {} at shutdown failed", storeKey, e);
+        }
         prunedAndExpiredDataRequests.clear();
         maxMapSize = Optional.empty();
     }
 
+    /**
+     * Reads the single store file, or the shards if there is none, and replays the write-ahead log on top of it.
+     * The log is read in all modes, as the mode might have been WRITE_AHEAD_LOG at the last run.
+     * If the persisted data do not match the persistence mode, they get migrated in the background.
+     */
+    @Override
+    public Optional<DataStore<T>> readPersisted() {
+        Optional<DataStore<T>> snapshot = persistence.read();
+        boolean isReadFromShards = false;
+        if (!shardPersistences.isEmpty()) {
+            List<DataStore<T>> shards = readShards();
+            if (!shards.isEmpty() && (snapshot.isEmpty() || isMigrationToShardsCompleted(shards, snapshot.get()))) {
+                snapshot = Optional.of(mergeShards(shards));
+                isReadFromShards = true;
+            }
+        }
+        long snapshotGeneration = snapshot.map(DataStore::getLogGeneration).orElse(0L);
+        List<bisq.network.protobuf.DataStore.MapEntry> logRecords = writeAheadLog.read(snapshotGeneration);
+        if (snapshot.isEmpty() && logRecords.isEmpty()) {
+            return Optional.empty();
+        }
+
+        DataStore<T> persisted = snapshot.orElseGet(DataStore::new);
+        persisted.applyLogRecords(logRecords);
+        persisted = preProcessPersisted(persisted);
+        persisted = prunePersisted(persisted);
+        persistableStore.applyPersisted(persisted);
+        // The applied entries are already on disk
+        persistableStore.drainChangedKeys();
+        onPersistedApplied(persisted);
+
+        if (!logRecords.isEmpty()) {
+            log.info("Replayed {} write-ahead log records of {}", logRecords.size(), storeKey);
+        }
+        boolean isSharded = persistenceMode == DataStorePersistenceMode.SHARDED;
+        // The single store file is left over if the migration to shards got interrupted before deleting it
+        boolean hasObsoleteStoreFile = isReadFromShards && Files.exists(persistence.getStorePath());
+        if (!logRecords.isEmpty() ||
+                isReadFromShards != isSharded ||
+                (!isSharded && !shardPersistences.isEmpty()) ||
+                hasObsoleteStoreFile) {
+            CompletableFuture.runAsync(this::migrate, WRITE_EXECUTOR);
+        }
+        return Optional.of(persisted);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> persist() {
+        if (persistenceMode != DataStorePersistenceMode.WRITE_AHEAD_LOG) {
+            return super.persist();
+        }
+
+        // If a flush is scheduled but not started yet, it will include the changes of the caller as well
+        if (isFlushScheduled.compareAndSet(false, true)) {
+            scheduledFlush = CompletableFuture.supplyAsync(() -> {
+                isFlushScheduled.set(false);
+                return flushWriteAheadLog();
+            }, WRITE_EXECUTOR);
+        }
+        return scheduledFlush;
+    }
+
+    /**
+     * In SHARDED mode we write only the shards containing changed entries. The returned future completes also after
+     * the shard writes of earlier calls, so that a caller like shutdown does not miss changes still being written.
+     */
+    @Override
+    protected CompletableFuture<Boolean> write() {
+        if (persistenceMode != DataStorePersistenceMode.SHARDED) {
+            synchronized (writeLock) {
+                return super.write();
+            }
+        }
+
+        synchronized (writeLock) {
+            persistableStore.drainChangedKeys().forEach(key -> dirtyShardIndices.add(getShardIndex(key)));
+            Set<Integer> shardIndices = new HashSet<>();
+            dirtyShardIndices.removeIf(shardIndices::add);
+            if (shardIndices.isEmpty()) {
+                return pendingShardWrites;
+            }
+
+            List<CompletableFuture<Boolean>> futures = splitIntoShards(shardIndices).entrySet().stream()
+                    .map(entry -> {
+                        int shardIndex = entry.getKey();
+                        return shardPersistences.get(shardIndex).persistAsync(entry.getValue())
+                                .thenApply(success -> {
+                                    if (!success) {
+                                        // We retry at the next write
+                                        dirtyShardIndices.add(shardIndex);
+                                    }
+                                    return success;
+                                });
+                    })
+                    .collect(Collectors.toList());
+            CompletableFuture<Boolean> shardWrites = CompletableFutureUtils.allOf(futures)
+                    .thenApply(results -> results.stream().allMatch(Boolean::booleanValue));
+            // Failed shard writes get retried at a later write, so we only report the result of this write
+            pendingShardWrites = pendingShardWrites
+                    .handle((success, throwable) -> null)
+                    .thenCompose(nil -> shardWrites);
+            return pendingShardWrites;
+        }
+    }
+
     @Override
     public DataStore<T> prunePersisted(DataStore<T> persisted) {
         Map<ByteArray, T> map = persisted.getMap();
@@ -99,6 +310,159 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         return persisted;
     }
 
+    // Called on WRITE_EXECUTOR
+    private boolean flushWriteAheadLog() {
+        Set<ByteArray> changedKeys = persistableStore.drainChangedKeys();
+        if (changedKeys.isEmpty()) {
+            return true;
+        }
+
+        Map<ByteArray, T> map = persistableStore.getMap();
+        List<bisq.network.protobuf.DataStore.MapEntry> records = changedKeys.stream()
+                .map(key -> toLogRecord(key, map.get(key)))
+                .collect(Collectors.toList());
+        try {
+            writeAheadLog.append(persistableStore.getLogGeneration(), records);
+        } catch (Exception e) {
+            log.error("Appending to write-ahead log of {} failed. We write a snapshot instead.", storeKey, e);
+            persistableStore.addChangedKeys(changedKeys);
+            return compactWriteAheadLog();
+        }
+
+        if (writeAheadLog.getNumRecords() >= Math.max(MIN_NUM_LOG_RECORDS_FOR_COMPACTION, map.size())) {
+            return compactWriteAheadLog();
+        }
+        return true;
+    }
+
+    // Called on WRITE_EXECUTOR
+    private boolean compactWriteAheadLog() {
+        long numRecords = writeAheadLog.getNumRecords();
+        long nextGeneration = persistableStore.getLogGeneration() + 1;
+        Set<ByteArray> changedKeys;
+        CompletableFuture<Boolean> future;
+        synchronized (writeLock) {
+            // We drain before taking the snapshot. Changes in between are contained in the snapshot and get appended
+            // to the log of the next generation as well, which is harmless.
+            changedKeys = persistableStore.drainChangedKeys();
+            DataStore<T> snapshot = persistableStore.getClone();
+            snapshot.setLogGeneration(nextGeneration);
+            future = persistence.persistAsync(snapshot);
+        }
+        if (!future.join()) {
+            // The log stays valid, we append the pending changes at the next flush
+            persistableStore.addChangedKeys(changedKeys);
+            return false;
+        }
+
+        persistableStore.setLogGeneration(nextGeneration);
+        writeAheadLog.deleteOlderThan(nextGeneration);
+        if (numRecords > 0) {
+            log.info("Compacted {} write-ahead log records of {} into a snapshot with {} entries",
+                    numRecords, storeKey, persistableStore.getMap().size());
+        }
+        return true;
+    }
+
+    // Called on WRITE_EXECUTOR
+    private void migrate() {
+        if (persistenceMode == DataStorePersistenceMode.SHARDED) {
+            if (writeAllShards()) {
+                log.info("Migrated {} to {} shard files", storeKey, NUM_SHARDS);
+            }
+        } else if (compactWriteAheadLog() && !shardPersistences.isEmpty()) {
+            shardPersistences.forEach(shardPersistence -> deleteFile(shardPersistence.getStorePath()));
+            log.info("Migrated {} from shard files to a single store file", storeKey);
+        }
+    }
+
+    // Called on WRITE_EXECUTOR
+    private boolean writeAllShards() {
+        long nextGeneration = persistableStore.getLogGeneration() + 1;
+        Set<ByteArray> changedKeys;
+        List<CompletableFuture<Boolean>> futures;
+        synchronized (writeLock) {
+            changedKeys = persistableStore.drainChangedKeys();
+            Set<Integer> allShardIndices = IntStream.range(0, NUM_SHARDS).boxed().collect(Collectors.toSet());
+            // We write all shards, including the empty ones, to overwrite any outdated shard files
+            futures = splitIntoShards(allShardIndices).entrySet().stream()
+                    .map(entry -> {
+                        DataStore<T> shard = entry.getValue();
+                        shard.setLogGeneration(nextGeneration);
+                        return shardPersistences.get(entry.getKey()).persistAsync(shard);
+                    })
+                    .collect(Collectors.toList());
+        }
+        boolean success = CompletableFutureUtils.allOf(futures).join().stream().allMatch(Boolean::booleanValue);
+        if (!success) {
+            // The single store file stays in place and is used again at the next start
+            persistableStore.addChangedKeys(changedKeys);
+            return false;
+        }
+
+        persistableStore.setLogGeneration(nextGeneration);
+        // As the shards carry the next generation, neither the single store file nor the remaining log files are
+        // used anymore if we fail to delete them.
+        deleteFile(persistence.getStorePath());
+        writeAheadLog.deleteOlderThan(nextGeneration);
+        return true;
+    }
+
+    private List<DataStore<T>> readShards() {
+        // Deserialization dominates the read time of large stores, so we read the shards in parallel
+        return shardPersistences.parallelStream()
+                .map(Persistence::read)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    // writeAllShards writes all shards with a generation newer than the single store file before it deletes the
+    // latter, and later shard writes only increase the generation. If it got interrupted before all shards were
+    // written, missing shards or shards left over from an earlier migration have an older generation, and the single
+    // store file is still the valid one.
+    private static boolean isMigrationToShardsCompleted(List<? extends DataStore<?>> shards, DataStore<?> storeFile) {
+        return shards.size() == NUM_SHARDS &&
+                shards.stream().allMatch(shard -> shard.getLogGeneration() > storeFile.getLogGeneration());
+    }
+
+    private DataStore<T> mergeShards(List<DataStore<T>> shards) {
+        Map<ByteArray, T> map = new HashMap<>();
+        shards.forEach(shard -> map.putAll(shard.getMap()));
+        long generation = shards.stream().mapToLong(DataStore::getLogGeneration).max().orElse(0);
+        return new DataStore<>(map, generation);
+    }
+
+    private Map<Integer, DataStore<T>> splitIntoShards(Set<Integer> shardIndices) {
+        Map<Integer, Map<ByteArray, T>> mapByShardIndex = new HashMap<>();
+        shardIndices.forEach(shardIndex -> mapByShardIndex.put(shardIndex, new HashMap<>()));
+        persistableStore.getMap().forEach((key, value) -> {
+            Map<ByteArray, T> shardMap = mapByShardIndex.get(getShardIndex(key));
+            if (shardMap != null) {
+                shardMap.put(key, value);
+            }
+        });
+        long generation = persistableStore.getLogGeneration();
+        return mapByShardIndex.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new DataStore<>(entry.getValue(), generation)));
+    }
+
+    private void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Could not delete {}", path, e);
+        }
+    }
+
+    private static bisq.network.protobuf.DataStore.MapEntry toLogRecord(ByteArray key, DataRequest value) {
+        bisq.network.protobuf.DataStore.MapEntry.Builder builder = bisq.network.protobuf.DataStore.MapEntry.newBuilder()
+                .setKey(key.toProto(false));
+        if (value != null) {
+            builder.setValue(value.toDataRequestProto(false));
+        }
+        return builder.build();
+    }
+
     protected int getMaxMapSize() {
         if (maxMapSize.isEmpty()) {
             int size = persistableStore.getMap().values().stream()
@@ -22,6 +22,7 @@ import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.persistence.PersistableStore;
+import com.google.common.collect.ForwardingConcurrentMap;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -30,10 +31,13 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
@@ -41,10 +45,26 @@ import java.util.stream.Collectors;
 @ToString
 public final class DataStore<T extends DataRequest> implements PersistableStore<DataStore<T>> {
     @Getter(AccessLevel.PUBLIC)
-    private final Map<ByteArray, T> map = new ConcurrentHashMap<>();
+    private final Map<ByteArray, T> map = new ChangeTrackingMap();
+    // Generation of the write-ahead log the records of which are not contained in this store.
+    // Log files of older generations have been compacted into this store.
+    @Getter(AccessLevel.PACKAGE)
+    private volatile long logGeneration;
+
+    // Keys of the entries which got added, replaced or removed since the last drainChangedKeys call.
+    // Only tracked if the store is persisted with a write-ahead log.
+    @ToString.Exclude
+    private final Set<ByteArray> changedKeys = ConcurrentHashMap.newKeySet();
+    @ToString.Exclude
+    private volatile boolean isChangeTrackingEnabled;
 
     DataStore(Map<ByteArray, T> map) {
+        this(map, 0);
+    }
+
+    DataStore(Map<ByteArray, T> map, long logGeneration) {
         this.map.putAll(map);
+        this.logGeneration = logGeneration;
     }
 
     @Override
@@ -61,7 +81,9 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
                         .setValue(e.getValue().toProto(serializeForHash).getDataRequest())
                         .build())
                 .collect(Collectors.toList());
-        return bisq.network.protobuf.DataStore.newBuilder().addAllMapEntries(mapEntries);
+        return bisq.network.protobuf.DataStore.newBuilder()
+                .addAllMapEntries(mapEntries)
+                .setLogGeneration(logGeneration);
     }
 
     public static PersistableStore<?> fromProto(bisq.network.protobuf.DataStore proto) {
@@ -75,7 +97,8 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
                     }
                 })
                 .filter(Objects::nonNull)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)),
+                proto.getLogGeneration());
     }
 
     @Override
@@ -93,17 +116,150 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
     public void applyPersisted(DataStore<T> persisted) {
         map.clear();
         map.putAll(persisted.getMap());
+        logGeneration = persisted.getLogGeneration();
     }
 
     @Override
     public DataStore<T> getClone() {
-        return new DataStore<>(Map.copyOf(map));
+        return new DataStore<>(Map.copyOf(map), logGeneration);
     }
 
     // This is only temporary to not risk that we get an exception if a client mutates
     // the map which is a not valid case, but we the mobile release we prefer to avoid the risk to run into an exception.
     // For main and for a major mobile update we should remove that.
     public DataStore<T> getMutableClone() {
-        return new DataStore<>(new HashMap<>(map));
+        return new DataStore<>(new HashMap<>(map), logGeneration);
+    }
+
+    void setLogGeneration(long logGeneration) {
+        this.logGeneration = logGeneration;
+    }
+
+    /**
+     * Applies the records of the write-ahead log in the order they got appended.
+     * Records without value represent removed entries.
+     */
+    void applyLogRecords(List<bisq.network.protobuf.DataStore.MapEntry> records) {
+        records.forEach(record -> {
+            try {
+                ByteArray key = ByteArray.fromProto(record.getKey());
+                if (record.hasValue()) {
+                    //noinspection unchecked
+                    map.put(key, (T) DataRequest.fromProto(record.getValue()));
+                } else {
+                    map.remove(key);
+                }
+            } catch (Exception e) {
+                log.warn("Could not apply log record {}", record, e);
+            }
+        });
+    }
+
+    void enableChangeTracking() {
+        isChangeTrackingEnabled = true;
+    }
+
+    /**
+     * @return The keys of the entries which got changed since the last call. Their current state has to be looked up
+     * in the map, a key which is not contained in the map anymore got removed.
+     */
+    Set<ByteArray> drainChangedKeys() {
+        Set<ByteArray> result = new HashSet<>();
+        changedKeys.removeIf(result::add);
+        return result;
+    }
+
+    void addChangedKeys(Set<ByteArray> keys) {
+        if (isChangeTrackingEnabled) {
+            changedKeys.addAll(keys);
+        }
+    }
+
+    // The stores are mutated by the storage services and at pruning directly via the map, so we track the changes at
+    // the map level. We rely on ConcurrentMap's default implementations of compute, merge,... using the overridden
+    // methods. Mutations via the key, value or entry set views are not tracked and must not be used.
+    private final class ChangeTrackingMap extends ForwardingConcurrentMap<ByteArray, T> {
+        private final ConcurrentMap<ByteArray, T> delegate = new ConcurrentHashMap<>();
+
+        @Override
+        protected ConcurrentMap<ByteArray, T> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public T put(ByteArray key, T value) {
+            T previous = delegate.put(key, value);
+            onChanged(key);
+            return previous;
+        }
+
+        @Override
+        public void putAll(Map<? extends ByteArray, ? extends T> map) {
+            map.forEach(this::put);
+        }
+
+        @Override
+        public T putIfAbsent(ByteArray key, T value) {
+            T previous = delegate.putIfAbsent(key, value);
+            if (previous == null) {
+                onChanged(key);
+            }
+            return previous;
+        }
+
+        @Override
+        public T replace(ByteArray key, T value) {
+            T previous = delegate.replace(key, value);
+            if (previous != null) {
+                onChanged(key);
+            }
+            return previous;
+        }
+
+        @Override
+        public boolean replace(ByteArray key, T oldValue, T newValue) {
+            boolean replaced = delegate.replace(key, oldValue, newValue);
+            if (replaced) {
+                onChanged(key);
+            }
+            return replaced;
+        }
+
+        @Override
+        public T remove(Object key) {
+            T previous = delegate.remove(key);
+            if (previous != null) {
+                onChanged((ByteArray) key);
+            }
+            return previous;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            boolean removed = delegate.remove(key, value);
+            if (removed) {
+                onChanged((ByteArray) key);
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            if (isChangeTrackingEnabled) {
+                delegate.keySet().forEach(key -> {
+                    if (delegate.remove(key) != null) {
+                        changedKeys.add(key);
+                    }
+                });
+            } else {
+                delegate.clear();
+            }
+        }
+
+        private void onChanged(ByteArray key) {
+            if (isChangeTrackingEnabled) {
+                changedKeys.add(key);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+/**
+ * Defines how the network data stores are written to disk. Switching the mode is supported, the persisted data get
+ * migrated at the next start.
+ */
+public enum DataStorePersistenceMode {
+    /**
+     * The whole store is written to a single file, rate limited to one write per second.
+     */
+    SNAPSHOT,
+    /**
+     * The changed entries are appended to a log, which gets compacted into the single store file in the background.
+     */
+    WRITE_AHEAD_LOG,
+    /**
+     * The store is split into shard files by the first byte of the entry keys. Only the shards containing changed
+     * entries are written, rate limited as in SNAPSHOT mode.
+     */
+    SHARDED
+}
@@ -20,7 +20,7 @@ package bisq.network.p2p.services.data.storage;
 
 import bisq.common.data.ByteArray;
 import bisq.common.proto.NetworkStorageWhiteList;
-import bisq.common.util.StringUtils;
+import bisq.common.threading.ExecutorFactory;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.RemoveDataRequest;
@@ -40,7 +40,6 @@ import bisq.network.p2p.services.data.storage.mailbox.MailboxDataStorageService;
 import bisq.network.p2p.services.data.storage.mailbox.MailboxRequest;
 import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
 import bisq.persistence.DbSubDirectory;
-import bisq.persistence.Persistence;
 import bisq.persistence.PersistenceService;
 import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +48,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -57,6 +57,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -75,6 +76,14 @@ public class StorageService {
         void onRemoved(StorageData storageData);
 
         void onRefreshed(StorageData storageData);
+
+        default void onBatchAdded(List<? extends StorageData> storageDataList) {
+            storageDataList.forEach(this::onAdded);
+        }
+
+        default void onBatchRemoved(List<? extends StorageData> storageDataList) {
+            storageDataList.forEach(this::onRemoved);
+        }
     }
 
     final Map<String, AuthenticatedDataStorageService> authenticatedDataStores = new ConcurrentHashMap<>();
@@ -87,11 +96,16 @@ public class StorageService {
     private final Map<String, AppendOnlyDataStorageService.Listener> appendOnlyDataStoresListeners = new HashMap<>();
 
     private final PersistenceService persistenceService;
+    private final DataStorePersistenceMode persistenceMode;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final PruneExpiredEntriesService pruneExpiredEntriesService = new PruneExpiredEntriesService();
+    // Used for verifying the data requests of inventory responses in parallel
+    private final ForkJoinPool verificationExecutor = ExecutorFactory.newForkJoinPool("StorageService.verification",
+            Runtime.getRuntime().availableProcessors());
 
-    public StorageService(PersistenceService persistenceService) {
+    public StorageService(PersistenceService persistenceService, DataStorePersistenceMode persistenceMode) {
         this.persistenceService = persistenceService;
+        this.persistenceMode = persistenceMode;
 
         pruneExpiredEntriesService.initialize();
 
@@ -104,7 +118,7 @@ public class StorageService {
             if (Files.exists(dirPath)) {
                 getExistingStoreKeys(dirPath)
                         .forEach(storeKey -> {
-                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, pruneExpiredEntriesService, authStoreName, storeKey);
+                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, pruneExpiredEntriesService, authStoreName, storeKey, persistenceMode);
                             AuthenticatedDataStorageService.Listener listener = new AuthenticatedDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(AuthenticatedData authenticatedData) {
@@ -138,6 +152,28 @@ public class StorageService {
                                         }
                                     });
                                 }
+
+                                @Override
+                                public void onBatchAdded(List<AuthenticatedData> authenticatedDataList) {
+                                    listeners.forEach(listener -> {
+                                        try {
+                                            listener.onBatchAdded(authenticatedDataList);
+                                        } catch (Exception e) {
+                                            log.error("Calling onBatchAdded at listener {} failed", listener, e);
+                                        }
+                                    });
+                                }
+
+                                @Override
+                                public void onBatchRemoved(List<AuthenticatedData> authenticatedDataList) {
+                                    listeners.forEach(listener -> {
+                                        try {
+                                            listener.onBatchRemoved(authenticatedDataList);
+                                        } catch (Exception e) {
+                                            log.error("Calling onBatchRemoved at listener {} failed", listener, e);
+                                        }
+                                    });
+                                }
                             };
                             dataStore.addListener(listener);
                             authenticatedDataStoresListeners.put(storeKey, listener);
@@ -149,7 +185,7 @@ public class StorageService {
             if (Files.exists(dirPath)) {
                 getExistingStoreKeys(dirPath)
                         .forEach(storeKey -> {
-                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, pruneExpiredEntriesService, mailboxStoreName, storeKey);
+                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, pruneExpiredEntriesService, mailboxStoreName, storeKey, persistenceMode);
                             MailboxDataStorageService.Listener listener = new MailboxDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(MailboxData mailboxData) {
@@ -184,7 +220,7 @@ public class StorageService {
             if (Files.exists(dirPath)) {
                 getExistingStoreKeys(dirPath)
                         .forEach(storeKey -> {
-                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey);
+                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey, persistenceMode);
                             AppendOnlyDataStorageService.Listener listener = appendOnlyData -> listeners.forEach(l -> {
                                 try {
                                     l.onAdded(appendOnlyData);
@@ -230,6 +266,7 @@ public class StorageService {
         appendOnlyDataStores.values().forEach(DataStorageService::shutdown);
         appendOnlyDataStores.clear();
         listeners.clear();
+        ExecutorFactory.shutdownAndAwaitTermination(verificationExecutor);
     }
 
 
@@ -276,6 +313,43 @@ public class StorageService {
         }
     }
 
+    /**
+     * Processes the data requests of an inventory response. The requests for authenticated data get grouped by store
+     * and each group is verified in parallel and applied as one batch (see AuthenticatedDataStorageService.addOrRemove).
+     * Mailbox and append-only data requests are processed one by one.
+     */
+    public void onDataRequests(List<? extends DataRequest> dataRequests) {
+        Map<String, List<AuthenticatedDataRequest>> authenticatedDataRequestsByStoreKey = new LinkedHashMap<>();
+        for (DataRequest dataRequest : dataRequests) {
+            if (dataRequest instanceof AddAuthenticatedDataRequest request) {
+                String storeKey = request.getAuthenticatedSequentialData().getAuthenticatedData().getClassName();
+                authenticatedDataRequestsByStoreKey.computeIfAbsent(storeKey, key -> new ArrayList<>()).add(request);
+            } else if (dataRequest instanceof RemoveAuthenticatedDataRequest request) {
+                authenticatedDataRequestsByStoreKey.computeIfAbsent(request.getClassName(), key -> new ArrayList<>()).add(request);
+            } else if (dataRequest instanceof AddDataRequest addDataRequest) {
+                onAddDataRequest(addDataRequest);
+            } else if (dataRequest instanceof RemoveDataRequest removeDataRequest) {
+                onRemoveDataRequest(removeDataRequest);
+            }
+        }
+
+        authenticatedDataRequestsByStoreKey.forEach((storeKey, requests) ->
+                getOrCreateAuthenticatedDataStore(storeKey)
+                        .thenAccept(store -> {
+                            List<DataStorageResult> results = store.addOrRemove(requests, verificationExecutor);
+                            long numSevereFailures = results.stream().filter(DataStorageResult::isSevereFailure).count();
+                            if (numSevereFailures > 0) {
+                                log.info("{} of {} AuthenticatedDataRequests for {} were not added to store due to severe failures",
+                                        numSevereFailures, requests.size(), storeKey);
+                            }
+                        })
+                        .whenComplete((nil, throwable) -> {
+                            if (throwable != null) {
+                                log.warn("Processing AuthenticatedDataRequests for {} failed", storeKey, throwable);
+                            }
+                        }));
+    }
+
     private CompletableFuture<Optional<StorageData>> onAddMailboxRequest(AddMailboxRequest request) {
         MailboxData mailboxData = request.getMailboxSequentialData().getMailboxData();
         return getOrCreateMailboxDataStore(mailboxData.getClassName())
@@ -421,7 +495,8 @@ public class StorageService {
             AuthenticatedDataStorageService storageService = new AuthenticatedDataStorageService(persistenceService,
                     pruneExpiredEntriesService,
                     AUTHENTICATED_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    persistenceMode);
 
             AuthenticatedDataStorageService.Listener listener = new AuthenticatedDataStorageService.Listener() {
                 @Override
@@ -445,6 +520,28 @@ public class StorageService {
                         }
                     });
                 }
+
+                @Override
+                public void onBatchAdded(List<AuthenticatedData> authenticatedDataList) {
+                    listeners.forEach(listener -> {
+                        try {
+                            listener.onBatchAdded(authenticatedDataList);
+                        } catch (Exception e) {
+                            log.error("Calling onBatchAdded at listener {} failed", listener, e);
+                        }
+                    });
+                }
+
+                @Override
+                public void onBatchRemoved(List<AuthenticatedData> authenticatedDataList) {
+                    listeners.forEach(listener -> {
+                        try {
+                            listener.onBatchRemoved(authenticatedDataList);
+                        } catch (Exception e) {
+                            log.error("Calling onBatchRemoved at listener {} failed", listener, e);
+                        }
+                    });
+                }
             };
 
             storageService.addListener(listener);
@@ -465,7 +562,8 @@ public class StorageService {
             MailboxDataStorageService storageService = new MailboxDataStorageService(persistenceService,
                     pruneExpiredEntriesService,
                     MAILBOX_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    persistenceMode);
 
             MailboxDataStorageService.Listener listener = new MailboxDataStorageService.Listener() {
                 @Override
@@ -510,7 +608,8 @@ public class StorageService {
         if (!appendOnlyDataStores.containsKey(storeKey)) {
             AppendOnlyDataStorageService storageService = new AppendOnlyDataStorageService(persistenceService,
                     APPEND_ONLY_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    persistenceMode);
 
             AppendOnlyDataStorageService.Listener listener = appendOnlyData -> listeners.forEach(l -> {
                 try {
@@ -628,10 +727,7 @@ public class StorageService {
 
     private Set<String> getExistingStoreKeys(Path dirPath) {
         return NetworkStorageWhiteList.getClassNames().stream()
-                .filter(className -> {
-                    String storageFileName = StringUtils.camelCaseToSnakeCase(className + DataStorageService.STORE_POST_FIX) + Persistence.EXTENSION;
-                    return Files.exists(dirPath.resolve(storageFileName));
-                })
+                .filter(className -> DataStorageService.hasPersistedData(dirPath, className))
                 .collect(Collectors.toSet());
     }
 
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.security.DigestUtil;
+import bisq.security.SignatureUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+
+/**
+ * Bounded cache of successfully verified signatures. The same data requests reach a node from several peers, by
+ * broadcast, re-broadcast and with each inventory response, so we would otherwise verify the same ECDSA signature
+ * many times.
+ * <p>
+ * The key is the SHA-256 hash of all inputs of the signature verification (message, signature and public key), each
+ * prefixed with its length, thus a cache hit implies that the same verification has succeeded before. Invalid
+ * signatures are not cached, so they are always verified again and a peer cannot fill the cache with invalid data.
+ */
+public class VerifiedSignatureCache {
+    public static final VerifiedSignatureCache SHARED = new VerifiedSignatureCache(50_000);
+
+    private final Cache<ByteArray, Boolean> cache;
+
+    public VerifiedSignatureCache(int maxSize) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public boolean verify(byte[] message, byte[] signature, PublicKey publicKey) throws GeneralSecurityException {
+        ByteArray key = toKey(message, signature, publicKey.getEncoded());
+        if (cache.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean isValid = SignatureUtil.verify(message, signature, publicKey);
+        if (isValid) {
+            cache.put(key, Boolean.TRUE);
+        }
+        return isValid;
+    }
+
+    public long getNumHits() {
+        return cache.stats().hitCount();
+    }
+
+    public long getNumMisses() {
+        return cache.stats().missCount();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    private static ByteArray toKey(byte[] message, byte[] signature, byte[] publicKeyBytes) {
+        MessageDigest digest = DigestUtil.newSha256Digest();
+        for (byte[] input : new byte[][]{message, signature, publicKeyBytes}) {
+            digest.update(Ints.toByteArray(input.length));
+            digest.update(input);
+        }
+        return new ByteArray(digest.digest());
+    }
+}
@@ -17,6 +17,8 @@
 
 package bisq.network.p2p.services.data.storage.append;
 
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.storage.DistributedData;
@@ -30,8 +32,11 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 @ToString
 @EqualsAndHashCode
-public final class AddAppendOnlyDataRequest implements AddDataRequest {
+public final class AddAppendOnlyDataRequest implements AddDataRequest, MemoizedProto {
     private final AppendOnlyData appendOnlyData;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     public AddAppendOnlyDataRequest(AppendOnlyData appendOnlyData) {
         this.appendOnlyData = appendOnlyData;
@@ -21,6 +21,7 @@ import bisq.common.data.ByteArray;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.DataStorageService;
 import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
 import bisq.persistence.PersistenceService;
 import bisq.security.DigestUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -44,8 +45,11 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final Object mapAccessLock = new Object();
 
-    public AppendOnlyDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
+    public AppendOnlyDataStorageService(PersistenceService persistenceService,
+                                        String storeName,
+                                        String storeKey,
+                                        DataStorePersistenceMode persistenceMode) {
+        super(persistenceService, storeName, storeKey, persistenceMode);
     }
 
     @Override
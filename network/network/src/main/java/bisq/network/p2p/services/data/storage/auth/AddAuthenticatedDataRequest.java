@@ -18,16 +18,20 @@
 package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
 import bisq.network.protobuf.DataRequest;
 import bisq.security.DigestUtil;
 import bisq.security.SignatureUtil;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
@@ -43,7 +47,7 @@ import java.util.Optional;
  * The data gets compared with existing map entries and need to be deterministic.
  */
 @Slf4j
-public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest {
+public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest, MemoizedProto {
     public static AddAuthenticatedDataRequest from(AuthenticatedDataStorageService store,
                                                    AuthenticatedData authenticatedData,
                                                    KeyPair keyPair)
@@ -75,6 +79,9 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
     private final byte[] ownerPublicKeyBytes;
     // transient fields are excluded by default for EqualsAndHashCode
     private transient final PublicKey ownerPublicKey;
+    @Getter
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     public AddAuthenticatedDataRequest(AuthenticatedSequentialData authenticatedSequentialData,
                                        byte[] signature,
@@ -149,7 +156,7 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
 
     public boolean isSignatureInvalid() {
         try {
-            return !SignatureUtil.verify(authenticatedSequentialData.serializeForHash(), signature, getOwnerPublicKey());
+            return !VerifiedSignatureCache.SHARED.verify(authenticatedSequentialData.serializeForHash(), signature, getOwnerPublicKey());
         } catch (Exception e) {
             log.warn(e.toString(), e);
             return true;
@@ -17,6 +17,8 @@
 
 package bisq.network.p2p.services.data.storage.auth;
 
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.storage.DistributedData;
 import bisq.network.p2p.services.data.storage.MetaData;
@@ -24,6 +26,7 @@ import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -32,9 +35,13 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @EqualsAndHashCode
-public abstract class AuthenticatedData implements StorageData {
+public abstract class AuthenticatedData implements StorageData, MemoizedProto {
     @Getter
     protected final DistributedData distributedData;
+    @Getter
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     public AuthenticatedData(DistributedData distributedData) {
         this.distributedData = distributedData;
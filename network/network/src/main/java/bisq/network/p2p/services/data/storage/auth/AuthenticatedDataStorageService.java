@@ -24,6 +24,7 @@ import bisq.common.util.StringUtils;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.DataStorageService;
 import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
 import bisq.network.p2p.services.data.storage.DistributedData;
 import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
@@ -34,12 +35,17 @@ import bisq.security.DigestUtil;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -47,6 +53,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 @Slf4j
 public class AuthenticatedDataStorageService extends DataStorageService<AuthenticatedDataRequest> {
+    // Below that number of requests per chunk, parallel verification does not pay off
+    private static final int MIN_BATCH_CHUNK_SIZE = 50;
+
     // TODO rename with Handler as only used by StorageService (see https://github.com/bisq-network/bisq2/issues/3691)
     public interface Listener {
         void onAdded(AuthenticatedData authenticatedData);
@@ -55,6 +64,18 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
 
         default void onRefreshed(AuthenticatedData authenticatedData) {
         }
+
+        default void onBatchAdded(List<AuthenticatedData> authenticatedDataList) {
+            authenticatedDataList.forEach(this::onAdded);
+        }
+
+        default void onBatchRemoved(List<AuthenticatedData> authenticatedDataList) {
+            authenticatedDataList.forEach(this::onRemoved);
+        }
+    }
+
+    // Result of the checks done outside the mapAccessLock. If result is present the request got rejected.
+    private record Verification(ByteArray byteArray, Optional<DataStorageResult> result, boolean isSignatureVerified) {
     }
 
     // TODO Use a field for a single handler as only one listener is used by StorageService
@@ -64,8 +85,9 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
     public AuthenticatedDataStorageService(PersistenceService persistenceService,
                                            PruneExpiredEntriesService pruneExpiredEntriesService,
                                            String storeName,
-                                           String storeKey) {
-        super(persistenceService, storeName, storeKey);
+                                           String storeKey,
+                                           DataStorePersistenceMode persistenceMode) {
+        super(persistenceService, storeName, storeKey, persistenceMode);
         pruneExpiredEntriesService.addTask(this::pruneExpired);
     }
 
@@ -83,74 +105,31 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         listeners.clear();
     }
 
+    /**
+     * The expensive checks (data validation, authorization, public key and signature verification) do not depend on
+     * the map and are done outside the mapAccessLock. To keep the results the same as if all checks would be done
+     * inside the lock in the original order, we first do the checks depending on the map state without the lock.
+     * If they pass, we verify the request. Inside the lock we repeat the map state checks, as the map might have
+     * changed in the meantime, before we write to the map.
+     */
     public DataStorageResult add(AddAuthenticatedDataRequest request) {
         maybeLogMapState("add", persistableStore);
-        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
-        AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
-        DistributedData distributedData = authenticatedData.distributedData;
-        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
-        ByteArray byteArray = new ByteArray(hash);
-        AuthenticatedDataRequest requestFromMap;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (isExceedingMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
-
-            requestFromMap = map.get(byteArray);
-            if (request.equals(requestFromMap)) {
-                return new DataStorageResult(false).requestAlreadyReceived();
-            }
-
-            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
-
-            if (authenticatedSequentialData.isExpired()) {
-                log.debug("AddAuthenticatedDataRequest with {} is expired on {}",
-                        distributedData.getClass().getSimpleName(),
-                        new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
-                );
-                log.debug("Data is expired at add. request={}", request);
-                return new DataStorageResult(false).expired();
-            }
-
-            if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
-                log.warn("AuthenticatedData is invalid at add. request={}", request);
-                return new DataStorageResult(false).dataInvalid();
-            }
-
-            if (authenticatedData instanceof AuthorizedData authorizedData) {
-                if (authorizedData.isNotAuthorized()) {
-                    log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 1500));
-                    return new DataStorageResult(false).isNotAuthorized();
-                }
-            }
-
-            if (request.isPublicKeyInvalid()) {
-                log.warn("PublicKey is invalid at add. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
-
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at add. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
-
-            if (distributedData instanceof PublishDateAware publishDateAware) {
-                publishDateAware.setPublishDate(authenticatedSequentialData.getCreated());
-            }
-
-            map.put(byteArray, request);
+        Verification verification = verifyAdd(request);
+        if (verification.result().isPresent()) {
+            return verification.result().get();
+        }
 
-            // In case we only updated the seq number we still want to broadcast and update the listeners.
-            // It is a valid use case that we have both an add and remove data request, and we get repeated sequences
-            // of add/remove events. In that case only the sequence number changes, but we still want to notify our
-            // listeners.
+        DataStorageResult dataStorageResult;
+        synchronized (mapAccessLock) {
+            dataStorageResult = applyAdd(request, verification.byteArray());
+        }
+        if (!dataStorageResult.isSuccess()) {
+            return dataStorageResult;
         }
 
         persist();
 
+        AuthenticatedData authenticatedData = request.getAuthenticatedSequentialData().getAuthenticatedData();
         listeners.forEach(listener -> {
             try {
                 listener.onAdded(authenticatedData);
@@ -159,94 +138,131 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
             }
         });
         maybeLogMapState("add success", persistableStore);
-        return new DataStorageResult(true);
+        return dataStorageResult;
     }
 
+    /**
+     * Signature verification is done outside the mapAccessLock if the map state at the unlocked pre-check leads
+     * to the signature check. If the map has changed in the meantime so that the signature check is reached only
+     * inside the lock, we verify it there.
+     */
     public DataStorageResult remove(RemoveAuthenticatedDataRequest request) {
         maybeLogMapState("remove ", persistableStore);
-        ByteArray byteArray = new ByteArray(request.getHash());
-        AuthenticatedData authenticatedDataFromMap;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            AuthenticatedDataRequest requestFromMap = map.get(byteArray);
-            if (requestFromMap == null) {
-                log.debug("No entry at remove. hash={}", byteArray);
-                // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
-                // track of the sequence number
-                map.put(byteArray, request);
-                persist();
-                return new DataStorageResult(true).noEntry();
-            }
-
-            if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
-                // log.debug("Already removed. request={}, map={}", request, map);
-                // We have had the entry already removed.
-                if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                    // We update the map with the new request with the fresh sequence number.
-                    map.put(byteArray, request);
-                    persist();
-                }
-                return new DataStorageResult(true).alreadyRemoved();
-            }
+        Verification verification = verifyRemove(request);
+        if (verification.result().isPresent()) {
+            return verification.result().get();
+        }
 
-            // At that point we know requestFromMap is an AddProtectedDataRequest
-            checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
-                    "requestFromMap expected be type of AddProtectedDataRequest");
-            AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
+        DataStorageResult dataStorageResult;
+        synchronized (mapAccessLock) {
+            dataStorageResult = applyRemove(request, verification.byteArray(), verification.isSignatureVerified());
+        }
+        if (!dataStorageResult.isSuccess()) {
+            return dataStorageResult;
+        }
 
-            // We have an entry, lets validate if we can remove it
-            AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
-            authenticatedDataFromMap = dataFromMap.getAuthenticatedData();
-            if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
-                log.warn("SequenceNr has not increased at remove. request={}", request);
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+        persist();
 
-            if (request.isPublicKeyHashInvalid(dataFromMap)) {
-                log.warn("PublicKey hash is invalid at remove. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
+        // If there was no entry or the entry was already removed we have no removedData and do not notify listeners
+        if (dataStorageResult.getRemovedData() instanceof AuthenticatedData authenticatedDataFromMap) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onRemoved(authenticatedDataFromMap);
+                } catch (Exception e) {
+                    log.error("Calling onRemoved at listener {} failed", listener, e);
+                }
+            });
+            maybeLogMapState("remove success", persistableStore);
+        }
+        return dataStorageResult;
+    }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at remove. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
-            }
+    /**
+     * Batch version of add and remove used for the data of an inventory response. The requests get verified in
+     * parallel on the given executor, then all are applied in one critical section. We persist once and notify
+     * the listeners once with all added and all removed data. The results are the same as if the requests would
+     * have been passed one by one in the given order to add or remove.
+     */
+    public List<DataStorageResult> addOrRemove(List<? extends AuthenticatedDataRequest> requests,
+                                               Executor verificationExecutor) {
+        maybeLogMapState("addOrRemove", persistableStore);
+        List<Verification> verifications = verifyInParallel(requests, verificationExecutor);
+
+        List<DataStorageResult> results = new ArrayList<>(requests.size());
+        List<AuthenticatedData> added = new ArrayList<>();
+        List<AuthenticatedData> removed = new ArrayList<>();
+        synchronized (mapAccessLock) {
+            for (int i = 0; i < requests.size(); i++) {
+                AuthenticatedDataRequest request = requests.get(i);
+                Verification verification = verifications.get(i);
+                if (verification.result().isPresent()) {
+                    results.add(verification.result().get());
+                    continue;
+                }
 
-            // As metaData from distributedData is taken from the users current code base but the one from RemoveAuthenticatedDataRequest
-            // is from the senders version (taken from senders distributedData) it could be different if both users had
-            // different versions and metaData has changed between those versions.
-            // If we detect such a difference we use our metaData version. This also protects against malicious manipulation.
-            MetaData metaDataFromDistributedData = addRequestFromMap.getAuthenticatedSequentialData().getAuthenticatedData().getMetaData();
-            if (!request.getFallbackMetaData().equals(metaDataFromDistributedData)) {
-                request.setMetaDataFromDistributedData(Optional.of(metaDataFromDistributedData));
-                log.warn("MetaData of remove request not matching the one from the addRequest from the map. We override " +
-                                "metadata with the one we have from the associated distributed data." +
-                                "{} vs. {}",
-                        request.getFallbackMetaData(),
-                        metaDataFromDistributedData);
+                DataStorageResult dataStorageResult;
+                if (request instanceof AddAuthenticatedDataRequest addRequest) {
+                    dataStorageResult = applyAdd(addRequest, verification.byteArray());
+                    if (dataStorageResult.isSuccess()) {
+                        added.add(addRequest.getAuthenticatedSequentialData().getAuthenticatedData());
+                    }
+                } else {
+                    dataStorageResult = applyRemove((RemoveAuthenticatedDataRequest) request,
+                            verification.byteArray(),
+                            verification.isSignatureVerified());
+                    if (dataStorageResult.getRemovedData() instanceof AuthenticatedData authenticatedDataFromMap) {
+                        removed.add(authenticatedDataFromMap);
+                    }
+                }
+                results.add(dataStorageResult);
             }
-
-            map.put(byteArray, request);
         }
 
-        persist();
+        if (results.stream().anyMatch(DataStorageResult::isSuccess)) {
+            persist();
+        }
 
-        listeners.forEach(listener -> {
-            try {
-                listener.onRemoved(authenticatedDataFromMap);
-            } catch (Exception e) {
-                log.error("Calling onRemoved at listener {} failed", listener, e);
-            }
-        });
-        maybeLogMapState("remove success", persistableStore);
-        return new DataStorageResult(true).removedData(authenticatedDataFromMap);
+        if (!added.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onBatchAdded(added);
+                } catch (Exception e) {
+                    log.error("Calling onBatchAdded at listener {} failed", listener, e);
+                }
+            });
+        }
+        if (!removed.isEmpty()) {
+            listeners.forEach(listener -> {
+                try {
+                    listener.onBatchRemoved(removed);
+                } catch (Exception e) {
+                    log.error("Calling onBatchRemoved at listener {} failed", listener, e);
+                }
+            });
+        }
+        maybeLogMapState("addOrRemove success", persistableStore);
+        return results;
     }
 
+    /**
+     * Same approach as in remove: signature verification is done outside the mapAccessLock if possible.
+     */
     public DataStorageResult refresh(RefreshAuthenticatedDataRequest request) {
         maybeLogMapState("refresh ", persistableStore);
         ByteArray byteArray = new ByteArray(request.getHash());
         AddAuthenticatedDataRequest updatedRequest;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+
+        boolean isSignatureVerified = false;
+        if (map.get(byteArray) instanceof AddAuthenticatedDataRequest addRequestFromMap &&
+                isSignatureCheckRequiredAtRefresh(request, addRequestFromMap)) {
+            if (request.isSignatureInvalid()) {
+                log.warn("Signature is invalid at refresh. request={}", request);
+                return new DataStorageResult(false).signatureInvalid();
+            }
+            isSignatureVerified = true;
+        }
+
         synchronized (mapAccessLock) {
             AuthenticatedDataRequest requestFromMap = map.get(byteArray);
 
@@ -276,7 +292,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 return new DataStorageResult(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            if (!isSignatureVerified && request.isSignatureInvalid()) {
                 log.warn("Signature is invalid at refresh. request={}", request);
                 return new DataStorageResult(false).signatureInvalid();
             }
@@ -326,6 +342,210 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         return sequenceNumber;
     }
 
+    // Checks which can be done outside the mapAccessLock
+    private Verification verifyAdd(AddAuthenticatedDataRequest request) {
+        AuthenticatedData authenticatedData = request.getAuthenticatedSequentialData().getAuthenticatedData();
+        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
+        ByteArray byteArray = new ByteArray(hash);
+        Optional<DataStorageResult> result = checkAddAgainstMap(request, persistableStore.getMap().get(byteArray))
+                .or(() -> verifyAddData(request));
+        return new Verification(byteArray, result, true);
+    }
+
+    private Verification verifyRemove(RemoveAuthenticatedDataRequest request) {
+        ByteArray byteArray = new ByteArray(request.getHash());
+        if (persistableStore.getMap().get(byteArray) instanceof AddAuthenticatedDataRequest addRequestFromMap &&
+                isSignatureCheckRequiredAtRemove(request, addRequestFromMap)) {
+            if (request.isSignatureInvalid()) {
+                log.warn("Signature is invalid at remove. request={}", request);
+                return new Verification(byteArray, Optional.of(new DataStorageResult(false).signatureInvalid()), false);
+            }
+            return new Verification(byteArray, Optional.empty(), true);
+        }
+        return new Verification(byteArray, Optional.empty(), false);
+    }
+
+    private List<Verification> verifyInParallel(List<? extends AuthenticatedDataRequest> requests, Executor executor) {
+        int numChunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), requests.size() / MIN_BATCH_CHUNK_SIZE));
+        int chunkSize = (requests.size() + numChunks - 1) / numChunks;
+        List<CompletableFuture<List<Verification>>> futures = new ArrayList<>(numChunks);
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<? extends AuthenticatedDataRequest> chunk = requests.subList(from, Math.min(requests.size(), from + chunkSize));
+            futures.add(CompletableFuture.supplyAsync(() -> chunk.stream().map(this::verify).toList(), executor));
+        }
+        List<Verification> verifications = new ArrayList<>(requests.size());
+        futures.forEach(future -> verifications.addAll(future.join()));
+        return verifications;
+    }
+
+    private Verification verify(AuthenticatedDataRequest request) {
+        if (request instanceof AddAuthenticatedDataRequest addRequest) {
+            return verifyAdd(addRequest);
+        } else if (request instanceof RemoveAuthenticatedDataRequest removeRequest) {
+            return verifyRemove(removeRequest);
+        } else {
+            throw new IllegalArgumentException("Unsupported request type at addOrRemove: " + request.getClass().getSimpleName());
+        }
+    }
+
+    // Must be called inside the mapAccessLock
+    private DataStorageResult applyAdd(AddAuthenticatedDataRequest request, ByteArray byteArray) {
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        Optional<DataStorageResult> mapStateResult = checkAddAgainstMap(request, map.get(byteArray));
+        if (mapStateResult.isPresent()) {
+            return mapStateResult.get();
+        }
+
+        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
+        if (authenticatedSequentialData.getDistributedData() instanceof PublishDateAware publishDateAware) {
+            publishDateAware.setPublishDate(authenticatedSequentialData.getCreated());
+        }
+
+        map.put(byteArray, request);
+
+        // In case we only updated the seq number we still want to broadcast and update the listeners.
+        // It is a valid use case that we have both an add and remove data request, and we get repeated sequences
+        // of add/remove events. In that case only the sequence number changes, but we still want to notify our
+        // listeners.
+        return new DataStorageResult(true);
+    }
+
+    // Must be called inside the mapAccessLock
+    private DataStorageResult applyRemove(RemoveAuthenticatedDataRequest request,
+                                          ByteArray byteArray,
+                                          boolean isSignatureVerified) {
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+        if (requestFromMap == null) {
+            log.debug("No entry at remove. hash={}", byteArray);
+            // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
+            // track of the sequence number
+            map.put(byteArray, request);
+            return new DataStorageResult(true).noEntry();
+        }
+
+        if (requestFromMap instanceof RemoveAuthenticatedDataRequest) {
+            // log.debug("Already removed. request={}, map={}", request, map);
+            // We have had the entry already removed.
+            if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                // We update the map with the new request with the fresh sequence number.
+                map.put(byteArray, request);
+            }
+            return new DataStorageResult(true).alreadyRemoved();
+        }
+
+        // At that point we know requestFromMap is an AddProtectedDataRequest
+        checkArgument(requestFromMap instanceof AddAuthenticatedDataRequest,
+                "requestFromMap expected be type of AddProtectedDataRequest");
+        AddAuthenticatedDataRequest addRequestFromMap = (AddAuthenticatedDataRequest) requestFromMap;
+
+        // We have an entry, lets validate if we can remove it
+        AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+        AuthenticatedData authenticatedDataFromMap = dataFromMap.getAuthenticatedData();
+        if (request.isSequenceNrInvalid(dataFromMap.getSequenceNumber())) {
+            log.warn("SequenceNr has not increased at remove. request={}", request);
+            return new DataStorageResult(false).sequenceNrInvalid();
+        }
+
+        if (request.isPublicKeyHashInvalid(dataFromMap)) {
+            log.warn("PublicKey hash is invalid at remove. request={}", request);
+            return new DataStorageResult(false).publicKeyHashInvalid();
+        }
+
+        if (!isSignatureVerified && request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at remove. request={}", request);
+            return new DataStorageResult(false).signatureInvalid();
+        }
+
+        // As metaData from distributedData is taken from the users current code base but the one from RemoveAuthenticatedDataRequest
+        // is from the senders version (taken from senders distributedData) it could be different if both users had
+        // different versions and metaData has changed between those versions.
+        // If we detect such a difference we use our metaData version. This also protects against malicious manipulation.
+        MetaData metaDataFromDistributedData = authenticatedDataFromMap.getMetaData();
+        if (!request.getFallbackMetaData().equals(metaDataFromDistributedData)) {
+            request.setMetaDataFromDistributedData(Optional.of(metaDataFromDistributedData));
+            log.warn("MetaData of remove request not matching the one from the addRequest from the map. We override " +
+                            "metadata with the one we have from the associated distributed data." +
+                            "{} vs. {}",
+                    request.getFallbackMetaData(),
+                    metaDataFromDistributedData);
+        }
+
+        map.put(byteArray, request);
+        return new DataStorageResult(true).removedData(authenticatedDataFromMap);
+    }
+
+    // Checks depending on the map state. Called as unlocked pre-check and again inside the mapAccessLock.
+    private Optional<DataStorageResult> checkAddAgainstMap(AddAuthenticatedDataRequest request,
+                                                           @Nullable AuthenticatedDataRequest requestFromMap) {
+        if (isExceedingMapSize()) {
+            return Optional.of(new DataStorageResult(false).maxMapSizeReached());
+        }
+
+        if (request.equals(requestFromMap)) {
+            return Optional.of(new DataStorageResult(false).requestAlreadyReceived());
+        }
+
+        if (requestFromMap != null && request.getAuthenticatedSequentialData().isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+            return Optional.of(new DataStorageResult(false).sequenceNrInvalid());
+        }
+        return Optional.empty();
+    }
+
+    // Checks not depending on the map state
+    private Optional<DataStorageResult> verifyAddData(AddAuthenticatedDataRequest request) {
+        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
+        AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
+        DistributedData distributedData = authenticatedData.distributedData;
+        if (authenticatedSequentialData.isExpired()) {
+            log.debug("AddAuthenticatedDataRequest with {} is expired on {}",
+                    distributedData.getClass().getSimpleName(),
+                    new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
+            );
+            log.debug("Data is expired at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).expired());
+        }
+
+        if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
+            log.warn("AuthenticatedData is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).dataInvalid());
+        }
+
+        if (authenticatedData instanceof AuthorizedData authorizedData) {
+            if (authorizedData.isNotAuthorized()) {
+                log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 1500));
+                return Optional.of(new DataStorageResult(false).isNotAuthorized());
+            }
+        }
+
+        if (request.isPublicKeyInvalid()) {
+            log.warn("PublicKey is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).publicKeyHashInvalid());
+        }
+
+        if (request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at add. request={}", request);
+            return Optional.of(new DataStorageResult(false).signatureInvalid());
+        }
+        return Optional.empty();
+    }
+
+    // Returns true if the checks before the signature check at remove would pass for the given entry from the map
+    private static boolean isSignatureCheckRequiredAtRemove(RemoveAuthenticatedDataRequest request,
+                                                            AddAuthenticatedDataRequest addRequestFromMap) {
+        AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+        return !request.isSequenceNrInvalid(dataFromMap.getSequenceNumber()) &&
+                !request.isPublicKeyHashInvalid(dataFromMap);
+    }
+
+    // Returns true if the checks before the signature check at refresh would pass for the given entry from the map
+    private static boolean isSignatureCheckRequiredAtRefresh(RefreshAuthenticatedDataRequest request,
+                                                             AddAuthenticatedDataRequest addRequestFromMap) {
+        AuthenticatedSequentialData dataFromMap = addRequestFromMap.getAuthenticatedSequentialData();
+        return !request.isSequenceNrInvalid(dataFromMap.getSequenceNumber()) &&
+                !request.isPublicKeyInvalid(dataFromMap);
+    }
+
     private void pruneExpired() {
         Set<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
                 .filter(entry -> {
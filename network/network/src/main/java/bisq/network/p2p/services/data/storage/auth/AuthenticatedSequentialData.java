@@ -18,11 +18,14 @@
 package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
 import bisq.common.proto.NetworkProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.storage.DistributedData;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
@@ -35,7 +38,7 @@ import java.util.Objects;
  */
 @Slf4j
 @Getter
-public final class AuthenticatedSequentialData implements NetworkProto {
+public final class AuthenticatedSequentialData implements NetworkProto, MemoizedProto {
     public static AuthenticatedSequentialData from(AuthenticatedSequentialData data, int sequenceNumber) {
         return from(data, sequenceNumber, data.getCreated());
     }
@@ -48,6 +51,8 @@ public final class AuthenticatedSequentialData implements NetworkProto {
     private final int sequenceNumber;
     private final long created;
     private final byte[] pubKeyHash;
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     public AuthenticatedSequentialData(AuthenticatedData authenticatedData,
                                        int sequenceNumber,
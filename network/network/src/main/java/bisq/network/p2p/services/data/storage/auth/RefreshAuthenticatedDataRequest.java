@@ -19,14 +19,18 @@ package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.annotation.ExcludeForHash;
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
 import bisq.security.DigestUtil;
 import bisq.security.SignatureUtil;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
@@ -38,7 +42,7 @@ import java.util.Objects;
 
 @Getter
 @Slf4j
-public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataRequest {
+public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataRequest, MemoizedProto {
     private static final int VERSION = 1;
 
     public static RefreshAuthenticatedDataRequest from(AuthenticatedDataStorageService store,
@@ -72,6 +76,8 @@ public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataR
     private final int sequenceNumber;
     private final byte[] signature;         // 47 bytes
     private final long created;
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     private RefreshAuthenticatedDataRequest(int version,
                                             MetaData metaData,
@@ -149,7 +155,7 @@ public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataR
 
     public boolean isSignatureInvalid() {
         try {
-            return !SignatureUtil.verify(hash, signature, ownerPublicKey);
+            return !VerifiedSignatureCache.SHARED.verify(hash, signature, ownerPublicKey);
         } catch (Exception e) {
             return true;
         }
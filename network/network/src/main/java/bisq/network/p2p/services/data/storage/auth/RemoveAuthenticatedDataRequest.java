@@ -19,10 +19,13 @@ package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.annotation.ExcludeForHash;
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
 import bisq.network.protobuf.DataRequest;
 import bisq.security.DigestUtil;
 import bisq.security.SignatureUtil;
@@ -30,6 +33,7 @@ import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
@@ -43,7 +47,7 @@ import java.util.Optional;
 // Data size about 200-250 bytes
 @Getter
 @Slf4j
-public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRequest, RemoveDataRequest {
+public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRequest, RemoveDataRequest, MemoizedProto {
     private static final int VERSION = 1;
 
     public static RemoveAuthenticatedDataRequest from(AuthenticatedDataStorageService store,
@@ -77,6 +81,8 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
     private final long created;
     @Setter
     private transient Optional<MetaData> metaDataFromDistributedData = Optional.empty();
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     private RemoveAuthenticatedDataRequest(int version,
                                            MetaData metaData,
@@ -183,7 +189,7 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
             if (ownerPublicKey == null) {
                 ownerPublicKey = KeyGeneration.generatePublic(ownerPublicKeyBytes);
             }
-            return !SignatureUtil.verify(hash, signature, ownerPublicKey);
+            return !VerifiedSignatureCache.SHARED.verify(hash, signature, ownerPublicKey);
         } catch (Exception e) {
             return true;
         }
@@ -86,10 +86,10 @@ public final class AuthorizedData extends AuthenticatedData {
     @Override
     public byte[] serializeForHash() {
         // We omit the signature for the hash, otherwise we would get a new map entry for the same data at each republishing
-        return getAuthenticatedDataBuilder(true).setAuthorizedData(
+        return getProtoMemo().getSerialized(true, () -> getAuthenticatedDataBuilder(true).setAuthorizedData(
                         bisq.network.protobuf.AuthorizedData.newBuilder()
                                 .setAuthorizedPublicKeyBytes(ByteString.copyFrom(authorizedPublicKeyBytes)))
-                .build().toByteArray();
+                .build().toByteArray());
     }
 
     @Override
@@ -18,14 +18,18 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.AddDataRequest;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
 import bisq.security.DigestUtil;
 import bisq.security.SignatureUtil;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
@@ -37,7 +41,7 @@ import java.util.Optional;
 
 @Slf4j
 @Getter
-public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
+public final class AddMailboxRequest implements MailboxRequest, AddDataRequest, MemoizedProto {
 
     public static AddMailboxRequest from(MailboxData mailboxData,
                                          KeyPair senderKeyPair,
@@ -60,6 +64,8 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
     private final byte[] signature;
     private final byte[] senderPublicKeyBytes;
     private final PublicKey senderPublicKey;
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     private AddMailboxRequest(MailboxSequentialData mailboxSequentialData,
                               byte[] signature,
@@ -130,7 +136,7 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
 
     public boolean isSignatureInvalid() {
         try {
-            return !SignatureUtil.verify(mailboxSequentialData.serializeForHash(), signature, getOwnerPublicKey());
+            return !VerifiedSignatureCache.SHARED.verify(mailboxSequentialData.serializeForHash(), signature, getOwnerPublicKey());
         } catch (Exception e) {
             log.warn(e.toString(), e);
             return true;
@@ -23,6 +23,7 @@ import bisq.common.formatter.DataSizeFormatter;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
 import bisq.network.p2p.services.data.storage.DataStorageService;
 import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
 import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
 import bisq.persistence.PersistenceService;
@@ -53,8 +54,9 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     public MailboxDataStorageService(PersistenceService persistenceService,
                                      PruneExpiredEntriesService pruneExpiredEntriesService,
                                      String storeName,
-                                     String storeKey) {
-        super(persistenceService, storeName, storeKey);
+                                     String storeKey,
+                                     DataStorePersistenceMode persistenceMode) {
+        super(persistenceService, storeName, storeKey, persistenceMode);
         pruneExpiredEntriesService.addTask(this::pruneExpired);
     }
 
@@ -18,11 +18,14 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
 import bisq.common.proto.NetworkProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
+import lombok.ToString;
 
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
@@ -31,7 +34,7 @@ import java.util.Date;
 import java.util.Objects;
 
 @Getter
-public final class MailboxSequentialData implements NetworkProto {
+public final class MailboxSequentialData implements NetworkProto, MemoizedProto {
     private final MailboxData mailboxData;
     private final byte[] senderPublicKeyHash;
     private final byte[] receiversPublicKeyHash;
@@ -40,6 +43,8 @@ public final class MailboxSequentialData implements NetworkProto {
     private final int sequenceNumber;
     // transient fields are excluded by default for EqualsAndHashCode
     private transient final PublicKey receiversPubKey;
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     public MailboxSequentialData(MailboxData mailboxData,
                                  byte[] senderPublicKeyHash,
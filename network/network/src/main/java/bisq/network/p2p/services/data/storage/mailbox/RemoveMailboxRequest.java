@@ -19,16 +19,20 @@ package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.annotation.ExcludeForHash;
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.VerifiedSignatureCache;
 import bisq.security.DigestUtil;
 import bisq.security.SignatureUtil;
 import bisq.security.keys.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.GeneralSecurityException;
@@ -42,7 +46,7 @@ import java.util.Optional;
 // Data size about 200-250 bytes
 @Slf4j
 @Getter
-public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataRequest {
+public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataRequest, MemoizedProto {
     private static final int VERSION = 1;
 
     public static RemoveMailboxRequest from(MailboxData mailboxData, KeyPair receiverKeyPair)
@@ -73,6 +77,8 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
     private transient PublicKey receiverPublicKey;
     @Setter
     private transient Optional<MetaData> metaDataFromDistributedData = Optional.empty();
+    @ToString.Exclude
+    private final transient ProtoMemo protoMemo = new ProtoMemo();
 
     // Receiver is owner for remove request
     private RemoveMailboxRequest(int version,
@@ -168,7 +174,7 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
             if (receiverPublicKey == null) {
                 receiverPublicKey = KeyGeneration.generatePublic(receiverPublicKeyBytes);
             }
-            return !SignatureUtil.verify(hash, signature, receiverPublicKey);
+            return !VerifiedSignatureCache.SHARED.verify(hash, signature, receiverPublicKey);
         } catch (Exception e) {
             return true;
         }
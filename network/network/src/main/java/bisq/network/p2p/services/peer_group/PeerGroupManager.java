@@ -214,6 +214,7 @@ public class PeerGroupManager implements Node.Listener {
 
     @Override
     public void onDisconnect(Connection connection, CloseReason closeReason) {
+        peerGroupService.onConnectionClosed(connection);
         maybeCreateConnectionsScheduler.ifPresent(Scheduler::shutdownNow);
         maybeCreateConnectionsScheduler = Optional.of(Scheduler.run(this::maybeCreateConnections)
                 .host(this)
@@ -301,6 +302,7 @@ public class PeerGroupManager implements Node.Listener {
             maybeCreateConnections();
             maybeRemoveReportedPeers();
             maybeRemovePersistedPeers();
+            peerGroupService.removeUnusedPeerQualities();
         } catch (InterruptedException e) {
             log.warn("Thread got interrupted at doHouseKeeping method", e);
             Thread.currentThread().interrupt(); // Restore interrupted state
@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -180,6 +181,11 @@ public class PeerGroupService extends RateLimitedPersistenceClient<PeerGroupStor
     public void removePersistedPeers(Collection<Peer> peers) {
         Map<Address, Peer> persistedPeersById = getPersistedPeersByAddress();
         peers.forEach(peer -> persistedPeersById.remove(peer.getAddress()));
+        // We keep the stats of the seed nodes as those never get persisted as peers
+        peers.stream()
+                .map(Peer::getAddress)
+                .filter(address -> !isSeed(address))
+                .forEach(getPeerQualityByAddress()::remove);
         if (!peers.isEmpty()) {
             persist();
         }
@@ -191,6 +197,56 @@ public class PeerGroupService extends RateLimitedPersistenceClient<PeerGroupStor
     }
 
 
+    /* --------------------------------------------------------------------- */
+    // Peer quality
+    /* --------------------------------------------------------------------- */
+
+    public Optional<PeerQuality> findPeerQuality(Address address) {
+        return Optional.ofNullable(getPeerQualityByAddress().get(address));
+    }
+
+    public double getPeerQualityScore(Address address, long now) {
+        return findPeerQuality(address)
+                .orElseGet(() -> new PeerQuality(address))
+                .getScore(now);
+    }
+
+    /**
+     * @param duration Time for creating the outbound connection including the handshake
+     */
+    public void onConnectionAttempt(Address address, boolean success, long duration) {
+        long now = System.currentTimeMillis();
+        getPeerQualityByAddress().compute(address, (key, peerQuality) ->
+                (peerQuality != null ? peerQuality : new PeerQuality(address)).withConnectionAttempt(success, duration, now));
+        persist();
+    }
+
+    public void onConnectionClosed(Connection connection) {
+        long now = System.currentTimeMillis();
+        long rtt = Math.round(connection.getConnectionMetrics().getAverageRtt());
+        Address address = connection.getPeerAddress();
+        getPeerQualityByAddress().compute(address, (key, peerQuality) ->
+                (peerQuality != null ? peerQuality : new PeerQuality(address)).withRtt(rtt, now));
+        persist();
+    }
+
+    /**
+     * Removes the stats of peers which are neither persisted nor seed nodes, like those from inbound connections.
+     */
+    public void removeUnusedPeerQualities() {
+        Map<Address, Peer> persistedPeersByAddress = getPersistedPeersByAddress();
+        boolean wasRemoved = getPeerQualityByAddress().keySet()
+                .removeIf(address -> !persistedPeersByAddress.containsKey(address) && !isSeed(address));
+        if (wasRemoved) {
+            persist();
+        }
+    }
+
+    private Map<Address, PeerQuality> getPeerQualityByAddress() {
+        return persistableStore.getPeerQualityByAddress();
+    }
+
+
     /* --------------------------------------------------------------------- */
     // Reported peers
     /* --------------------------------------------------------------------- */
@@ -36,9 +36,12 @@ import java.util.stream.Collectors;
 final class PeerGroupStore implements PersistableStore<PeerGroupStore> {
     @Getter(AccessLevel.PACKAGE)
     private final Map<Address, Peer> persistedPeersByAddress = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.PACKAGE)
+    private final Map<Address, PeerQuality> peerQualityByAddress = new ConcurrentHashMap<>();
 
-    private PeerGroupStore(Map<Address, Peer> persistedPeersByAddress) {
+    private PeerGroupStore(Map<Address, Peer> persistedPeersByAddress, Map<Address, PeerQuality> peerQualityByAddress) {
         this.persistedPeersByAddress.putAll(persistedPeersByAddress);
+        this.peerQualityByAddress.putAll(peerQualityByAddress);
     }
 
     @Override
@@ -48,16 +51,23 @@ final class PeerGroupStore implements PersistableStore<PeerGroupStore> {
 
     @Override
     public bisq.network.protobuf.PeerGroupStore.Builder getBuilder(boolean serializeForHash) {
-        return bisq.network.protobuf.PeerGroupStore.newBuilder().addAllPersistedPeers(persistedPeersByAddress.values().stream()
-                .map(peer -> peer.toProto(serializeForHash))
-                .collect(Collectors.toSet()));
+        return bisq.network.protobuf.PeerGroupStore.newBuilder()
+                .addAllPersistedPeers(persistedPeersByAddress.values().stream()
+                        .map(peer -> peer.toProto(serializeForHash))
+                        .collect(Collectors.toSet()))
+                .addAllPeerQualities(peerQualityByAddress.values().stream()
+                        .map(peerQuality -> peerQuality.toProto(serializeForHash))
+                        .collect(Collectors.toSet()));
     }
 
     public static PeerGroupStore fromProto(bisq.network.protobuf.PeerGroupStore proto) {
         Map<Address, Peer> persistedPeersById = proto.getPersistedPeersList().stream()
                 .map(Peer::fromProto)
                 .collect(Collectors.toMap(Peer::getAddress, e -> e));
-        return new PeerGroupStore(persistedPeersById);
+        Map<Address, PeerQuality> peerQualityByAddress = proto.getPeerQualitiesList().stream()
+                .map(PeerQuality::fromProto)
+                .collect(Collectors.toMap(PeerQuality::getAddress, e -> e, (e1, e2) -> e1));
+        return new PeerGroupStore(persistedPeersById, peerQualityByAddress);
     }
 
     @Override
@@ -73,12 +83,14 @@ final class PeerGroupStore implements PersistableStore<PeerGroupStore> {
 
     @Override
     public PeerGroupStore getClone() {
-        return new PeerGroupStore(Map.copyOf(persistedPeersByAddress));
+        return new PeerGroupStore(Map.copyOf(persistedPeersByAddress), Map.copyOf(peerQualityByAddress));
     }
 
     @Override
     public void applyPersisted(PeerGroupStore persisted) {
         persistedPeersByAddress.clear();
         persistedPeersByAddress.putAll(persisted.getPersistedPeersByAddress());
+        peerQualityByAddress.clear();
+        peerQualityByAddress.putAll(persisted.getPeerQualityByAddress());
     }
 }
\ No newline at end of file
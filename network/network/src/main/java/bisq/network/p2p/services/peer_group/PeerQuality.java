@@ -0,0 +1,150 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.peer_group;
+
+import bisq.common.network.Address;
+import bisq.common.proto.PersistableProto;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection statistics we collected about a peer. Used for dialing the most reliable and fastest peers first at
+ * bootstrap. Those are only used locally and not shared with other peers.
+ * <p>
+ * The counters get halved once MAX_NUM_CONNECTION_ATTEMPTS is reached, so that old results fade out and a peer which
+ * was offline for a while can recover. Latencies are exponential moving averages.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class PeerQuality implements PersistableProto {
+    private static final int MAX_NUM_CONNECTION_ATTEMPTS = 20;
+    // Latency at which the latency factor of the score is 0.5. Tor connections take typically 2-20 sec.
+    private static final long REFERENCE_HANDSHAKE_LATENCY = TimeUnit.SECONDS.toMillis(10);
+    private static final long REFERENCE_RTT = TimeUnit.SECONDS.toMillis(2);
+    // Age of lastSeen at which the recency factor of the score is 0.5
+    private static final long REFERENCE_AGE = TimeUnit.DAYS.toMillis(1);
+
+    private final Address address;
+    private final int numConnectionAttempts;
+    private final int numSuccessfulConnectionAttempts;
+    // 0 if not known
+    private final long handshakeLatency;
+    // 0 if not known
+    private final long averageRtt;
+    // 0 if never seen
+    private final long lastSeen;
+
+    public PeerQuality(Address address) {
+        this(address, 0, 0, 0, 0, 0);
+    }
+
+    public PeerQuality(Address address,
+                       int numConnectionAttempts,
+                       int numSuccessfulConnectionAttempts,
+                       long handshakeLatency,
+                       long averageRtt,
+                       long lastSeen) {
+        this.address = address;
+        this.numConnectionAttempts = numConnectionAttempts;
+        this.numSuccessfulConnectionAttempts = numSuccessfulConnectionAttempts;
+        this.handshakeLatency = handshakeLatency;
+        this.averageRtt = averageRtt;
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public bisq.network.protobuf.PeerQuality toProto(boolean serializeForHash) {
+        return unsafeToProto(serializeForHash);
+    }
+
+    @Override
+    public bisq.network.protobuf.PeerQuality.Builder getBuilder(boolean serializeForHash) {
+        return bisq.network.protobuf.PeerQuality.newBuilder()
+                .setAddress(address.toProto(serializeForHash))
+                .setNumConnectionAttempts(numConnectionAttempts)
+                .setNumSuccessfulConnectionAttempts(numSuccessfulConnectionAttempts)
+                .setHandshakeLatency(handshakeLatency)
+                .setAverageRtt(averageRtt)
+                .setLastSeen(lastSeen);
+    }
+
+    public static PeerQuality fromProto(bisq.network.protobuf.PeerQuality proto) {
+        return new PeerQuality(Address.fromProto(proto.getAddress()),
+                proto.getNumConnectionAttempts(),
+                proto.getNumSuccessfulConnectionAttempts(),
+                proto.getHandshakeLatency(),
+                proto.getAverageRtt(),
+                proto.getLastSeen());
+    }
+
+    /**
+     * @param handshakeLatency Time for creating the connection including the handshake. Ignored if not successful.
+     */
+    public PeerQuality withConnectionAttempt(boolean success, long handshakeLatency, long now) {
+        int numAttempts = numConnectionAttempts + 1;
+        int numSuccesses = numSuccessfulConnectionAttempts + (success ? 1 : 0);
+        if (numAttempts > MAX_NUM_CONNECTION_ATTEMPTS) {
+            numAttempts /= 2;
+            numSuccesses /= 2;
+        }
+        return new PeerQuality(address,
+                numAttempts,
+                numSuccesses,
+                success ? movingAverage(this.handshakeLatency, handshakeLatency) : this.handshakeLatency,
+                averageRtt,
+                success ? now : lastSeen);
+    }
+
+    public PeerQuality withRtt(long rtt, long now) {
+        return new PeerQuality(address,
+                numConnectionAttempts,
+                numSuccessfulConnectionAttempts,
+                handshakeLatency,
+                rtt > 0 ? movingAverage(averageRtt, rtt) : averageRtt,
+                now);
+    }
+
+    /**
+     * @return A score in the range 0 - 1, higher is better. It is the product of the success rate and factors for the
+     * handshake latency, the RTT and how recently we have seen the peer. For unknown values we use the value of the
+     * reference, so an unknown peer is ranked after peers which have been reliable and fast, but before peers which
+     * failed repeatedly.
+     */
+    public double getScore(long now) {
+        // Laplace smoothing gives 0.5 for a peer we never tried
+        double successRate = (numSuccessfulConnectionAttempts + 1d) / (numConnectionAttempts + 2d);
+        double handshakeLatencyFactor = getFactor(handshakeLatency > 0 ? handshakeLatency : REFERENCE_HANDSHAKE_LATENCY,
+                REFERENCE_HANDSHAKE_LATENCY);
+        double rttFactor = getFactor(averageRtt > 0 ? averageRtt : REFERENCE_RTT, REFERENCE_RTT);
+        double recencyFactor = getFactor(lastSeen > 0 ? Math.max(0, now - lastSeen) : REFERENCE_AGE, REFERENCE_AGE);
+        return successRate * handshakeLatencyFactor * rttFactor * recencyFactor;
+    }
+
+    // 1 for value 0 and 0.5 if value is the reference
+    private static double getFactor(long value, long reference) {
+        return reference / (double) (reference + value);
+    }
+
+    private static long movingAverage(long average, long value) {
+        return average > 0 ? (average + value) / 2 : value;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.peer_group.exchange;
+
+import bisq.common.network.Address;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Runs the peer exchange requests for a list of candidates in the given order with at most maxParallelRequests
+ * requests at a time. Once isCompleted returns true, the not yet started candidates are skipped and the pending
+ * requests get cancelled, so that slow peers (e.g. offline onion services) do not delay the bootstrap. Cancelling a
+ * request aborts its pending outbound connection attempt: the transport's connect itself cannot be interrupted, but
+ * the socket gets closed once available, so no handshake is done and no connection is added.
+ */
+@Slf4j
+class PeerExchangeBatch {
+    private final Queue<Address> candidates;
+    private final int maxParallelRequests;
+    private final Function<Address, CompletableFuture<PeerExchangeResponse>> requestFunction;
+    private final BiConsumer<PeerExchangeResponse, Throwable> resultHandler;
+    private final BooleanSupplier isCompleted;
+    private final Set<CompletableFuture<PeerExchangeResponse>> pendingRequests = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger numUnfinished;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * @param resultHandler Gets called with the result of each request. Cancelled requests are not reported.
+     */
+    PeerExchangeBatch(List<Address> candidates,
+                      int maxParallelRequests,
+                      Function<Address, CompletableFuture<PeerExchangeResponse>> requestFunction,
+                      BiConsumer<PeerExchangeResponse, Throwable> resultHandler,
+                      BooleanSupplier isCompleted) {
+        this.candidates = new ConcurrentLinkedQueue<>(candidates);
+        this.maxParallelRequests = Math.max(1, maxParallelRequests);
+        this.requestFunction = requestFunction;
+        this.resultHandler = resultHandler;
+        this.isCompleted = isCompleted;
+        numUnfinished = new AtomicInteger(candidates.size());
+    }
+
+    /**
+     * @return The configured max. parallel requests, raised if needed so that all candidates get requested within
+     * the batch timeout even if each request runs into the request timeout.
+     */
+    static int getNumParallelRequests(int maxParallelRequests, int numCandidates, long batchTimeout, long requestTimeout) {
+        long numRounds = Math.max(1, batchTimeout / requestTimeout);
+        int requiredParallelRequests = (int) ((numCandidates + numRounds - 1) / numRounds);
+        return Math.max(maxParallelRequests, requiredParallelRequests);
+    }
+
+    /**
+     * @return A future which completes once all candidates have been processed or skipped.
+     */
+    CompletableFuture<Void> start() {
+        if (candidates.isEmpty()) {
+            future.complete(null);
+            return future;
+        }
+        for (int i = 0; i < maxParallelRequests; i++) {
+            requestNext();
+        }
+        return future;
+    }
+
+    void cancel() {
+        Address skipped;
+        while ((skipped = candidates.poll()) != null) {
+            log.debug("Skip peer exchange with {}", skipped);
+            onFinished();
+        }
+        pendingRequests.forEach(request -> request.cancel(true));
+    }
+
+    private void requestNext() {
+        Address address = candidates.poll();
+        if (address == null) {
+            return;
+        }
+        CompletableFuture<PeerExchangeResponse> request;
+        try {
+            request = requestFunction.apply(address);
+        } catch (Exception e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        pendingRequests.add(request);
+        CompletableFuture<PeerExchangeResponse> finalRequest = request;
+        request.whenComplete((response, throwable) -> {
+            pendingRequests.remove(finalRequest);
+            if (!finalRequest.isCancelled()) {
+                resultHandler.accept(response, throwable);
+            }
+            if (isCompleted.getAsBoolean()) {
+                cancel();
+            }
+            onFinished();
+            requestNext();
+        });
+    }
+
+    private void onFinished() {
+        if (numUnfinished.decrementAndGet() == 0) {
+            future.complete(null);
+        }
+    }
+}
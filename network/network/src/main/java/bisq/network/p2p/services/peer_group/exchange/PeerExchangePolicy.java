@@ -25,6 +25,7 @@ import bisq.network.p2p.services.peer_group.PeerGroupService;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -220,10 +221,13 @@ class PeerExchangePolicy {
     // Private
     /* --------------------------------------------------------------------- */
 
+    // The candidates are sorted by the peer quality score. Candidates with the same score (e.g. unknown peers) keep
+    // the order of the priority list.
     private List<Address> getCandidates(List<Address> priorityList) {
         return priorityList.stream()
                 .filter(this::isNotUsed)
                 .distinct()
+                .sorted(comparingByPeerQuality())
                 .limit(getPeerExchangeLimit())
                 .collect(Collectors.toList());
     }
@@ -280,10 +284,11 @@ class PeerExchangePolicy {
     }
 
     private List<Address> getPersistedAddresses() {
+        Comparator<Address> comparingByPeerQuality = comparingByPeerQuality();
         return peerGroupService.getPersistedPeers().stream()
                 .filter(this::isValidNonSeedPeer)
                 .filter(this::isNotOutDated)
-                .sorted()
+                .sorted(Comparator.comparing(Peer::getAddress, comparingByPeerQuality).thenComparing(Comparator.naturalOrder()))
                 .limit(config.getNumPersistedPeersAtBootstrap())
                 .map(Peer::getAddress)
                 .collect(Collectors.toList());
@@ -299,6 +304,12 @@ class PeerExchangePolicy {
     // Utils
     /* --------------------------------------------------------------------- */
 
+    // Descending score
+    private Comparator<Address> comparingByPeerQuality() {
+        long now = System.currentTimeMillis();
+        return Comparator.comparingDouble((Address address) -> peerGroupService.getPeerQualityScore(address, now)).reversed();
+    }
+
     private boolean notASeed(Address address) {
         return !peerGroupService.isSeed(address);
     }
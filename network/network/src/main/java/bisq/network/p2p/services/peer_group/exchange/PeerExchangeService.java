@@ -20,7 +20,6 @@ package bisq.network.p2p.services.peer_group.exchange;
 import bisq.common.network.Address;
 import bisq.common.threading.ExecutorFactory;
 import bisq.common.timer.Delay;
-import bisq.common.util.CompletableFutureUtils;
 import bisq.network.p2p.common.RequestResponseHandler;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
@@ -34,13 +33,17 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Slf4j
 public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequest, PeerExchangeResponse> {
     private static final long TIMEOUT = SECONDS.toMillis(30);
+    // A dial to a dead onion address can take minutes until Tor gives up. We give each attempt (connection and
+    // request) only a third of the batch timeout, so that a few dead candidates cannot stall the whole batch.
+    private static final long BATCH_TIMEOUT = SECONDS.toMillis(90);
+    private static final long CONNECTION_ATTEMPT_TIMEOUT = BATCH_TIMEOUT / 3;
 
     @Getter
     public static class Config {
@@ -48,15 +51,18 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
         private final int numPersistedPeersAtBootstrap;
         private final int numReportedPeersAtBootstrap;
         private final boolean supportPeerReporting;
+        private final int maxParallelConnectionAttempts;
 
         public Config(int numSeedNodesAtBootstrap,
                       int numPersistedPeersAtBootstrap,
                       int numReportedPeersAtBootstrap,
-                      boolean supportPeerReporting) {
+                      boolean supportPeerReporting,
+                      int maxParallelConnectionAttempts) {
             this.numSeedNodesAtBootstrap = numSeedNodesAtBootstrap;
             this.numPersistedPeersAtBootstrap = numPersistedPeersAtBootstrap;
             this.numReportedPeersAtBootstrap = numReportedPeersAtBootstrap;
             this.supportPeerReporting = supportPeerReporting;
+            this.maxParallelConnectionAttempts = maxParallelConnectionAttempts;
         }
 
         public static Config from(com.typesafe.config.Config typesafeConfig) {
@@ -64,12 +70,14 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
                     typesafeConfig.getInt("numSeedNodesAtBootstrap"),
                     typesafeConfig.getInt("numPersistedPeersAtBootstrap"),
                     typesafeConfig.getInt("numReportedPeersAtBootstrap"),
-                    typesafeConfig.getBoolean("supportPeerReporting"));
+                    typesafeConfig.getBoolean("supportPeerReporting"),
+                    typesafeConfig.getInt("maxParallelConnectionAttempts"));
         }
     }
 
     private ExecutorService executor;
     private final PeerGroupService peerGroupService;
+    private final Config config;
     private final PeerExchangePolicy policy;
     private final AtomicInteger numRetryAttempts = new AtomicInteger();
     private volatile boolean isShutdownInProgress;
@@ -81,6 +89,7 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
         super(node, TIMEOUT);
 
         this.peerGroupService = peerGroupService;
+        this.config = config;
 
         policy = new PeerExchangePolicy(peerGroupService, node, config, peerGroupConfig);
     }
@@ -160,22 +169,29 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
 
         CompletableFuture<Boolean> resultFuture = new CompletableFuture<>();
         BatchedPeerExchangePolicy batchedPeerExchangePolicy = new BatchedPeerExchangePolicy(peerGroupService, node, minSuccess, candidates.size());
-        Stream<CompletableFuture<PeerExchangeResponse>> futures = candidates.stream()
-                .map(address -> {
-                    CompletableFuture<PeerExchangeResponse> requestFuture = requestPeerExchange(address);
-                    return requestFuture
-                            .whenComplete((response, throwable) -> {
-                                batchedPeerExchangePolicy.trackSuccess(throwable);
-                                if (batchedPeerExchangePolicy.wasMinSuccessReached()) {
-                                    resultFuture.complete(true);
-                                }
-                            });
-                });
+        // The candidates are sorted by their peer quality score, so we dial the best candidates first. Once we have
+        // sufficient connections we skip the remaining candidates and cancel the pending connection attempts.
+        PeerExchangeBatch batch = new PeerExchangeBatch(candidates,
+                PeerExchangeBatch.getNumParallelRequests(config.getMaxParallelConnectionAttempts(),
+                        candidates.size(),
+                        BATCH_TIMEOUT,
+                        CONNECTION_ATTEMPT_TIMEOUT),
+                this::requestPeerExchange,
+                (response, throwable) -> {
+                    batchedPeerExchangePolicy.trackSuccess(throwable);
+                    if (batchedPeerExchangePolicy.wasMinSuccessReached()) {
+                        resultFuture.complete(true);
+                    }
+                },
+                () -> batchedPeerExchangePolicy.wasMinSuccessReached() &&
+                        node.getNumConnections() >= peerGroupService.getMinNumConnectedPeers());
 
-        int timeout = 90;
-        CompletableFutureUtils.failureTolerantAllOf(futures)
-                .orTimeout(timeout, SECONDS)
+        batch.start()
+                .orTimeout(BATCH_TIMEOUT, MILLISECONDS)
                 .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        batch.cancel();
+                    }
                     if (doRetryIfNeeded) {
                         if (batchedPeerExchangePolicy.requiresRetry(throwable)) {
                             retryPeerExchangeWithDelay();
@@ -183,7 +199,7 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
                     }
                     if (throwable != null && !resultFuture.isDone()) {
                         String errorMessage = throwable instanceof TimeoutException ?
-                                "TimeoutException. doBatchedPeerExchange did not complete after " + timeout + " sec." :
+                                "TimeoutException. doBatchedPeerExchange did not complete after " + BATCH_TIMEOUT / 1000 + " sec." :
                                 throwable.getClass().getSimpleName() + ": doBatchedPeerExchange failed.";
                         log.warn(errorMessage);
                         if (!isShutdownInProgress) {
@@ -222,8 +238,25 @@ public class PeerExchangeService extends RequestResponseHandler<PeerExchangeRequ
     }
 
     private CompletableFuture<PeerExchangeResponse> requestPeerExchange(Address peerAddress) {
-        return node.getOrCreateConnectionAsync(peerAddress)
-                .thenCompose(this::requestPeerExchange);
+        boolean isNewConnection = !node.hasConnection(peerAddress);
+        long ts = System.currentTimeMillis();
+        CompletableFuture<Connection> connectionFuture = node.getOrCreateConnectionAsync(peerAddress);
+        CompletableFuture<PeerExchangeResponse> future = connectionFuture
+                .whenComplete((connection, throwable) -> {
+                    if (isNewConnection) {
+                        peerGroupService.onConnectionAttempt(peerAddress, throwable == null, System.currentTimeMillis() - ts);
+                    }
+                })
+                .thenCompose(this::requestPeerExchange)
+                .orTimeout(CONNECTION_ATTEMPT_TIMEOUT, MILLISECONDS);
+        // Cancelling or timing out the dependent future does not cancel the connection future, so we do it to abort
+        // a pending dial.
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled() || throwable instanceof TimeoutException) {
+                connectionFuture.cancel(true);
+            }
+        });
+        return future;
     }
 
     private CompletableFuture<PeerExchangeResponse> requestPeerExchange(Connection connection) {
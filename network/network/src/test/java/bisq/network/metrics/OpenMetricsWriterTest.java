@@ -0,0 +1,51 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OpenMetricsWriterTest {
+    @Test
+    public void writesFamiliesAndSamples() {
+        String result = new OpenMetricsWriter()
+                .counter("bisq_sent_bytes", "Sent bytes")
+                .sample(1024, "peer", "a\"b\\c\nd")
+                .gauge("bisq_rtt_seconds", "Average round trip time")
+                .sample(0.25)
+                .finish();
+        assertThat(result).isEqualTo("# TYPE bisq_sent_bytes counter\n" +
+                "# HELP bisq_sent_bytes Sent bytes\n" +
+                "bisq_sent_bytes_total{peer=\"a\\\"b\\\\c\\nd\"} 1024\n" +
+                "# TYPE bisq_rtt_seconds gauge\n" +
+                "# HELP bisq_rtt_seconds Average round trip time\n" +
+                "bisq_rtt_seconds 0.25\n" +
+                "# EOF\n");
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        assertThatThrownBy(() -> writer.sample(1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> writer.gauge("bisq-load", "Invalid name")).isInstanceOf(IllegalArgumentException.class);
+        writer.gauge("bisq_load", "Load");
+        assertThatThrownBy(() -> writer.sample(1, "transport")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
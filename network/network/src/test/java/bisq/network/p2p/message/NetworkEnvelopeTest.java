@@ -0,0 +1,126 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.message;
+
+import bisq.common.application.ApplicationVersion;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.network.p2p.node.Capability;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2Token;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.services.peer_group.Peer;
+import bisq.network.p2p.services.peer_group.exchange.PeerExchangeRequest;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.ProofOfWork;
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkEnvelopeTest {
+    @Test
+    public void testSerializedEnvelopePayloadMessageResultsInSameBytes() throws IOException {
+        SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage = new SerializedEnvelopePayloadMessage(new Ping(42));
+        // version 0 is the default value and is not written
+        for (int version : new int[]{0, 1}) {
+            HashCashV2Token token = createToken(7);
+            NetworkEnvelope expected = new NetworkEnvelope(version, token, serializedEnvelopePayloadMessage.getEnvelopePayloadMessage());
+            NetworkEnvelope.setNetworkVersion(version);
+            NetworkEnvelope networkEnvelope = new NetworkEnvelope(token, serializedEnvelopePayloadMessage);
+
+            byte[] expectedBytes = expected.completeProto().toByteArray();
+            assertThat(networkEnvelope.getSerializedSize()).isEqualTo(expectedBytes.length);
+            assertThat(toByteArray(networkEnvelope)).isEqualTo(expectedBytes);
+            assertThat(networkEnvelope.completeProto().toByteArray()).isEqualTo(expectedBytes);
+            // AuthorizationToken has no value based equals, so we compare the payload and the serialized form
+            NetworkEnvelope received = NetworkEnvelope.fromProto(bisq.network.protobuf.NetworkEnvelope.parseFrom(expectedBytes));
+            assertThat(received.getEnvelopePayloadMessage()).isEqualTo(networkEnvelope.getEnvelopePayloadMessage());
+            assertThat(received.completeProto().toByteArray()).isEqualTo(expectedBytes);
+        }
+        NetworkEnvelope.setNetworkVersion(0);
+    }
+
+    @Test
+    public void testSerializedEnvelopePayloadMessageIsReused() {
+        SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage = new SerializedEnvelopePayloadMessage(new Ping(42));
+        assertThat(serializedEnvelopePayloadMessage.getSerialized())
+                .isSameAs(serializedEnvelopePayloadMessage.getSerialized());
+        assertThat(serializedEnvelopePayloadMessage.getHashOfSerializedForHash())
+                .isSameAs(serializedEnvelopePayloadMessage.getHashOfSerializedForHash());
+        assertThat(serializedEnvelopePayloadMessage.getSerializedForHash())
+                .isEqualTo(serializedEnvelopePayloadMessage.getEnvelopePayloadMessage().serializeForHash());
+    }
+
+    @Test
+    public void testCompressedNetworkMessage() throws IOException {
+        int numPeers = 300;
+        PeerExchangeRequest.setMaxNumPeers(numPeers);
+        List<Peer> peers = IntStream.range(0, numPeers)
+                .mapToObj(i -> new Peer(new Capability(Capability.VERSION,
+                        LocalHostAddressTypeFacade.toLocalHostAddress(10000 + i),
+                        new ArrayList<>(List.of(TransportType.CLEAR)),
+                        new ArrayList<>(List.of(Feature.INVENTORY_HASH_SET, Feature.AUTHORIZATION_HASH_CASH_V2)),
+                        ApplicationVersion.getVersion().getVersionAsString()),
+                        new NetworkLoad(),
+                        true,
+                        System.currentTimeMillis()))
+                .collect(Collectors.toList());
+        SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage =
+                new SerializedEnvelopePayloadMessage(new PeerExchangeRequest(1, peers));
+        HashCashV2Token token = createToken(7);
+        NetworkEnvelope uncompressed = new NetworkEnvelope(token, serializedEnvelopePayloadMessage);
+        NetworkEnvelope compressed = new NetworkEnvelope(token, serializedEnvelopePayloadMessage, true);
+
+        assertThat(compressed.isCompressed()).isTrue();
+        assertThat(compressed.getSerializedSize()).isLessThan(uncompressed.getSerializedSize() / 2);
+        assertThat(compressed.getUncompressedSerializedSize()).isEqualTo(uncompressed.getSerializedSize());
+
+        byte[] bytes = toByteArray(compressed);
+        assertThat(compressed.completeProto().toByteArray()).isEqualTo(bytes);
+        NetworkEnvelope received = NetworkEnvelope.fromProto(bisq.network.protobuf.NetworkEnvelope.parseFrom(bytes));
+        assertThat(received.getEnvelopePayloadMessage()).isEqualTo(uncompressed.getEnvelopePayloadMessage());
+        assertThat(received.isCompressed()).isTrue();
+        assertThat(received.getSerializedSize()).isEqualTo(bytes.length);
+        assertThat(received.getUncompressedSerializedSize()).isEqualTo(uncompressed.getSerializedSize());
+
+        // Small messages are not compressed
+        NetworkEnvelope ping = new NetworkEnvelope(token, new SerializedEnvelopePayloadMessage(new Ping(42)), true);
+        assertThat(ping.isCompressed()).isFalse();
+    }
+
+    private static byte[] toByteArray(NetworkEnvelope networkEnvelope) throws IOException {
+        byte[] bytes = new byte[networkEnvelope.getSerializedSize()];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+        networkEnvelope.writeTo(codedOutputStream);
+        codedOutputStream.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private static HashCashV2Token createToken(int messageCounter) {
+        // The token is never verified here, so dummy arrays are sufficient.
+        ProofOfWork proofOfWork = new ProofOfWork(new byte[20], 0, null, 0, new byte[72], 0);
+        return new HashCashV2Token(proofOfWork, messageCounter);
+    }
+}
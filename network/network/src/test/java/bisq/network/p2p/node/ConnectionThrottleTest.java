@@ -0,0 +1,195 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.application.ApplicationVersion;
+import bisq.common.network.Address;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.network_load.ConnectionMetrics;
+import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionThrottleTest {
+    @Test
+    public void testBurstThenDelay() {
+        ConnectionThrottle.TokenBucket tokenBucket = new ConnectionThrottle.TokenBucket(2, Integer.MAX_VALUE);
+        long now = 1_000_000;
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(0);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(0);
+        // Bucket is empty, so the next callers get queued behind each other
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(100);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(200);
+
+        // After the debt is paid back and one interval passed we get a token again
+        assertThat(tokenBucket.reserve(now + 300, 100)).isEqualTo(0);
+    }
+
+    @Test
+    public void testBurstLargerThanCapacityAndRefillIsSpacedOut() {
+        int capacity = 5;
+        long refillInterval = 100;
+        ConnectionThrottle.TokenBucket tokenBucket = new ConnectionThrottle.TokenBucket(capacity, Integer.MAX_VALUE);
+        long now = 1_000_000;
+        // More than the capacity plus the refill of 1 sec
+        int numMessages = capacity + 2 * (int) (1000 / refillInterval);
+        long previousReleaseTs = 0;
+        for (int i = 0; i < numMessages; i++) {
+            long releaseTs = now + tokenBucket.reserve(now, refillInterval);
+            if (i < capacity) {
+                assertThat(releaseTs).isEqualTo(now);
+            } else {
+                assertThat(releaseTs - previousReleaseTs).isEqualTo(refillInterval);
+            }
+            previousReleaseTs = releaseTs;
+        }
+        assertThat(previousReleaseTs - now).isEqualTo((numMessages - capacity) * refillInterval);
+    }
+
+    @Test
+    public void testDebtIsCapped() {
+        ConnectionThrottle.TokenBucket tokenBucket = new ConnectionThrottle.TokenBucket(2, 3);
+        long now = 1_000_000;
+        tokenBucket.reserve(now, 100);
+        tokenBucket.reserve(now, 100);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(100);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(200);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(300);
+        // Rejected callers do not take a token, so they do not delay the callers queued later
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(ConnectionThrottle.REJECTED);
+        assertThat(tokenBucket.reserve(now, 100)).isEqualTo(ConnectionThrottle.REJECTED);
+
+        // Once one token got refilled we can queue a caller again
+        assertThat(tokenBucket.reserve(now + 100, 100)).isEqualTo(300);
+    }
+
+    @Test
+    public void testReleaseTimesKeepOrderIfIntervalDecreases() {
+        ConnectionThrottle.TokenBucket tokenBucket = new ConnectionThrottle.TokenBucket(1, Integer.MAX_VALUE);
+        long now = 1_000_000;
+        tokenBucket.reserve(now, 500);
+        long first = now + tokenBucket.reserve(now, 500);
+        // Lower network load leads to a shorter refill interval
+        long second = now + 10 + tokenBucket.reserve(now + 10, 20);
+        assertThat(second).isGreaterThanOrEqualTo(first + 20);
+    }
+
+    @Test
+    public void floodingOneConnectionRejectsSendsBeyondMaxDeferredSends() throws Exception {
+        // Throttle time of 20 + 1800 * 0.1 (initial network load) ms, thus a token gets refilled every 20 ms
+        Node.Config config = new Node.Config(TransportType.CLEAR, Set.of(TransportType.CLEAR), Set.of(), null, 0, 1800, 1800, 1);
+        //noinspection deprecation
+        AuthorizationService authorizationService = new AuthorizationService(new AuthorizationService.Config(List.of(AuthorizationTokenType.HASH_CASH)),
+                new HashCashProofOfWorkService(),
+                new EquihashProofOfWorkService(),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH));
+        Connection.Handler handler = new Connection.Handler() {
+            @Override
+            public boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
+                                               AuthorizationToken authorizationToken,
+                                               Connection connection) {
+                return true;
+            }
+
+            @Override
+            public void handleNetworkMessage(EnvelopePayloadMessage envelopePayloadMessage, Connection connection) {
+            }
+
+            @Override
+            public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
+            }
+        };
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+             Socket peerSocket = serverSocket.accept()) {
+            // The peer only drains the received bytes
+            Thread drainThread = new Thread(() -> {
+                try (InputStream inputStream = peerSocket.getInputStream()) {
+                    inputStream.transferTo(OutputStream.nullOutputStream());
+                } catch (Exception ignore) {
+                }
+            });
+            drainThread.setDaemon(true);
+            drainThread.start();
+
+            Address peerAddress = LocalHostAddressTypeFacade.toLocalHostAddress(serverSocket.getLocalPort());
+            Capability peersCapability = new Capability(Capability.VERSION, peerAddress, new ArrayList<>(List.of(TransportType.CLEAR)),
+                    new ArrayList<>(), ApplicationVersion.getVersion().getVersionAsString());
+            Connection connection = new OutboundConnection(authorizationService,
+                    UUID.randomUUID().toString(),
+                    socket,
+                    peerAddress,
+                    peersCapability,
+                    new NetworkLoadSnapshot(),
+                    new ConnectionMetrics(),
+                    new ConnectionThrottle(new NetworkLoadSnapshot(), new NetworkLoadSnapshot(), config),
+                    false,
+                    handler,
+                    (c, exception) -> {
+                    });
+
+            int numMessages = 1000;
+            List<CompletableFuture<Connection>> accepted = new ArrayList<>();
+            int numRejected = 0;
+            long ts = System.currentTimeMillis();
+            for (int i = 0; i < numMessages; i++) {
+                CompletableFuture<Connection> future = connection.sendAsync(new Ping(i));
+                if (future.isCompletedExceptionally()) {
+                    assertThat(future.exceptionNow()).isInstanceOf(ConnectionException.class);
+                    numRejected++;
+                } else {
+                    accepted.add(future);
+                }
+            }
+            long floodDuration = System.currentTimeMillis() - ts;
+
+            // The burst, the deferred sends and the tokens refilled while flooding
+            assertThat(accepted.size()).isLessThanOrEqualTo(10 + ConnectionThrottle.MAX_DEFERRED_SENDS + (int) (floodDuration / 20) + 1);
+            assertThat(numRejected).isEqualTo(numMessages - accepted.size());
+            // The deferred sends are released one token after the other, thus the last one after about 2 sec.
+            CompletableFuture.allOf(accepted.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            // Once the debt is paid back we can send again
+            Thread.sleep(250);
+            connection.sendAsync(new Ping(numMessages)).get(10, TimeUnit.SECONDS);
+
+            connection.shutdown(CloseReason.SHUTDOWN);
+        }
+    }
+}
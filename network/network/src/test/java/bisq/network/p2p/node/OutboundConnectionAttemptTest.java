@@ -0,0 +1,58 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OutboundConnectionAttemptTest {
+    @Test
+    public void abortClosesCreatedSocket() {
+        OutboundConnectionAttempt attempt = new OutboundConnectionAttempt();
+        Socket socket = new Socket();
+        assertThat(attempt.onSocketCreated(socket)).isTrue();
+
+        attempt.abort();
+        assertThat(socket.isClosed()).isTrue();
+        assertThat(attempt.tryComplete()).isFalse();
+    }
+
+    @Test
+    public void socketCreatedAfterAbortGetsClosed() {
+        OutboundConnectionAttempt attempt = new OutboundConnectionAttempt();
+        attempt.abort();
+
+        Socket socket = new Socket();
+        assertThat(attempt.onSocketCreated(socket)).isFalse();
+        assertThat(socket.isClosed()).isTrue();
+    }
+
+    @Test
+    public void abortAfterCompletionKeepsSocketOpen() {
+        OutboundConnectionAttempt attempt = new OutboundConnectionAttempt();
+        Socket socket = new Socket();
+        assertThat(attempt.onSocketCreated(socket)).isTrue();
+        assertThat(attempt.tryComplete()).isTrue();
+
+        attempt.abort();
+        assertThat(socket.isClosed()).isFalse();
+        assertThat(attempt.isAborted()).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node.authorization;
+
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2TokenService;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthorizationTokenServiceTest {
+    private static final String MY_ADDRESS = "127.0.0.1:8000";
+    private static final String CONNECTION_ID = "connectionId";
+
+    private final HashCashV2TokenService tokenService = new HashCashV2TokenService(new HashCashProofOfWorkService());
+    private final NetworkLoad networkLoad = new NetworkLoad(0.5, 1);
+
+    @Test
+    void messagesOfUnknownConnectionAreNotAuthorized() {
+        assertFalse(isAuthorized(1));
+
+        tokenService.onConnect(CONNECTION_ID);
+        assertTrue(isAuthorized(1));
+    }
+
+    @Test
+    void verificationsAfterDisconnectDoNotRecreateReplayWindow() {
+        tokenService.onConnect(CONNECTION_ID);
+        assertTrue(isAuthorized(1));
+
+        tokenService.onDisconnect(CONNECTION_ID);
+        // A verification still in flight after the disconnect must not start with an empty replay window
+        assertFalse(isAuthorized(2));
+        assertFalse(isAuthorized(1));
+    }
+
+    @Test
+    void reconnectKeepsExistingReplayWindow() {
+        tokenService.onConnect(CONNECTION_ID);
+        assertTrue(isAuthorized(1));
+
+        // E.g. the Connection registers again after the handshake did
+        tokenService.onConnect(CONNECTION_ID);
+        assertFalse(isAuthorized(1));
+    }
+
+    private boolean isAuthorized(int messageCounter) {
+        Ping ping = new Ping(messageCounter);
+        AuthorizationToken token = tokenService.createToken(ping, networkLoad, MY_ADDRESS, messageCounter);
+        return tokenService.isAuthorized(ping, token, networkLoad, Optional.empty(), CONNECTION_ID, MY_ADDRESS);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import bisq.network.p2p.message.SerializedEnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2TokenService;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OutboundMintingStageTest {
+    private static final String PEER_ADDRESS = "127.0.0.1:8000";
+
+    private final NetworkLoad networkLoad = new NetworkLoad(0.5, 1);
+    private HashCashV2TokenService tokenService;
+    private OutboundMintingStage outboundMintingStage;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new HashCashV2TokenService(new HashCashProofOfWorkService());
+        tokenService.onConnect("connectionId");
+        outboundMintingStage = new OutboundMintingStage(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboundMintingStage.shutdown();
+    }
+
+    @Test
+    void tokensMintedAheadAreAuthorizedInAnyOrder() {
+        AtomicInteger sentMessageCounter = new AtomicInteger();
+        List<Ping> pings = new ArrayList<>();
+        List<CompletableFuture<AuthorizationToken>> futures = new ArrayList<>();
+        for (int nonce = 0; nonce < 20; nonce++) {
+            Ping ping = new Ping(nonce);
+            SerializedEnvelopePayloadMessage serializedEnvelopePayloadMessage = new SerializedEnvelopePayloadMessage(ping);
+            pings.add(ping);
+            futures.add(outboundMintingStage.mint(() -> tokenService.createToken(serializedEnvelopePayloadMessage,
+                    networkLoad,
+                    PEER_ADDRESS,
+                    sentMessageCounter.incrementAndGet())));
+        }
+
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < pings.size(); i++) {
+            indices.add(i);
+        }
+        Collections.shuffle(indices);
+        for (int index : indices) {
+            AuthorizationToken token = futures.get(index).join();
+            assertThat(tokenService.isAuthorized(pings.get(index), token, networkLoad, Optional.empty(), "connectionId", PEER_ADDRESS)).isTrue();
+            // Reuse of the same message counter is not allowed
+            assertThat(tokenService.isAuthorized(pings.get(index), token, networkLoad, Optional.empty(), "connectionId", PEER_ADDRESS)).isFalse();
+        }
+    }
+
+    @Test
+    void tokenMintedAheadIsBoundToItsMessage() {
+        Ping ping = new Ping(1);
+        Ping otherPing = new Ping(2);
+        AuthorizationToken token = outboundMintingStage.mint(() -> tokenService.createToken(new SerializedEnvelopePayloadMessage(ping),
+                networkLoad,
+                PEER_ADDRESS,
+                1)).join();
+
+        assertThat(tokenService.isAuthorized(otherPing, token, networkLoad, Optional.empty(), "connectionId", PEER_ADDRESS)).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayWindowTest {
+    @Test
+    public void rejectsReusedCounters() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertTrue(replayWindow.tryAdd(1));
+        assertFalse(replayWindow.tryAdd(1));
+        assertTrue(replayWindow.tryAdd(2));
+        assertTrue(replayWindow.tryAdd(5));
+
+        // Out of order inside the window
+        assertTrue(replayWindow.tryAdd(4));
+        assertTrue(replayWindow.tryAdd(3));
+        assertFalse(replayWindow.tryAdd(3));
+        assertFalse(replayWindow.tryAdd(5));
+    }
+
+    @Test
+    public void rejectsCountersBelowWindow() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertTrue(replayWindow.tryAdd(1));
+        assertTrue(replayWindow.tryAdd(2));
+        assertTrue(replayWindow.tryAdd(5));
+        int highest = 4 + ReplayWindow.WINDOW_SIZE;
+        assertTrue(replayWindow.tryAdd(highest));
+
+        // Outside the window, even if never received
+        assertFalse(replayWindow.tryAdd(3));
+        assertFalse(replayWindow.tryAdd(4));
+        // Inside the window and received
+        assertFalse(replayWindow.tryAdd(5));
+        // The bits of the skipped counters which share the bit of counters 1 and 2 got cleared when sliding the window
+        assertTrue(replayWindow.tryAdd(1 + ReplayWindow.WINDOW_SIZE));
+        assertTrue(replayWindow.tryAdd(2 + ReplayWindow.WINDOW_SIZE));
+        assertFalse(replayWindow.tryAdd(2 + ReplayWindow.WINDOW_SIZE));
+
+        // Slide by more than the window size
+        highest += 10 * ReplayWindow.WINDOW_SIZE;
+        assertTrue(replayWindow.tryAdd(highest));
+        assertTrue(replayWindow.tryAdd(highest - 1));
+        assertFalse(replayWindow.tryAdd(highest - ReplayWindow.WINDOW_SIZE));
+    }
+}
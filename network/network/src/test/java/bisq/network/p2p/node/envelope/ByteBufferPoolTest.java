@@ -0,0 +1,68 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ByteBufferPoolTest {
+    @Test
+    public void testReuseBySizeClass() {
+        ByteBufferPool pool = new ByteBufferPool(64 * 1024, 1024 * 1024);
+        ByteBuffer byteBuffer = pool.acquire(5000);
+        assertThat(byteBuffer.isDirect()).isTrue();
+        assertThat(byteBuffer.capacity()).isEqualTo(8 * 1024);
+        pool.release(byteBuffer);
+        assertThat(pool.getRetainedBytes()).isEqualTo(8 * 1024);
+
+        // Same size class gets the released buffer, cleared
+        ByteBuffer reused = pool.acquire(8 * 1024);
+        assertThat(reused).isSameAs(byteBuffer);
+        assertThat(reused.position()).isZero();
+        assertThat(reused.limit()).isEqualTo(8 * 1024);
+        assertThat(pool.getNumReused()).isEqualTo(1);
+        assertThat(pool.getRetainedBytes()).isZero();
+
+        // Other size class allocates a new buffer
+        assertThat(pool.acquire(1000).capacity()).isEqualTo(4 * 1024);
+        assertThat(pool.getNumAllocated()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLargeBuffersAreNotPooled() {
+        ByteBufferPool pool = new ByteBufferPool(64 * 1024, 1024 * 1024);
+        ByteBuffer byteBuffer = pool.acquire(100 * 1024);
+        assertThat(byteBuffer.isDirect()).isFalse();
+        assertThat(byteBuffer.capacity()).isEqualTo(100 * 1024);
+        pool.release(byteBuffer);
+        assertThat(pool.getRetainedBytes()).isZero();
+    }
+
+    @Test
+    public void testMaxRetainedBytes() {
+        ByteBufferPool pool = new ByteBufferPool(64 * 1024, 64 * 1024);
+        ByteBuffer first = pool.acquire(64 * 1024);
+        ByteBuffer second = pool.acquire(64 * 1024);
+        pool.release(first);
+        pool.release(second);
+        assertThat(pool.getRetainedBytes()).isEqualTo(64 * 1024);
+    }
+}
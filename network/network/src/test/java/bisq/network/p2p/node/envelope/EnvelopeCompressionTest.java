@@ -0,0 +1,60 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.envelope;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EnvelopeCompressionTest {
+    @Test
+    public void testCompressAndDecompress() throws IOException {
+        ByteString data = ByteString.copyFromUtf8("Offer text and profile statement ".repeat(1000));
+        Optional<ByteString> compressed = EnvelopeCompression.compress(data);
+        assertThat(compressed).isPresent();
+        assertThat(compressed.get().size()).isLessThan(data.size() / 10);
+        assertThat(EnvelopeCompression.decompress(compressed.get())).isEqualTo(data);
+
+        // Below MIN_SIZE_TO_COMPRESS
+        assertThat(EnvelopeCompression.compress(ByteString.copyFromUtf8("small"))).isEmpty();
+
+        // Random data does not get smaller
+        byte[] random = new byte[2 * EnvelopeCompression.MIN_SIZE_TO_COMPRESS];
+        new Random(1).nextBytes(random);
+        assertThat(EnvelopeCompression.compress(ByteString.copyFrom(random))).isEmpty();
+    }
+
+    @Test
+    public void testRejectInvalidData() {
+        ByteString tooLarge = ByteString.copyFrom(new byte[EnvelopeCompression.MAX_DECOMPRESSED_SIZE + 1]);
+        ByteString compressed = EnvelopeCompression.compress(tooLarge).orElseThrow();
+        assertThatThrownBy(() -> EnvelopeCompression.decompress(compressed)).isInstanceOf(IOException.class);
+
+        ByteString data = ByteString.copyFromUtf8("Offer text and profile statement ".repeat(1000));
+        ByteString truncated = EnvelopeCompression.compress(data).orElseThrow().substring(0, 100);
+        assertThatThrownBy(() -> EnvelopeCompression.decompress(truncated)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> EnvelopeCompression.decompress(ByteString.copyFromUtf8("not compressed")))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node.envelope;
+
+import bisq.common.network.PeerSocket;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.token.hash_cash_v2.HashCashV2Token;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.pow.ProofOfWork;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkEnvelopeSocketTest {
+    @Test
+    public void largeEnvelopeGetsStreamed() throws IOException {
+        RecordingPeerSocket peerSocket = new RecordingPeerSocket();
+        NetworkEnvelopeSocket networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
+        NetworkEnvelope networkEnvelope = createNetworkEnvelope(1, 1_000_000);
+
+        int numBytes = networkEnvelopeSocket.send(networkEnvelope);
+
+        assertThat(numBytes).isEqualTo(peerSocket.outputStream.size());
+        assertThat(numBytes).isGreaterThan(1_000_000);
+        // Not copied into one buffer of the envelope size. Large byte fields are written without a copy.
+        assertThat(peerSocket.maxWriteSize).isLessThan(numBytes);
+        assertThat(peerSocket.parseEnvelopes()).containsExactly(networkEnvelope.completeProto());
+    }
+
+    @Test
+    public void smallBatchGetsWrittenAtOnce() throws IOException {
+        RecordingPeerSocket peerSocket = new RecordingPeerSocket();
+        NetworkEnvelopeSocket networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
+        List<NetworkEnvelope> networkEnvelopes = List.of(createNetworkEnvelope(1, 20), createNetworkEnvelope(2, 20), createNetworkEnvelope(3, 20));
+
+        int numBytes = networkEnvelopeSocket.send(networkEnvelopes);
+
+        assertThat(numBytes).isEqualTo(peerSocket.outputStream.size());
+        assertThat(peerSocket.numWrites).isEqualTo(1);
+        assertThat(peerSocket.parseEnvelopes()).containsExactlyElementsOf(networkEnvelopes.stream().map(NetworkEnvelope::completeProto).toList());
+    }
+
+    @Test
+    public void largeBatchGetsStreamed() throws IOException {
+        RecordingPeerSocket peerSocket = new RecordingPeerSocket();
+        NetworkEnvelopeSocket networkEnvelopeSocket = new NetworkEnvelopeSocket(peerSocket);
+        List<NetworkEnvelope> networkEnvelopes = List.of(createNetworkEnvelope(1, 20), createNetworkEnvelope(2, 200_000), createNetworkEnvelope(3, 20));
+
+        int numBytes = networkEnvelopeSocket.send(networkEnvelopes);
+
+        assertThat(numBytes).isEqualTo(peerSocket.outputStream.size());
+        assertThat(peerSocket.maxWriteSize).isLessThan(200_000);
+        assertThat(peerSocket.parseEnvelopes()).containsExactlyElementsOf(networkEnvelopes.stream().map(NetworkEnvelope::completeProto).toList());
+    }
+
+    private static NetworkEnvelope createNetworkEnvelope(int nonce, int payloadSize) {
+        // The token is never verified here, so we only use its payload to get the envelope size we want
+        ProofOfWork proofOfWork = new ProofOfWork(new byte[payloadSize], 0, null, 0, new byte[72], 0);
+        return new NetworkEnvelope(new HashCashV2Token(proofOfWork, nonce), new Ping(nonce));
+    }
+
+    private static class RecordingPeerSocket implements PeerSocket {
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        private int numWrites;
+        private int maxWriteSize;
+
+        @Override
+        public InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    numWrites++;
+                    maxWriteSize = Math.max(maxWriteSize, length);
+                    outputStream.write(bytes, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private List<bisq.network.protobuf.NetworkEnvelope> parseEnvelopes() throws IOException {
+            InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+            List<bisq.network.protobuf.NetworkEnvelope> result = new ArrayList<>();
+            bisq.network.protobuf.NetworkEnvelope networkEnvelope;
+            while ((networkEnvelope = bisq.network.protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream)) != null) {
+                result.add(networkEnvelope);
+            }
+            return result;
+        }
+    }
+}
@@ -28,8 +28,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Covers the aggregation over the per-minute buckets. All events of a test land in the same bucket, as the bucket
- * key is the age of the ConnectionMetrics in minutes, so the selection across several buckets in sumOfLastMinute
- * is not covered here. That would require the creation time to be injectable.
+ * is the age of the ConnectionMetrics in minutes. The selection across several buckets is covered by
+ * PerMinuteRingBufferTest.
  */
 public class ConnectionMetricsTest {
     private static final String PING_CLASS_NAME = ClassUtils.getClassName(Ping.class);
@@ -115,6 +115,30 @@ public class ConnectionMetricsTest {
         assertThat(connectionMetrics.getAverageRtt()).isEqualTo(15d);
     }
 
+    @Test
+    public void testNetworkTrafficMetrics() {
+        NetworkTrafficMetrics networkTrafficMetrics = new NetworkTrafficMetrics();
+        ConnectionMetrics connectionMetrics1 = new ConnectionMetrics(networkTrafficMetrics);
+        ConnectionMetrics connectionMetrics2 = new ConnectionMetrics(networkTrafficMetrics);
+        NetworkEnvelope networkEnvelope = createNetworkEnvelope();
+        long serializedSize = networkEnvelope.getSerializedSize();
+
+        connectionMetrics1.onSent(networkEnvelope, 10);
+        connectionMetrics2.onSent(networkEnvelope, 20);
+        connectionMetrics2.onReceived(networkEnvelope, 5);
+        // Traffic of a cleared (closed) connection stays in the aggregate
+        connectionMetrics1.clear();
+
+        assertThat(networkTrafficMetrics.getNumMessagesSentOfLastMinutes(5)).isEqualTo(2);
+        assertThat(networkTrafficMetrics.getSentBytesOfLastMinutes(5)).isEqualTo(2 * serializedSize);
+        assertThat(networkTrafficMetrics.getSpentSendMessageTimeOfLastMinutes(5)).isEqualTo(30);
+        assertThat(networkTrafficMetrics.getNumMessagesReceivedOfLastMinutes(5)).isEqualTo(1);
+        assertThat(networkTrafficMetrics.getReceivedBytesOfLastMinutes(5)).isEqualTo(serializedSize);
+        assertThat(networkTrafficMetrics.getDeserializeTimeOfLastMinutes(5)).isEqualTo(5);
+        assertThat(networkTrafficMetrics.getNumSentMessagesByClassName().get(PING_CLASS_NAME).get()).isEqualTo(2);
+        assertThat(networkTrafficMetrics.getNumReceivedMessagesByClassName().get(PING_CLASS_NAME).get()).isEqualTo(1);
+    }
+
     @Test
     public void testClear() {
         ConnectionMetrics connectionMetrics = new ConnectionMetrics();
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PerMinuteRingBufferTest {
+    @Test
+    public void testSumOfLastMinutes() {
+        PerMinuteRingBuffer ringBuffer = new PerMinuteRingBuffer();
+        ringBuffer.add(0, 1);
+        ringBuffer.add(3, 10);
+        ringBuffer.add(3, 10);
+        ringBuffer.add(7, 100);
+
+        assertThat(ringBuffer.sumOfLastMinutes(7, 1)).isEqualTo(100);
+        assertThat(ringBuffer.sumOfLastMinutes(7, 5)).isEqualTo(120);
+        assertThat(ringBuffer.sumOfLastMinutes(7, 60)).isEqualTo(121);
+        // Minutes without data count as part of the window
+        assertThat(ringBuffer.sumOfLastMinutes(12, 5)).isZero();
+        assertThat(ringBuffer.getTotal()).isEqualTo(121);
+
+        // Minute 60 reuses the slot of minute 0, minute 0 is outside the window of the last hour anyway
+        ringBuffer.add(60, 1000);
+        assertThat(ringBuffer.sumOfLastMinutes(60, 60)).isEqualTo(1120);
+        assertThat(ringBuffer.sumOfLastMinutes(70, 60)).isEqualTo(1000);
+        assertThat(ringBuffer.sumOfLastMinutes(200, 60)).isZero();
+        assertThat(ringBuffer.getTotal()).isEqualTo(1121);
+
+        ringBuffer.clear();
+        assertThat(ringBuffer.sumOfLastMinutes(60, 60)).isZero();
+        assertThat(ringBuffer.getTotal()).isZero();
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        PerMinuteRingBuffer ringBuffer = new PerMinuteRingBuffer();
+        int numThreads = 4;
+        int numAdds = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        for (int thread = 0; thread < numThreads; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < numAdds; i++) {
+                    // Switches the minute while other threads still add to the previous one
+                    ringBuffer.add(i / 1000, 1);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        int lastMinute = (numAdds - 1) / 1000;
+        assertThat(ringBuffer.getTotal()).isEqualTo((long) numThreads * numAdds);
+        assertThat(ringBuffer.sumOfLastMinutes(lastMinute, 60)).isEqualTo(60L * 1000 * numThreads);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.verification;
+
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.threading.SerialExecutor;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VerificationSequencerTest {
+    private InboundVerificationStage inboundVerificationStage;
+    private ExecutorService dispatchDelegate;
+    private SerialExecutor dispatchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        inboundVerificationStage = new InboundVerificationStage(4);
+        dispatchDelegate = ExecutorFactory.newFixedThreadPool("VerificationSequencerTest", 2);
+        dispatchExecutor = new SerialExecutor(dispatchDelegate, "VerificationSequencerTest", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inboundVerificationStage.shutdown();
+        ExecutorFactory.shutdownAndAwaitTermination(dispatchDelegate);
+    }
+
+    @Test
+    void resultsAreDispatchedInSubmissionOrder() throws InterruptedException {
+        VerificationSequencer sequencer = new VerificationSequencer(inboundVerificationStage, dispatchExecutor, e -> {
+        });
+        int numMessages = 200;
+        List<Integer> dispatched = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(numMessages);
+        for (int i = 0; i < numMessages; i++) {
+            int value = i;
+            sequencer.submit(AuthorizationTokenType.HASH_CASH_V2,
+                    () -> {
+                        // Random verification time, so that verifications complete out of order
+                        sleep(ThreadLocalRandom.current().nextInt(3));
+                        return value % 10 != 0;
+                    },
+                    (isAuthorized, exception) -> {
+                        assertEquals(value % 10 != 0, isAuthorized);
+                        dispatched.add(value);
+                        latch.countDown();
+                    });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, numMessages).boxed().collect(Collectors.toList()), dispatched);
+
+        VerificationMetrics metrics = inboundVerificationStage.getVerificationMetricsByAuthorizationTokenType()
+                .get(AuthorizationTokenType.HASH_CASH_V2);
+        assertEquals(numMessages, metrics.getNumVerifications());
+        assertEquals(numMessages / 10, metrics.getNumFailedVerifications());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    @Test
+    void exceptionAtVerificationIsPassedToResultHandler() throws InterruptedException {
+        VerificationSequencer sequencer = new VerificationSequencer(inboundVerificationStage, dispatchExecutor, e -> {
+        });
+        List<Exception> exceptions = new CopyOnWriteArrayList<>();
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        sequencer.submit(AuthorizationTokenType.EQUI_HASH,
+                () -> {
+                    throw new IllegalStateException("test");
+                },
+                (isAuthorized, exception) -> {
+                    results.add(isAuthorized);
+                    exceptions.add(exception);
+                    latch.countDown();
+                });
+        sequencer.submit(AuthorizationTokenType.EQUI_HASH,
+                () -> true,
+                (isAuthorized, exception) -> {
+                    results.add(isAuthorized);
+                    latch.countDown();
+                });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertFalse(results.get(0));
+        assertTrue(results.get(1));
+        assertEquals(1, exceptions.size());
+        assertInstanceOf(IllegalStateException.class, exceptions.get(0));
+    }
+
+    @Test
+    void verificationRunsOnCallingThreadIfStageIsSaturated() throws InterruptedException {
+        // One thread and a queue for one task, so the third verification exceeds the capacity
+        InboundVerificationStage saturatedStage = new InboundVerificationStage(1, 1);
+        try {
+            List<Exception> errors = new CopyOnWriteArrayList<>();
+            VerificationSequencer sequencer = new VerificationSequencer(saturatedStage, dispatchExecutor, errors::add);
+            int numMessages = 5;
+            CountDownLatch blockingLatch = new CountDownLatch(1);
+            CountDownLatch dispatchedLatch = new CountDownLatch(numMessages);
+            List<Integer> dispatched = new CopyOnWriteArrayList<>();
+            List<Thread> verificationThreads = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < numMessages; i++) {
+                int value = i;
+                sequencer.submit(AuthorizationTokenType.HASH_CASH_V2,
+                        () -> {
+                            if (value == 0) {
+                                awaitUninterruptibly(blockingLatch);
+                            } else {
+                                verificationThreads.add(Thread.currentThread());
+                            }
+                            return true;
+                        },
+                        (isAuthorized, exception) -> {
+                            assertTrue(isAuthorized);
+                            dispatched.add(value);
+                            dispatchedLatch.countDown();
+                        });
+            }
+            // The messages exceeding the capacity got verified by the caller while the pool was blocked
+            assertEquals(List.of(Thread.currentThread(), Thread.currentThread(), Thread.currentThread()), verificationThreads);
+            assertTrue(dispatched.isEmpty());
+
+            blockingLatch.countDown();
+            assertTrue(dispatchedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(IntStream.range(0, numMessages).boxed().collect(Collectors.toList()), dispatched);
+            assertTrue(errors.isEmpty());
+        } finally {
+            saturatedStage.shutdown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.security.SignatureUtil;
+import bisq.security.keys.KeyGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VerifiedSignatureCacheTest {
+    @Test
+    void validSignatureIsVerifiedOnce() throws Exception {
+        VerifiedSignatureCache cache = new VerifiedSignatureCache(10);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = SignatureUtil.sign(message, keyPair.getPrivate());
+
+        assertThat(cache.verify(message, signature, keyPair.getPublic())).isTrue();
+        assertThat(cache.verify(message, signature, keyPair.getPublic())).isTrue();
+        assertThat(cache.getNumMisses()).isEqualTo(1);
+        assertThat(cache.getNumHits()).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidSignatureIsNotCached() throws Exception {
+        VerifiedSignatureCache cache = new VerifiedSignatureCache(10);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = SignatureUtil.sign(message, keyPair.getPrivate());
+        assertThat(cache.verify(message, signature, keyPair.getPublic())).isTrue();
+
+        byte[] otherMessage = "other message".getBytes(StandardCharsets.UTF_8);
+        assertThat(cache.verify(otherMessage, signature, keyPair.getPublic())).isFalse();
+        assertThat(cache.verify(otherMessage, signature, keyPair.getPublic())).isFalse();
+
+        KeyPair otherKeyPair = KeyGeneration.generateDefaultEcKeyPair();
+        assertThat(cache.verify(message, signature, otherKeyPair.getPublic())).isFalse();
+        assertThat(cache.getNumHits()).isZero();
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+}
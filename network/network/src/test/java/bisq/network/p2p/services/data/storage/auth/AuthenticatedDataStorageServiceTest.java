@@ -0,0 +1,428 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.proto.ProtoResolver;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.DataStorePersistenceMode;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.DistributedDataResolver;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
+import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceService;
+import bisq.persistence.WriteAheadLog;
+import bisq.security.DigestUtil;
+import bisq.security.SignatureUtil;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedDataStorageServiceTest {
+    private static final int NUM_THREADS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentAddsOfSameRequestAreStoredOnce() throws Exception {
+        AuthenticatedDataStorageService service = createService(tempDir);
+        AddAuthenticatedDataRequest request = createAddRequest("data", 1, KeyGeneration.generateDefaultEcKeyPair());
+
+        List<DataStorageResult> results = runConcurrently(NUM_THREADS * 4, i -> service.add(request));
+
+        assertThat(results).filteredOn(DataStorageResult::isSuccess).hasSize(1);
+        assertThat(results).filteredOn(result -> !result.isSuccess())
+                .allMatch(DataStorageResult::isRequestAlreadyReceived);
+        assertThat(service.getPersistableStore().getMap()).hasSize(1);
+    }
+
+    @Test
+    void concurrentAddsWithIncreasingSequenceNumbersKeepHighest() throws Exception {
+        AuthenticatedDataStorageService service = createService(tempDir);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        int numRequests = NUM_THREADS * 4;
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 1; i <= numRequests; i++) {
+            requests.add(createAddRequest("data", i, keyPair));
+        }
+
+        List<DataStorageResult> results = runConcurrently(numRequests, i -> service.add(requests.get(i)));
+
+        assertThat(results).filteredOn(result -> !result.isSuccess())
+                .allMatch(DataStorageResult::isSequenceNrInvalid);
+        byte[] hash = DigestUtil.hash(requests.get(0).getAuthenticatedSequentialData().getAuthenticatedData().serializeForHash());
+        assertThat(service.getSequenceNumber(hash)).isEqualTo(numRequests);
+    }
+
+    @Test
+    void concurrentAddsOfDifferentDataAreAllStored() throws Exception {
+        AuthenticatedDataStorageService service = createService(tempDir);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        int numRequests = NUM_THREADS * 16;
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            requests.add(createAddRequest("data" + i, 1, keyPair));
+        }
+
+        List<DataStorageResult> results = runConcurrently(numRequests, i -> service.add(requests.get(i)));
+
+        assertThat(results).allMatch(DataStorageResult::isSuccess);
+        assertThat(service.getPersistableStore().getMap()).hasSize(numRequests);
+    }
+
+    @Test
+    void resultsMatchOrderOfChecks() throws Exception {
+        AuthenticatedDataStorageService service = createService(tempDir);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        AddAuthenticatedDataRequest request = createAddRequest("data", 1, keyPair);
+        assertThat(service.add(request).isSuccess()).isTrue();
+
+        // A lower sequence number with an invalid signature is reported as sequenceNrInvalid, as that check
+        // comes first, even if the signature gets verified outside the lock.
+        AddAuthenticatedDataRequest invalidSignature = withInvalidSignature(createAddRequest("data", 0, keyPair));
+        assertThat(service.add(invalidSignature).isSequenceNrInvalid()).isTrue();
+
+        AddAuthenticatedDataRequest higherSeqInvalidSignature = withInvalidSignature(createAddRequest("data", 2, keyPair));
+        assertThat(service.add(higherSeqInvalidSignature).isSignatureInvalid()).isTrue();
+        byte[] hash = DigestUtil.hash(request.getAuthenticatedSequentialData().getAuthenticatedData().serializeForHash());
+        assertThat(service.getSequenceNumber(hash)).isEqualTo(1);
+    }
+
+    @Test
+    void addOrRemoveAppliesBatchAndNotifiesListenerOnce() throws Exception {
+        AuthenticatedDataStorageService service = createService(tempDir);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        AddAuthenticatedDataRequest existing = createAddRequest("existing", 1, keyPair);
+        assertThat(service.add(existing).isSuccess()).isTrue();
+
+        List<AddAuthenticatedDataRequest> addRequests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            addRequests.add(createAddRequest("data" + i, 1, keyPair));
+        }
+        List<AuthenticatedDataRequest> batch = new ArrayList<>(addRequests);
+        batch.add(existing);
+        batch.add(withInvalidSignature(createAddRequest("invalid", 1, keyPair)));
+
+        List<List<AuthenticatedData>> batchAdded = new CopyOnWriteArrayList<>();
+        List<AuthenticatedData> singleAdded = new CopyOnWriteArrayList<>();
+        service.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                singleAdded.add(authenticatedData);
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+            }
+
+            @Override
+            public void onBatchAdded(List<AuthenticatedData> authenticatedDataList) {
+                batchAdded.add(authenticatedDataList);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            List<DataStorageResult> results = service.addOrRemove(batch, executor);
+
+            assertThat(results).hasSize(batch.size());
+            assertThat(results.subList(0, addRequests.size())).allMatch(DataStorageResult::isSuccess);
+            assertThat(results.get(addRequests.size()).isRequestAlreadyReceived()).isTrue();
+            assertThat(results.get(addRequests.size() + 1).isSignatureInvalid()).isTrue();
+            assertThat(service.getPersistableStore().getMap()).hasSize(addRequests.size() + 1);
+            assertThat(singleAdded).isEmpty();
+            assertThat(batchAdded).hasSize(1);
+            assertThat(batchAdded.get(0)).hasSize(addRequests.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void writeAheadLogIsReplayedAtRestart() throws Exception {
+        DistributedDataResolver.addResolver("common.StringLongPair", TestDistributedData.getResolver());
+        AuthenticatedDataStorageService service = createService(tempDir, DataStorePersistenceMode.WRITE_AHEAD_LOG);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        int numRequests = 50;
+        for (int i = 0; i < numRequests; i++) {
+            assertThat(service.add(createAddRequest("data" + i, 1, keyPair)).isSuccess()).isTrue();
+        }
+        assertThat(service.add(createAddRequest("data0", 2, keyPair)).isSuccess()).isTrue();
+        service.shutdown();
+
+        // Below the compaction threshold only the log got written
+        Path storePath = service.getPersistence().getStorePath();
+        assertThat(storePath).doesNotExist();
+        assertThat(WriteAheadLog.exists(storePath)).isTrue();
+
+        AuthenticatedDataStorageService restarted = createService(tempDir, DataStorePersistenceMode.WRITE_AHEAD_LOG);
+        restarted.readPersisted();
+        assertThat(restarted.getPersistableStore().getMap().keySet())
+                .isEqualTo(service.getPersistableStore().getMap().keySet());
+        byte[] hash = DigestUtil.hash(new DefaultAuthenticatedData(new TestDistributedData("data0")).serializeForHash());
+        assertThat(restarted.getSequenceNumber(hash)).isEqualTo(2);
+        restarted.shutdown();
+    }
+
+    @Test
+    void migratesBetweenSingleStoreFileAndShards() throws Exception {
+        DistributedDataResolver.addResolver("common.StringLongPair", TestDistributedData.getResolver());
+        AuthenticatedDataStorageService service = createService(tempDir, DataStorePersistenceMode.SNAPSHOT);
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        for (int i = 0; i < 50; i++) {
+            assertThat(service.add(createAddRequest("data" + i, 1, keyPair)).isSuccess()).isTrue();
+        }
+        service.getPersistence().persistAsync(service.getPersistableStore().getClone()).join();
+        service.shutdown();
+        Path storePath = service.getPersistence().getStorePath();
+        assertThat(storePath).exists();
+
+        AuthenticatedDataStorageService sharded = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        sharded.readPersisted();
+        awaitUntil(() -> !Files.exists(storePath));
+        assertThat(getShardFiles(storePath)).hasSize(DataStorageService.NUM_SHARDS);
+        assertThat(sharded.add(createAddRequest("data50", 1, keyPair)).isSuccess()).isTrue();
+        sharded.shutdown();
+
+        AuthenticatedDataStorageService restarted = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        restarted.readPersisted();
+        assertThat(restarted.getPersistableStore().getMap()).hasSize(51);
+        restarted.shutdown();
+
+        AuthenticatedDataStorageService single = createService(tempDir, DataStorePersistenceMode.SNAPSHOT);
+        single.readPersisted();
+        assertThat(single.getPersistableStore().getMap().keySet())
+                .isEqualTo(restarted.getPersistableStore().getMap().keySet());
+        awaitUntil(() -> getShardFiles(storePath).isEmpty());
+        assertThat(storePath).exists();
+        single.shutdown();
+    }
+
+    @Test
+    void migrationToShardsInterruptedBeforeDeletingStoreFileUsesShards() throws Exception {
+        DistributedDataResolver.addResolver("common.StringLongPair", TestDistributedData.getResolver());
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        Path storePath = persistInSingleStoreFile(50, keyPair);
+        byte[] storeFile = Files.readAllBytes(storePath);
+
+        AuthenticatedDataStorageService sharded = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        sharded.readPersisted();
+        awaitUntil(() -> !Files.exists(storePath));
+        assertThat(sharded.add(createAddRequest("data50", 1, keyPair)).isSuccess()).isTrue();
+        sharded.shutdown();
+
+        // As if the process got killed after writing the shards but before deleting the single store file, or the
+        // deletion failed and the process went on with the shards
+        Files.write(storePath, storeFile);
+
+        AuthenticatedDataStorageService restarted = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        restarted.readPersisted();
+        assertThat(restarted.getPersistableStore().getMap()).hasSize(51);
+        awaitUntil(() -> !Files.exists(storePath));
+        assertThat(getShardFiles(storePath)).hasSize(DataStorageService.NUM_SHARDS);
+        restarted.shutdown();
+    }
+
+    @Test
+    void migrationToShardsInterruptedWhileWritingShardsUsesStoreFile() throws Exception {
+        DistributedDataResolver.addResolver("common.StringLongPair", TestDistributedData.getResolver());
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        Path storePath = persistInSingleStoreFile(50, keyPair);
+        byte[] storeFile = Files.readAllBytes(storePath);
+
+        AuthenticatedDataStorageService sharded = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        sharded.readPersisted();
+        awaitUntil(() -> !Files.exists(storePath));
+        sharded.shutdown();
+
+        // As if the process got killed after writing only some of the shards
+        Files.write(storePath, storeFile);
+        List<Path> shardFiles = getShardFiles(storePath);
+        for (Path shardFile : shardFiles.subList(0, shardFiles.size() / 2)) {
+            Files.delete(shardFile);
+        }
+
+        AuthenticatedDataStorageService restarted = createService(tempDir, DataStorePersistenceMode.SHARDED);
+        restarted.readPersisted();
+        assertThat(restarted.getPersistableStore().getMap().keySet())
+                .isEqualTo(sharded.getPersistableStore().getMap().keySet());
+        awaitUntil(() -> !Files.exists(storePath));
+        assertThat(getShardFiles(storePath)).hasSize(DataStorageService.NUM_SHARDS);
+        restarted.shutdown();
+
+        AuthenticatedDataStorageService single = createService(tempDir, DataStorePersistenceMode.SNAPSHOT);
+        single.readPersisted();
+        assertThat(single.getPersistableStore().getMap()).hasSize(50);
+        awaitUntil(() -> getShardFiles(storePath).isEmpty());
+        single.shutdown();
+    }
+
+    static AuthenticatedDataStorageService createService(Path appDataDirPath) {
+        return createService(appDataDirPath, DataStorePersistenceMode.SNAPSHOT);
+    }
+
+    static AuthenticatedDataStorageService createService(Path appDataDirPath, DataStorePersistenceMode persistenceMode) {
+        return new AuthenticatedDataStorageService(new PersistenceService(appDataDirPath),
+                new PruneExpiredEntriesService(),
+                "AuthenticatedDataStore",
+                TestDistributedData.class.getSimpleName(),
+                persistenceMode);
+    }
+
+    static AddAuthenticatedDataRequest createAddRequest(String text, int sequenceNumber, KeyPair keyPair)
+            throws GeneralSecurityException {
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestDistributedData(text));
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                sequenceNumber,
+                pubKeyHash,
+                System.currentTimeMillis());
+        byte[] signature = SignatureUtil.sign(data.serializeForHash(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    static <T> List<T> runConcurrently(int numTasks, IndexedTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < numTasks; i++) {
+                int index = i;
+                Callable<T> callable = () -> {
+                    startLatch.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(callable));
+            }
+            startLatch.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path persistInSingleStoreFile(int numEntries, KeyPair keyPair) throws GeneralSecurityException {
+        AuthenticatedDataStorageService service = createService(tempDir, DataStorePersistenceMode.SNAPSHOT);
+        for (int i = 0; i < numEntries; i++) {
+            assertThat(service.add(createAddRequest("data" + i, 1, keyPair)).isSuccess()).isTrue();
+        }
+        assertThat(service.getPersistence().persistAsync(service.getPersistableStore().getClone()).join()).isTrue();
+        service.shutdown();
+        return service.getPersistence().getStorePath();
+    }
+
+    private static List<Path> getShardFiles(Path storePath) {
+        String prefix = storePath.getFileName().toString().replace(Persistence.EXTENSION, "_shard");
+        try (Stream<Path> paths = Files.list(storePath.getParent())) {
+            return paths.filter(path -> path.getFileName().toString().startsWith(prefix)).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static AddAuthenticatedDataRequest withInvalidSignature(AddAuthenticatedDataRequest request) {
+        byte[] signature = request.getSignature().clone();
+        signature[signature.length - 1] ^= 1;
+        return new AddAuthenticatedDataRequest(request.getAuthenticatedSequentialData(),
+                signature,
+                request.getOwnerPublicKey());
+    }
+
+    interface IndexedTask<T> {
+        T run(int index) throws Exception;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    static final class TestDistributedData implements DistributedData {
+        private final String text;
+        @EqualsAndHashCode.Exclude
+        private final MetaData metaData = new MetaData(TestDistributedData.class.getSimpleName());
+
+        TestDistributedData(String text) {
+            this.text = text;
+        }
+
+        static ProtoResolver<DistributedData> getResolver() {
+            return any -> {
+                try {
+                    return new TestDistributedData(any.unpack(bisq.common.protobuf.StringLongPair.class).getKey());
+                } catch (InvalidProtocolBufferException e) {
+                    throw new UnresolvableProtobufMessageException(e);
+                }
+            };
+        }
+
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public bisq.common.protobuf.StringLongPair.Builder getBuilder(boolean serializeForHash) {
+            return bisq.common.protobuf.StringLongPair.newBuilder().setKey(text);
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0.1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.peer_group.exchange;
+
+import bisq.common.network.Address;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PeerExchangeBatchTest {
+    private final List<Address> candidates = IntStream.range(0, 10)
+            .mapToObj(i -> Address.from("127.0.0.1", 10000 + i))
+            .toList();
+
+    @Test
+    public void dialsAtMostMaxParallelRequestsInOrder() {
+        Map<Address, CompletableFuture<PeerExchangeResponse>> requests = new ConcurrentHashMap<>();
+        AtomicInteger numResults = new AtomicInteger();
+        PeerExchangeBatch batch = new PeerExchangeBatch(candidates, 3,
+                address -> requests.computeIfAbsent(address, key -> new CompletableFuture<>()),
+                (response, throwable) -> numResults.incrementAndGet(),
+                () -> false);
+        CompletableFuture<Void> future = batch.start();
+        assertThat(requests.keySet()).containsExactlyInAnyOrderElementsOf(candidates.subList(0, 3));
+
+        requests.get(candidates.get(1)).complete(null);
+        assertThat(requests).hasSize(4).containsKey(candidates.get(3));
+
+        requests.get(candidates.get(0)).completeExceptionally(new RuntimeException());
+        assertThat(requests).hasSize(5).containsKey(candidates.get(4));
+
+        for (int i = 2; i < candidates.size(); i++) {
+            requests.get(candidates.get(i)).complete(null);
+        }
+        assertThat(future).isCompleted();
+        assertThat(numResults.get()).isEqualTo(candidates.size());
+    }
+
+    @Test
+    public void cancelsRemainingRequestsWhenCompleted() {
+        Map<Address, CompletableFuture<PeerExchangeResponse>> requests = new ConcurrentHashMap<>();
+        AtomicInteger numResults = new AtomicInteger();
+        PeerExchangeBatch batch = new PeerExchangeBatch(candidates, 3,
+                address -> requests.computeIfAbsent(address, key -> new CompletableFuture<>()),
+                (response, throwable) -> numResults.incrementAndGet(),
+                () -> numResults.get() >= 2);
+        CompletableFuture<Void> future = batch.start();
+
+        requests.get(candidates.get(0)).complete(null);
+        assertThat(future).isNotDone();
+        requests.get(candidates.get(1)).complete(null);
+
+        assertThat(future).isCompleted();
+        // Candidate 2 was pending and got cancelled, candidate 3 was started after the first result
+        assertThat(requests.get(candidates.get(2))).isCancelled();
+        assertThat(requests.get(candidates.get(3))).isCancelled();
+        assertThat(requests).hasSize(4);
+        assertThat(numResults.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void raisesParallelRequestsToFitAllCandidatesIntoBatchTimeout() {
+        assertThat(PeerExchangeBatch.getNumParallelRequests(5, 10, 90, 30)).isEqualTo(5);
+        assertThat(PeerExchangeBatch.getNumParallelRequests(5, 15, 90, 30)).isEqualTo(5);
+        assertThat(PeerExchangeBatch.getNumParallelRequests(5, 16, 90, 30)).isEqualTo(6);
+        assertThat(PeerExchangeBatch.getNumParallelRequests(5, 30, 90, 30)).isEqualTo(10);
+        assertThat(PeerExchangeBatch.getNumParallelRequests(5, 30, 90, 120)).isEqualTo(30);
+    }
+}
@@ -46,6 +46,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -254,7 +255,10 @@ public class TorService implements Service {
         try {
             InetAddress bindAddress = !LinuxDistribution.isWhonix() ? Inet4Address.getLoopbackAddress()
                     : Inet4Address.getByName("0.0.0.0");
-            var localServerSocket = new ServerSocket(RANDOM_PORT, 50, bindAddress);
+            // We use a channel backed server socket so that accepted sockets can be switched to non-blocking mode
+            // and get multiplexed by a selector if the node runs in the SELECTOR connection IO mode.
+            ServerSocket localServerSocket = ServerSocketChannel.open().socket();
+            localServerSocket.bind(new InetSocketAddress(bindAddress, RANDOM_PORT), 50);
 
             String onionAddress = torKeyPair.getOnionAddress();
             log.info("Publish onion service for onion address {}:{}", onionAddress, port);
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.offer.bisq_easy;
+
+import bisq.account.payment_method.BitcoinPaymentMethod;
+import bisq.account.payment_method.BitcoinPaymentRail;
+import bisq.account.payment_method.fiat.FiatPaymentMethod;
+import bisq.account.payment_method.fiat.FiatPaymentRail;
+import bisq.common.annotation.ExcludeForHash;
+import bisq.common.market.Market;
+import bisq.common.network.Address;
+import bisq.common.network.AddressByTransportTypeMap;
+import bisq.common.proto.Proto;
+import bisq.network.identity.NetworkId;
+import bisq.offer.Direction;
+import bisq.offer.amount.spec.BaseSideFixedAmountSpec;
+import bisq.offer.price.spec.MarketPriceSpec;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compares serializeForHash of a BisqEasyOffer using the cached hash plans with the former approach which resolved
+ * the ExcludeForHash annotated fields by reflection at each call. Offers carry many nested protos (amount and price
+ * specs, payment methods), which use the current implementation in both cases, so the gain is smaller than for flat
+ * protos.
+ */
+@Slf4j
+public class BisqEasyOfferSerializeForHashBenchmark {
+    private static final int NUM_ITERATIONS = 20_000;
+
+    @Test
+    void compareSerializeForHash() {
+        BisqEasyOffer offer = createOffer();
+        assertArrayEquals(serializeForHashWithReflection(offer), offer.serializeForHash());
+
+        // Warmup
+        measure(offer, BisqEasyOfferSerializeForHashBenchmark::serializeForHashWithReflection);
+        measure(offer, BisqEasyOffer::serializeForHash);
+
+        long withReflection = measure(offer, BisqEasyOfferSerializeForHashBenchmark::serializeForHashWithReflection);
+        long withHashPlan = measure(offer, BisqEasyOffer::serializeForHash);
+        long serialize = measure(offer, BisqEasyOffer::serialize);
+        log.info("BisqEasyOffer: serializeForHash with reflection: {} ns/op; with hash plan: {} ns/op; serialize: {} ns/op",
+                withReflection, withHashPlan, serialize);
+    }
+
+    private static long measure(BisqEasyOffer offer, Function<BisqEasyOffer, byte[]> function) {
+        long sum = 0;
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+            sum += function.apply(offer).length;
+        }
+        long nanosPerOp = (System.nanoTime() - ts) / NUM_ITERATIONS;
+        if (sum == 0) {
+            throw new IllegalStateException("Unexpected empty result");
+        }
+        return nanosPerOp;
+    }
+
+    private static byte[] serializeForHashWithReflection(Proto proto) {
+        Message.Builder builder = proto.getBuilder(true);
+        Set<String> excludedFields = Arrays.stream(Proto.getAllDeclaredFields(proto.getClass()))
+                .peek(field -> field.setAccessible(true))
+                .filter(field -> field.isAnnotationPresent(ExcludeForHash.class))
+                .filter(field -> {
+                    int[] excludeOnlyInVersions = field.getAnnotation(ExcludeForHash.class).excludeOnlyInVersions();
+                    return excludeOnlyInVersions.length == 0 ||
+                            Arrays.stream(excludeOnlyInVersions).anyMatch(version -> version == proto.getVersion());
+                })
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        for (Descriptors.FieldDescriptor fieldDesc : builder.getAllFields().keySet()) {
+            if (excludedFields.contains(fieldDesc.getName())) {
+                builder.clearField(fieldDesc);
+            }
+        }
+        return builder.build().toByteArray();
+    }
+
+    private static BisqEasyOffer createOffer() {
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        Address address = Address.from("127.0.0.1", 1000);
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(Map.of(address.getTransportType(), address)),
+                new PubKey(keyPair.getPublic(), "keyId"));
+        return new BisqEasyOffer(networkId,
+                Direction.BUY,
+                new Market("BTC", "EUR", "Bitcoin", "Euro"),
+                new BaseSideFixedAmountSpec(100_000),
+                new MarketPriceSpec(),
+                List.of(BitcoinPaymentMethod.fromPaymentRail(BitcoinPaymentRail.MAIN_CHAIN)),
+                List.of(FiatPaymentMethod.fromPaymentRail(FiatPaymentRail.NATIONAL_BANK)),
+                "",
+                List.of("en"),
+                "1.0.0");
+    }
+}
@@ -61,7 +61,10 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
         return readStoreFromFileOrRestoreFromBackup();
     }
 
-    public synchronized void write(T persistableStore) {
+    /**
+     * @return True if the store has been written successfully.
+     */
+    public synchronized boolean write(T persistableStore) {
         storeFileManager.createParentDirectoriesIfNotExisting();
         try {
             writeStoreToTempFilePath(persistableStore);
@@ -70,11 +73,13 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
                 Files.deleteIfExists(storeFilePath);
             }
             storeFileManager.renameTempFileToCurrentFile();
+            return true;
         } catch (CouldNotSerializePersistableStore e) {
             log.error("Couldn't serialize {}", persistableStore, e);
         } catch (Exception e) {
             log.error("Couldn't write persistable store to disk.", e);
         }
+        return false;
     }
 
     public void pruneBackups() {
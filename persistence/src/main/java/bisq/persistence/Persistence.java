@@ -30,11 +30,21 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class Persistence<T extends PersistableStore<T>> {
     public static final String EXTENSION = ".protobuf";
     private static final ExecutorService EXECUTOR = ExecutorFactory.newSingleThreadExecutor("Persistence");
+    private static final AtomicInteger NUM_PENDING_WRITES = new AtomicInteger();
+
+    /**
+     * @return The number of writes submitted to the single persistence thread which have not completed yet.
+     */
+    public static int getNumPendingWrites() {
+        return NUM_PENDING_WRITES.get();
+    }
 
     @Getter
     private final Path storePath;
@@ -42,6 +52,13 @@ public class Persistence<T extends PersistableStore<T>> {
     private final String fileName;
 
     private final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
+    // Write latencies in nanoseconds, exported as metrics
+    @Getter
+    private final AtomicLong numWrites = new AtomicLong();
+    @Getter
+    private final AtomicLong accumulatedWriteTime = new AtomicLong();
+    @Getter
+    private final AtomicLong maxWriteTime = new AtomicLong();
 
     public Persistence(Path directoryPath, String fileName, MaxBackupSize maxBackupSize, RestoreService restoreService) {
         this.fileName = fileName;
@@ -60,12 +77,28 @@ public class Persistence<T extends PersistableStore<T>> {
         return persistableStoreReaderWriter.read();
     }
 
-    public CompletableFuture<Void> persistAsync(T serializable) {
-        return CompletableFuture.runAsync(() -> persist(serializable), EXECUTOR);
+    /**
+     * @return A future completing with true if the store has been written successfully.
+     */
+    public CompletableFuture<Boolean> persistAsync(T serializable) {
+        NUM_PENDING_WRITES.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> persist(serializable), EXECUTOR)
+                .whenComplete((result, throwable) -> NUM_PENDING_WRITES.decrementAndGet());
     }
 
-    protected void persist(T persistableStore) {
-        persistableStoreReaderWriter.write(persistableStore);
+    /**
+     * Writes the store on the calling thread.
+     *
+     * @return True if the store has been written successfully.
+     */
+    public boolean persist(T persistableStore) {
+        long ts = System.nanoTime();
+        boolean success = persistableStoreReaderWriter.write(persistableStore);
+        long writeTime = System.nanoTime() - ts;
+        numWrites.incrementAndGet();
+        accumulatedWriteTime.addAndGet(writeTime);
+        maxWriteTime.accumulateAndGet(writeTime, Math::max);
+        return success;
     }
 
     public CompletableFuture<Void> pruneBackups() {
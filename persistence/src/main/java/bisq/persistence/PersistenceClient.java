@@ -50,6 +50,6 @@ public interface PersistenceClient<T extends PersistableStore<T>> {
 
     default CompletableFuture<Boolean> persist() {
         return getPersistence().persistAsync(getPersistableStore().getClone())
-                .handle((nil, throwable) -> throwable == null);
+                .handle((success, throwable) -> throwable == null && !Boolean.FALSE.equals(success));
     }
 }
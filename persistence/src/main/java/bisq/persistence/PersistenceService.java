@@ -44,6 +44,7 @@ public class PersistenceService {
     private final Path appDataDirPath;
     @Getter
     protected final List<PersistenceClient<? extends PersistableProto>> clients = new CopyOnWriteArrayList<>();
+    @Getter
     protected final List<Persistence<? extends PersistableProto>> persistenceInstances = new CopyOnWriteArrayList<>();
     @Getter
     private final RestoreService restoreService = new RestoreService();
@@ -100,8 +101,20 @@ public class PersistenceService {
                                                                                  String fileName,
                                                                                  PersistableStore<T> persistableStore,
                                                                                  MaxBackupSize maxBackupSize) {
-        PersistableStoreResolver.addResolver(persistableStore.getResolver());
+        Persistence<T> persistence = createPersistence(subDirPath, fileName, persistableStore, maxBackupSize);
         clients.add(client);
+        return persistence;
+    }
+
+    /**
+     * Creates a Persistence which is not read and persisted by the PersistenceService, e.g. for a client which
+     * persists its store in several files.
+     */
+    public <T extends PersistableStore<T>> Persistence<T> createPersistence(Path subDirPath,
+                                                                           String fileName,
+                                                                           PersistableStore<T> persistableStore,
+                                                                           MaxBackupSize maxBackupSize) {
+        PersistableStoreResolver.addResolver(persistableStore.getResolver());
         Path normalizedPath = subDirPath.normalize();
         if (normalizedPath.isAbsolute()) {
             throw new IllegalArgumentException("subDir must be relative to appDataDirPath");
@@ -60,11 +60,10 @@ public abstract class RateLimitedPersistenceClient<T extends PersistableStore<T>
             lastWrite = System.currentTimeMillis();
             writeInProgress = true;
             dropped = false;
-            return getPersistence()
-                    .persistAsync(getPersistableStore().getClone())
-                    .handle((nil, throwable) -> {
+            return write()
+                    .handle((success, throwable) -> {
                         writeInProgress = false;
-                        return throwable == null;
+                        return throwable == null && !Boolean.FALSE.equals(success);
                     });
         }
     }
@@ -73,10 +72,18 @@ public abstract class RateLimitedPersistenceClient<T extends PersistableStore<T>
         return 1000;
     }
 
+    /**
+     * Writes the whole store. Clients which persist their store in parts can override it for writing only the
+     * changed parts.
+     */
+    protected CompletableFuture<Boolean> write() {
+        return getPersistence().persistAsync(getPersistableStore().getClone());
+    }
+
     private void persistOnShutdown() {
         if (dropped) {
             dropped = false;
-            getPersistence().persist(getPersistableStore().getClone());
+            write().join();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.persistence;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of length-delimited protobuf records, used for persisting the mutations of a store without
+ * rewriting the whole store file at each change.
+ * <p>
+ * The log is split into generations with one file each (e.g. `user_profile_store.3.log` next to
+ * `user_profile_store.protobuf`). The owner of the log writes a snapshot of its store containing all records up to
+ * some generation together with the number of the next generation. Log files of older generations are obsolete from
+ * then on and get deleted. As the generation is part of the snapshot, a crash between writing the snapshot and deleting
+ * the old log files does not lead to replaying outdated records.
+ * <p>
+ * A torn record at the end of a log file (e.g. after a crash while appending) is discarded at read.
+ * Not thread safe. The owner has to ensure that the methods are not called concurrently.
+ */
+@Slf4j
+public class WriteAheadLog<M extends Message> {
+    public static final String EXTENSION = ".log";
+
+    /**
+     * @return True if there is any log file for the given store path.
+     */
+    public static boolean exists(Path storePath) {
+        return !findLogFiles(storePath).isEmpty();
+    }
+
+    private final Path storePath;
+    private final Parser<M> parser;
+    private final TreeMap<Long, Long> numRecordsByGeneration = new TreeMap<>();
+    @Getter
+    private long numRecords;
+
+    public WriteAheadLog(Path storePath, Parser<M> parser) {
+        this.storePath = storePath;
+        this.parser = parser;
+    }
+
+    /**
+     * Reads the records of all log files with a generation not older than the given one, in the order they got
+     * appended. Log files of older generations are deleted.
+     */
+    public List<M> read(long fromGeneration) {
+        deleteOlderThan(fromGeneration);
+        List<M> records = new ArrayList<>();
+        numRecordsByGeneration.clear();
+        findLogFiles(storePath).forEach((generation, path) -> {
+            int numRecordsBefore = records.size();
+            readLogFile(path, records);
+            numRecordsByGeneration.put(generation, (long) (records.size() - numRecordsBefore));
+        });
+        updateNumRecords();
+        return records;
+    }
+
+    /**
+     * Appends the records to the log file of the given generation. The records are forced to the storage device
+     * before we return, so a caller reporting them as persisted does not lose them at a power loss. Callers should
+     * batch their records, as each call costs one fsync.
+     */
+    public void append(long generation, List<M> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        Path path = getLogFilePath(generation);
+        Files.createDirectories(path.getParent());
+        try (FileChannel fileChannel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(fileChannel));
+            for (M record : records) {
+                record.writeDelimitedTo(outputStream);
+            }
+            outputStream.flush();
+            fileChannel.force(false);
+        }
+        numRecordsByGeneration.merge(generation, (long) records.size(), Long::sum);
+        updateNumRecords();
+    }
+
+    /**
+     * Deletes the log files of all generations older than the given one.
+     */
+    public void deleteOlderThan(long generation) {
+        findLogFiles(storePath).headMap(generation).forEach((olderGeneration, path) -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.error("Could not delete log file {}", path, e);
+            }
+        });
+        numRecordsByGeneration.headMap(generation).clear();
+        updateNumRecords();
+    }
+
+    public long getSizeInBytes() {
+        return findLogFiles(storePath).values().stream()
+                .mapToLong(path -> {
+                    try {
+                        return Files.size(path);
+                    } catch (IOException e) {
+                        return 0;
+                    }
+                })
+                .sum();
+    }
+
+    Path getLogFilePath(long generation) {
+        return storePath.resolveSibling(getBaseName(storePath) + "." + generation + EXTENSION);
+    }
+
+    private void readLogFile(Path path, List<M> records) {
+        int validLength = 0;
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            CodedInputStream codedInputStream = CodedInputStream.newInstance(bytes);
+            try {
+                while (!codedInputStream.isAtEnd()) {
+                    int length = codedInputStream.readRawVarint32();
+                    byte[] recordBytes = codedInputStream.readRawBytes(length);
+                    records.add(parser.parseFrom(recordBytes));
+                    validLength = codedInputStream.getTotalBytesRead();
+                }
+            } catch (InvalidProtocolBufferException e) {
+                log.warn("Log file {} has an invalid or incomplete record at position {}. " +
+                        "We discard the remaining {} bytes.", path, validLength, bytes.length - validLength, e);
+                truncate(path, validLength);
+            }
+        } catch (IOException e) {
+            log.error("Could not read log file {}", path, e);
+        }
+    }
+
+    private void truncate(Path path, long size) {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            fileChannel.truncate(size);
+        } catch (IOException e) {
+            log.error("Could not truncate log file {}", path, e);
+        }
+    }
+
+    private void updateNumRecords() {
+        numRecords = numRecordsByGeneration.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static TreeMap<Long, Path> findLogFiles(Path storePath) {
+        TreeMap<Long, Path> logFiles = new TreeMap<>();
+        Path directoryPath = storePath.getParent();
+        if (directoryPath == null || !Files.isDirectory(directoryPath)) {
+            return logFiles;
+        }
+        String prefix = getBaseName(storePath) + ".";
+        try (Stream<Path> paths = Files.list(directoryPath)) {
+            paths.forEach(path -> {
+                String fileName = path.getFileName().toString();
+                if (fileName.startsWith(prefix) && fileName.endsWith(EXTENSION)) {
+                    parseGeneration(fileName.substring(prefix.length(), fileName.length() - EXTENSION.length()))
+                            .ifPresent(generation -> logFiles.put(generation, path));
+                }
+            });
+        } catch (IOException e) {
+            log.error("Could not list log files in {}", directoryPath, e);
+        }
+        return logFiles;
+    }
+
+    private static Optional<Long> parseGeneration(String value) {
+        try {
+            return Optional.of(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String getBaseName(Path storePath) {
+        String fileName = storePath.getFileName().toString();
+        return fileName.endsWith(Persistence.EXTENSION) ?
+                fileName.substring(0, fileName.length() - Persistence.EXTENSION.length()) :
+                fileName;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.persistence;
+
+import bisq.common.protobuf.StringLongPair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteAheadLogTests {
+
+    @Test
+    void appendAndReadInOrderOfGenerations(@TempDir Path tempDirPath) throws IOException {
+        Path storePath = tempDirPath.resolve("timestamp_store" + Persistence.EXTENSION);
+        var writeAheadLog = new WriteAheadLog<>(storePath, StringLongPair.parser());
+        assertThat(WriteAheadLog.exists(storePath)).isFalse();
+
+        writeAheadLog.append(0, List.of(pair("A", 1), pair("B", 2)));
+        writeAheadLog.append(1, List.of(pair("C", 3)));
+        writeAheadLog.append(0, List.of(pair("D", 4)));
+        assertThat(WriteAheadLog.exists(storePath)).isTrue();
+        assertThat(writeAheadLog.getNumRecords()).isEqualTo(4);
+
+        var readLog = new WriteAheadLog<>(storePath, StringLongPair.parser());
+        assertThat(readLog.read(0)).containsExactly(pair("A", 1), pair("B", 2), pair("D", 4), pair("C", 3));
+        assertThat(readLog.getNumRecords()).isEqualTo(4);
+
+        // Generations older than the one of the snapshot are deleted at read
+        assertThat(readLog.read(1)).containsExactly(pair("C", 3));
+        assertThat(Files.exists(readLog.getLogFilePath(0))).isFalse();
+
+        readLog.deleteOlderThan(2);
+        assertThat(readLog.getNumRecords()).isZero();
+        assertThat(WriteAheadLog.exists(storePath)).isFalse();
+    }
+
+    @Test
+    void discardIncompleteRecordAtEnd(@TempDir Path tempDirPath) throws IOException {
+        Path storePath = tempDirPath.resolve("timestamp_store" + Persistence.EXTENSION);
+        var writeAheadLog = new WriteAheadLog<>(storePath, StringLongPair.parser());
+        writeAheadLog.append(0, List.of(pair("A", 1), pair("B", 2)));
+        Path logFilePath = writeAheadLog.getLogFilePath(0);
+        long validSize = Files.size(logFilePath);
+
+        // Simulate a crash while appending: the length prefix got written but only a part of the record
+        byte[] record = pair("C", 3).toByteArray();
+        byte[] torn = new byte[1 + record.length / 2];
+        torn[0] = (byte) record.length;
+        System.arraycopy(record, 0, torn, 1, torn.length - 1);
+        Files.write(logFilePath, torn, StandardOpenOption.APPEND);
+
+        assertThat(writeAheadLog.read(0)).containsExactly(pair("A", 1), pair("B", 2));
+        assertThat(Files.size(logFilePath)).isEqualTo(validSize);
+
+        // Records appended afterwards are readable
+        writeAheadLog.append(0, List.of(pair("D", 4)));
+        assertThat(writeAheadLog.read(0)).containsExactly(pair("A", 1), pair("B", 2), pair("D", 4));
+    }
+
+    private static StringLongPair pair(String key, long value) {
+        return StringLongPair.newBuilder().setKey(key).setValue(value).build();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.equihash;
+
+import bisq.security.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the time for finding and verifying Equihash-90-5 solutions at the scaled difficulties used by
+ * EquihashProofOfWorkService for typical network difficulties. Verification should stay in the microsecond range,
+ * as it is done for each received message.
+ */
+@Slf4j
+public class EquihashBenchmark {
+    private static final int NUM_SOLUTIONS = 10;
+    private static final int NUM_VERIFICATIONS = 1000;
+    // Same as EquihashProofOfWorkService.DIFFICULTY_SCALE_FACTOR
+    private static final double DIFFICULTY_SCALE_FACTOR = 3.0e-5;
+
+    @Test
+    void measureFindSolutionAndVerify() {
+        for (double difficulty : new double[]{Math.scalb(1.0, 15), Math.scalb(1.0, 17)}) {
+            Equihash equihash = new Equihash(90, 5, Equihash.adjustDifficulty(DIFFICULTY_SCALE_FACTOR * difficulty));
+
+            // Warmup
+            measureFindSolution(equihash);
+
+            double findSolutionMillis = measureFindSolution(equihash);
+            double verifyMicros = measureVerify(equihash);
+            log.info("Difficulty {}: findSolution takes {} ms; verify takes {} µs",
+                    difficulty, Math.round(findSolutionMillis), Math.round(verifyMicros));
+        }
+    }
+
+    private static double measureFindSolution(Equihash equihash) {
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_SOLUTIONS; i++) {
+            equihash.puzzle(createSeed()).findSolution();
+        }
+        return (System.nanoTime() - ts) / 1e6 / NUM_SOLUTIONS;
+    }
+
+    private static double measureVerify(Equihash equihash) {
+        Equihash.Puzzle.Solution solution = equihash.puzzle(createSeed()).findSolution();
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_VERIFICATIONS; i++) {
+            assertTrue(solution.verify());
+        }
+        return (System.nanoTime() - ts) / 1e3 / NUM_VERIFICATIONS;
+    }
+
+    private static byte[] createSeed() {
+        return DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
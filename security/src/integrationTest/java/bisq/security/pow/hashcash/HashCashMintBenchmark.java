@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.hashcash;
+
+import bisq.security.DigestUtil;
+import com.google.common.primitives.Longs;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static bisq.security.pow.hashcash.HashCashProofOfWorkService.numberOfLeadingZeros;
+import static bisq.security.pow.hashcash.HashCashProofOfWorkService.toNumLeadingZeros;
+import static bisq.security.pow.hashcash.HashCashProofOfWorkService.toSha256Hash;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the hash rate of minting with the reused SHA-256 midstate with the former approach which created a new
+ * MessageDigest and concatenated the pre-image at each iteration. Both approaches must find the same counter for the
+ * same challenge, otherwise the midstate would produce tokens other peers reject.
+ */
+@Slf4j
+public class HashCashMintBenchmark {
+    private static final int NUM_TOKENS = 200;
+    private static final double DIFFICULTY = Math.scalb(1.0, 10);
+
+    @Test
+    void compareHashRate() {
+        byte[] payload = new byte[72];
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        BiFunction<byte[], byte[], Long> withMidstate = (p, c) -> service.mint(p, c, DIFFICULTY).getCounter();
+        BiFunction<byte[], byte[], Long> withNewDigest = HashCashMintBenchmark::mintWithNewDigest;
+
+        byte[] challenge = createChallenge();
+        assertEquals(mintWithNewDigest(payload, challenge), withMidstate.apply(payload, challenge));
+
+        // Warmup
+        measure(payload, withNewDigest);
+        measure(payload, withMidstate);
+
+        double newDigestHashRate = measure(payload, withNewDigest);
+        double midstateHashRate = measure(payload, withMidstate);
+        log.info("Minting with new digest per iteration: {} hashes/sec; with reused midstate: {} hashes/sec",
+                Math.round(newDigestHashRate), Math.round(midstateHashRate));
+    }
+
+    private static double measure(byte[] payload, BiFunction<byte[], byte[], Long> mint) {
+        long numHashes = 0;
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_TOKENS; i++) {
+            numHashes += mint.apply(payload, createChallenge());
+        }
+        return numHashes * 1e9 / (System.nanoTime() - ts);
+    }
+
+    private static long mintWithNewDigest(byte[] payload, byte[] challenge) {
+        int log2Difficulty = toNumLeadingZeros(DIFFICULTY);
+        long counter = 1;
+        while (numberOfLeadingZeros(toSha256Hash(payload, challenge, Longs.toByteArray(counter))) <= log2Difficulty) {
+            counter++;
+        }
+        return counter;
+    }
+
+    private static byte[] createChallenge() {
+        return DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -52,6 +52,13 @@ public class DigestUtil {
         return digest.digest();
     }
 
+    /**
+     * @return A new SHA-256 MessageDigest, e.g. for absorbing a common prefix once and cloning the state afterwards.
+     */
+    public static MessageDigest newSha256Digest() {
+        return newMessageDigest("SHA-256");
+    }
+
     public static byte[] sha512(byte[] input) {
         return newMessageDigest("SHA-512").digest(input);
     }
@@ -46,13 +46,17 @@ public class SecurityService implements Service {
     @Getter
     public static class Config {
         private final com.typesafe.config.Config keyBundle;
+        // Number of threads used for minting HashCash proof of work. 0 means all available cores.
+        private final int hashCashMintingParallelism;
 
-        public Config(com.typesafe.config.Config keyBundle) {
+        public Config(com.typesafe.config.Config keyBundle, int hashCashMintingParallelism) {
             this.keyBundle = keyBundle;
+            this.hashCashMintingParallelism = hashCashMintingParallelism;
         }
 
         public static SecurityService.Config from(com.typesafe.config.Config config) {
-            return new SecurityService.Config(config.getConfig("keyBundle"));
+            return new SecurityService.Config(config.getConfig("keyBundle"),
+                    config.getInt("hashCashMintingParallelism"));
         }
     }
 
@@ -65,7 +69,10 @@ public class SecurityService implements Service {
 
     public SecurityService(PersistenceService persistenceService, Config config) {
         keyBundleService = new KeyBundleService(persistenceService, KeyBundleService.Config.from(config.getKeyBundle()));
-        hashCashProofOfWorkService = new HashCashProofOfWorkService();
+        int hashCashMintingParallelism = config.getHashCashMintingParallelism() > 0 ?
+                config.getHashCashMintingParallelism() :
+                Runtime.getRuntime().availableProcessors();
+        hashCashProofOfWorkService = new HashCashProofOfWorkService(hashCashMintingParallelism);
         equihashProofOfWorkService = new EquihashProofOfWorkService();
     }
 
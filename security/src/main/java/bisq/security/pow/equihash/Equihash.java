@@ -17,23 +17,21 @@
 
 package bisq.security.pow.equihash;
 
-import bisq.common.platform.OS;
 import bisq.common.util.ByteArrayUtils;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.primitives.*;
 import lombok.ToString;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
 
+import javax.annotation.Nullable;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static bisq.common.facades.FacadeProvider.getGuavaFacade;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.math.BigInteger.ONE;
 
@@ -65,6 +63,10 @@ import static java.math.BigInteger.ONE;
  * bits each and <i>n</i> bits in total. This allows working with 32-bit integers
  * throughout, for efficiency.
  * <p>
+ * The tables are kept in flat int arrays. Each iteration of Wagner's Algorithm buckets the rows by the colliding
+ * block with a counting sort and builds the new table in parallel over chunks of rows. The rows are emitted in the
+ * same order as a sequential search would do, thus the solutions found do not depend on the number of cores.
+ * <p>
  * Author: <a href="https://github.com/stejbac">stejbac</a>
  */
 // Borrowed from: https://github.com/bisq-network/bisq
@@ -75,13 +77,10 @@ public class Equihash {
      * Mean solution count per nonce for Equihash puzzles with unit difficulty.
      */
     private static final double MEAN_SOLUTION_COUNT_PER_NONCE = 2.0;
-    private static final boolean IS_ANDROID = OS.isAndroid();
+    // Below that number of rows per chunk the overhead of the parallel collision search exceeds its benefit
+    private static final int MIN_ROWS_PER_CHUNK = 4096;
 
-    // Guava has different APIs for Java SE and Android.
-    // Thus, we use a facade with Android compatible APIs by default and let the Desktop app set the Java SE facade
-    // containing APIs only supported for Java SE compatible JDKs.
     private final int k, N;
-    private final int tableCapacity;
     private final int inputNum, inputBits;
     private final int[] hashUpperBound;
 
@@ -99,7 +98,6 @@ public class Equihash {
         inputNum = 1 << k;
         inputBits = n / (k + 1) + 1;
         N = 1 << inputBits;
-        tableCapacity = (int) (N * 1.1);
         hashUpperBound = hashUpperBound(difficulty);
     }
 
@@ -228,15 +226,17 @@ public class Equihash {
     }
 
     private class WithHashPrefix {
-        private final byte[] prefixBytes;
+        // Holds the state after absorbing the prefix. It is only read when copied, thus it is safe to share it
+        // between the threads computing the hashes.
+        private final Blake2bDigest prefixDigest;
 
         private WithHashPrefix(byte[] prefixBytes) {
-            this.prefixBytes = prefixBytes;
+            prefixDigest = new Blake2bDigest(HASH_BIT_LENGTH);
+            prefixDigest.update(prefixBytes, 0, prefixBytes.length);
         }
 
         private int[] hashInputs(int... inputs) {
-            var digest = new Blake2bDigest(HASH_BIT_LENGTH);
-            digest.update(prefixBytes, 0, prefixBytes.length);
+            var digest = new Blake2bDigest(prefixDigest);
             byte[] inputBytes = ByteArrayUtils.integersToBytesBE(inputs);
             digest.update(inputBytes, 0, inputBytes.length);
             byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
@@ -251,8 +251,8 @@ public class Equihash {
             }
             return IntStream.range(0, table.numRows)
                     .mapToObj(table::getRow)
-                    .filter(row -> getGuavaFacade().toIntStream(row).distinct().count() == inputNum)
-                    .map(row -> sortInputs(row.toArray()))
+                    .filter(Equihash::hasDistinctInputs)
+                    .map(Equihash::sortInputs)
                     .filter(this::testDifficultyCondition);
         }
 
@@ -261,13 +261,17 @@ public class Equihash {
         }
 
         private XorTable computeAllHashes() {
-            var tableValues = IntStream.range(0, N).flatMap(i -> {
+            int rowWidth = k + 2;
+            int[] values = new int[N * rowWidth];
+            IntStream.range(0, N).parallel().forEach(i -> {
                 int[] hash = hashInputs(i);
-                return IntStream.range(0, k + 2).map(j -> j <= k ? hash[j] & (N / 2 - 1) : i);
+                int rowOffset = i * rowWidth;
+                for (int j = 0; j <= k; j++) {
+                    values[rowOffset + j] = hash[j] & (N / 2 - 1);
+                }
+                values[rowOffset + k + 1] = i;
             });
-            IntStream parallelIntStream = getGuavaFacade().parallel(tableValues);
-            ImmutableIntArray immutableIntArray = getGuavaFacade().copyOf(parallelIntStream);
-            return new XorTable(k + 1, 1, immutableIntArray);
+            return new XorTable(k + 1, 1, values);
         }
 
         private boolean testDifficultyCondition(int[] inputs) {
@@ -276,11 +280,13 @@ public class Equihash {
         }
 
         boolean verify(int[] inputs) {
-            if (inputs.length != inputNum || Arrays.stream(inputs).distinct().count() < inputNum) {
+            if (inputs.length != inputNum || !hasDistinctInputs(inputs)) {
                 return false;
             }
-            if (Arrays.stream(inputs).anyMatch(i -> i < 0 || i >= N)) {
-                return false;
+            for (int input : inputs) {
+                if (input < 0 || input >= N) {
+                    return false;
+                }
             }
             if (!Arrays.equals(inputs, sortInputs(inputs))) {
                 return false;
@@ -306,96 +312,149 @@ public class Equihash {
 
     private static class XorTable {
         private final int hashWidth, indexTupleWidth, rowWidth, numRows;
-        private final ImmutableIntArray values;
+        private final int[] values;
 
-        XorTable(int hashWidth, int indexTupleWidth, ImmutableIntArray values) {
+        XorTable(int hashWidth, int indexTupleWidth, int[] values) {
             this.hashWidth = hashWidth;
             this.indexTupleWidth = indexTupleWidth;
             this.values = values;
             rowWidth = hashWidth + indexTupleWidth;
-            numRows = (values.length() + rowWidth - 1) / rowWidth;
+            numRows = values.length / rowWidth;
         }
 
-        ImmutableIntArray getRow(int index) {
-            return values.subArray(index * rowWidth, index * rowWidth + hashWidth + indexTupleWidth);
+        int[] getRow(int index) {
+            return Arrays.copyOfRange(values, index * rowWidth, (index + 1) * rowWidth);
         }
     }
 
-    private static class IntListMultimap {
-        final int[] shortLists;
-        final ListMultimap<Integer, Integer> overspillMultimap;
+    // Apply a single iteration of Wagner's Algorithm.
+    // The rows get bucketed by their first hash block with a counting sort. The rows colliding with a given row and
+    // preceding it are then the ones preceding it in its bucket. The size of the new table is counted in a first pass,
+    // so that each chunk of rows writes its results at a precomputed offset into a flat array in a second pass.
+    private XorTable findCollisions(XorTable table, boolean isPartial) {
+        int numRows = table.numRows;
+        int rowWidth = table.rowWidth;
+        int[] values = table.values;
+
+        int numBuckets = N / 2;
+        int[] bucketStarts = new int[numBuckets + 1];
+        int[] ranks = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            ranks[i] = bucketStarts[values[i * rowWidth] + 1]++;
+        }
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            bucketStarts[bucket + 1] += bucketStarts[bucket];
+        }
+        int[] sortedRows = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            sortedRows[bucketStarts[values[i * rowWidth]] + ranks[i]] = i;
+        }
 
-        IntListMultimap(int keyUpperBound) {
-            shortLists = new int[keyUpperBound * 4];
-            overspillMultimap = MultimapBuilder.hashKeys().arrayListValues().build();
+        int newHashWidth = isPartial ? table.hashWidth - 1 : 0;
+        int newIndexTupleWidth = table.indexTupleWidth * 2;
+        var collisionSearch = new CollisionSearch(table, isPartial, newHashWidth + newIndexTupleWidth,
+                bucketStarts, ranks, sortedRows);
+
+        int numChunks = Math.max(1, Math.min(numRows / MIN_ROWS_PER_CHUNK, 4 * ForkJoinPool.getCommonPoolParallelism()));
+        int chunkSize = (numRows + numChunks - 1) / numChunks;
+        long[] chunkOffsets = new long[numChunks + 1];
+        IntStream.range(0, numChunks).parallel().forEach(chunk ->
+                chunkOffsets[chunk + 1] = collisionSearch.run(chunk * chunkSize,
+                        Math.min(numRows, (chunk + 1) * chunkSize), null, 0));
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+            chunkOffsets[chunk + 1] += chunkOffsets[chunk];
         }
 
-        PrimitiveIterator.OfInt get(int key) {
-            return new PrimitiveIterator.OfInt() {
-                int i;
-                Iterator<Integer> overspillIterator;
+        int numNewRows = Math.toIntExact(chunkOffsets[numChunks]);
+        int[] newValues = new int[Math.multiplyExact(numNewRows, newHashWidth + newIndexTupleWidth)];
+        IntStream.range(0, numChunks).parallel().forEach(chunk ->
+                collisionSearch.run(chunk * chunkSize, Math.min(numRows, (chunk + 1) * chunkSize),
+                        newValues, (int) chunkOffsets[chunk]));
+        return new XorTable(newHashWidth, newIndexTupleWidth, newValues);
+    }
 
-                private Iterator<Integer> overspillIterator() {
-                    if (overspillIterator == null) {
-                        overspillIterator = overspillMultimap.get(key).iterator();
-                    }
-                    return overspillIterator;
-                }
+    private static class CollisionSearch {
+        private final int[] values, bucketStarts, ranks, sortedRows;
+        private final int hashWidth, indexTupleWidth, rowWidth, newRowWidth;
+        private final boolean isPartial;
+
+        CollisionSearch(XorTable table,
+                        boolean isPartial,
+                        int newRowWidth,
+                        int[] bucketStarts,
+                        int[] ranks,
+                        int[] sortedRows) {
+            values = table.values;
+            hashWidth = table.hashWidth;
+            indexTupleWidth = table.indexTupleWidth;
+            rowWidth = table.rowWidth;
+            this.isPartial = isPartial;
+            this.newRowWidth = newRowWidth;
+            this.bucketStarts = bucketStarts;
+            this.ranks = ranks;
+            this.sortedRows = sortedRows;
+        }
 
-                @Override
-                public int nextInt() {
-                    if (!hasNext()) {
-                        throw new NoSuchElementException();
+        /**
+         * @param newValues If null, we only count the new rows
+         * @return The number of new rows for the rows from fromRow (inclusive) to toRow (exclusive)
+         */
+        int run(int fromRow, int toRow, @Nullable int[] newValues, int newRowIndex) {
+            int numNewRows = 0;
+            if (newValues == null && isPartial) {
+                // Each row collides with all rows preceding it in its bucket
+                for (int i = fromRow; i < toRow; i++) {
+                    numNewRows += ranks[i];
+                }
+                return numNewRows;
+            }
+            for (int i = fromRow; i < toRow; i++) {
+                int rowOffset = i * rowWidth;
+                int bucketStart = bucketStarts[values[rowOffset]];
+                for (int p = bucketStart, end = bucketStart + ranks[i]; p < end; p++) {
+                    int collidingRowOffset = sortedRows[p] * rowWidth;
+                    if (!isPartial && !isFullCollision(collidingRowOffset, rowOffset)) {
+                        continue;
+                    }
+                    if (newValues != null) {
+                        write(collidingRowOffset, rowOffset, newValues, (newRowIndex + numNewRows) * newRowWidth);
                     }
-                    return i < 4 ? ~shortLists[key * 4 + i++] : overspillIterator().next();
+                    numNewRows++;
                 }
+            }
+            return numNewRows;
+        }
 
-                @Override
-                public boolean hasNext() {
-                    return i < 4 && shortLists[key * 4 + i] < 0 || i == 4 && overspillIterator().hasNext();
+        private boolean isFullCollision(int collidingRowOffset, int rowOffset) {
+            for (int j = 1; j < hashWidth; j++) {
+                if (values[collidingRowOffset + j] != values[rowOffset + j]) {
+                    return false;
                 }
-            };
+            }
+            return true;
         }
 
-        // assumes non-negative values only:
-        void put(int key, int value) {
-            for (int i = 0; i < 4; i++) {
-                if (shortLists[key * 4 + i] == 0) {
-                    shortLists[key * 4 + i] = ~value;
-                    return;
+        private void write(int collidingRowOffset, int rowOffset, int[] newValues, int newRowOffset) {
+            int pos = newRowOffset;
+            if (isPartial) {
+                for (int j = 1; j < hashWidth; j++) {
+                    newValues[pos++] = values[collidingRowOffset + j] ^ values[rowOffset + j];
                 }
             }
-            overspillMultimap.put(key, value);
+            System.arraycopy(values, collidingRowOffset + hashWidth, newValues, pos, indexTupleWidth);
+            System.arraycopy(values, rowOffset + hashWidth, newValues, pos + indexTupleWidth, indexTupleWidth);
         }
     }
 
-    // Apply a single iteration of Wagner's Algorithm.
-    private XorTable findCollisions(XorTable table, boolean isPartial) {
-        int newHashWidth = isPartial ? table.hashWidth - 1 : 0;
-        int newIndexTupleWidth = table.indexTupleWidth * 2;
-        int newRowWidth = newHashWidth + newIndexTupleWidth;
-        var newTableValues = ImmutableIntArray.builder(
-                newRowWidth * (isPartial ? tableCapacity : 10));
-
-        var indexMultimap = new IntListMultimap(N / 2);
-        for (int i = 0; i < table.numRows; i++) {
-            var row = table.getRow(i);
-            var collisionIndices = indexMultimap.get(row.get(0));
-            while (collisionIndices.hasNext()) {
-                var collidingRow = table.getRow(collisionIndices.nextInt());
-                if (isPartial) {
-                    for (int j = 1; j < table.hashWidth; j++) {
-                        newTableValues.add(collidingRow.get(j) ^ row.get(j));
-                    }
-                } else if (!collidingRow.subArray(1, table.hashWidth).equals(row.subArray(1, table.hashWidth))) {
-                    continue;
-                }
-                newTableValues.addAll(collidingRow.subArray(table.hashWidth, collidingRow.length()));
-                newTableValues.addAll(row.subArray(table.hashWidth, row.length()));
+    private static boolean hasDistinctInputs(int[] inputs) {
+        int[] sorted = inputs.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                return false;
             }
-            indexMultimap.put(row.get(0), i);
         }
-        return new XorTable(newHashWidth, newIndexTupleWidth, newTableValues.build());
+        return true;
     }
 
     private static int[] sortInputs(int[] inputs) {
@@ -17,6 +17,7 @@
 
 package bisq.security.pow.hashcash;
 
+import bisq.common.threading.ExecutorFactory;
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
 import bisq.security.pow.ProofOfWorkService;
@@ -24,7 +25,19 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Longs;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * HashCash implementation for proof of work
@@ -34,7 +47,27 @@ import java.nio.charset.StandardCharsets;
  */
 @Slf4j
 public class HashCashProofOfWorkService extends ProofOfWorkService {
+    // Below that difficulty (2^12) the overhead of distributing the work is larger as the gain
+    private static final double MIN_PARALLEL_DIFFICULTY = 4096;
+    private static final long SEARCHING = 0;
+    private static final long CANCELLED = -1;
+
+    private final int parallelism;
+    @Nullable
+    private final ForkJoinPool forkJoinPool;
+
     public HashCashProofOfWorkService() {
+        this(1);
+    }
+
+    /**
+     * @param parallelism Number of threads used for minting. With 1 we mint on the calling thread.
+     */
+    public HashCashProofOfWorkService(int parallelism) {
+        checkArgument(parallelism > 0, "parallelism must be > 0");
+        this.parallelism = parallelism;
+        forkJoinPool = parallelism > 1 ? ExecutorFactory.newForkJoinPool("HashCashProofOfWorkService", parallelism) : null;
+        log.info("Minting parallelism: {}", parallelism);
     }
 
     @Override
@@ -43,12 +76,9 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
                             double difficulty) {
         long ts = System.currentTimeMillis();
         int log2Difficulty = toNumLeadingZeros(difficulty);
-        byte[] hash;
-        long counter = 0;
-        do {
-            hash = toSha256Hash(payload, challenge, ++counter);
-        }
-        while (numberOfLeadingZeros(hash) <= log2Difficulty);
+        long counter = forkJoinPool != null && difficulty >= MIN_PARALLEL_DIFFICULTY ?
+                mintInParallel(forkJoinPool, payload, challenge, log2Difficulty) :
+                findSolution(payload, challenge, log2Difficulty, 1, 1, new AtomicLong(SEARCHING));
         byte[] solution = Longs.toByteArray(counter);
         return new ProofOfWork(payload, counter, challenge, difficulty, solution, System.currentTimeMillis() - ts);
     }
@@ -71,6 +101,76 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
     // Utils
     /* --------------------------------------------------------------------- */
 
+    /**
+     * Splits the counter space across the workers by using a different start value and the parallelism as step.
+     * The first worker finding a solution wins and the others stop searching. The result has the same format as
+     * the sequential search, so verification is not affected.
+     */
+    private long mintInParallel(ForkJoinPool forkJoinPool, byte[] payload, byte[] challenge, int log2Difficulty) {
+        AtomicLong result = new AtomicLong(SEARCHING);
+        List<Callable<Long>> tasks = IntStream.range(0, parallelism)
+                .mapToObj(i -> (Callable<Long>) () -> findSolution(payload, challenge, log2Difficulty, i + 1, parallelism, result))
+                .toList();
+        try {
+            List<Future<Long>> futures = forkJoinPool.invokeAll(tasks);
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            result.set(CANCELLED);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Minting got interrupted", e);
+        } catch (ExecutionException e) {
+            result.set(CANCELLED);
+            throw new RuntimeException("Minting failed", e.getCause());
+        }
+        long counter = result.get();
+        checkArgument(counter > 0, "No solution found");
+        return counter;
+    }
+
+    /**
+     * @return The counter of the solution, or 0 if another worker has found a solution or the search got cancelled.
+     */
+    private static long findSolution(byte[] payload,
+                                     byte[] challenge,
+                                     int log2Difficulty,
+                                     long startCounter,
+                                     int step,
+                                     AtomicLong result) {
+        // Payload and challenge are the same for all iterations, so we absorb them once and only clone the
+        // digest state per iteration. Counter bytes and hash are written into reused buffers.
+        // The pre-image is the same as at toSha256Hash: payload + challenge + counter as 8 bytes big-endian.
+        MessageDigest midstate = DigestUtil.newSha256Digest();
+        midstate.update(payload);
+        midstate.update(challenge);
+        byte[] counterBytes = new byte[Long.BYTES];
+        byte[] hash = new byte[midstate.getDigestLength()];
+        try {
+            for (long counter = startCounter; result.get() == SEARCHING; counter += step) {
+                MessageDigest digest = (MessageDigest) midstate.clone();
+                writeLong(counter, counterBytes);
+                digest.update(counterBytes);
+                digest.digest(hash, 0, hash.length);
+                if (numberOfLeadingZeros(hash) > log2Difficulty) {
+                    result.compareAndSet(SEARCHING, counter);
+                    return counter;
+                }
+            }
+        } catch (CloneNotSupportedException | DigestException e) {
+            throw new RuntimeException("Minting failed", e);
+        }
+        return 0;
+    }
+
+    // Same as Longs.toByteArray but without allocation
+    private static void writeLong(long value, byte[] bytes) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>= 8;
+        }
+    }
+
     private static byte[] getBytes(String value) {
         return value.getBytes(StandardCharsets.UTF_8);
     }
@@ -87,11 +187,8 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
         return numberOfLeadingZeros;
     }
 
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, long counter) {
-        return toSha256Hash(payload, challenge, Longs.toByteArray(counter));
-    }
-
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, byte[] solution) {
+    @VisibleForTesting
+    static byte[] toSha256Hash(byte[] payload, byte[] challenge, byte[] solution) {
         byte[] preImage = org.bouncycastle.util.Arrays.concatenate(payload,
                 challenge,
                 solution);
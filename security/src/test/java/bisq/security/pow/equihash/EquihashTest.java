@@ -0,0 +1,68 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.equihash;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EquihashTest {
+    // Solutions found by the former implementation based on ImmutableIntArray and a boxed multimap.
+    // The solver must find the same solutions and serialize them identically.
+    private static final String SOLUTION_UNIT_DIFFICULTY = "000000000000000002c6671e0efeea5834be8e4389da9b3610971a628b31bc7b15602a7f74808e540459b91688cda3370dc34057c221d41405d5d80525bfc9d892fcdca0ad4ab2ef";
+    private static final String SOLUTION_DIFFICULTY_4 = "00000000000000020e42cfa5715b9dbb1f51558944d7e3e439978e4ccd35cddf6e91a2ceb847da031aca8d7525626a5a54c5ed09d462f0df3c16a5cc9d0ad08b6b8e8919838089e7";
+
+    @Test
+    void findsSameSolutionsAsFormerImplementation() {
+        Equihash.Puzzle puzzle = new Equihash(90, 5, 1.0).puzzle(createSeed(1));
+        assertEquals(SOLUTION_UNIT_DIFFICULTY, HexFormat.of().formatHex(puzzle.findSolution().serialize()));
+        assertEquals(4, puzzle.countAllSolutionsForNonce(0));
+
+        puzzle = new Equihash(90, 5, Equihash.adjustDifficulty(4.0)).puzzle(createSeed(2));
+        assertEquals(SOLUTION_DIFFICULTY_4, HexFormat.of().formatHex(puzzle.findSolution().serialize()));
+    }
+
+    @Test
+    void verifySolution() {
+        Equihash.Puzzle puzzle = new Equihash(90, 5, 1.0).puzzle(createSeed(1));
+        byte[] serialized = puzzle.findSolution().serialize();
+        Equihash.Puzzle.Solution solution = puzzle.deserializeSolution(serialized);
+        assertTrue(solution.verify());
+        assertArrayEquals(serialized, solution.serialize());
+
+        // Flip a bit of the first input
+        byte[] tampered = serialized.clone();
+        tampered[8] ^= 0x01;
+        assertFalse(puzzle.deserializeSolution(tampered).verify());
+
+        // Solution for another seed
+        assertFalse(new Equihash(90, 5, 1.0).puzzle(createSeed(3)).deserializeSolution(serialized).verify());
+    }
+
+    private static byte[] createSeed(int value) {
+        byte[] seed = new byte[32];
+        seed[0] = (byte) value;
+        seed[31] = 7;
+        return seed;
+    }
+}
@@ -79,6 +79,20 @@ class HashCashProofOfWorkServiceTest {
 //        Minting 1000 tokens with > 8 leading zeros  took 0.318 ms per token and 526 iterations in average. Verification took 0.001 ms per token.
     }
 
+    @Test
+    public void testParallelMint() {
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService(4);
+        double difficulty = Math.scalb(1.0, 14);
+        byte[] payload = RandomStringUtils.random(50, true, true).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 10; i++) {
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, difficulty);
+            assertTrue(proofOfWork.getCounter() > 0);
+            // Verification does not depend on the parallelism used for minting
+            assertTrue(new HashCashProofOfWorkService().verify(proofOfWork));
+        }
+    }
+
     private void run(int log2Difficulty, StringBuilder stringBuilder) {
         double difficulty = Math.scalb(1.0, log2Difficulty);
         int numTokens = 1000;
@@ -0,0 +1,119 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.profile;
+
+import bisq.common.annotation.ExcludeForHash;
+import bisq.common.network.Address;
+import bisq.common.network.AddressByTransportTypeMap;
+import bisq.common.proto.Proto;
+import bisq.network.identity.NetworkId;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import bisq.security.pow.ProofOfWork;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compares serializeForHash of UserProfile using the cached hash plan with the former approach which resolved the
+ * ExcludeForHash annotated fields by reflection at each call. Both profile versions are covered, as they exclude
+ * different fields. Only the fields of UserProfile itself use the reflection path in the former approach, nested
+ * protos use the current implementation in both cases.
+ */
+@Slf4j
+public class UserProfileSerializeForHashBenchmark {
+    private static final int NUM_ITERATIONS = 20_000;
+
+    @Test
+    void compareSerializeForHash() {
+        // Version 0 and 1 exclude different fields
+        for (int version : new int[]{0, 1}) {
+            UserProfile userProfile = createUserProfile(version);
+            assertArrayEquals(serializeForHashWithReflection(userProfile), userProfile.serializeForHash());
+
+            // Warmup
+            measure(userProfile, UserProfileSerializeForHashBenchmark::serializeForHashWithReflection);
+            measure(userProfile, UserProfile::serializeForHash);
+
+            long withReflection = measure(userProfile, UserProfileSerializeForHashBenchmark::serializeForHashWithReflection);
+            long withHashPlan = measure(userProfile, UserProfile::serializeForHash);
+            long serialize = measure(userProfile, UserProfile::serialize);
+            log.info("UserProfile version {}: serializeForHash with reflection: {} ns/op; with hash plan: {} ns/op; " +
+                    "serialize: {} ns/op", version, withReflection, withHashPlan, serialize);
+        }
+    }
+
+    private static long measure(UserProfile userProfile, Function<UserProfile, byte[]> function) {
+        long sum = 0;
+        long ts = System.nanoTime();
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+            sum += function.apply(userProfile).length;
+        }
+        long nanosPerOp = (System.nanoTime() - ts) / NUM_ITERATIONS;
+        if (sum == 0) {
+            throw new IllegalStateException("Unexpected empty result");
+        }
+        return nanosPerOp;
+    }
+
+    private static byte[] serializeForHashWithReflection(Proto proto) {
+        Message.Builder builder = proto.getBuilder(true);
+        Set<String> excludedFields = Arrays.stream(Proto.getAllDeclaredFields(proto.getClass()))
+                .peek(field -> field.setAccessible(true))
+                .filter(field -> field.isAnnotationPresent(ExcludeForHash.class))
+                .filter(field -> {
+                    int[] excludeOnlyInVersions = field.getAnnotation(ExcludeForHash.class).excludeOnlyInVersions();
+                    return excludeOnlyInVersions.length == 0 ||
+                            Arrays.stream(excludeOnlyInVersions).anyMatch(version -> version == proto.getVersion());
+                })
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        for (Descriptors.FieldDescriptor fieldDesc : builder.getAllFields().keySet()) {
+            if (excludedFields.contains(fieldDesc.getName())) {
+                builder.clearField(fieldDesc);
+            }
+        }
+        return builder.build().toByteArray();
+    }
+
+    private static UserProfile createUserProfile(int version) {
+        KeyPair keyPair = KeyGeneration.generateDefaultEcKeyPair();
+        Address address = Address.from("127.0.0.1", 1000);
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(Map.of(address.getTransportType(), address)),
+                new PubKey(keyPair.getPublic(), "keyId"));
+        return new UserProfile(version,
+                "nickName",
+                new ProofOfWork(new byte[20], 0, null, 1, new byte[72], 0),
+                1,
+                networkId,
+                "terms",
+                "statement",
+                "2.1.7");
+    }
+}